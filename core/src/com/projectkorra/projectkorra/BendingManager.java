@@ -1,8 +1,6 @@
 package com.projectkorra.projectkorra;
 
 import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import com.projectkorra.projectkorra.airbending.util.AirbendingManager;
@@ -11,6 +9,7 @@ import com.projectkorra.projectkorra.earthbending.util.EarthbendingManager;
 import com.projectkorra.projectkorra.event.WorldTimeEvent;
 import com.projectkorra.projectkorra.firebending.util.FirebendingManager;
 import com.projectkorra.projectkorra.util.ChatUtil;
+import com.projectkorra.projectkorra.util.CooldownWheel;
 import com.projectkorra.projectkorra.util.TempBlock;
 import com.projectkorra.projectkorra.util.TempFallingBlock;
 import com.projectkorra.projectkorra.util.ThreadUtil;
@@ -79,16 +78,12 @@ public class BendingManager implements Runnable {
 	}
 
 	public void handleCooldowns() {
-		for (Map.Entry<UUID, BendingPlayer> entry : BendingPlayer.getPlayers().entrySet()) {
-			BendingPlayer bPlayer = entry.getValue();
-
-			ThreadUtil.ensureEntity(bPlayer.getPlayer(), bPlayer::removeOldCooldowns);
-		}
+		CooldownWheel.advance();
 	}
 
 	public void handleDayNight() {
 		for (final World world : Bukkit.getServer().getWorlds()) {
-			if (ConfigManager.defaultConfig.get().getStringList("Properties.DisabledWorlds").contains(world.getName())) {
+			if (BendingPlayer.isWorldDisabled(world)) {
 				continue;
 			}
 
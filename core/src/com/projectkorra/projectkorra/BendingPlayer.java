@@ -1,13 +1,12 @@
 package com.projectkorra.projectkorra;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -46,6 +45,7 @@ import org.bukkit.entity.Player;
 
 import com.projectkorra.projectkorra.Element.SubElement;
 import com.projectkorra.projectkorra.Element.MultiSubElement;
+import com.projectkorra.projectkorra.ability.Ability;
 import com.projectkorra.projectkorra.ability.AvatarAbility;
 import com.projectkorra.projectkorra.ability.ChiAbility;
 import com.projectkorra.projectkorra.ability.CoreAbility;
@@ -54,11 +54,11 @@ import com.projectkorra.projectkorra.avatar.AvatarState;
 import com.projectkorra.projectkorra.board.BendingBoardManager;
 import com.projectkorra.projectkorra.command.Commands;
 import com.projectkorra.projectkorra.configuration.ConfigManager;
-import com.projectkorra.projectkorra.earthbending.metal.MetalClips;
 import com.projectkorra.projectkorra.event.PlayerCooldownChangeEvent;
 import com.projectkorra.projectkorra.event.PlayerCooldownChangeEvent.Result;
 import com.projectkorra.projectkorra.util.Cooldown;
-import com.projectkorra.projectkorra.waterbending.blood.Bloodbending;
+import com.projectkorra.projectkorra.util.CooldownWheel;
+import com.projectkorra.projectkorra.util.StatusFlags;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
@@ -71,6 +71,9 @@ public class BendingPlayer extends OfflineBendingPlayer {
 	protected static Map<JavaPlugin, CanBendHook> BEND_HOOKS = new HashMap<>();
 	protected static Map<JavaPlugin, CanBindHook> BIND_HOOKS = new HashMap<>();
 	static Set<String> DISABLED_WORLDS = new HashSet<>();
+	private static long globalCooldown;
+	private static long permissionRefreshInterval;
+	private static int permissionEpoch;
 
 	private long slowTime;
 	private final Player player;
@@ -80,6 +83,10 @@ public class BendingPlayer extends OfflineBendingPlayer {
 	protected boolean illumination;
 	protected boolean chiBlocked;
 
+	private BitSet permittedAbilities = new BitSet();
+	private long permissionsRefreshed;
+	private int permissionsEpoch = -1;
+
 	public BendingPlayer(Player player) {
 		super(player);
 
@@ -141,8 +148,6 @@ public class BendingPlayer extends OfflineBendingPlayer {
 	}
 
 	private boolean canBend(@NotNull final CoreAbility ability, final boolean ignoreBinds, final boolean ignoreCooldowns) {
-
-		final List<String> disabledWorlds = getConfig().getStringList("Properties.DisabledWorlds");
 		final Location playerLoc = this.player.getLocation();
 
 		if (ProjectKorra.isFolia() && !Bukkit.isOwnedByCurrentRegion(this.getPlayer())) {
@@ -169,9 +174,9 @@ public class BendingPlayer extends OfflineBendingPlayer {
 			return false;
 		} else if (!ignoreCooldowns && this.isOnCooldown(ability.getName())) {
 			return false;
-		} else if (!ignoreBinds && (!ability.getName().equals(this.getBoundAbilityName()))) {
+		} else if (!ignoreBinds && (ability.getAbilityId() >= 0 ? ability.getAbilityId() != this.getBoundAbilityId() : !ability.getName().equals(this.getBoundAbilityName()))) {
 			return false;
-		} else if (disabledWorlds.contains(this.player.getWorld().getName())) {
+		} else if (isWorldDisabled(this.player.getWorld())) {
 			return false;
 		} else if (Commands.isToggledForAll || !this.isToggled() || !this.isElementToggled(ability.getElement())) {
 			return false;
@@ -179,12 +184,15 @@ public class BendingPlayer extends OfflineBendingPlayer {
 			return false;
 		}
 
-		if (!ignoreCooldowns && this.cooldowns.containsKey(ability.getName())) {
-			if (this.cooldowns.get(ability.getName()).getCooldown() + getConfig().getLong("Properties.GlobalCooldown") >= System.currentTimeMillis()) {
-				return false;
-			}
+		if (!ignoreCooldowns) {
+			final long expiry = this.cooldowns.getExpiry(ability);
+			if (expiry != 0) {
+				if (expiry + globalCooldown >= System.currentTimeMillis()) {
+					return false;
+				}
 
-			this.cooldowns.remove(ability.getName());
+				this.cooldowns.remove(ability.getName());
+			}
 		}
 
 		if (this.isChiBlocked() || this.isParalyzed() || (this.isBloodbent() && !ability.getName().equalsIgnoreCase("AvatarState")) || this.isControlledByMetalClips()) {
@@ -217,17 +225,15 @@ public class BendingPlayer extends OfflineBendingPlayer {
 			return false;
 		}
 
-		final List<String> disabledWorlds = getConfig().getStringList("Properties.DisabledWorlds");
-
 		if (element == null || this.player == null) {
 			return false;
 		} else if (!this.player.hasPermission("bending." + element.getName() + ".passive")) {
 			return false;
-		} else if (!this.player.hasPermission("bending.ability." + ability.getName())) {
+		} else if (!this.hasAbilityPermission(ability)) {
 			return false;
 		} else if (!this.hasElement(element)) {
 			return false;
-		} else if (disabledWorlds.contains(this.player.getWorld().getName())) {
+		} else if (isWorldDisabled(this.player.getWorld())) {
 			return false;
 		} else return this.player.getGameMode() != GameMode.SPECTATOR;
 	}
@@ -292,7 +298,7 @@ public class BendingPlayer extends OfflineBendingPlayer {
 
 		if (ability == null || !this.player.isOnline() || !ability.isEnabled()) {
 			return false;
-		} else if (!this.player.hasPermission("bending.ability." + ability.getName())) {
+		} else if (!this.hasAbilityPermission(ability)) {
 			return false;
 		} else if (!this.hasElement(ability.getElement()) && !(ability instanceof AvatarAbility && !((AvatarAbility) ability).requireAvatar())) {
 			return false;
@@ -359,6 +365,17 @@ public class BendingPlayer extends OfflineBendingPlayer {
 		}
 	}
 
+	/**
+	 * Gets an offline BendingPlayer instance for the provided player without waiting
+	 * for it. If the instance is not already cached, it starts loading in the
+	 * background and null is returned, so this is safe to call from any thread.
+	 * @param oPlayer The offline player
+	 * @return The OfflineBendingPlayer instance, or null if it is still loading
+	 */
+	public static OfflineBendingPlayer getOfflineIfLoaded(@NotNull final OfflinePlayer oPlayer) {
+		return getOrLoadOfflineAsync(oPlayer).getNow(null);
+	}
+
 	/**
 	 * Gets a BendingPlayer instance for the provided player
 	 * @param player The player
@@ -510,11 +527,35 @@ public class BendingPlayer extends OfflineBendingPlayer {
 	}
 
 	public boolean isBloodbent() {
-		return Bloodbending.isBloodbent(this.player);
+		return this.hasStatus(StatusFlags.BLOODBENT);
+	}
+
+	public boolean isBreathbent() {
+		return this.hasStatus(StatusFlags.BREATHBENT);
 	}
 
 	public boolean isControlledByMetalClips() {
-		return MetalClips.isControlled(this.player);
+		return this.hasStatus(StatusFlags.CLIPPED);
+	}
+
+	/**
+	 * @param flag The {@link StatusFlags} flag, or flags, to check for
+	 * @return true if the player has any of the flags
+	 */
+	public boolean hasStatus(final int flag) {
+		return StatusFlags.has(this.player, flag);
+	}
+
+	/**
+	 * Sets or clears {@link StatusFlags} of the player. Use
+	 * {@link StatusFlags#set(org.bukkit.entity.Entity, int, boolean)} to set
+	 * the flags of any entity.
+	 *
+	 * @param flag The flag, or flags, to change
+	 * @param value true to set the flags, false to clear them
+	 */
+	public void setStatus(final int flag, final boolean value) {
+		StatusFlags.set(this.player, flag, value);
 	}
 
 	/**
@@ -525,15 +566,19 @@ public class BendingPlayer extends OfflineBendingPlayer {
 	 */
 	@Override
 	public boolean isOnCooldown(final String ability) {
-		if (this.cooldowns.containsKey(ability)) {
-			return System.currentTimeMillis() < this.cooldowns.get(ability).getCooldown();
-		}
+		return System.currentTimeMillis() < this.cooldowns.getExpiry(ability);
+	}
 
-		return false;
+	@Override
+	public boolean isOnCooldown(@NotNull final Ability ability) {
+		if (ability instanceof CoreAbility) {
+			return System.currentTimeMillis() < this.cooldowns.getExpiry((CoreAbility) ability);
+		}
+		return this.isOnCooldown(ability.getName());
 	}
 
 	public boolean isParalyzed() {
-		return this.player.hasMetadata("movement:stop");
+		return this.hasStatus(StatusFlags.PARALYZED);
 	}
 
 	/**
@@ -595,6 +640,62 @@ public class BendingPlayer extends OfflineBendingPlayer {
 		return DISABLED_WORLDS.contains(world.getName());
 	}
 
+	/**
+	 * Reads the settings used by {@link #canBend(CoreAbility)} from the config
+	 * and clears every player's cached permissions. Called on startup and
+	 * reload.
+	 */
+	public static void loadConfig() {
+		DISABLED_WORLDS = new HashSet<>(getConfig().getStringList("Properties.DisabledWorlds"));
+		globalCooldown = getConfig().getLong("Properties.GlobalCooldown");
+		permissionRefreshInterval = getConfig().getLong("Properties.PermissionRefreshInterval");
+		permissionEpoch++;
+	}
+
+	/**
+	 * Checks if the player has the permission for an ability. Permissions for
+	 * every ability are cached together, and are checked again when the cache
+	 * is older than {@code Properties.PermissionRefreshInterval}, after the
+	 * player changes worlds and after a reload.
+	 *
+	 * @param ability The ability to check
+	 * @return True if the player has the bending.ability permission for it
+	 */
+	public boolean hasAbilityPermission(final CoreAbility ability) {
+		final int id = ability.getAbilityId();
+		if (id < 0) {
+			return this.player.hasPermission("bending.ability." + ability.getName());
+		} else if (this.permissionsEpoch != permissionEpoch || System.currentTimeMillis() - this.permissionsRefreshed > permissionRefreshInterval) {
+			this.refreshPermissions();
+		}
+		return this.permittedAbilities.get(id);
+	}
+
+	/**
+	 * Checks the permission of the player for every registered ability and
+	 * caches the results for {@link #hasAbilityPermission(CoreAbility)}.
+	 */
+	public void refreshPermissions() {
+		final BitSet permitted = new BitSet(CoreAbility.getAbilityIdCount());
+		for (final CoreAbility ability : CoreAbility.getAbilitiesByName()) {
+			final int id = ability.getAbilityId();
+			if (id >= 0 && this.player.hasPermission("bending.ability." + ability.getName())) {
+				permitted.set(id);
+			}
+		}
+		this.permittedAbilities = permitted;
+		this.permissionsRefreshed = System.currentTimeMillis();
+		this.permissionsEpoch = permissionEpoch;
+	}
+
+	/**
+	 * Makes the next permission check for the player refresh their cached
+	 * ability permissions.
+	 */
+	public void invalidatePermissions() {
+		this.permissionsEpoch = -1;
+	}
+
 	/**
 	 * Removes the cooldown of an ability.
 	 *
@@ -619,33 +720,48 @@ public class BendingPlayer extends OfflineBendingPlayer {
 	}
 
 	/**
-	 * Removes all cooldowns that have expired.
-	 *
-	 * We cannot call the {@link #removeCooldown(String)} method here because it
-	 * would cause a ConcurrentModificationException. That's why we have to copy
-	 * most of the method here so the event is still called, but we remove from
-	 * the iterator instead of the map like we do in {@link #removeCooldown(String)}
+	 * Removes all cooldowns that have expired. Cooldowns of online players are
+	 * normally removed by the {@link CooldownWheel} as they expire, so this
+	 * only needs to be done when the player is loaded.
 	 */
 	@Override
 	protected void removeOldCooldowns() {
-		Iterator<Entry<String, Cooldown>> iterator = this.cooldowns.entrySet().iterator();
-		while (iterator.hasNext()) {
-			Map.Entry<String, Cooldown> entry = iterator.next();
-			if (System.currentTimeMillis() >= entry.getValue().getCooldown()) {
-				final PlayerCooldownChangeEvent event = new PlayerCooldownChangeEvent(this.player, entry.getKey(), 0, Result.REMOVED);
-				Bukkit.getServer().getPluginManager().callEvent(event);
-				if (!event.isCancelled()) {
-					iterator.remove();
+		final long now = System.currentTimeMillis();
+		for (final Map.Entry<String, Cooldown> entry : this.cooldowns.entrySet()) { //Iterates a copy, so removing is fine
+			if (now >= entry.getValue().getCooldown()) {
+				this.expireCooldown(entry.getKey(), entry.getValue().getCooldown());
+			}
+		}
+	}
 
-					final String abilityName = event.getAbility();
+	/**
+	 * Removes a cooldown that has ended while firing a
+	 * {@link PlayerCooldownChangeEvent}. Nothing happens if the cooldown was
+	 * changed or removed since then. If the event is cancelled, the cooldown is
+	 * checked again next tick.
+	 *
+	 * @param ability The name of the cooldown
+	 * @param expiry The time the cooldown ended
+	 */
+	public void expireCooldown(final String ability, final long expiry) {
+		if (!this.player.isOnline() || this.cooldowns.getExpiry(ability) != expiry) {
+			return;
+		}
 
-					if (this.getBoundAbility() != null && this.getBoundAbilityName().equals(abilityName)) {
-						ChatUtil.displayMovePreview(this.player);
-					}
+		final PlayerCooldownChangeEvent event = new PlayerCooldownChangeEvent(this.player, ability, 0, Result.REMOVED);
+		Bukkit.getServer().getPluginManager().callEvent(event);
+		if (!event.isCancelled()) {
+			this.cooldowns.remove(ability);
 
-					BendingBoardManager.updateBoard(this.player, event.getAbility(), false, 0);
-				}
+			final String abilityName = event.getAbility();
+
+			if (this.getBoundAbility() != null && this.getBoundAbilityName().equals(abilityName)) {
+				ChatUtil.displayMovePreview(this.player);
 			}
+
+			BendingBoardManager.updateBoard(this.player, event.getAbility(), false, 0);
+		} else {
+			CooldownWheel.schedule(this, ability, expiry);
 		}
 	}
 
@@ -859,7 +975,12 @@ public class BendingPlayer extends OfflineBendingPlayer {
 			ChatUtil.sendBrandingMessage(this.player, ChatColor.YELLOW + ConfigManager.languageConfig.get().getString("Command.Toggle.Reminder"));
 		}
 
-		Preset.loadPresets(this.player);
+		if (this.loadedPresets != null) {
+			Preset.loadPresets(this.player, this.loadedPresets);
+			this.loadedPresets = null;
+		} else {
+			Preset.loadPresets(this.player);
+		}
 
 		final boolean chatEnabled = ConfigManager.languageConfig.get().getBoolean("Chat.Enable");
 
@@ -5,7 +5,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.common.collect.Lists;
 import com.projectkorra.projectkorra.util.ChatUtil;
@@ -47,6 +49,8 @@ public class Element {
 	}
 
 	private static final HashMap<String, Element> ALL_ELEMENTS = new HashMap<>(); // Must be initialized first.
+	private static final List<Element> ELEMENTS_BY_ID = new ArrayList<>(); // Must be initialized first.
+	private static volatile Registry registry; // Rebuilt the next time it is used after an element is registered.
 
 	public static final Element AIR = new Element("Air");
 	public static final Element WATER = new Element("Water");
@@ -77,6 +81,7 @@ public class Element {
 	protected ChatColor color;
 	protected ChatColor subColor;
 	protected boolean isAvatarElement = false;
+	private final int id;
 
 	/**
 	 * To be used when creating a new Element. Do not use for comparing
@@ -114,7 +119,44 @@ public class Element {
 		this.type = type;
 		this.plugin = plugin;
 		this.isAvatarElement = name.equals("Air") || name.equals("Water") || name.equals("Earth") || name.equals("Fire");
+
+		final Element existing = ALL_ELEMENTS.get(name.toLowerCase());
+		if (existing != null) { // Elements that replace another with the same name keep its id
+			this.id = existing.id;
+			ELEMENTS_BY_ID.set(this.id, this);
+		} else {
+			this.id = ELEMENTS_BY_ID.size();
+			ELEMENTS_BY_ID.add(this);
+		}
 		ALL_ELEMENTS.put(name.toLowerCase(), this);
+		registry = null;
+	}
+
+	/**
+	 * Gets the id of this element. Every element and subelement, including
+	 * addon ones, gets the next free id when it is created, so ids are small
+	 * and can be used as bit positions.
+	 *
+	 * @return The id of the element
+	 */
+	public int getId() {
+		return this.id;
+	}
+
+	/**
+	 * @param id The id of an element
+	 * @return The element with the id, or null if there is none
+	 * @see #getId()
+	 */
+	public static Element getElement(final int id) {
+		return id >= 0 && id < ELEMENTS_BY_ID.size() ? ELEMENTS_BY_ID.get(id) : null;
+	}
+
+	/**
+	 * @return The number of element ids that have been given out
+	 */
+	public static int getElementCount() {
+		return ELEMENTS_BY_ID.size();
 	}
 
 	public String getPrefix() {
@@ -221,14 +263,7 @@ public class Element {
 	 * @return Array of all official and addon elements.
 	 */
 	public static Element[] getAllElements() {
-		final List<Element> ae = new ArrayList<Element>();
-		ae.addAll(Arrays.asList(getMainElements()));
-		for (final Element e : ALL_ELEMENTS.values()) {
-			if (!ae.contains(e) && !(e instanceof SubElement)) {
-				ae.add(e);
-			}
-		}
-		return ae.toArray(new Element[ae.size()]);
+		return getRegistry().allElements.clone();
 	}
 
 	/**
@@ -255,14 +290,7 @@ public class Element {
 	 * @return Array of all addon elements.
 	 */
 	public static Element[] getAddonElements() {
-		final List<Element> ae = new ArrayList<Element>();
-		for (final Element e : getAllElements()) {
-			if (!Arrays.asList(getMainElements()).contains(e)) {
-				ae.add(e);
-			}
-		}
-		ae.remove(Element.AVATAR);
-		return ae.toArray(new Element[ae.size()]);
+		return getRegistry().addonElements.clone();
 	}
 
 	/**
@@ -271,14 +299,7 @@ public class Element {
 	 * @return Array of all the subelements.
 	 */
 	public static SubElement[] getAllSubElements() {
-		final List<SubElement> se = new ArrayList<SubElement>();
-		se.addAll(Arrays.asList(getSubElements()));
-		for (final Element e : ALL_ELEMENTS.values()) {
-			if (!se.contains(e) && e instanceof SubElement) {
-				se.add((SubElement) e);
-			}
-		}
-		return se.toArray(new SubElement[se.size()]);
+		return getRegistry().allSubElements.clone();
 	}
 
 	/**
@@ -297,13 +318,15 @@ public class Element {
 	 * @return Array of all subelements belonging to a parent element.
 	 */
 	public static SubElement[] getSubElements(final Element element) {
-		final List<SubElement> se = new ArrayList<SubElement>();
-		for (final SubElement sub : getAllSubElements()) {
-			if (sub.getParentElement().equals(element) || (sub instanceof MultiSubElement && ((MultiSubElement) sub).isParentElement(element))) {
-				se.add(sub);
+		return getRegistry().subElementsByParent.computeIfAbsent(element, parent -> {
+			final List<SubElement> se = new ArrayList<SubElement>();
+			for (final SubElement sub : getAllSubElements()) {
+				if (sub.getParentElement().equals(parent) || (sub instanceof MultiSubElement && ((MultiSubElement) sub).isParentElement(parent))) {
+					se.add(sub);
+				}
 			}
-		}
-		return se.toArray(new SubElement[se.size()]);
+			return se.toArray(new SubElement[se.size()]);
+		}).clone();
 	}
 
 	/**
@@ -312,13 +335,7 @@ public class Element {
 	 * @return Array of all addon subelements.
 	 */
 	public static SubElement[] getAddonSubElements() {
-		final List<SubElement> ae = new ArrayList<SubElement>();
-		for (final SubElement e : getAllSubElements()) {
-			if (!Arrays.asList(getSubElements()).contains(e)) {
-				ae.add(e);
-			}
-		}
-		return ae.toArray(new SubElement[ae.size()]);
+		return getRegistry().addonSubElements.clone();
 	}
 
 	/**
@@ -328,13 +345,64 @@ public class Element {
 	 * @return Array of addon subelements belonging to a parent element.
 	 */
 	public static SubElement[] getAddonSubElements(final Element element) {
-		final List<SubElement> se = new ArrayList<SubElement>();
-		for (final SubElement sub : getAllSubElements()) {
-			if ((sub.getParentElement().equals(element) || (sub instanceof MultiSubElement && ((MultiSubElement) sub).isParentElement(element))) && !Arrays.asList(getSubElements()).contains(sub)) {
-				se.add(sub);
+		return getRegistry().addonSubElementsByParent.computeIfAbsent(element, parent -> {
+			final List<SubElement> se = new ArrayList<SubElement>();
+			for (final SubElement sub : getAddonSubElements()) {
+				if (sub.getParentElement().equals(parent) || (sub instanceof MultiSubElement && ((MultiSubElement) sub).isParentElement(parent))) {
+					se.add(sub);
+				}
+			}
+			return se.toArray(new SubElement[se.size()]);
+		}).clone();
+	}
+
+	private static Registry getRegistry() {
+		Registry current = registry;
+		if (current == null) {
+			current = new Registry();
+			registry = current;
+		}
+		return current;
+	}
+
+	/**
+	 * The element arrays returned by the static getters, built once from
+	 * the registered elements instead of on every call. The getters hand out
+	 * copies, so callers can't change what other callers see.
+	 */
+	private static class Registry {
+
+		private final Element[] allElements;
+		private final Element[] addonElements;
+		private final SubElement[] allSubElements;
+		private final SubElement[] addonSubElements;
+		private final Map<Element, SubElement[]> subElementsByParent = new ConcurrentHashMap<>();
+		private final Map<Element, SubElement[]> addonSubElementsByParent = new ConcurrentHashMap<>();
+
+		private Registry() {
+			final List<Element> all = new ArrayList<Element>(Arrays.asList(MAIN_ELEMENTS));
+			final List<SubElement> allSubs = new ArrayList<SubElement>(Arrays.asList(SUB_ELEMENTS));
+			for (final Element e : ALL_ELEMENTS.values()) {
+				if (e instanceof SubElement) {
+					if (!allSubs.contains(e)) {
+						allSubs.add((SubElement) e);
+					}
+				} else if (!all.contains(e)) {
+					all.add(e);
+				}
 			}
+			this.allElements = all.toArray(new Element[0]);
+			this.allSubElements = allSubs.toArray(new SubElement[0]);
+
+			final List<Element> addons = new ArrayList<Element>(all);
+			addons.removeAll(Arrays.asList(MAIN_ELEMENTS));
+			addons.remove(Element.AVATAR);
+			this.addonElements = addons.toArray(new Element[0]);
+
+			final List<SubElement> addonSubs = new ArrayList<SubElement>(allSubs);
+			addonSubs.removeAll(Arrays.asList(SUB_ELEMENTS));
+			this.addonSubElements = addonSubs.toArray(new SubElement[0]);
 		}
-		return se.toArray(new SubElement[se.size()]);
 	}
 
 	public static Element fromString(final String element) {
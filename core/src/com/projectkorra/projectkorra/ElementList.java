@@ -0,0 +1,88 @@
+package com.projectkorra.projectkorra;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A list of elements that also keeps a bitmask of the {@link Element#getId()
+ * ids} it contains, so {@link #contains(Object)} is a single bit test instead
+ * of a scan. The order of the elements is kept, as it is what gets saved and
+ * shown to players. Elements with an id of 64 or more are rare and fall back
+ * to scanning the list.
+ *
+ * @param <E> The type of element
+ */
+class ElementList<E extends Element> extends AbstractList<E> {
+
+	private final List<E> elements = new ArrayList<>();
+	private long bits;
+
+	@Override
+	public E get(final int index) {
+		return this.elements.get(index);
+	}
+
+	@Override
+	public int size() {
+		return this.elements.size();
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		if (!(o instanceof Element)) {
+			return false;
+		}
+		final int id = ((Element) o).getId();
+		if (id < 64) {
+			return (this.bits & (1L << id)) != 0 && (Element.getElement(id) == o || this.elements.contains(o));
+		}
+		return this.elements.contains(o);
+	}
+
+	@Override
+	public void add(final int index, final E element) {
+		this.elements.add(index, element);
+		this.modCount++;
+		this.mark(element);
+	}
+
+	@Override
+	public E set(final int index, final E element) {
+		final E previous = this.elements.set(index, element);
+		this.mark(element);
+		this.unmark(previous);
+		return previous;
+	}
+
+	@Override
+	public E remove(final int index) {
+		final E previous = this.elements.remove(index);
+		this.modCount++;
+		this.unmark(previous);
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		this.elements.clear();
+		this.modCount++;
+		this.bits = 0;
+	}
+
+	private void mark(final E element) {
+		if (element != null && element.getId() < 64) {
+			this.bits |= 1L << element.getId();
+		}
+	}
+
+	/**
+	 * Clears the bit of a removed element, unless the list still holds it
+	 * more than once.
+	 */
+	private void unmark(final E element) {
+		if (element != null && element.getId() < 64 && !this.elements.contains(element)) {
+			this.bits &= ~(1L << element.getId());
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.projectkorra.projectkorra;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A set of elements stored as a bitmask of their {@link Element#getId() ids}.
+ * Elements with an id of 64 or more are kept in a regular set instead.
+ */
+class ElementSet extends AbstractSet<Element> {
+
+	private long bits;
+	private final Set<Element> overflow = new HashSet<>();
+
+	@Override
+	public boolean contains(final Object o) {
+		if (!(o instanceof Element)) {
+			return false;
+		}
+		final Element element = (Element) o;
+		if (element.getId() < 64) {
+			return (this.bits & (1L << element.getId())) != 0 && Element.getElement(element.getId()) == element;
+		}
+		return this.overflow.contains(element);
+	}
+
+	@Override
+	public boolean add(final Element element) {
+		if (element.getId() >= 64) {
+			return this.overflow.add(element);
+		} else if (this.contains(element)) {
+			return false;
+		}
+		this.bits |= 1L << element.getId();
+		return true;
+	}
+
+	@Override
+	public boolean remove(final Object o) {
+		if (!this.contains(o)) {
+			return false;
+		}
+		final Element element = (Element) o;
+		if (element.getId() >= 64) {
+			return this.overflow.remove(element);
+		}
+		this.bits &= ~(1L << element.getId());
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return Long.bitCount(this.bits) + this.overflow.size();
+	}
+
+	@Override
+	public void clear() {
+		this.bits = 0;
+		this.overflow.clear();
+	}
+
+	@Override
+	public Iterator<Element> iterator() {
+		final List<Element> elements = new ArrayList<>(this.size());
+		for (long remaining = this.bits; remaining != 0; remaining &= remaining - 1) {
+			elements.add(Element.getElement(Long.numberOfTrailingZeros(remaining)));
+		}
+		elements.addAll(this.overflow);
+
+		final Iterator<Element> iterator = elements.iterator();
+		return new Iterator<Element>() {
+			private Element current;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Element next() {
+				if (!iterator.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return this.current = iterator.next();
+			}
+
+			@Override
+			public void remove() {
+				if (this.current == null) {
+					throw new IllegalStateException();
+				}
+				ElementSet.this.remove(this.current);
+				this.current = null;
+			}
+		};
+	}
+}
@@ -0,0 +1,62 @@
+package com.projectkorra.projectkorra;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.plugin.Plugin;
+
+import com.projectkorra.projectkorra.util.BendingImmunity;
+import com.projectkorra.projectkorra.util.StatusFlags;
+
+/**
+ * Forgets what is kept about entities when they are unloaded. Entities are
+ * unloaded separately from their chunks since 1.17, and the event for that
+ * doesn't exist before then, so it is kept out of {@link PKListener} and only
+ * registered on servers that have it. Older servers use the chunk unloading
+ * instead.
+ */
+public class EntityUnloadListener {
+
+	/**
+	 * Registers the listener that suits the server version.
+	 *
+	 * @param plugin The plugin to register it for
+	 */
+	public static void register(final Plugin plugin) {
+		final Listener listener = GeneralMethods.getMCVersion() >= 1170 ? new EntitiesUnload() : new ChunkUnload();
+		Bukkit.getPluginManager().registerEvents(listener, plugin);
+	}
+
+	/**
+	 * Forgets the immunity and status flags of an entity that was unloaded,
+	 * as whatever held it can't hold the entity it comes back as.
+	 */
+	private static void forget(final Entity entity) {
+		BendingImmunity.forget(entity);
+		StatusFlags.forget(entity.getUniqueId());
+	}
+
+	public static class EntitiesUnload implements Listener {
+
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onEntitiesUnload(final EntitiesUnloadEvent event) {
+			for (final Entity entity : event.getEntities()) {
+				forget(entity);
+			}
+		}
+	}
+
+	public static class ChunkUnload implements Listener {
+
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onChunkUnload(final ChunkUnloadEvent event) {
+			for (final Entity entity : event.getChunk().getEntities()) {
+				forget(entity);
+			}
+		}
+	}
+}
@@ -38,9 +38,16 @@ import com.projectkorra.projectkorra.firebending.combustion.Combustion;
 import com.projectkorra.projectkorra.firebending.util.FirebendingManager;
 import com.projectkorra.projectkorra.object.Preset;
 import com.projectkorra.projectkorra.region.RegionProtection;
+import com.projectkorra.projectkorra.region.RegionProtectionStatistics;
 import com.projectkorra.projectkorra.storage.DBConnection;
+import com.projectkorra.projectkorra.storage.PlayerDataQueue;
+import com.projectkorra.projectkorra.storage.SchemaMigrator;
+import com.projectkorra.projectkorra.util.BendingImmunity;
+import com.projectkorra.projectkorra.util.BlockOffsetTable;
 import com.projectkorra.projectkorra.util.ChatUtil;
 import com.projectkorra.projectkorra.util.ColoredParticle;
+import com.projectkorra.projectkorra.util.CooldownWheel;
+import com.projectkorra.projectkorra.util.EntitySnapshot;
 import com.projectkorra.projectkorra.util.LightManager;
 import com.projectkorra.projectkorra.util.MovementHandler;
 import com.projectkorra.projectkorra.util.ParticleEffect;
@@ -49,6 +56,7 @@ import com.projectkorra.projectkorra.util.TempArmor;
 import com.projectkorra.projectkorra.util.TempArmorStand;
 import com.projectkorra.projectkorra.util.TempBlock;
 import com.projectkorra.projectkorra.util.TempFallingBlock;
+import com.projectkorra.projectkorra.util.VoxelRaycast;
 import com.projectkorra.projectkorra.waterbending.WaterManipulation;
 import com.projectkorra.projectkorra.waterbending.WaterSpout;
 import com.projectkorra.projectkorra.waterbending.blood.Bloodbending;
@@ -538,26 +546,22 @@ public class GeneralMethods {
 	 */
 	public static List<Block> getBlocksAroundPoint(final Location location, final double radius) {
 		final List<Block> blocks = new ArrayList<Block>();
-
-		final int xorg = location.getBlockX();
-		final int yorg = location.getBlockY();
-		final int zorg = location.getBlockZ();
-
-		final int r = (int) radius * 4;
-
-		for (int x = xorg - r; x <= xorg + r; x++) {
-			for (int y = yorg - r; y <= yorg + r; y++) {
-				for (int z = zorg - r; z <= zorg + r; z++) {
-					final Block block = location.getWorld().getBlockAt(x, y, z);
-					if (block.getLocation().distanceSquared(location) <= radius * radius) {
-						blocks.add(block);
-					}
-				}
-			}
-		}
+		BlockOffsetTable.forEachAround(location, radius, blocks::add);
 		return blocks;
 	}
 
+	/**
+	 * Visits every block within the specified radius around the specified
+	 * location, nearest first, without building a list or cloning locations.
+	 *
+	 * @param location The base location
+	 * @param radius The block radius from location to visit
+	 * @param visitor The visitor, which may stop the walk by returning false
+	 */
+	public static void forEachBlockAroundPoint(final Location location, final double radius, final BlockOffsetTable.BlockVisitor visitor) {
+		BlockOffsetTable.forEachAround(location, radius, visitor);
+	}
+
 	public static BlockFace getCardinalDirection(final Vector vector) {
 		final BlockFace[] faces = { BlockFace.NORTH, BlockFace.NORTH_EAST, BlockFace.EAST, BlockFace.SOUTH_EAST, BlockFace.SOUTH, BlockFace.SOUTH_WEST, BlockFace.WEST, BlockFace.NORTH_WEST };
 		Vector n, ne, e, se, s, sw, w, nw;
@@ -716,7 +720,29 @@ public class GeneralMethods {
 	 * @return A list of entities around a point
 	 */
 	public static List<Entity> getEntitiesAroundPoint(final Location location, final double radius, Predicate<Entity> acceptable) {
-		return new ArrayList<>(location.getWorld().getNearbyEntities(location, radius, radius, radius, acceptable));
+		return getEntitiesAroundPoint(location, radius, acceptable, new ArrayList<>());
+	}
+
+	/**
+	 * Adds the entities around a specified radius from the specified area to
+	 * a list supplied by the caller. Entities are read from the
+	 * {@link EntitySnapshot} when the current thread keeps one, so repeated
+	 * queries over the same area while an ability progresses do not go back
+	 * to the world.
+	 *
+	 * @param location The base location
+	 * @param radius The radius of blocks to look for entities from the location
+	 * @param acceptable A function that determines if an entity is acceptable or not to be a part of this list
+	 * @param out The list to add the entities to
+	 * @return The list passed in
+	 */
+	public static List<Entity> getEntitiesAroundPoint(final Location location, final double radius, Predicate<Entity> acceptable, final List<Entity> out) {
+		final EntitySnapshot snapshot = EntitySnapshot.get(location.getWorld());
+		if (snapshot == null) {
+			out.addAll(location.getWorld().getNearbyEntities(location, radius, radius, radius, acceptable));
+			return out;
+		}
+		return snapshot.getEntities(location, radius, acceptable, out);
 	}
 
 	/**
@@ -736,7 +762,7 @@ public class GeneralMethods {
 	 * @return The filter
 	 */
 	public static Predicate<Entity> getEntityFilter() {
-		return entity -> !(!entity.isValid() || entity.hasMetadata ("BendingImmunity")
+		return entity -> !(!entity.isValid() || BendingImmunity.isImmune(entity)
 				|| (entity instanceof Player && ((Player) entity).getGameMode().equals(GameMode.SPECTATOR))
 				|| (entity instanceof ArmorStand && ((ArmorStand) entity).isMarker()));
 	}
@@ -946,8 +972,13 @@ public class GeneralMethods {
 		double longestr = range + 1;
 		Entity target = null;
 		final Location origin = player.getEyeLocation();
-		final Vector direction = player.getEyeLocation().getDirection().normalize();
+		final Vector direction = origin.getDirection().normalize();
+		final double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+		final Location entityLocation = new Location(origin.getWorld(), 0, 0, 0);
 		for (final Entity entity : getEntitiesAroundPoint(origin, range)) {
+			if (!(entity instanceof LivingEntity) || entity.getEntityId() == player.getEntityId()) {
+				continue;
+			}
 			if (entity instanceof Player) {
 				if (((Player) entity).isDead() || ((Player) entity).getGameMode().equals(GameMode.SPECTATOR)) {
 					continue;
@@ -957,9 +988,22 @@ public class GeneralMethods {
 				continue;
 			}
 			if (entity.getWorld().equals(origin.getWorld())) {
-				if (entity.getLocation().distanceSquared(origin) < longestr * longestr && getDistanceFromLine(direction, origin, entity.getLocation()) < 2 && (entity instanceof LivingEntity) && entity.getEntityId() != player.getEntityId() && entity.getLocation().distanceSquared(origin.clone().add(direction)) < entity.getLocation().distanceSquared(origin.clone().add(direction.clone().multiply(-1)))) {
+				entity.getLocation(entityLocation);
+				final double px = entityLocation.getX() - origin.getX();
+				final double py = entityLocation.getY() - origin.getY();
+				final double pz = entityLocation.getZ() - origin.getZ();
+				final double distanceSquared = px * px + py * py + pz * pz;
+				if (distanceSquared >= longestr * longestr) {
+					continue;
+				}
+				// Distance from the line of sight is the length of the cross product, and the
+				// entity is in front of the player when the dot product is positive
+				final double cx = py * dz - pz * dy;
+				final double cy = pz * dx - px * dz;
+				final double cz = px * dy - py * dx;
+				if (cx * cx + cy * cy + cz * cz < 4 && px * dx + py * dy + pz * dz > 0) {
 					target = entity;
-					longestr = entity.getLocation().distance(origin);
+					longestr = Math.sqrt(distanceSquared);
 				}
 			}
 		}
@@ -977,41 +1021,38 @@ public class GeneralMethods {
 
 	public static Location getTargetedLocation(final Player player, final double range, final boolean ignoreTempBlocks, final boolean checkDiagonals, final Material... nonOpaque2) {
 		final Location origin = player.getEyeLocation();
-		final Vector direction = origin.getDirection();
+		final Vector direction = origin.getDirection().normalize();
+		final double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
 
-		final HashSet<Material> trans = new HashSet<Material>();
-		trans.add(Material.AIR);
-		trans.add(Material.CAVE_AIR);
-		trans.add(Material.VOID_AIR);
-
-		if (nonOpaque2 != null) {
-			Collections.addAll(trans, nonOpaque2);
-		}
-
-		final Location location = origin.clone();
-		final Vector vec = direction.normalize().multiply(0.2);
-
-		for (double i = 0; i < range; i += 0.2) {
-			location.add(vec);
+		final VoxelRaycast.RayHit hit = VoxelRaycast.cast(origin.getWorld(), origin.getX(), origin.getY(), origin.getZ(), dx, dy, dz, range, block -> {
+			if (checkDiagonals && VoxelRaycast.isDiagonalWall(block, dx, dy, dz)) {
+				return false;
+			}
 
-			if (checkDiagonals && checkDiagonalWall(location, vec)) {
-				location.subtract(vec);
-				break;
+			final Material type = block.getType();
+			if (type == Material.AIR || type == Material.CAVE_AIR || type == Material.VOID_AIR || contains(nonOpaque2, type)) {
+				return true;
 			}
+			return ignoreTempBlocks && (TempBlock.isTempBlock(block) && !WaterAbility.isBendableWaterTempBlock(block) && !EarthAbility.isBendableEarthTempBlock(block));
+		});
 
-			final Block block = location.getBlock();
+		if (hit == null) {
+			return origin.add(direction.multiply(range));
+		}
+		// Stop short of the block on the same 0.2 block steps the location has always been reported on
+		final double distance = Math.max(0, (Math.ceil(hit.getDistance() / 0.2) - 1) * 0.2);
+		return origin.add(direction.multiply(distance));
+	}
 
-			if (trans.contains(block.getType())) {
-				continue;
-			} else if (ignoreTempBlocks && (TempBlock.isTempBlock(block) && !WaterAbility.isBendableWaterTempBlock(block) && !EarthAbility.isBendableEarthTempBlock(block))) {
-				continue;
-			} else {
-				location.subtract(vec);
-				break;
+	private static boolean contains(final Material[] materials, final Material type) {
+		if (materials != null) {
+			for (final Material material : materials) {
+				if (material == type) {
+					return true;
+				}
 			}
 		}
-
-		return location;
+		return false;
 	}
 
 	public static Location getTargetedLocation(final Player player, final double range, final boolean ignoreTempBlocks, final Material... nonOpaque2) {
@@ -1199,27 +1240,18 @@ public class GeneralMethods {
 	}
 
 	public static boolean isObstructed(final Location location1, final Location location2) {
-		final Vector loc1 = location1.toVector();
-		final Vector loc2 = location2.toVector();
-
-		final Vector direction = loc2.subtract(loc1);
-		direction.normalize();
-
-		Location loc;
-
-		double max = 0;
+		double dx = 0, dy = 0, dz = 0;
 		if (location1.getWorld().equals(location2.getWorld())) {
-			max = location1.distance(location2);
+			dx = location2.getX() - location1.getX();
+			dy = location2.getY() - location1.getY();
+			dz = location2.getZ() - location1.getZ();
 		}
+		final double max = Math.sqrt(dx * dx + dy * dy + dz * dz);
 
-		for (double i = 0; i <= max; i++) {
-			loc = location1.clone().add(direction.clone().multiply(i));
-			final Material type = loc.getBlock().getType();
-			if (type != Material.AIR && !(ElementalAbility.getTransparentMaterialSet().contains(type) || ElementalAbility.isWater(loc.getBlock()))) {
-				return true;
-			}
-		}
-		return false;
+		return VoxelRaycast.cast(location1.getWorld(), location1.getX(), location1.getY(), location1.getZ(), dx, dy, dz, max, block -> {
+			final Material type = block.getType();
+			return type == Material.AIR || VoxelRaycast.isTransparent(type) || ElementalAbility.isWater(block);
+		}) != null;
 	}
 
 	/**
@@ -1356,6 +1388,8 @@ public class GeneralMethods {
 			return;
 		}
 		if (DBConnection.isOpen()) {
+			SchemaMigrator.stop();
+			PlayerDataQueue.stop();
 			DBConnection.sql.close();
 		}
 		GeneralMethods.stopBending();
@@ -1367,6 +1401,8 @@ public class GeneralMethods {
 		ConfigManager.languageConfig.reload();
 		ConfigManager.presetConfig.reload();
 		ConfigManager.avatarStateConfig.reload();
+		BendingImmunity.loadConfig();
+		RegionProtection.loadConfig();
 		Arrays.stream(Element.getElements()).forEach(e -> {e.setColor(null); e.setSubColor(null);}); //Load colors from config again
 		Arrays.stream(Element.getSubElements()).forEach(e -> {e.setColor(null); e.setSubColor(null);}); //Same for subs
 		ElementalAbility.clearBendableMaterials(); // Clear and re-cache the material lists on reload.
@@ -1406,6 +1442,7 @@ public class GeneralMethods {
 		ProjectKorra.collisionInitializer = new CollisionInitializer(ProjectKorra.collisionManager);
 		HandlerList.unregisterAll(ProjectKorra.plugin); //Unregister all listeners registered by addons AND ProjectKorra
 		Bukkit.getPluginManager().registerEvents(new PKListener(ProjectKorra.plugin), ProjectKorra.plugin); //Re-register our listener
+		EntityUnloadListener.register(ProjectKorra.plugin);
 		CoreAbility.registerAbilities(); //Register all abilities again
 		reloadAddonPlugins();  //Register all addons and addon listeners again
 		ProjectKorra.collisionInitializer.initializeDefaultCollisions(); // must be called after abilities have been registered.
@@ -1419,8 +1456,9 @@ public class GeneralMethods {
 		}
 		BendingPlayer.getOfflinePlayers().clear();
 		BendingPlayer.getPlayers().clear();
+		CooldownWheel.clear();
 		OfflineBendingPlayer.TEMP_ELEMENTS.clear();
-		BendingPlayer.DISABLED_WORLDS = new HashSet<>(ConfigManager.defaultConfig.get().getStringList("Properties.DisabledWorlds"));
+		BendingPlayer.loadConfig();
 		BendingBoardManager.reload();
 		for (final Player player : Bukkit.getOnlinePlayers()) {
 			Preset.unloadPreset(player);
@@ -1561,6 +1599,14 @@ public class GeneralMethods {
 			f.add("- " + papi.getName() + " v" + papi.getDescription().getVersion());
 		}
 
+		f.add("");
+		f.add("Region Protection Statistics (in check order)");
+		f.add("====================");
+		for (final RegionProtectionStatistics stats : RegionProtection.getStatistics()) {
+			f.add("- " + stats.getPlugin().getName() + ": " + stats.getChecks() + " checks, " + stats.getDenials() + " denied, "
+					+ String.format("%.1f", stats.getAverageNanos() / 1000) + "us average");
+		}
+
 		f.add("");
 		f.add("Plugins Hooking Into ProjectKorra (Core)");
 		f.add("====================");
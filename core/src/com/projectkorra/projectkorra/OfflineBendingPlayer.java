@@ -9,9 +9,12 @@ import com.projectkorra.projectkorra.event.BendingPlayerLoadEvent;
 import com.projectkorra.projectkorra.event.PlayerBindChangeEvent;
 import com.projectkorra.projectkorra.event.PlayerChangeElementEvent;
 import com.projectkorra.projectkorra.event.PlayerChangeSubElementEvent;
-import com.projectkorra.projectkorra.storage.DBConnection;
+import com.projectkorra.projectkorra.storage.PlayerDAO;
+import com.projectkorra.projectkorra.storage.PlayerData;
+import com.projectkorra.projectkorra.storage.PlayerDataQueue;
 import com.projectkorra.projectkorra.util.ChatUtil;
 import com.projectkorra.projectkorra.util.Cooldown;
+import com.projectkorra.projectkorra.util.CooldownMap;
 import com.projectkorra.projectkorra.util.ThreadUtil;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -20,13 +23,10 @@ import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.OfflinePlayer;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +37,8 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
 import com.projectkorra.projectkorra.Element.SubElement;
@@ -72,6 +74,22 @@ public class OfflineBendingPlayer {
      */
     private static final Map<UUID, CompletableFuture<OfflineBendingPlayer>> LOADING = new ConcurrentHashMap<>();
 
+    /**
+     * Map of the data of players who are about to join, read before they joined
+     */
+    private static final Map<UUID, PlayerData> PREFETCHED = new ConcurrentHashMap<>();
+    private static final long PREFETCH_EXPIRY = 30_000; //How long prefetched data is kept for if the player never joins
+
+    /**
+     * How often the cache of offline players is swept for players to unload, in ticks
+     */
+    private static final long SWEEP_INTERVAL = 20 * 5;
+    private static final AtomicLong CACHE_HITS = new AtomicLong();
+    private static final AtomicLong CACHE_MISSES = new AtomicLong();
+    private static final AtomicLong CACHE_EVICTIONS = new AtomicLong();
+    private static final AtomicBoolean SWEEP_QUEUED = new AtomicBoolean();
+    private static Object sweeper;
+
     protected final OfflinePlayer player;
     protected final UUID uuid;
     protected boolean permaRemoved;
@@ -79,21 +97,26 @@ public class OfflineBendingPlayer {
     protected boolean allPassivesToggled;
     protected boolean loading;
 
-    protected final List<Element> elements = new ArrayList<>();
-    protected final List<SubElement> subelements = new ArrayList<>();
+    protected final List<Element> elements = new ElementList<>();
+    protected final List<SubElement> subelements = new ElementList<>();
     protected Map<Element, Long> tempElements = new HashMap<>();
     protected Map<SubElement, Long> tempSubElements = new HashMap<>();
     protected HashMap<Integer, String> abilities = new HashMap<>();
-    protected final Map<String, Cooldown> cooldowns = new HashMap<>();
-    protected final Set<Element> toggledElements = new HashSet<>();
-    protected final Set<Element> toggledPassives = new HashSet<>();
+    protected final CooldownMap cooldowns = new CooldownMap(this);
+    /** The cooldowns as they were last saved to the database. Shared between the online and offline instances of a player */
+    protected Map<String, Long> savedCooldowns = new ConcurrentHashMap<>();
+    protected final Set<Element> toggledElements = new ElementSet();
+    protected final Set<Element> toggledPassives = new ElementSet();
+    /** The presets read along with the rest of the player's data, until they are loaded into memory */
+    protected Map<String, HashMap<Integer, String>> loadedPresets;
 
 
 
     private int currentSlot;
+    private final String[] boundNames = new String[10]; //The slot names the ids below were resolved from
+    private final int[] boundIds = new int[10];
     private long lastAccessed;
     private long uncacheTime = 30_000; //This is the default time to unload after when the data is accessed by code, NOT when logging out
-    private Object uncache;
 
     public OfflineBendingPlayer(@NotNull OfflinePlayer player) {
         this.player = player;
@@ -109,20 +132,62 @@ public class OfflineBendingPlayer {
         this(Bukkit.getOfflinePlayer(playerUUID));
     }
 
+    /**
+     * Reads a player's data before they join, so that it is ready by the time they do. This
+     * blocks while the data is read, so it should be called from an async thread, like the one
+     * AsyncPlayerPreLoginEvent is called on.
+     * @param uuid The uuid of the player that is joining
+     */
+    public static void prefetch(@NotNull final UUID uuid) {
+        purgePrefetched();
+
+        if (PLAYERS.containsKey(uuid) || LOADING.containsKey(uuid)) return; //Already in memory
+
+        final PlayerData data = PlayerDAO.loadAll(uuid);
+        if (data != null) PREFETCHED.put(uuid, data);
+    }
+
+    /**
+     * Throws away the data read by {@link #prefetch(UUID)} for a player who was not let in
+     * @param uuid The uuid of the player
+     */
+    public static void discardPrefetched(@NotNull final UUID uuid) {
+        PREFETCHED.remove(uuid);
+    }
+
+    /**
+     * Throws away prefetched data that is too old to be used
+     */
+    private static void purgePrefetched() {
+        final long now = System.currentTimeMillis();
+        PREFETCHED.values().removeIf(data -> now - data.getLoadedAt() > PREFETCH_EXPIRY);
+    }
+
     protected static CompletableFuture<OfflineBendingPlayer> loadAsync(@NotNull final UUID uuid, boolean onStartup) {
         CompletableFuture<OfflineBendingPlayer> future = new CompletableFuture<>();
         OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(uuid);
 
         if (LOADING.containsKey(uuid)) { //If it is already loading, return the loading one
+            CACHE_HITS.incrementAndGet();
             return LOADING.get(uuid);
         }
 
         //If we already have the players data cached from an OfflineBendingPlayer instance
         if (PLAYERS.get(uuid) != null) {
             OfflineBendingPlayer oBendingPlayer = PLAYERS.get(uuid); //Get cached instance
+            PREFETCHED.remove(uuid); //The cached instance is newer
+            CACHE_HITS.incrementAndGet();
             if (offlinePlayer.isOnline() && !(oBendingPlayer instanceof BendingPlayer)) {
-                oBendingPlayer = convertToOnline(oBendingPlayer); //Convert to online instance
-                ((BendingPlayer)oBendingPlayer).postLoad();
+                //Converting touches the player, so it is done on their thread. Until then, it counts as loading
+                final OfflineBendingPlayer offline = oBendingPlayer;
+                LOADING.put(uuid, future);
+                ThreadUtil.ensureEntity((Player) offlinePlayer, () -> {
+                    final BendingPlayer online = convertToOnline(offline); //Convert to online instance
+                    if (online != null) online.postLoad();
+                    LOADING.remove(uuid);
+                    future.complete(online != null ? online : offline);
+                });
+                return future;
             }
             if (!(oBendingPlayer instanceof BendingPlayer)) {
                 oBendingPlayer.lastAccessed = System.currentTimeMillis();
@@ -131,8 +196,16 @@ public class OfflineBendingPlayer {
             return future;
         }
 
+        CACHE_MISSES.incrementAndGet();
+        if (!offlinePlayer.isOnline() && PLAYERS.size() >= getMaxCacheSize()) {
+            queueSweep(); //Make room without waiting for the next sweep
+        }
+
         LOADING.put(uuid, future); //Put the future in the loading map
 
+        purgePrefetched();
+        final PlayerData prefetchedData = PREFETCHED.remove(uuid);
+
         Runnable runnable = () -> {
             OfflineBendingPlayer bPlayer = new OfflineBendingPlayer(offlinePlayer);
             if (offlinePlayer.isOnline()) {
@@ -142,292 +215,286 @@ public class OfflineBendingPlayer {
 
             PLAYERS.put(uuid, bPlayer);
 
-            final ResultSet rs2 = DBConnection.sql.readQuery("SELECT * FROM pk_players WHERE uuid = '" + uuid.toString() + "'");
-            try {
-                if (!rs2.next()) { // Data doesn't exist, we want a completely new player.
-                    DBConnection.sql.modifyQuery("INSERT INTO pk_players (uuid, player, slot1, slot2, slot3, slot4, slot5, slot6, slot7, slot8, slot9) VALUES ('" + uuid.toString() + "', '" + offlinePlayer.getName() + "', 'null', 'null', 'null', 'null', 'null', 'null', 'null', 'null', 'null')");
-                    ProjectKorra.log.info("Created new BendingPlayer for " + offlinePlayer.getName());
-                    OfflineBendingPlayer newPlayer;
-                    if (offlinePlayer.isOnline()) {
-                        newPlayer = new BendingPlayer((Player)offlinePlayer);
-                        //Call postLoad() on the main thread and wait for it to complete
-                        ThreadUtil.runSync(() -> {
-                            ((BendingPlayer)newPlayer).postLoad();
-                            ONLINE_PLAYERS.put(uuid, (BendingPlayer) newPlayer);
-                        });
-                    } else {
-                        newPlayer = new OfflineBendingPlayer(offlinePlayer);
-                    }
-                    PLAYERS.put(uuid, newPlayer);
-                    ThreadUtil.runSync(() -> Bukkit.getPluginManager().callEvent(new BendingPlayerLoadEvent(newPlayer)));
-                    future.complete(newPlayer);
-                    LOADING.remove(uuid);
+            final PlayerData data = prefetchedData != null ? prefetchedData : PlayerDAO.loadAll(uuid);
+            if (data == null) {
+                LOADING.remove(uuid);
+                future.cancel(true);
+                return;
+            }
+            final Map<String, String> row = data.getRow();
+
+            if (row.isEmpty()) { // Data doesn't exist, we want a completely new player.
+                PlayerDAO.createPlayer(uuid, offlinePlayer.getName());
+                ProjectKorra.log.info("Created new BendingPlayer for " + offlinePlayer.getName());
+                OfflineBendingPlayer newPlayer;
+                if (offlinePlayer.isOnline()) {
+                    newPlayer = new BendingPlayer((Player)offlinePlayer);
+                    //Call postLoad() on the main thread and wait for it to complete
+                    ThreadUtil.runSync(() -> {
+                        ((BendingPlayer)newPlayer).postLoad();
+                        ONLINE_PLAYERS.put(uuid, (BendingPlayer) newPlayer);
+                    });
                 } else {
-                    // The player has at least played before.
-                    final String player2 = rs2.getString("player");
-                    if (!offlinePlayer.getName().equalsIgnoreCase(player2)) {
-                        DBConnection.sql.modifyQuery("UPDATE pk_players SET player = '" + offlinePlayer.getName() + "' WHERE uuid = '" + uuid.toString() + "'");
-                        // They have changed names.
-                        ProjectKorra.log.info("Updating Player Name for " + offlinePlayer.getName());
-                    }
-                    final String subelementField = rs2.getString("subelement");
-                    final String elementField = rs2.getString("element");
-                    final String permaremovedField = rs2.getString("permaremoved");
-
-                    //Load the elements
-                    if (elementField != null && !elementField.equalsIgnoreCase("NULL")) {
-                        final boolean hasAddon = elementField.contains(";");
-                        final String[] split = elementField.split(";");
-                        if (split.length > 0 && !split[0].equals("")) { // Player has an element.
-                            if (split[0].contains("a")) {
-                                bPlayer.elements.add(Element.AIR);
-                            }
-                            if (split[0].contains("w")) {
-                                bPlayer.elements.add(Element.WATER);
-                            }
-                            if (split[0].contains("e")) {
-                                bPlayer.elements.add(Element.EARTH);
-                            }
-                            if (split[0].contains("f")) {
-                                bPlayer.elements.add(Element.FIRE);
-                            }
-                            if (split[0].contains("c")) {
-                                bPlayer.elements.add(Element.CHI);
-                            }
+                    newPlayer = new OfflineBendingPlayer(offlinePlayer);
+                }
+                PLAYERS.put(uuid, newPlayer);
+                ThreadUtil.runSync(() -> Bukkit.getPluginManager().callEvent(new BendingPlayerLoadEvent(newPlayer)));
+                future.complete(newPlayer);
+                LOADING.remove(uuid);
+            } else {
+                // The player has at least played before.
+                final String player2 = row.get("player");
+                if (!offlinePlayer.getName().equalsIgnoreCase(player2)) {
+                    PlayerDAO.updateName(uuid, offlinePlayer.getName());
+                    // They have changed names.
+                    ProjectKorra.log.info("Updating Player Name for " + offlinePlayer.getName());
+                }
+                final String subelementField = row.get("subelement");
+                final String elementField = row.get("element");
+                final String permaremovedField = row.get("permaremoved");
+
+                //Load the elements
+                if (elementField != null && !elementField.equalsIgnoreCase("NULL")) {
+                    final boolean hasAddon = elementField.contains(";");
+                    final String[] split = elementField.split(";");
+                    if (split.length > 0 && !split[0].equals("")) { // Player has an element.
+                        if (split[0].contains("a")) {
+                            bPlayer.elements.add(Element.AIR);
                         }
-                        if (hasAddon) {
-                            /*
-                             * Because plugins which depend on ProjectKorra
-                             * would be loaded after ProjectKorra, addon
-                             * elements would = null. To work around this, we
-                             * keep trying to load in the elements from the
-                             * database until it successfully loads everything
-                             * in, or it times out.
-                             */
-                            final CopyOnWriteArrayList<String> addonClone = new CopyOnWriteArrayList<>(Arrays.asList(split[split.length - 1].split(",")));
-                            final long startTime = System.currentTimeMillis();
-                            final long timeoutLength = 5_000; // How long until it should time out attempting to load addons in.
-                            OfflineBendingPlayer finalBPlayer = bPlayer;
-                            Predicate<List<String>> func = (elements) -> {
-                                if (System.currentTimeMillis() - startTime > timeoutLength) {
-                                    ProjectKorra.log.severe("ProjectKorra has timed out after attempting to load in the following addon elements: " + addonClone.toString());
-                                    ProjectKorra.log.severe("These elements have taken too long to load in, resulting in users having lost these element.");
-                                    return true;
-                                } else {
-                                    ProjectKorra.log.info("Attempting to load in the following addon elements... " + elements.toString());
-                                    for (final String addon : elements) {
-                                        if (Element.getElement(addon) != null) {
-                                            finalBPlayer.elements.add(Element.getElement(addon));
-                                            elements.remove(addon);
-                                        }
-                                    }
-                                    if (elements.isEmpty()) {
-                                        ProjectKorra.log.info("Successfully loaded in all addon elements!");
-                                        return true;
+                        if (split[0].contains("w")) {
+                            bPlayer.elements.add(Element.WATER);
+                        }
+                        if (split[0].contains("e")) {
+                            bPlayer.elements.add(Element.EARTH);
+                        }
+                        if (split[0].contains("f")) {
+                            bPlayer.elements.add(Element.FIRE);
+                        }
+                        if (split[0].contains("c")) {
+                            bPlayer.elements.add(Element.CHI);
+                        }
+                    }
+                    if (hasAddon) {
+                        /*
+                         * Because plugins which depend on ProjectKorra
+                         * would be loaded after ProjectKorra, addon
+                         * elements would = null. To work around this, we
+                         * keep trying to load in the elements from the
+                         * database until it successfully loads everything
+                         * in, or it times out.
+                         */
+                        final CopyOnWriteArrayList<String> addonClone = new CopyOnWriteArrayList<>(Arrays.asList(split[split.length - 1].split(",")));
+                        final long startTime = System.currentTimeMillis();
+                        final long timeoutLength = 5_000; // How long until it should time out attempting to load addons in.
+                        OfflineBendingPlayer finalBPlayer = bPlayer;
+                        Predicate<List<String>> func = (elements) -> {
+                            if (System.currentTimeMillis() - startTime > timeoutLength) {
+                                ProjectKorra.log.severe("ProjectKorra has timed out after attempting to load in the following addon elements: " + addonClone.toString());
+                                ProjectKorra.log.severe("These elements have taken too long to load in, resulting in users having lost these element.");
+                                return true;
+                            } else {
+                                ProjectKorra.log.info("Attempting to load in the following addon elements... " + elements.toString());
+                                for (final String addon : elements) {
+                                    if (Element.getElement(addon) != null) {
+                                        finalBPlayer.elements.add(Element.getElement(addon));
+                                        elements.remove(addon);
                                     }
                                 }
-                                return false;
-                            };
+                                if (elements.isEmpty()) {
+                                    ProjectKorra.log.info("Successfully loaded in all addon elements!");
+                                    return true;
+                                }
+                            }
+                            return false;
+                        };
 
-                            if (onStartup) { //If we are doing this on startup, addon elements aren't loaded yet. So do this async
-                                ThreadUtil.runAsyncLater(() -> func.test(addonClone),500L);
-                            } else func.test(addonClone); //Addon elements should be loaded so
-                        }
+                        if (onStartup) { //If we are doing this on startup, addon elements aren't loaded yet. So do this async
+                            ThreadUtil.runAsyncLater(() -> func.test(addonClone),500L);
+                        } else func.test(addonClone); //Addon elements should be loaded so
                     }
+                }
 
-                    //Load subelements
-                    if (subelementField != null && !subelementField.equalsIgnoreCase("NULL")) {
-                        final boolean hasAddon = subelementField.contains(";");
-                        final String[] split = subelementField.split(";");
-
-                        //If the subelements aren't defined, we give them now
-                        if (subelementField.equals("-")) {
-                            boolean shouldSave = false;
-                            if (offlinePlayer instanceof Player) { //Only if the player is online though
-                                subloop:
-                                for (final SubElement sub : Element.getAllSubElements()) {
-                                    if (sub instanceof Element.MultiSubElement) { //If it's a multisub, check if they have any of the parent element and perm for the sub of that parent
-                                        for (Element parent : ((Element.MultiSubElement) sub).getParentElements()) {
-                                            if (((Player) offlinePlayer).hasPermission("bending." + parent.getName() + "." + sub.getName() + sub.getType().getBending()) && bPlayer.elements.contains(sub.getParentElement())) {
-                                                bPlayer.subelements.add(sub);
-                                                continue subloop;
-                                            }
+                //Load subelements
+                if (subelementField != null && !subelementField.equalsIgnoreCase("NULL")) {
+                    final boolean hasAddon = subelementField.contains(";");
+                    final String[] split = subelementField.split(";");
+
+                    //If the subelements aren't defined, we give them now
+                    if (subelementField.equals("-")) {
+                        boolean shouldSave = false;
+                        if (offlinePlayer instanceof Player) { //Only if the player is online though
+                            subloop:
+                            for (final SubElement sub : Element.getAllSubElements()) {
+                                if (sub instanceof Element.MultiSubElement) { //If it's a multisub, check if they have any of the parent element and perm for the sub of that parent
+                                    for (Element parent : ((Element.MultiSubElement) sub).getParentElements()) {
+                                        if (((Player) offlinePlayer).hasPermission("bending." + parent.getName() + "." + sub.getName() + sub.getType().getBending()) && bPlayer.elements.contains(sub.getParentElement())) {
+                                            bPlayer.subelements.add(sub);
+                                            continue subloop;
                                         }
-                                    } else if (((Player)offlinePlayer).hasPermission("bending." + sub.getParentElement().getName().toLowerCase() + "." + sub.getName().toLowerCase() + sub.getType().getBending())
-                                            && bPlayer.elements.contains(sub.getParentElement())) {
-                                        bPlayer.subelements.add(sub);
-                                        shouldSave = true;
                                     }
+                                } else if (((Player)offlinePlayer).hasPermission("bending." + sub.getParentElement().getName().toLowerCase() + "." + sub.getName().toLowerCase() + sub.getType().getBending())
+                                        && bPlayer.elements.contains(sub.getParentElement())) {
+                                    bPlayer.subelements.add(sub);
+                                    shouldSave = true;
                                 }
-                                if (shouldSave) bPlayer.saveSubElements();
-                            }
-                        } else if (split.length > 0 && !split[0].equals("")) {
-                            if (split[0].contains("m")) {
-                                bPlayer.subelements.add(Element.METAL);
-                            }
-                            if (split[0].contains("v")) {
-                                bPlayer.subelements.add(Element.LAVA);
-                            }
-                            if (split[0].contains("s")) {
-                                bPlayer.subelements.add(Element.SAND);
-                            }
-                            if (split[0].contains("c")) {
-                                bPlayer.subelements.add(Element.COMBUSTION);
-                            }
-                            if (split[0].contains("l")) {
-                                bPlayer.subelements.add(Element.LIGHTNING);
-                            }
-                            if (split[0].contains("t")) {
-                                bPlayer.subelements.add(Element.SPIRITUAL);
-                            }
-                            if (split[0].contains("f")) {
-                                bPlayer.subelements.add(Element.FLIGHT);
-                            }
-                            if (split[0].contains("i")) {
-                                bPlayer.subelements.add(Element.ICE);
-                            }
-                            if (split[0].contains("h")) {
-                                bPlayer.subelements.add(Element.HEALING);
-                            }
-                            if (split[0].contains("b")) {
-                                bPlayer.subelements.add(Element.BLOOD);
-                            }
-                            if (split[0].contains("p")) {
-                                bPlayer.subelements.add(Element.PLANT);
-                            }
-                            if (split[0].contains("r")) {
-                                bPlayer.subelements.add(Element.BLUE_FIRE);
                             }
+                            if (shouldSave) bPlayer.saveSubElements();
                         }
-                        if (hasAddon) {
-                            final CopyOnWriteArrayList<String> addonClone = new CopyOnWriteArrayList<String>(Arrays.asList(split[split.length - 1].split(",")));
-                            final long startTime = System.currentTimeMillis();
-                            final long timeoutLength = 5_000; // How long until it should time out attempting to load addons in.
-                            OfflineBendingPlayer finalBPlayer1 = bPlayer;
-                            Predicate<List<String>> func = (elements) -> {
-                                if (System.currentTimeMillis() - startTime > timeoutLength) {
-                                    ProjectKorra.log.severe("ProjectKorra has timed out after attempting to load in the following addon subelements: " + addonClone.toString());
-                                    ProjectKorra.log.severe("These subelements have taken too long to load in, resulting in users having lost these subelement.");
-                                    return true;
-                                } else {
-                                    ProjectKorra.log.info("Attempting to load in the following addon subelements... " + elements.toString());
-                                    for (final String addon : elements) {
-                                        if (Element.getElement(addon) != null && Element.getElement(addon) instanceof SubElement) {
-                                            finalBPlayer1.subelements.add((SubElement) Element.getElement(addon));
-                                            elements.remove(addon);
-                                        }
-                                    }
-
-                                    if (elements.isEmpty()) {
-                                        ProjectKorra.log.info("Successfully loaded in all addon subelements!");
-                                        return true;
-                                    }
-                                    return false;
-                                }
-                            };
-                            if (onStartup) { //If we are doing this on startup, addon elements aren't loaded yet. So do this async
-                                ThreadUtil.runAsyncLater(() -> func.test(addonClone), 500L);
-                            } else func.test(addonClone); //Addon elements should be loaded by now
+                    } else if (split.length > 0 && !split[0].equals("")) {
+                        if (split[0].contains("m")) {
+                            bPlayer.subelements.add(Element.METAL);
+                        }
+                        if (split[0].contains("v")) {
+                            bPlayer.subelements.add(Element.LAVA);
+                        }
+                        if (split[0].contains("s")) {
+                            bPlayer.subelements.add(Element.SAND);
+                        }
+                        if (split[0].contains("c")) {
+                            bPlayer.subelements.add(Element.COMBUSTION);
+                        }
+                        if (split[0].contains("l")) {
+                            bPlayer.subelements.add(Element.LIGHTNING);
+                        }
+                        if (split[0].contains("t")) {
+                            bPlayer.subelements.add(Element.SPIRITUAL);
+                        }
+                        if (split[0].contains("f")) {
+                            bPlayer.subelements.add(Element.FLIGHT);
+                        }
+                        if (split[0].contains("i")) {
+                            bPlayer.subelements.add(Element.ICE);
+                        }
+                        if (split[0].contains("h")) {
+                            bPlayer.subelements.add(Element.HEALING);
+                        }
+                        if (split[0].contains("b")) {
+                            bPlayer.subelements.add(Element.BLOOD);
+                        }
+                        if (split[0].contains("p")) {
+                            bPlayer.subelements.add(Element.PLANT);
+                        }
+                        if (split[0].contains("r")) {
+                            bPlayer.subelements.add(Element.BLUE_FIRE);
                         }
                     }
+                    if (hasAddon) {
+                        final CopyOnWriteArrayList<String> addonClone = new CopyOnWriteArrayList<String>(Arrays.asList(split[split.length - 1].split(",")));
+                        final long startTime = System.currentTimeMillis();
+                        final long timeoutLength = 5_000; // How long until it should time out attempting to load addons in.
+                        OfflineBendingPlayer finalBPlayer1 = bPlayer;
+                        Predicate<List<String>> func = (elements) -> {
+                            if (System.currentTimeMillis() - startTime > timeoutLength) {
+                                ProjectKorra.log.severe("ProjectKorra has timed out after attempting to load in the following addon subelements: " + addonClone.toString());
+                                ProjectKorra.log.severe("These subelements have taken too long to load in, resulting in users having lost these subelement.");
+                                return true;
+                            } else {
+                                ProjectKorra.log.info("Attempting to load in the following addon subelements... " + elements.toString());
+                                for (final String addon : elements) {
+                                    if (Element.getElement(addon) != null && Element.getElement(addon) instanceof SubElement) {
+                                        finalBPlayer1.subelements.add((SubElement) Element.getElement(addon));
+                                        elements.remove(addon);
+                                    }
+                                }
 
-                    //Load the abilities
-                    final ConcurrentHashMap<Integer, String> abilitiesClone = new ConcurrentHashMap<>();
-                    for (int i = 1; i <= 9; i++) {
-                        final String ability = rs2.getString("slot" + i);
-                        abilitiesClone.put(i, ability);
-                    }
-                    final long startTime = System.currentTimeMillis();
-                    final long timeoutLength = 5_000; // How long until it should time out attempting to load addons in.
-                    OfflineBendingPlayer finalBPlayer2 = bPlayer;
-                    Predicate<Map<Integer, String>> func = (abils) -> {
-                        if (System.currentTimeMillis() - startTime > timeoutLength) {
-                            ProjectKorra.log.severe("ProjectKorra has timed out after attempting to load in the following abilities: " + abilitiesClone.toString());
-                            ProjectKorra.log.severe("These abilities have taken too long to load in, resulting in users having lost these abilities.");
-                            return true;
-                        } else {
-                            for (final Map.Entry<Integer, String> set : abils.entrySet()) {
-                                if (set.getValue() == null || set.getValue().equalsIgnoreCase("null")) {
-                                    abils.remove(set.getKey());
-                                } else if (CoreAbility.getAbility(set.getValue()) != null && CoreAbility.getAbility(set.getValue()).isEnabled()) {
-                                    finalBPlayer2.abilities.put(set.getKey(), set.getValue());
-                                    abils.remove(set.getKey());
+                                if (elements.isEmpty()) {
+                                    ProjectKorra.log.info("Successfully loaded in all addon subelements!");
+                                    return true;
                                 }
+                                return false;
                             }
+                        };
+                        if (onStartup) { //If we are doing this on startup, addon elements aren't loaded yet. So do this async
+                            ThreadUtil.runAsyncLater(() -> func.test(addonClone), 500L);
+                        } else func.test(addonClone); //Addon elements should be loaded by now
+                    }
+                }
 
-                            if (abils.isEmpty()) {
-                                ProjectKorra.log.info("Successfully loaded in all abilities!");
-                                return true;
+                //Load the abilities
+                final ConcurrentHashMap<Integer, String> abilitiesClone = new ConcurrentHashMap<>();
+                for (int i = 1; i <= 9; i++) {
+                    final String ability = row.get("slot" + i);
+                    abilitiesClone.put(i, ability);
+                }
+                final long startTime = System.currentTimeMillis();
+                final long timeoutLength = 5_000; // How long until it should time out attempting to load addons in.
+                OfflineBendingPlayer finalBPlayer2 = bPlayer;
+                Predicate<Map<Integer, String>> func = (abils) -> {
+                    if (System.currentTimeMillis() - startTime > timeoutLength) {
+                        ProjectKorra.log.severe("ProjectKorra has timed out after attempting to load in the following abilities: " + abilitiesClone.toString());
+                        ProjectKorra.log.severe("These abilities have taken too long to load in, resulting in users having lost these abilities.");
+                        return true;
+                    } else {
+                        for (final Map.Entry<Integer, String> set : abils.entrySet()) {
+                            if (set.getValue() == null || set.getValue().equalsIgnoreCase("null")) {
+                                abils.remove(set.getKey());
+                            } else if (CoreAbility.getAbility(set.getValue()) != null && CoreAbility.getAbility(set.getValue()).isEnabled()) {
+                                finalBPlayer2.abilities.put(set.getKey(), set.getValue());
+                                abils.remove(set.getKey());
                             }
-                            return false;
                         }
-                    };
-                    if (onStartup) { //If we are doing this on startup, addon elements aren't loaded yet. So do this async
-                        ThreadUtil.runAsyncLater(() -> func.test(abilitiesClone), 500L);
-                    } else func.test(abilitiesClone); //Addon elements should be loaded by now
-
-                    //Load permaRemove
-                    if (permaremovedField != null && permaremovedField.equalsIgnoreCase("true")) bPlayer.permaRemoved = true;
-
-                    //Load cooldowns
-                    if (ProjectKorra.isDatabaseCooldownsEnabled()) {
-                        try (ResultSet rs = DBConnection.sql.readQuery("SELECT * FROM pk_cooldowns WHERE uuid = '" + uuid.toString() + "'")) {
-                            while (rs.next()) {
-                                final String name = rs.getString("cooldown");
-                                final long value = rs.getLong("value");
-                                bPlayer.cooldowns.put(name, new Cooldown(value, true));
-                            }
-                        } catch (final SQLException e) {
-                            e.printStackTrace();
+
+                        if (abils.isEmpty()) {
+                            ProjectKorra.log.info("Successfully loaded in all abilities!");
+                            return true;
                         }
+                        return false;
                     }
+                };
+                if (onStartup) { //If we are doing this on startup, addon elements aren't loaded yet. So do this async
+                    ThreadUtil.runAsyncLater(() -> func.test(abilitiesClone), 500L);
+                } else func.test(abilitiesClone); //Addon elements should be loaded by now
+
+                //Load permaRemove
+                if (permaremovedField != null && permaremovedField.equalsIgnoreCase("true")) bPlayer.permaRemoved = true;
+
+                //Load cooldowns
+                if (ProjectKorra.isDatabaseCooldownsEnabled()) {
+                    for (final Map.Entry<String, Long> entry : data.getCooldowns().entrySet()) {
+                        bPlayer.cooldowns.put(entry.getKey(), new Cooldown(entry.getValue(), true));
+                        bPlayer.savedCooldowns.put(entry.getKey(), entry.getValue());
+                    }
+                }
 
-                    //Load tempelements from the database
-                   try (ResultSet rs3 = DBConnection.sql.readQuery("SELECT * FROM pk_temp_elements WHERE uuid = '" + uuid.toString() + "'")) {
-                       Map<Element, Long> elements = new HashMap<>();
-                       Map<SubElement, Long> subElements = new HashMap<>();
-
-                       while (rs3.next()) {
-                            Element element = Element.getElement(rs3.getString("element"));
-                            long time = rs3.getLong("expiry");
-
-                            if (element instanceof SubElement) subElements.put((SubElement) element, time);
-                            else elements.put(element, time);
-                       }
+                //Load tempelements from the database
+                Map<Element, Long> elements = new HashMap<>();
+                Map<SubElement, Long> subElements = new HashMap<>();
+                for (final Map.Entry<String, Long> entry : data.getTempElements().entrySet()) {
+                    Element element = Element.getElement(entry.getKey());
+                    long time = entry.getValue();
 
-                       bPlayer.tempElements = elements;
-                       bPlayer.tempSubElements = subElements;
-                   } catch (SQLException e) {
-                       e.printStackTrace();
-                   }
+                    if (element instanceof SubElement) subElements.put((SubElement) element, time);
+                    else elements.put(element, time);
+                }
 
+                bPlayer.tempElements = elements;
+                bPlayer.tempSubElements = subElements;
+                bPlayer.loadedPresets = data.getPresets();
 
-                    bPlayer.loading = false;
-                    //Call postLoad() on the main thread and wait for it to complete
-                    if (bPlayer instanceof BendingPlayer) {
-                        BendingPlayer finalBPlayer3 = (BendingPlayer) bPlayer;
-                        ThreadUtil.ensureEntity(finalBPlayer3.getPlayer(), () -> {;
-                            finalBPlayer3.postLoad();
-                        });
-                    } else {
-                        bPlayer.uncacheAfter(30_000);
-                    }
 
-                    OfflineBendingPlayer finalBPlayer4 = bPlayer;
-                    ThreadUtil.runSync(() -> {
-                        Bukkit.getPluginManager().callEvent(new BendingPlayerLoadEvent(finalBPlayer4));
-                        LOADING.remove(uuid);
-                        future.complete(finalBPlayer4);
+                bPlayer.loading = false;
+                //Call postLoad() on the main thread and wait for it to complete
+                if (bPlayer instanceof BendingPlayer) {
+                    BendingPlayer finalBPlayer3 = (BendingPlayer) bPlayer;
+                    ThreadUtil.ensureEntity(finalBPlayer3.getPlayer(), () -> {;
+                        finalBPlayer3.postLoad();
                     });
+                } else {
+                    bPlayer.uncacheAfter(30_000);
                 }
-            } catch (final SQLException ex) {
-                ex.printStackTrace();
-                LOADING.remove(uuid);
-                future.cancel(true);
+
+                OfflineBendingPlayer finalBPlayer4 = bPlayer;
+                ThreadUtil.runSync(() -> {
+                    Bukkit.getPluginManager().callEvent(new BendingPlayerLoadEvent(finalBPlayer4));
+                    LOADING.remove(uuid);
+                    future.complete(finalBPlayer4);
+                });
             }
         };
 
-        ThreadUtil.runAsync(runnable);
+        //A returning player's prefetched data needs no more queries, so it can be used right away
+        if (prefetchedData != null && !prefetchedData.getRow().isEmpty()) runnable.run();
+        else ThreadUtil.runAsync(runnable);
 
         return future;
     }
@@ -490,7 +557,7 @@ public class OfflineBendingPlayer {
                 subs.append("NULL");
             }
 
-            DBConnection.sql.modifyQuery("UPDATE pk_players SET subelement = '" + subs.toString() + "' WHERE uuid = '" + uuid + "'");
+            PlayerDAO.updateSubElements(this.uuid, subs.toString());
         }, 1L);
     }
 
@@ -531,7 +598,7 @@ public class OfflineBendingPlayer {
                 elements.append("NULL");
             }
 
-            DBConnection.sql.modifyQuery("UPDATE pk_players SET element = '" + elements.toString() + "' WHERE uuid = '" + uuid + "'");
+            PlayerDAO.updateElements(this.uuid, elements.toString());
         }, 1L);
     }
 
@@ -541,21 +608,14 @@ public class OfflineBendingPlayer {
     public void saveTempElements() {
         ThreadUtil.runAsyncLater(() -> {
 
-            try {
-                DBConnection.sql.getConnection().setAutoCommit(false);
-                DBConnection.sql.modifyQuery("DELETE FROM pk_temp_elements WHERE uuid = '" + uuid + "'");
-                DBConnection.sql.getConnection().commit(); //Force the delete statement to go through before the next SQL statement
-                for (Element e : this.tempElements.keySet()) {
-                    DBConnection.sql.modifyQuery("INSERT INTO pk_temp_elements (uuid, element, expiry) VALUES ('" + uuid + "', '" + e.getName() + "', " + this.tempElements.get(e) + ")");
-                }
-                for (Element e : this.tempSubElements.keySet()) {
-                    DBConnection.sql.modifyQuery("INSERT INTO pk_temp_elements (uuid, element, expiry) VALUES ('" + uuid + "', '" + e.getName() + "', " + this.tempSubElements.get(e) + ")");
-                }
-                DBConnection.sql.getConnection().commit(); //Force the delete statement to go through before the next SQL statement
-                DBConnection.sql.getConnection().setAutoCommit(true);
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
+            final Map<String, Long> elements = new HashMap<>();
+            for (Element e : this.tempElements.keySet()) {
+                elements.put(e.getName(), this.tempElements.get(e));
+            }
+            for (Element e : this.tempSubElements.keySet()) {
+                elements.put(e.getName(), this.tempSubElements.get(e));
             }
+            PlayerDAO.saveTempElements(this.uuid, elements);
 
 
         }, 1L);
@@ -615,7 +675,7 @@ public class OfflineBendingPlayer {
             return;
         }
 
-        DBConnection.sql.modifyQuery("UPDATE pk_players SET slot" + slot + " = '" + (this.abilities.get(slot) == null ? null : abilities.get(slot)) + "' WHERE uuid = '" + uuid + "'");
+        PlayerDAO.updateSlots(this.uuid, this.abilities);
     }
 
     /**
@@ -750,7 +810,35 @@ public class OfflineBendingPlayer {
     }
 
     public CoreAbility getBoundAbility() {
-        return CoreAbility.getAbility(this.getBoundAbilityName());
+        return CoreAbility.getAbility(this.getBoundAbilityId());
+    }
+
+    /**
+     * Gets the id of the Ability bound to the slot that the player is in.
+     *
+     * @return The {@link CoreAbility#getAbilityId() ability id}, or -1 if the slot is empty or not a registered ability
+     */
+    public int getBoundAbilityId() {
+        return this.getBoundAbilityId(getCurrentSlot() + 1);
+    }
+
+    /**
+     * Gets the id of the Ability bound to a slot. The id is only looked up again when the name in the slot changes.
+     *
+     * @param slot The slot, from 1 to 9
+     * @return The {@link CoreAbility#getAbilityId() ability id}, or -1 if the slot is empty or not a registered ability
+     */
+    public int getBoundAbilityId(final int slot) {
+        final String name = this.getAbilities().get(slot);
+        if (name == null || slot < 0 || slot >= this.boundIds.length) {
+            return name == null ? -1 : CoreAbility.getAbilityId(name);
+        } else if (name != this.boundNames[slot]) {
+            final int id = CoreAbility.getAbilityId(name);
+            if (id < 0) return -1; //Not cached, as the ability may not have been registered yet
+            this.boundIds[slot] = id;
+            this.boundNames[slot] = name;
+        }
+        return this.boundIds[slot];
     }
 
     /**
@@ -763,11 +851,8 @@ public class OfflineBendingPlayer {
      *         </p>
      */
     public long getCooldown(final String ability) {
-        if (this.cooldowns.containsKey(ability)) {
-            return this.cooldowns.get(ability).getCooldown();
-        }
-
-        return -1;
+        final long expiry = this.cooldowns.getExpiry(ability);
+        return expiry != 0 ? expiry : -1;
     }
 
     /**
@@ -858,24 +943,20 @@ public class OfflineBendingPlayer {
     }
 
     /**
-     * Commits cooldowns to the database
+     * Commits the cooldowns that changed since they were last saved to the
+     * database
      */
     private void saveCooldownsForce() {
-        DBConnection.sql.modifyQuery("DELETE FROM pk_cooldowns WHERE uuid = '" + this.uuid.toString() + "'", false);
+        final Map<String, Long> cooldowns = new HashMap<>();
         for (final Map.Entry<String, Cooldown> entry : this.cooldowns.entrySet()) {
-            final String name = entry.getKey();
-            final Cooldown cooldown = entry.getValue();
-            if (!cooldown.isDatabase()) continue;
-            try (ResultSet rs = DBConnection.sql.readQuery("SELECT value FROM pk_cooldowns WHERE uuid = '" + this.uuid.toString() + "' AND cooldown = '" + name + "'")) {
-                if (rs.next()) {
-                    DBConnection.sql.modifyQuery("UPDATE pk_cooldowns SET value = " + cooldown.getCooldown() + " WHERE uuid = '" + this.uuid.toString() + "' AND cooldown = '" + name + "'", false);
-                } else {
-                    DBConnection.sql.modifyQuery("INSERT INTO  pk_cooldowns (uuid, cooldown, value) VALUES ('" + this.uuid.toString() + "', '" + name + "', " + cooldown.getCooldown() + ")", false);
-                }
-            } catch (final SQLException e) {
-                e.printStackTrace();
+            if (entry.getValue().isDatabase()) {
+                cooldowns.put(entry.getKey(), entry.getValue().getCooldown());
             }
         }
+        final Map<String, Long> saved = this.savedCooldowns;
+        synchronized (saved) { //Two saves at once would both write the same changes
+            PlayerDAO.saveCooldowns(this.uuid, cooldowns, saved);
+        }
     }
 
     public void saveCooldowns(boolean async) {
@@ -931,6 +1012,8 @@ public class OfflineBendingPlayer {
      * @return true If the player has the element
      */
     public boolean hasTempElement(@NotNull final Element element) {
+        if (this.tempElements.isEmpty() && this.tempSubElements.isEmpty()) return false; //Most players never have any
+
         if (element.isAvatarElement() && hasTempElement(Element.AVATAR)) return true;
 
         if (element instanceof SubElement) return this.hasTempSubElement((SubElement) element);
@@ -943,6 +1026,8 @@ public class OfflineBendingPlayer {
      * @return true If the player has the subelement
      */
     public boolean hasTempSubElement(@NotNull final SubElement sub) {
+        if (this.tempSubElements.isEmpty()) return false;
+
         return this.tempSubElements.containsKey(sub) && (this.tempSubElements.get(sub) == -1 || //-1 means that the time is linked to the parent element
                 this.tempSubElements.get(sub) > System.currentTimeMillis());
     }
@@ -1086,9 +1171,7 @@ public class OfflineBendingPlayer {
 
         this.abilities = abilities;
 
-        for (int i = 1; i <= 9; i++) {
-            DBConnection.sql.modifyQuery("UPDATE pk_players SET slot" + i + " = '" + abilities.get(i) + "' WHERE uuid = '" + this.uuid + "'");
-        }
+        PlayerDAO.updateSlots(this.uuid, abilities);
     }
 
     /**
@@ -1109,7 +1192,7 @@ public class OfflineBendingPlayer {
      */
     public void setPermaRemoved(final boolean permaRemoved) {
         this.permaRemoved = permaRemoved;
-        DBConnection.sql.modifyQuery("UPDATE pk_players SET permaremoved = '" + (permaRemoved ? "true" : "false") + "' WHERE uuid = '" + uuid + "'");
+        PlayerDAO.updatePermaRemoved(this.uuid, permaRemoved);
     }
 
     public void toggleBending() {
@@ -1251,12 +1334,9 @@ public class OfflineBendingPlayer {
         bendingPlayer.allPassivesToggled = offlineBendingPlayer.allPassivesToggled;
         bendingPlayer.permaRemoved = offlineBendingPlayer.permaRemoved;
         bendingPlayer.cooldowns.putAll(offlineBendingPlayer.cooldowns);
+        bendingPlayer.savedCooldowns = offlineBendingPlayer.savedCooldowns;
         bendingPlayer.loading = false;
 
-        if (offlineBendingPlayer.uncache != null) {
-            ThreadUtil.cancelTimerTask(offlineBendingPlayer.uncache);
-        }
-
         PLAYERS.put(player.getUniqueId(), bendingPlayer);
         ONLINE_PLAYERS.put(player.getUniqueId(), bendingPlayer);
 
@@ -1282,6 +1362,7 @@ public class OfflineBendingPlayer {
         offlineBendingPlayer.allPassivesToggled = bendingPlayer.allPassivesToggled;
         offlineBendingPlayer.permaRemoved = bendingPlayer.permaRemoved;
         offlineBendingPlayer.cooldowns.putAll(bendingPlayer.cooldowns);
+        offlineBendingPlayer.savedCooldowns = bendingPlayer.savedCooldowns;
         offlineBendingPlayer.loading = false;
         offlineBendingPlayer.lastAccessed = System.currentTimeMillis();
 
@@ -1294,22 +1375,15 @@ public class OfflineBendingPlayer {
     }
 
     /**
-     * Uncaches this instance of an Offline BendingPlayer.
+     * Uncaches this instance of an Offline BendingPlayer if it hasn't been used for its
+     * unload time. Otherwise, it is left for the cache sweeper to unload once it has.
      */
     public void uncache() {
         if (this.player.isOnline() || this instanceof BendingPlayer) return;
 
-        long remaining = (this.lastAccessed + this.uncacheTime) - System.currentTimeMillis();
-
-        if (remaining >= 500) { //If there is at least half a second to go, delay the uncache
-            if (this.uncache != null) ThreadUtil.cancelTimerTask(this.uncache); //Cancel existing task
-            this.uncache = ThreadUtil.runSyncLater(this::uncache, remaining / 50);
-            return;
+        if (System.currentTimeMillis() - this.lastAccessed >= this.uncacheTime) {
+            ThreadUtil.runAsync(() -> evict(this));
         }
-
-        PLAYERS.remove(this.player.getUniqueId());
-        ONLINE_PLAYERS.remove(this.player.getUniqueId());
-        LOADING.remove(this.player.getUniqueId());
     }
 
     /**
@@ -1319,7 +1393,92 @@ public class OfflineBendingPlayer {
     public void uncacheAfter(long time) {
         this.uncacheTime = time;
         this.lastAccessed = System.currentTimeMillis();
-        uncache();
+    }
+
+    /**
+     * Starts the task that unloads offline players. A single task unloads every offline player
+     * that hasn't been used for their unload time, and the least recently used ones when there
+     * are more than Properties.PlayerDataCacheSize.
+     */
+    protected static void startCacheSweeper() {
+        stopCacheSweeper();
+        sweeper = ThreadUtil.runAsyncTimer(OfflineBendingPlayer::sweepCache, SWEEP_INTERVAL, SWEEP_INTERVAL);
+    }
+
+    protected static void stopCacheSweeper() {
+        ThreadUtil.cancelTimerTask(sweeper);
+        sweeper = null;
+    }
+
+    /**
+     * Sweeps the cache as soon as possible, unless a sweep is already waiting to run
+     */
+    private static void queueSweep() {
+        if (SWEEP_QUEUED.compareAndSet(false, true)) {
+            ThreadUtil.runAsync(OfflineBendingPlayer::sweepCache);
+        }
+    }
+
+    private static synchronized void sweepCache() {
+        SWEEP_QUEUED.set(false);
+        purgePrefetched(); //Players who were prefetched but never joined
+        final long now = System.currentTimeMillis();
+        final List<OfflineBendingPlayer> cached = new ArrayList<>();
+        for (final OfflineBendingPlayer bPlayer : PLAYERS.values()) {
+            if (bPlayer instanceof BendingPlayer || bPlayer.player.isOnline() || LOADING.containsKey(bPlayer.uuid)) continue;
+
+            if (now - bPlayer.lastAccessed >= bPlayer.uncacheTime) evict(bPlayer);
+            else cached.add(bPlayer);
+        }
+
+        final int excess = cached.size() - getMaxCacheSize();
+        if (excess > 0) { //Unload the least recently used players to get back under the limit
+            cached.sort(Comparator.comparingLong(bPlayer -> bPlayer.lastAccessed));
+            for (int i = 0; i < excess; i++) {
+                evict(cached.get(i));
+            }
+        }
+    }
+
+    /**
+     * Writes anything of the player's that isn't saved yet, then unloads them
+     */
+    private static void evict(final OfflineBendingPlayer bPlayer) {
+        if (PLAYERS.get(bPlayer.uuid) != bPlayer || bPlayer.player.isOnline()) return;
+
+        if (ProjectKorra.isDatabaseCooldownsEnabled()) {
+            bPlayer.saveCooldowns(false);
+        }
+        PlayerDataQueue.flush(bPlayer.uuid);
+
+        if (PLAYERS.remove(bPlayer.uuid, bPlayer)) {
+            CACHE_EVICTIONS.incrementAndGet();
+        }
+    }
+
+    private static int getMaxCacheSize() {
+        return ConfigManager.defaultConfig.get().getInt("Properties.PlayerDataCacheSize");
+    }
+
+    /**
+     * @return How many times a player was found already loaded
+     */
+    public static long getCacheHits() {
+        return CACHE_HITS.get();
+    }
+
+    /**
+     * @return How many times a player had to be loaded from the database
+     */
+    public static long getCacheMisses() {
+        return CACHE_MISSES.get();
+    }
+
+    /**
+     * @return How many offline players have been unloaded
+     */
+    public static long getCacheEvictions() {
+        return CACHE_EVICTIONS.get();
     }
 
     /**
@@ -13,8 +13,6 @@ import java.util.stream.Collectors;
 import com.projectkorra.projectkorra.Element.SubElement;
 import com.projectkorra.projectkorra.ability.Ability;
 import com.projectkorra.projectkorra.ability.AddonAbility;
-import com.projectkorra.projectkorra.ability.AirAbility;
-import com.projectkorra.projectkorra.ability.AvatarAbility;
 import com.projectkorra.projectkorra.ability.BlueFireAbility;
 import com.projectkorra.projectkorra.ability.ChiAbility;
 import com.projectkorra.projectkorra.ability.CoreAbility;
@@ -25,12 +23,9 @@ import com.projectkorra.projectkorra.ability.WaterAbility;
 import com.projectkorra.projectkorra.ability.util.ComboManager;
 import com.projectkorra.projectkorra.ability.util.MultiAbilityManager;
 import com.projectkorra.projectkorra.ability.util.PassiveManager;
-import com.projectkorra.projectkorra.airbending.AirBlast;
+import com.projectkorra.projectkorra.ability.util.TriggerManager;
 import com.projectkorra.projectkorra.airbending.AirBurst;
-import com.projectkorra.projectkorra.airbending.AirScooter;
-import com.projectkorra.projectkorra.airbending.AirShield;
 import com.projectkorra.projectkorra.airbending.AirSpout;
-import com.projectkorra.projectkorra.airbending.AirSuction;
 import com.projectkorra.projectkorra.airbending.AirSwipe;
 import com.projectkorra.projectkorra.airbending.Suffocate;
 import com.projectkorra.projectkorra.airbending.Tornado;
@@ -43,36 +38,25 @@ import com.projectkorra.projectkorra.attribute.AttributeModifier;
 import com.projectkorra.projectkorra.attribute.markers.DayNightFactor;
 import com.projectkorra.projectkorra.avatar.AvatarState;
 import com.projectkorra.projectkorra.board.BendingBoardManager;
-import com.projectkorra.projectkorra.chiblocking.AcrobatStance;
-import com.projectkorra.projectkorra.chiblocking.HighJump;
 import com.projectkorra.projectkorra.chiblocking.Paralyze;
 import com.projectkorra.projectkorra.chiblocking.QuickStrike;
 import com.projectkorra.projectkorra.chiblocking.RapidPunch;
 import com.projectkorra.projectkorra.chiblocking.Smokescreen;
 import com.projectkorra.projectkorra.chiblocking.SwiftKick;
-import com.projectkorra.projectkorra.chiblocking.WarriorStance;
 import com.projectkorra.projectkorra.chiblocking.passive.Acrobatics;
 import com.projectkorra.projectkorra.chiblocking.passive.ChiPassive;
 import com.projectkorra.projectkorra.command.Commands;
 import com.projectkorra.projectkorra.configuration.ConfigManager;
 import com.projectkorra.projectkorra.earthbending.Catapult;
-import com.projectkorra.projectkorra.earthbending.Collapse;
-import com.projectkorra.projectkorra.earthbending.CollapseWall;
 import com.projectkorra.projectkorra.earthbending.EarthArmor;
 import com.projectkorra.projectkorra.earthbending.EarthBlast;
 import com.projectkorra.projectkorra.earthbending.EarthGrab;
-import com.projectkorra.projectkorra.earthbending.EarthGrab.GrabMode;
 import com.projectkorra.projectkorra.earthbending.EarthSmash;
-import com.projectkorra.projectkorra.earthbending.EarthTunnel;
-import com.projectkorra.projectkorra.earthbending.RaiseEarth;
-import com.projectkorra.projectkorra.earthbending.RaiseEarthWall;
 import com.projectkorra.projectkorra.earthbending.Shockwave;
 import com.projectkorra.projectkorra.earthbending.Tremorsense;
 import com.projectkorra.projectkorra.earthbending.combo.EarthPillars;
 import com.projectkorra.projectkorra.earthbending.lava.LavaFlow;
-import com.projectkorra.projectkorra.earthbending.lava.LavaFlow.AbilityType;
 import com.projectkorra.projectkorra.earthbending.lava.LavaSurge;
-import com.projectkorra.projectkorra.earthbending.metal.Extraction;
 import com.projectkorra.projectkorra.earthbending.metal.MetalClips;
 import com.projectkorra.projectkorra.earthbending.passive.DensityShift;
 import com.projectkorra.projectkorra.earthbending.passive.EarthPassive;
@@ -87,41 +71,35 @@ import com.projectkorra.projectkorra.event.PlayerJumpEvent;
 import com.projectkorra.projectkorra.event.PlayerStanceChangeEvent;
 import com.projectkorra.projectkorra.event.PlayerSwingEvent;
 import com.projectkorra.projectkorra.event.WorldTimeEvent;
-import com.projectkorra.projectkorra.firebending.Blaze;
-import com.projectkorra.projectkorra.firebending.BlazeRing;
 import com.projectkorra.projectkorra.firebending.FireBlast;
 import com.projectkorra.projectkorra.firebending.FireBlastCharged;
-import com.projectkorra.projectkorra.firebending.FireBurst;
 import com.projectkorra.projectkorra.firebending.FireJet;
-import com.projectkorra.projectkorra.firebending.FireManipulation;
-import com.projectkorra.projectkorra.firebending.FireManipulation.FireManipulationType;
-import com.projectkorra.projectkorra.firebending.FireShield;
 import com.projectkorra.projectkorra.firebending.HeatControl;
-import com.projectkorra.projectkorra.firebending.HeatControl.HeatControlType;
 import com.projectkorra.projectkorra.firebending.Illumination;
-import com.projectkorra.projectkorra.firebending.WallOfFire;
-import com.projectkorra.projectkorra.firebending.combustion.Combustion;
-import com.projectkorra.projectkorra.firebending.lightning.Lightning;
 import com.projectkorra.projectkorra.firebending.passive.FirePassive;
 import com.projectkorra.projectkorra.firebending.util.FireDamageTimer;
 import com.projectkorra.projectkorra.region.RegionProtection;
 import com.projectkorra.projectkorra.object.HorizontalVelocityTracker;
 import com.projectkorra.projectkorra.object.Preset;
+import com.projectkorra.projectkorra.storage.DBConnection;
+import com.projectkorra.projectkorra.storage.PlayerDataQueue;
+import com.projectkorra.projectkorra.util.BendingImmunity;
 import com.projectkorra.projectkorra.util.BlockSource;
 import com.projectkorra.projectkorra.util.ChatUtil;
 import com.projectkorra.projectkorra.util.ClickType;
 import com.projectkorra.projectkorra.util.DamageHandler;
+import com.projectkorra.projectkorra.util.EntitySnapshot;
 import com.projectkorra.projectkorra.util.FlightHandler;
 import com.projectkorra.projectkorra.util.FlightHandler.Flight;
 import com.projectkorra.projectkorra.util.MovementHandler;
 import com.projectkorra.projectkorra.util.PassiveHandler;
 import com.projectkorra.projectkorra.util.StatisticsManager;
 import com.projectkorra.projectkorra.util.StatisticsMethods;
+import com.projectkorra.projectkorra.util.StatusFlags;
 import com.projectkorra.projectkorra.util.TempArmor;
 import com.projectkorra.projectkorra.util.TempBlock;
 import com.projectkorra.projectkorra.util.TempFallingBlock;
 import com.projectkorra.projectkorra.util.ThreadUtil;
-import com.projectkorra.projectkorra.waterbending.OctopusForm;
 import com.projectkorra.projectkorra.waterbending.SurgeWall;
 import com.projectkorra.projectkorra.waterbending.SurgeWave;
 import com.projectkorra.projectkorra.waterbending.Torrent;
@@ -132,10 +110,7 @@ import com.projectkorra.projectkorra.waterbending.WaterSpoutWave;
 import com.projectkorra.projectkorra.waterbending.blood.Bloodbending;
 import com.projectkorra.projectkorra.waterbending.combo.IceBullet;
 import com.projectkorra.projectkorra.waterbending.healing.HealingWaters;
-import com.projectkorra.projectkorra.waterbending.ice.IceBlast;
-import com.projectkorra.projectkorra.waterbending.ice.IceSpikeBlast;
 import com.projectkorra.projectkorra.waterbending.ice.PhaseChange;
-import com.projectkorra.projectkorra.waterbending.ice.PhaseChange.PhaseChangeType;
 import com.projectkorra.projectkorra.waterbending.multiabilities.WaterArms;
 import com.projectkorra.projectkorra.waterbending.passive.FastSwim;
 import com.projectkorra.projectkorra.waterbending.passive.HydroSink;
@@ -180,6 +155,7 @@ import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.entity.EntityInteractEvent;
 import org.bukkit.event.entity.EntityPickupItemEvent;
 import org.bukkit.event.entity.EntityShootBowEvent;
+import org.bukkit.event.entity.EntitySpawnEvent;
 import org.bukkit.event.entity.EntityTargetEvent;
 import org.bukkit.event.entity.EntityTargetLivingEntityEvent;
 import org.bukkit.event.entity.EntityTeleportEvent;
@@ -192,6 +168,7 @@ import org.bukkit.event.entity.SlimeSplitEvent;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryPickupItemEvent;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.player.PlayerGameModeChangeEvent;
@@ -201,9 +178,11 @@ import org.bukkit.event.player.PlayerItemDamageEvent;
 import org.bukkit.event.player.PlayerItemHeldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerKickEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.event.player.PlayerToggleFlightEvent;
 import org.bukkit.event.player.PlayerToggleSneakEvent;
 import org.bukkit.event.server.PluginDisableEvent;
@@ -636,6 +615,11 @@ public class PKListener implements Listener {
 
 	@EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
 	public void onEntityDeath(final EntityDeathEvent event) {
+		if (!(event.getEntity() instanceof Player)) { // Players keep their uuid when they respawn
+			BendingImmunity.forget(event.getEntity());
+			StatusFlags.forget(event.getEntity().getUniqueId());
+		}
+
 		if (TempArmor.hasTempArmor(event.getEntity())) {
 			for (final TempArmor tarmor : TempArmor.getTempArmorList(event.getEntity())) {
 				tarmor.revert(event.getDrops(), false);
@@ -802,6 +786,22 @@ public class PKListener implements Listener {
 		}
 	}
 
+	//An ability that spawns or moves an entity has to see it if it looks for entities again while it progresses
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onEntitySpawnSnapshot(final EntitySpawnEvent event) {
+		EntitySnapshot.invalidate();
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onEntityTeleportSnapshot(final EntityTeleportEvent event) {
+		EntitySnapshot.invalidate();
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onPlayerTeleportSnapshot(final PlayerTeleportEvent event) {
+		EntitySnapshot.invalidate();
+	}
+
 	@EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
 	public void onEntityTeleportEvent(final EntityTeleportEvent event) {
 		final Entity entity = event.getEntity();
@@ -1193,6 +1193,7 @@ public class PKListener implements Listener {
 						ComboManager.addComboAbility(player, ClickType.RIGHT_CLICK);
 					}
 				}
+				TriggerManager.trigger(player, bPlayer, ClickType.RIGHT_CLICK_BLOCK);
 			}
 
 			if (bPlayer.getBoundAbilityName().equalsIgnoreCase("EarthSmash")) {
@@ -1242,6 +1243,10 @@ public class PKListener implements Listener {
 			return;
 		}
 
+		if (event.getHand() == EquipmentSlot.HAND) {
+			TriggerManager.trigger(player, bPlayer, ClickType.RIGHT_CLICK_ENTITY);
+		}
+
 		if (bPlayer.getBoundAbilityName().equalsIgnoreCase("HealingWaters") && event.getHand().equals(EquipmentSlot.HAND)) {
 			final HealingWaters instance = CoreAbility.getAbility(player, HealingWaters.class);
 			if (instance != null && instance.charged) {
@@ -1281,6 +1286,22 @@ public class PKListener implements Listener {
 		}
 	}
 
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerPreLogin(final AsyncPlayerPreLoginEvent event) {
+		//Start reading the player's data while they are still logging in, so it's there when they join
+		if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED && DBConnection.isOpen()) {
+			OfflineBendingPlayer.prefetch(event.getUniqueId());
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerLogin(final PlayerLoginEvent event) {
+		//The prefetched data won't be used if the player was turned away after it was read
+		if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+			OfflineBendingPlayer.discardPrefetched(event.getPlayer().getUniqueId());
+		}
+	}
+
 	@EventHandler
 	public void onPlayerJoin(final PlayerJoinEvent event) {
 		final Player player = event.getPlayer();
@@ -1312,6 +1333,10 @@ public class PKListener implements Listener {
 
 	@EventHandler
 	public void onPlayerChangeWorld(final PlayerChangedWorldEvent event) {
+		final BendingPlayer bPlayer = BendingPlayer.getBendingPlayer(event.getPlayer());
+		if (bPlayer != null) {
+			bPlayer.invalidatePermissions(); //Permissions can be per world
+		}
 		PassiveManager.registerPassives(event.getPlayer());
 		BendingBoardManager.changeWorld(event.getPlayer());
 
@@ -1441,6 +1466,8 @@ public class PKListener implements Listener {
 		}
 
 		Commands.invincible.remove(player.getName());
+		BendingImmunity.forget(player);
+		StatusFlags.forget(player.getUniqueId());
 
 		Preset.unloadPreset(player);
 
@@ -1472,6 +1499,7 @@ public class PKListener implements Listener {
 					if (ProjectKorra.isDatabaseCooldownsEnabled()) {
 						bPlayer.saveCooldowns();
 					}
+					PlayerDataQueue.flush(bPlayer.getUUID());
 					OfflineBendingPlayer converted = OfflineBendingPlayer.convertToOffline(bPlayer);
 					if (!converted.isOnline()) { //We test if they are still offline. If they relog by joining on a different client, they will be online now, and an error will be thrown otherwise.
 						converted.uncacheAfter(ConfigManager.defaultConfig.get().getLong("Properties.PlayerDataUnloadTime", 5 * 60 * 1000));
@@ -1527,7 +1555,6 @@ public class PKListener implements Listener {
 		}
 
 		final CoreAbility coreAbil = bPlayer.getBoundAbility();
-		final String abil = bPlayer.getBoundAbilityName();
 
 		if (coreAbil == null || !coreAbil.isSneakAbility()) {
 			if (PassiveManager.hasPassive(player, CoreAbility.getAbility(FerroControl.class))) {
@@ -1539,142 +1566,7 @@ public class PKListener implements Listener {
 			}
 		}
 
-		if (coreAbil == null) {
-			return;
-		}
-
-		if (!player.isSneaking() && bPlayer.canBendIgnoreCooldowns(coreAbil)) {
-			if (coreAbil instanceof AddonAbility) {
-				return;
-			}
-
-			if (coreAbil instanceof AirAbility && bPlayer.isElementToggled(Element.AIR)) {
-				if (bPlayer.canCurrentlyBendWithWeapons()) {
-					if (abil.equalsIgnoreCase("Tornado")) {
-						new Tornado(player);
-					} else if (abil.equalsIgnoreCase("AirBlast")) {
-						AirBlast.setOrigin(player);
-					} else if (abil.equalsIgnoreCase("AirBurst")) {
-						new AirBurst(player, false);
-					} else if (abil.equalsIgnoreCase("AirSuction")) {
-						new AirSuction(player);
-					} else if (abil.equalsIgnoreCase("AirSwipe")) {
-						new AirSwipe(player, true);
-					} else if (abil.equalsIgnoreCase("AirShield")) {
-						new AirShield(player);
-					} else if (abil.equalsIgnoreCase("Suffocate")) {
-						new Suffocate(player);
-					}
-				}
-			}
-
-			if (coreAbil instanceof WaterAbility && bPlayer.isElementToggled(Element.WATER)) {
-				if (bPlayer.canCurrentlyBendWithWeapons()) {
-					if (abil.equalsIgnoreCase("Bloodbending")) {
-						new Bloodbending(player);
-					} else if (abil.equalsIgnoreCase("IceBlast")) {
-						new IceBlast(player);
-					} else if (abil.equalsIgnoreCase("IceSpike")) {
-						new IceSpikeBlast(player);
-					} else if (abil.equalsIgnoreCase("OctopusForm")) {
-						OctopusForm.form(player);
-					} else if (abil.equalsIgnoreCase("PhaseChange")) {
-						if (!CoreAbility.hasAbility(player, PhaseChange.class)) {
-							new PhaseChange(player, PhaseChangeType.MELT);
-						} else {
-							final PhaseChange pc = CoreAbility.getAbility(player, PhaseChange.class);
-							pc.startNewType(PhaseChangeType.MELT);
-						}
-					} else if (abil.equalsIgnoreCase("WaterManipulation")) {
-						new WaterManipulation(player);
-					} else if (abil.equalsIgnoreCase("WaterBubble")) {
-						new WaterBubble(player, true);
-					} else if (abil.equalsIgnoreCase("Surge")) {
-						SurgeWall.form(player);
-					} else if (abil.equalsIgnoreCase("Torrent")) {
-						Torrent.create(player);
-					} else if (abil.equalsIgnoreCase("WaterArms")) {
-						new WaterArms(player);
-					} else if (abil.equalsIgnoreCase("HealingWaters")) {
-						new HealingWaters(player);
-//					} else if (abil.equalsIgnoreCase("PlantTether")) {
-//						if (CoreAbility.hasAbility(player, PlantTether.class)) {
-//							final PlantTether pt = CoreAbility.getAbility(player, PlantTether.class);
-//							if (pt.isInitial()) {
-//								pt.searchForEntity();
-//							}
-//						} else {
-//							new PlantTether(player);
-//						}
-					}
-				}
-			}
-
-			if (coreAbil instanceof EarthAbility && bPlayer.isElementToggled(Element.EARTH)) {
-				if (bPlayer.canCurrentlyBendWithWeapons()) {
-					if (abil.equalsIgnoreCase("Catapult")) {
-						new Catapult(player, true);
-					} else if (abil.equalsIgnoreCase("EarthBlast")) {
-						new EarthBlast(player);
-					} else if (abil.equalsIgnoreCase("EarthArmor")) {
-						new EarthArmor(player);
-					} else if (abil.equalsIgnoreCase("RaiseEarth")) {
-						new RaiseEarthWall(player);
-					} else if (abil.equalsIgnoreCase("Collapse")) {
-						new CollapseWall(player);
-					} else if (abil.equalsIgnoreCase("Shockwave")) {
-						new Shockwave(player, false);
-					} else if (abil.equalsIgnoreCase("EarthTunnel")) {
-						new EarthTunnel(player);
-					} else if (abil.equalsIgnoreCase("Tremorsense")) {
-						bPlayer.toggleTremorSense();
-						ChatUtil.displayMovePreview(player);
-						BendingBoardManager.updateAllSlots(player);
-					} else if (abil.equalsIgnoreCase("Extraction")) {
-						new Extraction(player);
-					} else if (abil.equalsIgnoreCase("LavaFlow")) {
-						new LavaFlow(player, LavaFlow.AbilityType.SHIFT);
-					} else if (abil.equalsIgnoreCase("EarthSmash")) {
-						new EarthSmash(player, ClickType.SHIFT_DOWN);
-					} else if (abil.equalsIgnoreCase("MetalClips")) {
-						final MetalClips clips = CoreAbility.getAbility(player, MetalClips.class);
-						if (clips != null) {
-							if (clips.getTargetEntity() == null) {
-								clips.setMagnetized(true);
-							} else {
-								clips.setControlling(true);
-							}
-						} else {
-							new MetalClips(player, 1);
-						}
-					} else if (abil.equalsIgnoreCase("EarthGrab")) {
-						new EarthGrab(player, GrabMode.DRAG);
-					}
-				}
-			}
-
-			if (coreAbil instanceof FireAbility && bPlayer.isElementToggled(Element.FIRE)) {
-				if (bPlayer.canCurrentlyBendWithWeapons()) {
-					if (abil.equalsIgnoreCase("Blaze")) {
-						new BlazeRing(player);
-					} else if (abil.equalsIgnoreCase("FireBlast")) {
-						new FireBlastCharged(player);
-					} else if (abil.equalsIgnoreCase("HeatControl")) {
-						new HeatControl(player, HeatControlType.COOK);
-					} else if (abil.equalsIgnoreCase("FireBurst")) {
-						new FireBurst(player);
-					} else if (abil.equalsIgnoreCase("FireShield")) {
-						new FireShield(player, true);
-					} else if (abil.equalsIgnoreCase("Lightning")) {
-						new Lightning(player);
-					} else if (abil.equalsIgnoreCase("Combustion")) {
-						new Combustion(player);
-					} else if (abil.equalsIgnoreCase("FireManipulation")) {
-						new FireManipulation(player, FireManipulationType.SHIFT);
-					}
-				}
-			}
-		}
+		TriggerManager.trigger(player, bPlayer, player.isSneaking() ? ClickType.SHIFT_UP : ClickType.SHIFT_DOWN);
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST)
@@ -1799,168 +1691,14 @@ public class PKListener implements Listener {
 		if (coreAbil == null && !MultiAbilityManager.hasMultiAbilityBound(player)) {
 			return;
 		} else if (bPlayer.canBendIgnoreCooldowns(coreAbil)) {
-			if (coreAbil instanceof AddonAbility) {
-				return;
-			}
-
-			if (coreAbil instanceof AirAbility && bPlayer.isElementToggled(Element.AIR)) {
-				if (bPlayer.canCurrentlyBendWithWeapons()) {
-					if (abil.equalsIgnoreCase("AirBlast")) {
-						new AirBlast(player);
-					} else if (abil.equalsIgnoreCase("AirSuction")) {
-						AirSuction.shoot(player);
-					} else if (abil.equalsIgnoreCase("AirBurst")) {
-						AirBurst.coneBurst(player);
-					} else if (abil.equalsIgnoreCase("AirScooter")) {
-						new AirScooter(player);
-					} else if (abil.equalsIgnoreCase("AirSpout")) {
-						new AirSpout(player);
-					} else if (abil.equalsIgnoreCase("AirSwipe")) {
-						new AirSwipe(player);
-					} else if (abil.equalsIgnoreCase("Flight")) {
-						new FlightMultiAbility(player);
-						return;
-					}
-				}
-			}
-
-			if (coreAbil instanceof WaterAbility && bPlayer.isElementToggled(Element.WATER)) {
-				if (bPlayer.canCurrentlyBendWithWeapons()) {
-					if (CoreAbility.hasAbility(player, IceBullet.class)) {
-						CoreAbility.getAbility(player, IceBullet.class).doLeftClick();
-					}
-
-					if (abil.equalsIgnoreCase("Bloodbending")) {
-						Bloodbending.launch(player);
-					} else if (abil.equalsIgnoreCase("IceBlast")) {
-						IceBlast.activate(player);
-					} else if (abil.equalsIgnoreCase("IceSpike")) {
-						IceSpikeBlast.activate(player);
-					} else if (abil.equalsIgnoreCase("OctopusForm")) {
-						new OctopusForm(player);
-					} else if (abil.equalsIgnoreCase("PhaseChange")) {
-						if (!CoreAbility.hasAbility(player, PhaseChange.class)) {
-							new PhaseChange(player, PhaseChangeType.FREEZE);
-						} else {
-							final PhaseChange pc = CoreAbility.getAbility(player, PhaseChange.class);
-							pc.startNewType(PhaseChangeType.FREEZE);
-						}
-					} else if (abil.equalsIgnoreCase("WaterBubble")) {
-						new WaterBubble(player, false);
-					} else if (abil.equalsIgnoreCase("WaterSpout")) {
-						new WaterSpout(player);
-					} else if (abil.equalsIgnoreCase("WaterManipulation")) {
-						WaterManipulation.moveWater(player);
-					} else if (abil.equalsIgnoreCase("Surge")) {
-						new SurgeWall(player);
-					} else if (abil.equalsIgnoreCase("Torrent")) {
-						new Torrent(player);
-					}
-				}
-			}
-
-			if (coreAbil instanceof EarthAbility && bPlayer.isElementToggled(Element.EARTH)) {
-				if (bPlayer.canCurrentlyBendWithWeapons()) {
-					if (abil.equalsIgnoreCase("Catapult")) {
-						new Catapult(player, false);
-					} else if (abil.equalsIgnoreCase("EarthBlast")) {
-						EarthBlast.throwEarth(player);
-					} else if (abil.equalsIgnoreCase("RaiseEarth")) {
-						new RaiseEarth(player);
-					} else if (abil.equalsIgnoreCase("Collapse")) {
-						new Collapse(player);
-					} else if (abil.equalsIgnoreCase("Shockwave")) {
-						Shockwave.coneShockwave(player);
-					} else if (abil.equalsIgnoreCase("EarthArmor")) {
-						final EarthArmor armor = CoreAbility.getAbility(player, EarthArmor.class);
-						if (armor != null && armor.isFormed()) {
-							armor.click();
-						}
-					} else if (abil.equalsIgnoreCase("Tremorsense")) {
-						new Tremorsense(player, true);
-					} else if (abil.equalsIgnoreCase("MetalClips")) {
-						final MetalClips clips = CoreAbility.getAbility(player, MetalClips.class);
-						if (clips == null) {
-							new MetalClips(player, 0);
-						} else if (clips.getMetalClipsCount() < (player.hasPermission("bending.ability.MetalClips.4clips") ? 4 : 3)) {
-							clips.shootMetal();
-						} else if (clips.getMetalClipsCount() == 4 && clips.isCanUse4Clips()) {
-							clips.crush();
-						}
-					} else if (abil.equalsIgnoreCase("LavaSurge")) {
-						final LavaSurge surge = CoreAbility.getAbility(player, LavaSurge.class);
-						if (surge != null) {
-							surge.launch();
-						}
-					} else if (abil.equalsIgnoreCase("LavaFlow")) {
-						new LavaFlow(player, AbilityType.CLICK);
-					} else if (abil.equalsIgnoreCase("EarthSmash")) {
-						new EarthSmash(player, ClickType.LEFT_CLICK);
-					} else if (abil.equalsIgnoreCase("EarthGrab")) {
-						new EarthGrab(player, GrabMode.PROJECTING);
-					}
+			if (coreAbil instanceof WaterAbility && !(coreAbil instanceof AddonAbility) && bPlayer.isElementToggled(Element.WATER) && bPlayer.canCurrentlyBendWithWeapons()) {
+				if (CoreAbility.hasAbility(player, IceBullet.class)) {
+					CoreAbility.getAbility(player, IceBullet.class).doLeftClick();
 				}
 			}
 
-			if (coreAbil instanceof FireAbility && bPlayer.isElementToggled(Element.FIRE)) {
-				if (bPlayer.canCurrentlyBendWithWeapons()) {
-					if (abil.equalsIgnoreCase("Blaze")) {
-						new Blaze(player);
-					} else if (abil.equalsIgnoreCase("FireBlast")) {
-						new FireBlast(player);
-					} else if (abil.equalsIgnoreCase("FireJet")) {
-						new FireJet(player);
-					} else if (abil.equalsIgnoreCase("HeatControl")) {
-						new HeatControl(player, HeatControlType.MELT);
-					} else if (abil.equalsIgnoreCase("Illumination")) {
-						if (ConfigManager.defaultConfig.get().getBoolean("Abilities.Fire.Illumination.Passive")) {
-							bPlayer.toggleIllumination();
-							ChatUtil.displayMovePreview(player);
-							BendingBoardManager.updateAllSlots(player);
-						} else {
-							new Illumination(player);
-						}
-					} else if (abil.equalsIgnoreCase("FireBurst")) {
-						FireBurst.coneBurst(player);
-					} else if (abil.equalsIgnoreCase("FireShield")) {
-						new FireShield(player);
-					} else if (abil.equalsIgnoreCase("WallOfFire")) {
-						new WallOfFire(player);
-					} else if (abil.equalsIgnoreCase("Combustion")) {
-						Combustion.explode(player);
-					} else if (abil.equalsIgnoreCase("FireManipulation")) {
-						if (CoreAbility.hasAbility(player, FireManipulation.class)) {
-							final FireManipulation fireManip = CoreAbility.getAbility(player, FireManipulation.class);
-							if (fireManip.getFireManipulationType() == FireManipulationType.SHIFT) {
-								fireManip.click();
-							}
-						} else {
-							new FireManipulation(player, FireManipulationType.CLICK);
-						}
-					}
-				}
-			}
-
-			if (coreAbil instanceof ChiAbility && bPlayer.isElementToggled(Element.CHI)) {
-				if (bPlayer.canCurrentlyBendWithWeapons()) {
-					if (abil.equalsIgnoreCase("HighJump")) {
-						new HighJump(player);
-					} else if (abil.equalsIgnoreCase("Smokescreen")) {
-						new Smokescreen(player);
-					} else if (abil.equalsIgnoreCase("WarriorStance")) {
-						new WarriorStance(player);
-					} else if (abil.equalsIgnoreCase("AcrobatStance")) {
-						new AcrobatStance(player);
-					}
-				}
-			}
-
-			if (coreAbil instanceof AvatarAbility) {
-				if (abil.equalsIgnoreCase("AvatarState")) {
-					new AvatarState(player);
-					ChatUtil.displayMovePreview(player);
-					BendingBoardManager.updateAllSlots(player);
-				}
+			if (TriggerManager.trigger(player, bPlayer, coreAbil, ClickType.LEFT_CLICK) && coreAbil instanceof FlightMultiAbility) {
+				return; //Flight just bound its multi ability, so don't start it a second time below
 			}
 		}
 		if (MultiAbilityManager.hasMultiAbilityBound(player)) {
@@ -1,7 +1,6 @@
 package com.projectkorra.projectkorra;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.logging.Logger;
 
 import com.projectkorra.projectkorra.hooks.PlanExtension;
@@ -28,6 +27,9 @@ import com.projectkorra.projectkorra.hooks.PlaceholderAPIHook;
 import com.projectkorra.projectkorra.hooks.WorldGuardFlag;
 import com.projectkorra.projectkorra.object.Preset;
 import com.projectkorra.projectkorra.storage.DBConnection;
+import com.projectkorra.projectkorra.storage.PlayerDataQueue;
+import com.projectkorra.projectkorra.storage.SchemaMigrator;
+import com.projectkorra.projectkorra.util.BendingImmunity;
 import com.projectkorra.projectkorra.util.Metrics;
 import com.projectkorra.projectkorra.util.RevertChecker;
 import com.projectkorra.projectkorra.util.StatisticsManager;
@@ -73,6 +75,7 @@ public class ProjectKorra extends JavaPlugin {
 
 		new ConfigManager();
 		new GeneralMethods(this);
+		BendingImmunity.loadConfig();
 		final boolean checkUpdateOnStartup = ConfigManager.getConfig().getBoolean("Properties.UpdateChecker");
 		this.updater = new Updater(this, "https://projectkorra.com/forum/resources/projectkorra-core.1/", checkUpdateOnStartup);
 		new Commands(this);
@@ -94,9 +97,10 @@ public class ProjectKorra extends JavaPlugin {
 
 		Manager.startup();
 		BendingBoardManager.setup();
-		BendingPlayer.DISABLED_WORLDS = new HashSet<>(ConfigManager.defaultConfig.get().getStringList("Properties.DisabledWorlds"));
+		BendingPlayer.loadConfig();
 
 		this.getServer().getPluginManager().registerEvents(new PKListener(this), this);
+		EntityUnloadListener.register(this);
 		BendingManager bendingManager = new BendingManager();
 		if (!isFolia()) {
 			this.getServer().getScheduler().scheduleSyncRepeatingTask(this, bendingManager, 0, 1);
@@ -108,6 +112,7 @@ public class ProjectKorra extends JavaPlugin {
 		}
 
 		this.revertChecker = ThreadUtil.runAsyncTimer(new RevertChecker(this), 0, 200);
+		OfflineBendingPlayer.startCacheSweeper();
 
 		for (final Player player : Bukkit.getOnlinePlayers()) {
 			PKListener.getJumpStatistics().put(player, player.getStatistic(Statistic.JUMP));
@@ -151,11 +156,9 @@ public class ProjectKorra extends JavaPlugin {
 	@Override
 	public void onDisable() {
 		if (this.revertChecker != null) ThreadUtil.cancelTimerTask(this.revertChecker);
+		OfflineBendingPlayer.stopCacheSweeper();
 		GeneralMethods.stopBending();
 		for (final Player player : this.getServer().getOnlinePlayers()) {
-			if (isStatisticsEnabled()) {
-				Manager.getManager(StatisticsManager.class).save(player.getUniqueId(), false);
-			}
 			final BendingPlayer bPlayer = BendingPlayer.getBendingPlayer(player);
 			if (bPlayer != null && isDatabaseCooldownsEnabled()) {
 				bPlayer.saveCooldowns(false);
@@ -163,6 +166,8 @@ public class ProjectKorra extends JavaPlugin {
 		}
 		Manager.shutdown();
 		if (DBConnection.isOpen()) {
+			SchemaMigrator.stop();
+			PlayerDataQueue.stop();
 			DBConnection.sql.close();
 		}
 
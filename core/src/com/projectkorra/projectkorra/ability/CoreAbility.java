@@ -5,8 +5,10 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -16,7 +18,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.jar.JarFile;
 
 import com.projectkorra.projectkorra.attribute.*;
@@ -46,10 +48,14 @@ import com.projectkorra.projectkorra.ability.util.ComboManager;
 import com.projectkorra.projectkorra.ability.util.MultiAbilityManager;
 import com.projectkorra.projectkorra.ability.util.MultiAbilityManager.MultiAbilityInfo;
 import com.projectkorra.projectkorra.ability.util.PassiveManager;
+import com.projectkorra.projectkorra.ability.util.TriggerManager;
+import com.projectkorra.projectkorra.ability.util.TriggerManager.TriggerHandler;
 import com.projectkorra.projectkorra.configuration.ConfigManager;
 import com.projectkorra.projectkorra.event.AbilityEndEvent;
 import com.projectkorra.projectkorra.event.AbilityProgressEvent;
 import com.projectkorra.projectkorra.event.AbilityStartEvent;
+import com.projectkorra.projectkorra.util.ClickType;
+import com.projectkorra.projectkorra.util.EntitySnapshot;
 import com.projectkorra.projectkorra.util.FlightHandler;
 import com.projectkorra.projectkorra.util.TimeUtil;
 
@@ -74,12 +80,16 @@ public abstract class CoreAbility implements Ability {
 	private static final Set<CoreAbility> INSTANCES = Collections.newSetFromMap(new ConcurrentHashMap<CoreAbility, Boolean>());
 	private static final Map<Class<? extends CoreAbility>, Map<UUID, Map<Integer, CoreAbility>>> INSTANCES_BY_PLAYER = new ConcurrentHashMap<>();
 	private static final Map<Class<? extends CoreAbility>, Set<CoreAbility>> INSTANCES_BY_CLASS = new ConcurrentHashMap<>();
-	private static final Map<String, CoreAbility> ABILITIES_BY_NAME = new ConcurrentSkipListMap<>(); // preserves ordering.
+	private static final Map<String, CoreAbility> ABILITIES_BY_NAME = new ConcurrentHashMap<>(); // keyed by lower case name
 	private static final Map<Class<? extends CoreAbility>, CoreAbility> ABILITIES_BY_CLASS = new ConcurrentHashMap<>();
 	private static final double DEFAULT_COLLISION_RADIUS = 0.3;
 	private static final List<String> ADDON_PLUGINS = new ArrayList<>();
 	private static final Map<Class<? extends CoreAbility>, Map<String, AttributeCache>> ATTRIBUTE_FIELDS = new HashMap<>();
+	private static final Map<String, Integer> ABILITY_IDS = new ConcurrentHashMap<>(); // never cleared, so ids stay the same across reloads
+	private static final List<String> ABILITY_NAMES = new CopyOnWriteArrayList<>(); // the name each id was first registered with
 
+	private static volatile CoreAbility[] abilitiesById = new CoreAbility[0]; // indexed by getAbilityId()
+	private static volatile CoreAbility[] abilitiesSorted; // sorted by name, built again after abilities are registered
 	private static int idCounter;
 	private static long currentTick;
 
@@ -91,6 +101,7 @@ public abstract class CoreAbility implements Ability {
 	private boolean removed;
 	private boolean hidden;
 	private int id;
+	private int abilityId = -1;
 	private long startTime;
 	private long startTick;
 	@Deprecated
@@ -303,6 +314,7 @@ public abstract class CoreAbility implements Ability {
 			return;
 		}
 
+		EntitySnapshot.begin();
 		try {
 			this.progress();
 			Bukkit.getServer().getPluginManager().callEvent(new AbilityProgressEvent(this));
@@ -323,6 +335,8 @@ public abstract class CoreAbility implements Ability {
 			} catch (final Exception re) {
 				ProjectKorra.log.severe("Unable to fully remove ability due to the above error");
 			}
+		} finally {
+			EntitySnapshot.end();
 		}
 	}
 
@@ -398,6 +412,18 @@ public abstract class CoreAbility implements Ability {
 		return abilityName != null ? ABILITIES_BY_NAME.get(abilityName.toLowerCase()) : null;
 	}
 
+	/**
+	 * Returns a "fake" instance for the CoreAbility with the ability id. This
+	 * is the same instance {@link #getAbility(String)} returns for its name.
+	 *
+	 * @param abilityId the {@link #getAbilityId() id} of a loaded CoreAbility
+	 * @return a "fake" CoreAbility instance, or null if no such ability exists
+	 */
+	public static CoreAbility getAbility(final int abilityId) {
+		final CoreAbility[] abilities = abilitiesById;
+		return abilityId >= 0 && abilityId < abilities.length ? abilities[abilityId] : null;
+	}
+
 	/**
 	 * Returns a "fake" instance for a CoreAbility with the specific class.
 	 *
@@ -424,7 +450,18 @@ public abstract class CoreAbility implements Ability {
 	 *         {@link #registerAbilities()}
 	 */
 	public static ArrayList<CoreAbility> getAbilitiesByName() {
-		return new ArrayList<>(ABILITIES_BY_NAME.values());
+		CoreAbility[] sorted = abilitiesSorted;
+		if (sorted == null) {
+			synchronized (CoreAbility.class) {
+				sorted = abilitiesSorted;
+				if (sorted == null) {
+					sorted = ABILITIES_BY_NAME.values().toArray(new CoreAbility[0]);
+					Arrays.sort(sorted, Comparator.comparing(ability -> ability.getName().toLowerCase()));
+					abilitiesSorted = sorted;
+				}
+			}
+		}
+		return new ArrayList<>(Arrays.asList(sorted));
 	}
 
 	/**
@@ -552,7 +589,7 @@ public abstract class CoreAbility implements Ability {
 			}
 		}
 		ABILITIES_BY_CLASS.remove(clazz);
-		ABILITIES_BY_NAME.remove(name);
+		unregisterAbilityName(name);
 		ProjectKorra.log.info("Unloaded ability: " + name);
 	}
 
@@ -584,9 +621,15 @@ public abstract class CoreAbility implements Ability {
 	 * located in a Jar file inside the /ProjectKorra/Abilities/ folder.
 	 */
 	public static void registerAbilities() {
-		ABILITIES_BY_NAME.clear();
+		synchronized (CoreAbility.class) {
+			ABILITIES_BY_NAME.clear();
+			abilitiesById = new CoreAbility[0];
+			abilitiesSorted = null;
+		}
 		ABILITIES_BY_CLASS.clear();
+		TriggerManager.clear();
 		registerPluginAbilities(ProjectKorra.plugin, "com.projectkorra");
+		TriggerManager.registerCoreTriggers();
 		registerAddonAbilities("/Abilities/");
 	}
 
@@ -622,7 +665,7 @@ public abstract class CoreAbility implements Ability {
 			}
 
 			try {
-				ABILITIES_BY_NAME.put(name.toLowerCase(), coreAbil);
+				registerAbilityName(name, coreAbil);
 				ABILITIES_BY_CLASS.put(coreAbil.getClass(), coreAbil);
 
 				if (coreAbil instanceof MultiAbility) {
@@ -648,7 +691,7 @@ public abstract class CoreAbility implements Ability {
 			} catch (Exception | Error e) {
 				plugin.getLogger().warning("The ability " + coreAbil.getName() + " was not able to load, if this message shows again please remove it!");
 				e.printStackTrace();
-				ABILITIES_BY_NAME.remove(name.toLowerCase());
+				unregisterAbilityName(name);
 				ABILITIES_BY_CLASS.remove(coreAbil.getClass());
 			}
 		}
@@ -694,7 +737,7 @@ public abstract class CoreAbility implements Ability {
 
 			try {
 				addon.load();
-				ABILITIES_BY_NAME.put(name.toLowerCase(), coreAbil);
+				registerAbilityName(name, coreAbil);
 				ABILITIES_BY_CLASS.put(coreAbil.getClass(), coreAbil);
 
 				if (coreAbil instanceof ComboAbility) {
@@ -743,7 +786,7 @@ public abstract class CoreAbility implements Ability {
 				} catch (Exception e1) {
 					e1.printStackTrace();
 				}
-				ABILITIES_BY_NAME.remove(name.toLowerCase());
+				unregisterAbilityName(name);
 				ABILITIES_BY_CLASS.remove(coreAbil.getClass());
 			}
 		}
@@ -781,6 +824,101 @@ public abstract class CoreAbility implements Ability {
 		return this.id;
 	}
 
+	/**
+	 * Gets the id of this type of ability. Unlike {@link #getId()}, which is
+	 * unique to every instance, every instance of the same ability shares the
+	 * same small id. Ids are assigned when an ability is first registered and
+	 * stay the same across reloads.
+	 *
+	 * @return the id of the ability, or -1 if it was never registered
+	 */
+	public int getAbilityId() {
+		if (this.abilityId < 0) {
+			final String name = this.getName();
+			if (name == null) {
+				return -1;
+			}
+			this.abilityId = getAbilityId(name);
+		}
+		return this.abilityId;
+	}
+
+	/**
+	 * @param abilityName the name of an ability, ignoring case
+	 * @return the id of the ability, or -1 if it was never registered
+	 * @see #getAbilityId()
+	 */
+	public static int getAbilityId(final String abilityName) {
+		final Integer id = ABILITY_IDS.get(abilityName.toLowerCase());
+		return id != null ? id : -1;
+	}
+
+	/**
+	 * @param abilityId the id of an ability
+	 * @return the name the ability was first registered with, or null if no
+	 *         ability has the id
+	 * @see #getAbilityId()
+	 */
+	public static String getAbilityName(final int abilityId) {
+		return abilityId >= 0 && abilityId < ABILITY_NAMES.size() ? ABILITY_NAMES.get(abilityId) : null;
+	}
+
+	/**
+	 * @return the number of ability ids that have been assigned, which is one
+	 *         more than the highest id
+	 */
+	public static int getAbilityIdCount() {
+		return ABILITY_NAMES.size();
+	}
+
+	/**
+	 * Makes this ability get started by {@link TriggerManager} when a player
+	 * performs the trigger with it bound, after the usual checks for whether
+	 * they can bend it. Addons can call this from {@link AddonAbility#load()}
+	 * instead of listening to the events themselves.
+	 *
+	 * @param trigger the trigger, such as {@link ClickType#SHIFT_DOWN} or
+	 *            {@link ClickType#LEFT_CLICK}
+	 * @param handler what to do when the trigger is performed
+	 */
+	protected final void registerTrigger(final ClickType trigger, final TriggerHandler handler) {
+		final String name = this.getName();
+		if (name != null && !name.isEmpty()) {
+			TriggerManager.registerTrigger(assignAbilityId(name), trigger, handler);
+		}
+	}
+
+	private static synchronized int assignAbilityId(final String abilityName) {
+		final String key = abilityName.toLowerCase();
+		if (!ABILITY_IDS.containsKey(key)) {
+			ABILITY_NAMES.add(abilityName);
+			ABILITY_IDS.put(key, ABILITY_NAMES.size() - 1);
+		}
+		return ABILITY_IDS.get(key);
+	}
+
+	private static synchronized void registerAbilityName(final String abilityName, final CoreAbility ability) {
+		final int id = assignAbilityId(abilityName);
+		ABILITIES_BY_NAME.put(abilityName.toLowerCase(), ability);
+		abilitiesSorted = null;
+
+		final CoreAbility[] abilities = Arrays.copyOf(abilitiesById, Math.max(abilitiesById.length, id + 1));
+		abilities[id] = ability;
+		abilitiesById = abilities;
+	}
+
+	private static synchronized void unregisterAbilityName(final String abilityName) {
+		ABILITIES_BY_NAME.remove(abilityName.toLowerCase());
+		abilitiesSorted = null;
+
+		final int id = getAbilityId(abilityName);
+		if (id >= 0 && id < abilitiesById.length) {
+			final CoreAbility[] abilities = abilitiesById.clone();
+			abilities[id] = null;
+			abilitiesById = abilities;
+		}
+	}
+
 	@Override
 	public boolean isHiddenAbility() {
 		return this.hidden;
@@ -316,7 +316,7 @@ public abstract class EarthAbility extends ElementalAbility {
 	 */
 	public static Block getEarthSourceBlock(final Player player, final String abilityName, final double range) {
 		final BendingPlayer bPlayer = BendingPlayer.getBendingPlayer(player);
-		final Block testBlock = player.getTargetBlock(getTransparentMaterialSet(), Math.max((int) range, 1));
+		final Block testBlock = player.getTargetBlock(getSharedTransparentMaterialSet(), Math.max((int) range, 1));
 		if (bPlayer == null) {
 			return null;
 		} else if (isEarthbendable(testBlock.getType(), true, true, true)) {
@@ -419,7 +419,7 @@ public abstract class EarthAbility extends ElementalAbility {
 	}
 
 	public static Block getTargetEarthBlock(final Player player, final int range) {
-		return player.getTargetBlock(getTransparentMaterialSet(), Math.max(range, 1));
+		return player.getTargetBlock(getSharedTransparentMaterialSet(), Math.max(range, 1));
 	}
 
 	public static Map<Integer, Information> getTempAirLocations() {
@@ -1,7 +1,8 @@
 package com.projectkorra.projectkorra.ability;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
@@ -33,6 +34,8 @@ public abstract class ElementalAbility extends CoreAbility {
 	private static final PotionEffectType[] NEUTRAL_EFFECTS = { PotionEffectType.INVISIBILITY };
 	private static final PotionEffectType[] NEGATIVE_EFFECTS = { PotionEffectType.POISON, PotionEffectType.BLINDNESS, PotionEffectType.CONFUSION, PotionEffectType.HARM, PotionEffectType.HUNGER, PotionEffectType.SLOW, PotionEffectType.SLOW_DIGGING, PotionEffectType.WEAKNESS, PotionEffectType.WITHER };
 	private static final Set<Material> TRANSPARENT = new HashSet<>();
+	private static Set<Material> transparentView = Collections.emptySet();
+	private static Material[] transparentArray = new Material[0];
 
 	private static final Set<String> EARTH_BLOCKS = new HashSet<String>();
 	private static final Set<String> ICE_BLOCKS = new HashSet<String>();
@@ -41,6 +44,18 @@ public abstract class ElementalAbility extends CoreAbility {
 	private static final Set<String> SAND_BLOCKS = new HashSet<String>();
 	private static final Set<String> SNOW_BLOCKS = new HashSet<String>();
 
+	// Material classifier, indexed by Material#ordinal() and rebuilt whenever the bendable materials are set up
+	private static final int EARTH = 1;
+	private static final int ICE = 1 << 1;
+	private static final int METAL = 1 << 2;
+	private static final int PLANT = 1 << 3;
+	private static final int SAND = 1 << 4;
+	private static final int SNOW = 1 << 5;
+	private static final int TRANSPARENT_FLAG = 1 << 6;
+	private static final int AIR = 1 << 7;
+	private static final int MUD = 1 << 8;
+	private static int[] materialFlags = new int[Material.values().length];
+
 	// Once 1.16.5 no longer becomes LTS, this becomes obsolete and
 	// we can remove the version check and reference these materials directly instead of doing standard lookups.
 	protected static final Material LIGHT = Material.getMaterial("LIGHT");
@@ -60,6 +75,8 @@ public abstract class ElementalAbility extends CoreAbility {
 				TRANSPARENT.add(mat);
 			}
 		}
+		transparentView = Collections.unmodifiableSet(EnumSet.copyOf(TRANSPARENT));
+		transparentArray = TRANSPARENT.toArray(new Material[0]);
 		clearBendableMaterials();
 		setupBendableMaterials();
 	}
@@ -100,16 +117,31 @@ public abstract class ElementalAbility extends CoreAbility {
 	}
 
 	public static Material[] getTransparentMaterials() {
-		return TRANSPARENT.toArray(new Material[TRANSPARENT.size()]);
+		return transparentArray.clone();
 	}
 
+	/**
+	 * @return a modifiable copy of the transparent materials
+	 * @see #getSharedTransparentMaterialSet()
+	 */
 	public static HashSet<Material> getTransparentMaterialSet() {
 		return new HashSet<>(TRANSPARENT);
 	}
 
+	/**
+	 * @return the transparent materials as a shared set that cannot be modified,
+	 *         for callers that only read it
+	 */
+	public static Set<Material> getSharedTransparentMaterialSet() {
+		return transparentView;
+	}
+
 	public static boolean isAir(final Material material) {
-		return material == Material.AIR || material == Material.CAVE_AIR || material == Material.VOID_AIR ||
-				(GeneralMethods.getMCVersion() >= 1170 && material == LIGHT);
+		return hasFlag(material, AIR);
+	}
+
+	private static boolean hasFlag(final Material material, final int flag) {
+		return (materialFlags[material.ordinal()] & flag) != 0;
 	}
 
 	public static boolean isDay(final World world) {
@@ -153,7 +185,7 @@ public abstract class ElementalAbility extends CoreAbility {
 	}
 
 	public static boolean isEarth(final Material material) {
-		return EARTH_BLOCKS.contains(material.toString());
+		return hasFlag(material, EARTH);
 	}
 
 	public static boolean isFire(final Block block) {
@@ -173,7 +205,7 @@ public abstract class ElementalAbility extends CoreAbility {
 	}
 
 	public static boolean isIce(final Material material) {
-		return ICE_BLOCKS.contains(material.toString());
+		return hasFlag(material, ICE);
 	}
 
 	public static boolean isLava(final Block block) {
@@ -189,7 +221,7 @@ public abstract class ElementalAbility extends CoreAbility {
 	}
 
 	public static boolean isSnow(final Material material) {
-		return SNOW_BLOCKS.contains(material.toString());
+		return hasFlag(material, SNOW);
 	}
 
 	public static boolean isMeltable(final Block block) {
@@ -201,7 +233,7 @@ public abstract class ElementalAbility extends CoreAbility {
 	}
 
 	public static boolean isMetal(final Material material) {
-		return METAL_BLOCKS.contains(material.toString());
+		return hasFlag(material, METAL);
 	}
 
 	public static boolean isMetalBlock(final Block block) {
@@ -213,7 +245,7 @@ public abstract class ElementalAbility extends CoreAbility {
 	}
 
 	public static boolean isMud(final Material material) {
-		return GeneralMethods.getMCVersion() >= 1190 && MUD_BLOCKS.contains(material);
+		return hasFlag(material, MUD);
 	}
 
 	public static boolean isNegativeEffect(final PotionEffectType effect) {
@@ -243,7 +275,7 @@ public abstract class ElementalAbility extends CoreAbility {
 	}
 
 	public static boolean isPlant(final Material material) {
-		return PLANT_BLOCKS.contains(material.toString());
+		return hasFlag(material, PLANT);
 	}
 
 	public static boolean isPositiveEffect(final PotionEffectType effect) {
@@ -261,7 +293,7 @@ public abstract class ElementalAbility extends CoreAbility {
 	}
 
 	public static boolean isSand(final Material material) {
-		return SAND_BLOCKS.contains(material.toString());
+		return hasFlag(material, SAND);
 	}
 
 	public static boolean isTransparent(final Player player, final Block block) {
@@ -269,7 +301,7 @@ public abstract class ElementalAbility extends CoreAbility {
 	}
 
 	public static boolean isTransparent(final Player player, final String abilityName, final Block block) {
-		return Arrays.asList(getTransparentMaterials()).contains(block.getType()) && !RegionProtection.isRegionProtected(player, block.getLocation(), CoreAbility.getAbility(abilityName));
+		return hasFlag(block.getType(), TRANSPARENT_FLAG) && !RegionProtection.isRegionProtected(player, block.getLocation(), CoreAbility.getAbility(abilityName));
 	}
 
 	public static boolean isWater(final Block block) {
@@ -301,5 +333,44 @@ public abstract class ElementalAbility extends CoreAbility {
 		addTags(PLANT_BLOCKS, getConfig().getStringList("Properties.Water.PlantBlocks"));
 		addTags(SAND_BLOCKS, getConfig().getStringList("Properties.Earth.SandBlocks"));
 		addTags(SNOW_BLOCKS, getConfig().getStringList("Properties.Water.SnowBlocks"));
+		buildMaterialFlags();
+	}
+
+	/**
+	 * Rebuilds the material classifier from the bendable material sets, so
+	 * that checks such as {@link #isEarth(Material)} are a single array read.
+	 */
+	private static void buildMaterialFlags() {
+		final int[] flags = new int[Material.values().length];
+		addFlag(flags, EARTH_BLOCKS, EARTH);
+		addFlag(flags, ICE_BLOCKS, ICE);
+		addFlag(flags, METAL_BLOCKS, METAL);
+		addFlag(flags, PLANT_BLOCKS, PLANT);
+		addFlag(flags, SAND_BLOCKS, SAND);
+		addFlag(flags, SNOW_BLOCKS, SNOW);
+		for (final Material material : TRANSPARENT) {
+			flags[material.ordinal()] |= TRANSPARENT_FLAG;
+		}
+		flags[Material.AIR.ordinal()] |= AIR;
+		flags[Material.CAVE_AIR.ordinal()] |= AIR;
+		flags[Material.VOID_AIR.ordinal()] |= AIR;
+		if (LIGHT != null) {
+			flags[LIGHT.ordinal()] |= AIR;
+		}
+		for (final Material material : MUD_BLOCKS) {
+			if (material != null) {
+				flags[material.ordinal()] |= MUD;
+			}
+		}
+		materialFlags = flags;
+	}
+
+	private static void addFlag(final int[] flags, final Set<String> names, final int flag) {
+		for (final String name : names) {
+			final Material material = Material.getMaterial(name);
+			if (material != null) {
+				flags[material.ordinal()] |= flag;
+			}
+		}
 	}
 }
@@ -1,7 +1,6 @@
 package com.projectkorra.projectkorra.ability;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -205,16 +204,11 @@ public abstract class WaterAbility extends ElementalAbility {
 		final Vector vector = location.getDirection().clone().normalize();
 
 		final BendingPlayer bPlayer = BendingPlayer.getBendingPlayer(player);
-		final Set<Material> trans = getTransparentMaterialSet();
+		Set<Material> trans = getSharedTransparentMaterialSet();
 
 		if (plantbending) {
-			final Set<Material> remove = new HashSet<>();
-			for (final Material m : trans) {
-				if (isPlant(m)) {
-					remove.add(m);
-				}
-			}
-			trans.removeAll(remove);
+			trans = getTransparentMaterialSet();
+			trans.removeIf(ElementalAbility::isPlant);
 		}
 
 		final Block testBlock = player.getTargetBlock(trans, Math.max(1, Math.min(3, (int)range)));
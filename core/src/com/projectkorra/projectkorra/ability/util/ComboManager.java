@@ -1,9 +1,11 @@
 package com.projectkorra.projectkorra.ability.util;
 
+import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.projectkorra.projectkorra.util.ThreadUtil;
@@ -23,14 +25,24 @@ import com.projectkorra.projectkorra.util.ReflectionHandler;
 
 public class ComboManager {
 	private static final long CLEANUP_DELAY = 20 * 60;
-	private static final Map<String, ArrayList<AbilityInformation>> RECENTLY_USED = new ConcurrentHashMap<>();
-	private static final HashMap<String, ComboAbilityInfo> COMBO_ABILITIES = new HashMap<>();
+	/** How long a click counts towards a combo, in milliseconds */
+	private static final long HISTORY_TIME = CLEANUP_DELAY * 50;
+	/** How many clicks are remembered for each player */
+	private static final int HISTORY_SIZE = 10;
+	/** How many of the latest clicks a combo can be made of */
+	private static final int MAX_COMBO_SIZE = 8;
+	private static final int CLICK_TYPES = ClickType.values().length;
+	private static final Map<UUID, ComboHistory> RECENTLY_USED = new ConcurrentHashMap<>();
+	private static final HashMap<String, ComboAbilityInfo> COMBO_ABILITIES = new ComboAbilityMap();
+	private static final Map<Class<?>, Constructor<?>> CONSTRUCTORS = new ConcurrentHashMap<>();
+	private static volatile ComboNode comboTree; // Built again the next time it is needed after the combos change
 	private static final HashMap<String, String> AUTHORS = new HashMap<>();
 	private static final HashMap<String, String> DESCRIPTIONS = new HashMap<>();
 	private static final HashMap<String, String> INSTRUCTIONS = new HashMap<>();
 
 	public ComboManager() {
 		COMBO_ABILITIES.clear();
+		CONSTRUCTORS.clear(); // Addons are loaded again on reload, so their classes are new
 		DESCRIPTIONS.clear();
 		INSTRUCTIONS.clear();
 
@@ -57,6 +69,7 @@ public class ComboManager {
 		}
 
 		final AbilityInformation info = new AbilityInformation(abilityName, type, System.currentTimeMillis());
+		info.abilityId = bPlayer.getBoundAbilityId();
 		addRecentAbility(player, info);
 
 		final ComboAbilityInfo comboAbil = checkForValidCombo(player);
@@ -70,7 +83,12 @@ public class ComboManager {
 			if (comboAbil.getComboType() instanceof Class) {
 				final Class<?> clazz = (Class<?>) comboAbil.getComboType();
 				try {
-					ReflectionHandler.instantiateObject(clazz, player);
+					Constructor<?> constructor = CONSTRUCTORS.get(clazz);
+					if (constructor == null) {
+						constructor = ReflectionHandler.getConstructor(clazz, player.getClass());
+						CONSTRUCTORS.put(clazz, constructor);
+					}
+					constructor.newInstance(player);
 				} catch (final Exception e) {
 					e.printStackTrace();
 				}
@@ -91,16 +109,7 @@ public class ComboManager {
 	 * @param info The AbilityInformation to add
 	 */
 	public static void addRecentAbility(final Player player, final AbilityInformation info) {
-		ArrayList<AbilityInformation> list;
-		final String name = player.getName();
-		if (RECENTLY_USED.containsKey(name)) {
-			list = RECENTLY_USED.get(name);
-		} else {
-			list = new ArrayList<AbilityInformation>();
-		}
-
-		list.add(info);
-		RECENTLY_USED.put(name, list);
+		RECENTLY_USED.computeIfAbsent(player.getUniqueId(), uuid -> new ComboHistory()).add(info);
 	}
 
 	/**
@@ -109,22 +118,17 @@ public class ComboManager {
 	 * @param type The type of combo to remove
 	 */
 	public static void removeRecentType(final Player player, ClickType type) {
-		if (RECENTLY_USED.containsKey(player.getName())) {
-			ArrayList<AbilityInformation> list = RECENTLY_USED.get(player.getName());
-
-			if (list.size() > 0) {
-				AbilityInformation last = list.get(list.size() - 1);
-				if (last.getTime() > System.currentTimeMillis() - 50 && last.getClickType() == type) { //If the ability was within the last tick
-					list.remove(last);
-				}
-			}
+		final ComboHistory history = RECENTLY_USED.get(player.getUniqueId());
+		if (history != null) {
+			history.removeLast(type, System.currentTimeMillis() - 50); //If the ability was within the last tick
 		}
 	}
 
 	/**
 	 * Checks if a Player's {@link ComboManager#RECENTLY_USED
 	 * recentlyUsedAbilities} contains a valid set of moves to perform any
-	 * combos. If it does, it returns the valid combo.
+	 * combos. If it does, it returns the valid combo. When more than one combo
+	 * matches, the longest one wins.
 	 *
 	 * @param player The player for whom to check if a valid combo has been
 	 *            performed
@@ -132,38 +136,100 @@ public class ComboManager {
 	 *         no valid combo was found
 	 */
 	public static ComboAbilityInfo checkForValidCombo(final Player player) {
-		final ArrayList<AbilityInformation> playerCombo = getRecentlyUsedAbilities(player, 8);
-		for (final String ability : COMBO_ABILITIES.keySet()) {
-			final ComboAbilityInfo customAbility = COMBO_ABILITIES.get(ability);
-			final ArrayList<AbilityInformation> abilityCombo = customAbility.getAbilities();
-			final int size = abilityCombo.size();
+		final ComboHistory history = RECENTLY_USED.get(player.getUniqueId());
+		if (history == null) {
+			return null;
+		}
 
-			if (playerCombo.size() < size) {
-				continue;
-			}
+		final AbilityInformation[] recent = history.getRecent(MAX_COMBO_SIZE, System.currentTimeMillis() - HISTORY_TIME);
+		return findCombo(getComboTree(), recent, recent.length - 1);
+	}
 
-			boolean isValid = true;
-			for (int i = 1; i <= size; i++) {
-				final AbilityInformation playerInfo = playerCombo.get(playerCombo.size() - i);
-				final AbilityInformation comboInfo = abilityCombo.get(abilityCombo.size() - i);
-				if (playerInfo.getAbilityName().equals(comboInfo.getAbilityName()) && playerInfo.getClickType() == ClickType.LEFT_CLICK_ENTITY && comboInfo.getClickType() == ClickType.LEFT_CLICK) {
-					continue;
-				} else if (!playerInfo.equalsWithoutTime(comboInfo)) {
-					isValid = false;
-					break;
+	/**
+	 * Walks down the tree from the newest click towards older ones.
+	 *
+	 * @return The longest combo that ends with the clicks up to index
+	 */
+	private static ComboAbilityInfo findCombo(final ComboNode node, final AbilityInformation[] recent, final int index) {
+		if (index < 0) {
+			return null;
+		}
+		final AbilityInformation info = recent[index];
+		final int id = info.getAbilityId();
+		if (id < 0) {
+			return null;
+		}
+
+		ComboAbilityInfo found = findComboFrom(node.children.get(getSymbol(id, info.getClickType())), recent, index);
+		if (found == null && info.getClickType() == ClickType.LEFT_CLICK_ENTITY) { //Hitting an entity also counts as a left click
+			found = findComboFrom(node.children.get(getSymbol(id, ClickType.LEFT_CLICK)), recent, index);
+		}
+		return found;
+	}
+
+	private static ComboAbilityInfo findComboFrom(final ComboNode child, final AbilityInformation[] recent, final int index) {
+		if (child == null) {
+			return null;
+		}
+		final ComboAbilityInfo longer = findCombo(child, recent, index - 1);
+		return longer != null ? longer : child.combo;
+	}
+
+	private static int getSymbol(final int abilityId, final ClickType type) {
+		return abilityId * CLICK_TYPES + type.ordinal();
+	}
+
+	/**
+	 * Gets the tree of all combos. Each combo is stored from its last move to
+	 * its first, so finding the combos that end with the latest clicks only
+	 * has to follow the player's clicks backwards instead of comparing every
+	 * combo.
+	 */
+	private static ComboNode getComboTree() {
+		ComboNode tree = comboTree;
+		if (tree == null) {
+			// Built and published under the same lock the combos are invalidated with, so a change can't be lost
+			synchronized (COMBO_ABILITIES) {
+				tree = comboTree;
+				if (tree != null) {
+					return tree;
 				}
-			}
+				tree = new ComboNode();
+				for (final ComboAbilityInfo combo : COMBO_ABILITIES.values()) {
+					final ArrayList<AbilityInformation> moves = combo.getAbilities();
+					if (moves == null || moves.isEmpty() || moves.size() > MAX_COMBO_SIZE) {
+						continue;
+					}
 
-			if (isValid) {
-				return customAbility;
+					ComboNode node = tree;
+					for (int i = moves.size() - 1; i >= 0 && node != null; i--) {
+						final int id = moves.get(i).getAbilityId();
+						node = id < 0 ? null : node.children.computeIfAbsent(getSymbol(id, moves.get(i).getClickType()), symbol -> new ComboNode());
+					}
+					if (node != null && node.combo == null) {
+						node.combo = combo;
+					}
+				}
+				comboTree = tree;
 			}
 		}
+		return tree;
+	}
 
-		return null;
+	/**
+	 * Makes the combos get looked at again the next time a player clicks. This
+	 * happens by itself when combos are added or removed, but has to be called
+	 * after changing the moves of an existing {@link ComboAbilityInfo}.
+	 */
+	public static void invalidateCombos() {
+		synchronized (COMBO_ABILITIES) {
+			comboTree = null;
+		}
 	}
 
 	public static void cleanupOldCombos() {
-		RECENTLY_USED.clear();
+		final long since = System.currentTimeMillis() - HISTORY_TIME;
+		RECENTLY_USED.values().removeIf(history -> history.isOlderThan(since));
 	}
 
 	/**
@@ -176,22 +242,12 @@ public class ComboManager {
 	 *         used abilities
 	 */
 	public static ArrayList<AbilityInformation> getRecentlyUsedAbilities(final Player player, final int amount) {
-		final String name = player.getName();
-		if (!RECENTLY_USED.containsKey(name)) {
-			return new ArrayList<AbilityInformation>();
-		}
-
-		final ArrayList<AbilityInformation> list = RECENTLY_USED.get(name);
-		if (list.size() < amount) {
-			return new ArrayList<AbilityInformation>(list);
+		final ArrayList<AbilityInformation> list = new ArrayList<AbilityInformation>();
+		final ComboHistory history = RECENTLY_USED.get(player.getUniqueId());
+		if (history != null) {
+			Collections.addAll(list, history.getRecent(amount, System.currentTimeMillis() - HISTORY_TIME));
 		}
-
-		final ArrayList<AbilityInformation> tempList = new ArrayList<AbilityInformation>();
-		for (int i = 0; i < amount; i++) {
-			tempList.add(0, list.get(list.size() - 1 - i));
-		}
-
-		return tempList;
+		return list;
 	}
 
 	/**
@@ -272,6 +328,7 @@ public class ComboManager {
 	 */
 	public static class AbilityInformation {
 		private String abilityName;
+		private int abilityId = -1;
 		private ClickType clickType;
 		private long time;
 
@@ -293,7 +350,32 @@ public class ComboManager {
 		 * @return True if they are equal without respect to time
 		 */
 		public boolean equalsWithoutTime(final AbilityInformation info) {
-			return this.getAbilityName().equals(info.getAbilityName()) && this.getClickType().equals(info.getClickType());
+			return this.isSameAbility(info) && this.getClickType().equals(info.getClickType());
+		}
+
+		/**
+		 * Compares the abilities of two {@link AbilityInformation}'s by their
+		 * {@link CoreAbility#getAbilityId() ids}, or by name if the ability was
+		 * never registered.
+		 *
+		 * @param info The AbilityInformation to compare against
+		 * @return True if they are for the same ability
+		 */
+		public boolean isSameAbility(final AbilityInformation info) {
+			final int id = this.getAbilityId();
+			return id >= 0 ? id == info.getAbilityId() : this.getAbilityName().equals(info.getAbilityName());
+		}
+
+		/**
+		 * Gets the id of the ability.
+		 *
+		 * @return The id of the ability, or -1 if it was never registered
+		 */
+		public int getAbilityId() {
+			if (this.abilityId < 0 && this.abilityName != null) {
+				this.abilityId = CoreAbility.getAbilityId(this.abilityName);
+			}
+			return this.abilityId;
 		}
 
 		/**
@@ -320,10 +402,13 @@ public class ComboManager {
 
 		public void setAbilityName(final String abilityName) {
 			this.abilityName = abilityName;
+			this.abilityId = -1;
+			invalidateCombos();
 		}
 
 		public void setClickType(final ClickType clickType) {
 			this.clickType = clickType;
+			invalidateCombos();
 		}
 
 		public void setTime(final long time) {
@@ -361,6 +446,7 @@ public class ComboManager {
 
 		public void setAbilities(final ArrayList<AbilityInformation> abilities) {
 			this.abilities = abilities;
+			invalidateCombos();
 		}
 
 		public void setComboType(final Object comboType) {
@@ -376,4 +462,93 @@ public class ComboManager {
 			return this.name;
 		}
 	}
+
+	/**
+	 * The last clicks of a player, oldest first, in a fixed size ring buffer.
+	 */
+	private static class ComboHistory {
+		private final AbilityInformation[] entries = new AbilityInformation[HISTORY_SIZE];
+		private int next;
+		private int size;
+
+		private synchronized void add(final AbilityInformation info) {
+			this.entries[this.next] = info;
+			this.next = (this.next + 1) % HISTORY_SIZE;
+			this.size = Math.min(this.size + 1, HISTORY_SIZE);
+		}
+
+		private synchronized void removeLast(final ClickType type, final long since) {
+			if (this.size == 0) {
+				return;
+			}
+			final int last = (this.next + HISTORY_SIZE - 1) % HISTORY_SIZE;
+			if (this.entries[last].getTime() > since && this.entries[last].getClickType() == type) {
+				this.entries[last] = null;
+				this.next = last;
+				this.size--;
+			}
+		}
+
+		/**
+		 * @param amount The most entries to get
+		 * @param since Entries from before this time are left out
+		 * @return The latest entries, oldest first
+		 */
+		private synchronized AbilityInformation[] getRecent(final int amount, final long since) {
+			int count = 0;
+			while (count < Math.min(amount, this.size) && this.entries[(this.next + HISTORY_SIZE - 1 - count) % HISTORY_SIZE].getTime() >= since) {
+				count++;
+			}
+			final AbilityInformation[] recent = new AbilityInformation[count];
+			for (int i = 0; i < count; i++) {
+				recent[count - 1 - i] = this.entries[(this.next + HISTORY_SIZE - 1 - i) % HISTORY_SIZE];
+			}
+			return recent;
+		}
+
+		private synchronized boolean isOlderThan(final long time) {
+			return this.size == 0 || this.entries[(this.next + HISTORY_SIZE - 1) % HISTORY_SIZE].getTime() < time;
+		}
+	}
+
+	/**
+	 * A node in the tree of combos, which is keyed by ability id and click type.
+	 */
+	private static class ComboNode {
+		private final Map<Integer, ComboNode> children = new HashMap<>();
+		/** The combo whose moves are the path from the root to this node */
+		private ComboAbilityInfo combo;
+	}
+
+	/**
+	 * Rebuilds the tree of combos whenever a combo is added or removed.
+	 */
+	private static class ComboAbilityMap extends HashMap<String, ComboAbilityInfo> {
+
+		@Override
+		public synchronized ComboAbilityInfo put(final String key, final ComboAbilityInfo value) {
+			final ComboAbilityInfo previous = super.put(key, value);
+			invalidateCombos();
+			return previous;
+		}
+
+		@Override
+		public synchronized void putAll(final Map<? extends String, ? extends ComboAbilityInfo> map) {
+			super.putAll(map);
+			invalidateCombos();
+		}
+
+		@Override
+		public synchronized ComboAbilityInfo remove(final Object key) {
+			final ComboAbilityInfo previous = super.remove(key);
+			invalidateCombos();
+			return previous;
+		}
+
+		@Override
+		public synchronized void clear() {
+			super.clear();
+			invalidateCombos();
+		}
+	}
 }
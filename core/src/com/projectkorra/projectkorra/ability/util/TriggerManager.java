@@ -0,0 +1,356 @@
+package com.projectkorra.projectkorra.ability.util;
+
+import java.util.Arrays;
+
+import org.bukkit.entity.Player;
+
+import com.projectkorra.projectkorra.BendingPlayer;
+import com.projectkorra.projectkorra.Element;
+import com.projectkorra.projectkorra.Element.SubElement;
+import com.projectkorra.projectkorra.ability.AvatarAbility;
+import com.projectkorra.projectkorra.ability.CoreAbility;
+import com.projectkorra.projectkorra.airbending.AirBlast;
+import com.projectkorra.projectkorra.airbending.AirBurst;
+import com.projectkorra.projectkorra.airbending.AirScooter;
+import com.projectkorra.projectkorra.airbending.AirShield;
+import com.projectkorra.projectkorra.airbending.AirSpout;
+import com.projectkorra.projectkorra.airbending.AirSuction;
+import com.projectkorra.projectkorra.airbending.AirSwipe;
+import com.projectkorra.projectkorra.airbending.Suffocate;
+import com.projectkorra.projectkorra.airbending.Tornado;
+import com.projectkorra.projectkorra.airbending.flight.FlightMultiAbility;
+import com.projectkorra.projectkorra.avatar.AvatarState;
+import com.projectkorra.projectkorra.board.BendingBoardManager;
+import com.projectkorra.projectkorra.chiblocking.AcrobatStance;
+import com.projectkorra.projectkorra.chiblocking.HighJump;
+import com.projectkorra.projectkorra.chiblocking.Smokescreen;
+import com.projectkorra.projectkorra.chiblocking.WarriorStance;
+import com.projectkorra.projectkorra.configuration.ConfigManager;
+import com.projectkorra.projectkorra.earthbending.Catapult;
+import com.projectkorra.projectkorra.earthbending.Collapse;
+import com.projectkorra.projectkorra.earthbending.CollapseWall;
+import com.projectkorra.projectkorra.earthbending.EarthArmor;
+import com.projectkorra.projectkorra.earthbending.EarthBlast;
+import com.projectkorra.projectkorra.earthbending.EarthGrab;
+import com.projectkorra.projectkorra.earthbending.EarthGrab.GrabMode;
+import com.projectkorra.projectkorra.earthbending.EarthSmash;
+import com.projectkorra.projectkorra.earthbending.EarthTunnel;
+import com.projectkorra.projectkorra.earthbending.RaiseEarth;
+import com.projectkorra.projectkorra.earthbending.RaiseEarthWall;
+import com.projectkorra.projectkorra.earthbending.Shockwave;
+import com.projectkorra.projectkorra.earthbending.Tremorsense;
+import com.projectkorra.projectkorra.earthbending.lava.LavaFlow;
+import com.projectkorra.projectkorra.earthbending.lava.LavaSurge;
+import com.projectkorra.projectkorra.earthbending.metal.Extraction;
+import com.projectkorra.projectkorra.earthbending.metal.MetalClips;
+import com.projectkorra.projectkorra.firebending.Blaze;
+import com.projectkorra.projectkorra.firebending.BlazeRing;
+import com.projectkorra.projectkorra.firebending.FireBlast;
+import com.projectkorra.projectkorra.firebending.FireBlastCharged;
+import com.projectkorra.projectkorra.firebending.FireBurst;
+import com.projectkorra.projectkorra.firebending.FireJet;
+import com.projectkorra.projectkorra.firebending.FireManipulation;
+import com.projectkorra.projectkorra.firebending.FireManipulation.FireManipulationType;
+import com.projectkorra.projectkorra.firebending.FireShield;
+import com.projectkorra.projectkorra.firebending.HeatControl;
+import com.projectkorra.projectkorra.firebending.HeatControl.HeatControlType;
+import com.projectkorra.projectkorra.firebending.Illumination;
+import com.projectkorra.projectkorra.firebending.WallOfFire;
+import com.projectkorra.projectkorra.firebending.combustion.Combustion;
+import com.projectkorra.projectkorra.firebending.lightning.Lightning;
+import com.projectkorra.projectkorra.util.ChatUtil;
+import com.projectkorra.projectkorra.util.ClickType;
+import com.projectkorra.projectkorra.waterbending.OctopusForm;
+import com.projectkorra.projectkorra.waterbending.SurgeWall;
+import com.projectkorra.projectkorra.waterbending.Torrent;
+import com.projectkorra.projectkorra.waterbending.WaterBubble;
+import com.projectkorra.projectkorra.waterbending.WaterManipulation;
+import com.projectkorra.projectkorra.waterbending.WaterSpout;
+import com.projectkorra.projectkorra.waterbending.blood.Bloodbending;
+import com.projectkorra.projectkorra.waterbending.healing.HealingWaters;
+import com.projectkorra.projectkorra.waterbending.ice.IceBlast;
+import com.projectkorra.projectkorra.waterbending.ice.IceSpikeBlast;
+import com.projectkorra.projectkorra.waterbending.ice.PhaseChange;
+import com.projectkorra.projectkorra.waterbending.ice.PhaseChange.PhaseChangeType;
+import com.projectkorra.projectkorra.waterbending.multiabilities.WaterArms;
+
+/**
+ * Starts abilities when a player performs one of their triggers with the
+ * ability bound. For every {@link ClickType}, the handlers are kept in an
+ * array indexed by {@link CoreAbility#getAbilityId()}, so finding what to do
+ * for the bound ability is a single array read.<br><br>
+ *
+ * Addons can use {@link CoreAbility#registerTrigger(ClickType, TriggerHandler)}
+ * to be started the same way, instead of listening to the events themselves.
+ */
+public class TriggerManager {
+
+	/**
+	 * What to do when a player performs a trigger with an ability bound.
+	 */
+	@FunctionalInterface
+	public interface TriggerHandler {
+
+		/**
+		 * @param player The player that performed the trigger
+		 * @param bPlayer The BendingPlayer of the player
+		 */
+		void handle(Player player, BendingPlayer bPlayer);
+	}
+
+	private static volatile TriggerHandler[][] handlers = new TriggerHandler[ClickType.values().length][0];
+
+	/**
+	 * Sets what to do when a player performs a trigger with an ability bound.
+	 * Replaces any handler the ability already had for the trigger.
+	 *
+	 * @param abilityId The {@link CoreAbility#getAbilityId() id} of the ability
+	 * @param trigger The trigger
+	 * @param handler What to do
+	 */
+	public static synchronized void registerTrigger(final int abilityId, final ClickType trigger, final TriggerHandler handler) {
+		if (abilityId < 0) {
+			return;
+		}
+		final TriggerHandler[][] updated = handlers.clone();
+		updated[trigger.ordinal()] = Arrays.copyOf(updated[trigger.ordinal()], Math.max(updated[trigger.ordinal()].length, abilityId + 1));
+		updated[trigger.ordinal()][abilityId] = handler;
+		handlers = updated;
+	}
+
+	/**
+	 * @param ability The ability
+	 * @param trigger The trigger
+	 * @return true if the ability has a handler for the trigger
+	 */
+	public static boolean hasTrigger(final CoreAbility ability, final ClickType trigger) {
+		return getHandler(ability, trigger) != null;
+	}
+
+	/**
+	 * Runs the handler of the player's bound ability for a trigger, if it has
+	 * one and the player can bend it.
+	 *
+	 * @param player The player that performed the trigger
+	 * @param bPlayer The BendingPlayer of the player
+	 * @param trigger The trigger
+	 * @return true if a handler was run
+	 */
+	public static boolean trigger(final Player player, final BendingPlayer bPlayer, final ClickType trigger) {
+		final CoreAbility ability = bPlayer.getBoundAbility();
+		if (!hasTrigger(ability, trigger) || !bPlayer.canBendIgnoreCooldowns(ability)) {
+			return false;
+		}
+		return trigger(player, bPlayer, ability, trigger);
+	}
+
+	/**
+	 * Runs the handler of the bound ability for a trigger. The caller must
+	 * have checked that the player can bend the ability; this only checks that
+	 * its element is toggled on and that the player can bend with what they
+	 * are holding, unless it is an avatar ability.
+	 *
+	 * @param player The player that performed the trigger
+	 * @param bPlayer The BendingPlayer of the player
+	 * @param ability The ability the player has bound
+	 * @param trigger The trigger
+	 * @return true if a handler was run
+	 */
+	public static boolean trigger(final Player player, final BendingPlayer bPlayer, final CoreAbility ability, final ClickType trigger) {
+		final TriggerHandler handler = getHandler(ability, trigger);
+		if (handler == null) {
+			return false;
+		}
+		if (!(ability instanceof AvatarAbility)) {
+			final Element element = ability.getElement() instanceof SubElement ? ((SubElement) ability.getElement()).getParentElement() : ability.getElement();
+			if (!bPlayer.isElementToggled(element) || !bPlayer.canCurrentlyBendWithWeapons()) {
+				return false;
+			}
+		}
+		handler.handle(player, bPlayer);
+		return true;
+	}
+
+	private static TriggerHandler getHandler(final CoreAbility ability, final ClickType trigger) {
+		if (ability == null) {
+			return null;
+		}
+		final TriggerHandler[] triggerHandlers = handlers[trigger.ordinal()];
+		final int id = ability.getAbilityId();
+		return id >= 0 && id < triggerHandlers.length ? triggerHandlers[id] : null;
+	}
+
+	/**
+	 * Removes every handler.
+	 */
+	public static synchronized void clear() {
+		handlers = new TriggerHandler[ClickType.values().length][0];
+	}
+
+	private static void register(final String abilityName, final ClickType trigger, final TriggerHandler handler) {
+		registerTrigger(CoreAbility.getAbilityId(abilityName), trigger, handler);
+	}
+
+	/**
+	 * Registers the triggers of the core abilities. Must be called after they
+	 * have been registered, so they have ids.
+	 */
+	public static void registerCoreTriggers() {
+		register("Tornado", ClickType.SHIFT_DOWN, (player, bPlayer) -> new Tornado(player));
+		register("AirBlast", ClickType.SHIFT_DOWN, (player, bPlayer) -> AirBlast.setOrigin(player));
+		register("AirBurst", ClickType.SHIFT_DOWN, (player, bPlayer) -> new AirBurst(player, false));
+		register("AirSuction", ClickType.SHIFT_DOWN, (player, bPlayer) -> new AirSuction(player));
+		register("AirSwipe", ClickType.SHIFT_DOWN, (player, bPlayer) -> new AirSwipe(player, true));
+		register("AirShield", ClickType.SHIFT_DOWN, (player, bPlayer) -> new AirShield(player));
+		register("Suffocate", ClickType.SHIFT_DOWN, (player, bPlayer) -> new Suffocate(player));
+
+		register("AirBlast", ClickType.LEFT_CLICK, (player, bPlayer) -> new AirBlast(player));
+		register("AirSuction", ClickType.LEFT_CLICK, (player, bPlayer) -> AirSuction.shoot(player));
+		register("AirBurst", ClickType.LEFT_CLICK, (player, bPlayer) -> AirBurst.coneBurst(player));
+		register("AirScooter", ClickType.LEFT_CLICK, (player, bPlayer) -> new AirScooter(player));
+		register("AirSpout", ClickType.LEFT_CLICK, (player, bPlayer) -> new AirSpout(player));
+		register("AirSwipe", ClickType.LEFT_CLICK, (player, bPlayer) -> new AirSwipe(player));
+		register("Flight", ClickType.LEFT_CLICK, (player, bPlayer) -> new FlightMultiAbility(player));
+
+		register("Bloodbending", ClickType.SHIFT_DOWN, (player, bPlayer) -> new Bloodbending(player));
+		register("IceBlast", ClickType.SHIFT_DOWN, (player, bPlayer) -> new IceBlast(player));
+		register("IceSpike", ClickType.SHIFT_DOWN, (player, bPlayer) -> new IceSpikeBlast(player));
+		register("OctopusForm", ClickType.SHIFT_DOWN, (player, bPlayer) -> OctopusForm.form(player));
+		register("PhaseChange", ClickType.SHIFT_DOWN, (player, bPlayer) -> startPhaseChange(player, PhaseChangeType.MELT));
+		register("WaterManipulation", ClickType.SHIFT_DOWN, (player, bPlayer) -> new WaterManipulation(player));
+		register("WaterBubble", ClickType.SHIFT_DOWN, (player, bPlayer) -> new WaterBubble(player, true));
+		register("Surge", ClickType.SHIFT_DOWN, (player, bPlayer) -> SurgeWall.form(player));
+		register("Torrent", ClickType.SHIFT_DOWN, (player, bPlayer) -> Torrent.create(player));
+		register("WaterArms", ClickType.SHIFT_DOWN, (player, bPlayer) -> new WaterArms(player));
+		register("HealingWaters", ClickType.SHIFT_DOWN, (player, bPlayer) -> new HealingWaters(player));
+
+		register("Bloodbending", ClickType.LEFT_CLICK, (player, bPlayer) -> Bloodbending.launch(player));
+		register("IceBlast", ClickType.LEFT_CLICK, (player, bPlayer) -> IceBlast.activate(player));
+		register("IceSpike", ClickType.LEFT_CLICK, (player, bPlayer) -> IceSpikeBlast.activate(player));
+		register("OctopusForm", ClickType.LEFT_CLICK, (player, bPlayer) -> new OctopusForm(player));
+		register("PhaseChange", ClickType.LEFT_CLICK, (player, bPlayer) -> startPhaseChange(player, PhaseChangeType.FREEZE));
+		register("WaterBubble", ClickType.LEFT_CLICK, (player, bPlayer) -> new WaterBubble(player, false));
+		register("WaterSpout", ClickType.LEFT_CLICK, (player, bPlayer) -> new WaterSpout(player));
+		register("WaterManipulation", ClickType.LEFT_CLICK, (player, bPlayer) -> WaterManipulation.moveWater(player));
+		register("Surge", ClickType.LEFT_CLICK, (player, bPlayer) -> new SurgeWall(player));
+		register("Torrent", ClickType.LEFT_CLICK, (player, bPlayer) -> new Torrent(player));
+
+		register("Catapult", ClickType.SHIFT_DOWN, (player, bPlayer) -> new Catapult(player, true));
+		register("EarthBlast", ClickType.SHIFT_DOWN, (player, bPlayer) -> new EarthBlast(player));
+		register("EarthArmor", ClickType.SHIFT_DOWN, (player, bPlayer) -> new EarthArmor(player));
+		register("RaiseEarth", ClickType.SHIFT_DOWN, (player, bPlayer) -> new RaiseEarthWall(player));
+		register("Collapse", ClickType.SHIFT_DOWN, (player, bPlayer) -> new CollapseWall(player));
+		register("Shockwave", ClickType.SHIFT_DOWN, (player, bPlayer) -> new Shockwave(player, false));
+		register("EarthTunnel", ClickType.SHIFT_DOWN, (player, bPlayer) -> new EarthTunnel(player));
+		register("Tremorsense", ClickType.SHIFT_DOWN, (player, bPlayer) -> {
+			bPlayer.toggleTremorSense();
+			ChatUtil.displayMovePreview(player);
+			BendingBoardManager.updateAllSlots(player);
+		});
+		register("Extraction", ClickType.SHIFT_DOWN, (player, bPlayer) -> new Extraction(player));
+		register("LavaFlow", ClickType.SHIFT_DOWN, (player, bPlayer) -> new LavaFlow(player, LavaFlow.AbilityType.SHIFT));
+		register("EarthSmash", ClickType.SHIFT_DOWN, (player, bPlayer) -> new EarthSmash(player, ClickType.SHIFT_DOWN));
+		register("MetalClips", ClickType.SHIFT_DOWN, (player, bPlayer) -> {
+			final MetalClips clips = CoreAbility.getAbility(player, MetalClips.class);
+			if (clips != null) {
+				if (clips.getTargetEntity() == null) {
+					clips.setMagnetized(true);
+				} else {
+					clips.setControlling(true);
+				}
+			} else {
+				new MetalClips(player, 1);
+			}
+		});
+		register("EarthGrab", ClickType.SHIFT_DOWN, (player, bPlayer) -> new EarthGrab(player, GrabMode.DRAG));
+
+		register("Catapult", ClickType.LEFT_CLICK, (player, bPlayer) -> new Catapult(player, false));
+		register("EarthBlast", ClickType.LEFT_CLICK, (player, bPlayer) -> EarthBlast.throwEarth(player));
+		register("RaiseEarth", ClickType.LEFT_CLICK, (player, bPlayer) -> new RaiseEarth(player));
+		register("Collapse", ClickType.LEFT_CLICK, (player, bPlayer) -> new Collapse(player));
+		register("Shockwave", ClickType.LEFT_CLICK, (player, bPlayer) -> Shockwave.coneShockwave(player));
+		register("EarthArmor", ClickType.LEFT_CLICK, (player, bPlayer) -> {
+			final EarthArmor armor = CoreAbility.getAbility(player, EarthArmor.class);
+			if (armor != null && armor.isFormed()) {
+				armor.click();
+			}
+		});
+		register("Tremorsense", ClickType.LEFT_CLICK, (player, bPlayer) -> new Tremorsense(player, true));
+		register("MetalClips", ClickType.LEFT_CLICK, (player, bPlayer) -> {
+			final MetalClips clips = CoreAbility.getAbility(player, MetalClips.class);
+			if (clips == null) {
+				new MetalClips(player, 0);
+			} else if (clips.getMetalClipsCount() < (player.hasPermission("bending.ability.MetalClips.4clips") ? 4 : 3)) {
+				clips.shootMetal();
+			} else if (clips.getMetalClipsCount() == 4 && clips.isCanUse4Clips()) {
+				clips.crush();
+			}
+		});
+		register("LavaSurge", ClickType.LEFT_CLICK, (player, bPlayer) -> {
+			final LavaSurge surge = CoreAbility.getAbility(player, LavaSurge.class);
+			if (surge != null) {
+				surge.launch();
+			}
+		});
+		register("LavaFlow", ClickType.LEFT_CLICK, (player, bPlayer) -> new LavaFlow(player, LavaFlow.AbilityType.CLICK));
+		register("EarthSmash", ClickType.LEFT_CLICK, (player, bPlayer) -> new EarthSmash(player, ClickType.LEFT_CLICK));
+		register("EarthGrab", ClickType.LEFT_CLICK, (player, bPlayer) -> new EarthGrab(player, GrabMode.PROJECTING));
+
+		register("Blaze", ClickType.SHIFT_DOWN, (player, bPlayer) -> new BlazeRing(player));
+		register("FireBlast", ClickType.SHIFT_DOWN, (player, bPlayer) -> new FireBlastCharged(player));
+		register("HeatControl", ClickType.SHIFT_DOWN, (player, bPlayer) -> new HeatControl(player, HeatControlType.COOK));
+		register("FireBurst", ClickType.SHIFT_DOWN, (player, bPlayer) -> new FireBurst(player));
+		register("FireShield", ClickType.SHIFT_DOWN, (player, bPlayer) -> new FireShield(player, true));
+		register("Lightning", ClickType.SHIFT_DOWN, (player, bPlayer) -> new Lightning(player));
+		register("Combustion", ClickType.SHIFT_DOWN, (player, bPlayer) -> new Combustion(player));
+		register("FireManipulation", ClickType.SHIFT_DOWN, (player, bPlayer) -> new FireManipulation(player, FireManipulationType.SHIFT));
+
+		register("Blaze", ClickType.LEFT_CLICK, (player, bPlayer) -> new Blaze(player));
+		register("FireBlast", ClickType.LEFT_CLICK, (player, bPlayer) -> new FireBlast(player));
+		register("FireJet", ClickType.LEFT_CLICK, (player, bPlayer) -> new FireJet(player));
+		register("HeatControl", ClickType.LEFT_CLICK, (player, bPlayer) -> new HeatControl(player, HeatControlType.MELT));
+		register("Illumination", ClickType.LEFT_CLICK, (player, bPlayer) -> {
+			if (ConfigManager.defaultConfig.get().getBoolean("Abilities.Fire.Illumination.Passive")) {
+				bPlayer.toggleIllumination();
+				ChatUtil.displayMovePreview(player);
+				BendingBoardManager.updateAllSlots(player);
+			} else {
+				new Illumination(player);
+			}
+		});
+		register("FireBurst", ClickType.LEFT_CLICK, (player, bPlayer) -> FireBurst.coneBurst(player));
+		register("FireShield", ClickType.LEFT_CLICK, (player, bPlayer) -> new FireShield(player));
+		register("WallOfFire", ClickType.LEFT_CLICK, (player, bPlayer) -> new WallOfFire(player));
+		register("Combustion", ClickType.LEFT_CLICK, (player, bPlayer) -> Combustion.explode(player));
+		register("FireManipulation", ClickType.LEFT_CLICK, (player, bPlayer) -> {
+			final FireManipulation fireManip = CoreAbility.getAbility(player, FireManipulation.class);
+			if (fireManip != null) {
+				if (fireManip.getFireManipulationType() == FireManipulationType.SHIFT) {
+					fireManip.click();
+				}
+			} else {
+				new FireManipulation(player, FireManipulationType.CLICK);
+			}
+		});
+
+		register("HighJump", ClickType.LEFT_CLICK, (player, bPlayer) -> new HighJump(player));
+		register("Smokescreen", ClickType.LEFT_CLICK, (player, bPlayer) -> new Smokescreen(player));
+		register("WarriorStance", ClickType.LEFT_CLICK, (player, bPlayer) -> new WarriorStance(player));
+		register("AcrobatStance", ClickType.LEFT_CLICK, (player, bPlayer) -> new AcrobatStance(player));
+
+		register("AvatarState", ClickType.LEFT_CLICK, (player, bPlayer) -> {
+			new AvatarState(player);
+			ChatUtil.displayMovePreview(player);
+			BendingBoardManager.updateAllSlots(player);
+		});
+	}
+
+	private static void startPhaseChange(final Player player, final PhaseChangeType type) {
+		final PhaseChange phaseChange = CoreAbility.getAbility(player, PhaseChange.class);
+		if (phaseChange == null) {
+			new PhaseChange(player, type);
+		} else {
+			phaseChange.startNewType(type);
+		}
+	}
+}
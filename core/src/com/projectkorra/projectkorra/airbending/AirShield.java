@@ -9,7 +9,6 @@ import com.projectkorra.projectkorra.region.RegionProtection;
 import org.bukkit.Effect;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.util.Vector;
@@ -173,12 +172,13 @@ public class AirShield extends AirAbility {
 			}
 		}
 
-		for (final Block testblock : GeneralMethods.getBlocksAroundPoint(this.player.getLocation(), this.radius)) {
+		GeneralMethods.forEachBlockAroundPoint(this.player.getLocation(), this.radius, testblock -> {
 			if (FireAbility.isFire(testblock.getType())) {
 				testblock.setType(Material.AIR);
 				testblock.getWorld().playEffect(testblock.getLocation(), Effect.EXTINGUISH, 0);
 			}
-		}
+			return true;
+		});
 
 		final Set<Integer> keys = this.angles.keySet();
 		for (final int i : keys) {
@@ -17,6 +17,7 @@ import com.projectkorra.projectkorra.ProjectKorra;
 import com.projectkorra.projectkorra.ability.AirAbility;
 import com.projectkorra.projectkorra.attribute.Attribute;
 import com.projectkorra.projectkorra.util.DamageHandler;
+import com.projectkorra.projectkorra.util.StatusFlags;
 
 /**
  * Suffocate
@@ -195,6 +196,7 @@ public class Suffocate extends AirAbility {
 				this.tasks.add(ThreadUtil.ensureEntityTimer(target, br1, (long) (this.damageDelay * 20), (long) (this.damageRepeat * 20)));
 				this.tasks.add(ThreadUtil.ensureEntityTimer(target, br2, (long) (this.slowDelay * 20), (long) (this.slowRepeat * 20 / 0.25)));
 				this.tasks.add(ThreadUtil.ensureEntityTimer(target, br3, (long) (this.blindDelay * 20), (long) (this.blindRepeat * 20)));
+				StatusFlags.set(target, StatusFlags.BREATHBENT, true);
 			}
 		}
 
@@ -219,12 +221,19 @@ public class Suffocate extends AirAbility {
 
 	/** Checks if an entity is being suffocated **/
 	public static boolean isBreathbent(final Entity entity) {
+		return StatusFlags.has(entity, StatusFlags.BREATHBENT);
+	}
+
+	/** Updates whether an entity is being suffocated after a Suffocate lets go of it **/
+	private static void updateBreathbent(final Entity entity) {
+		boolean breathbent = false;
 		for (final Suffocate suffocate : getAbilities(Suffocate.class)) {
-			if (suffocate.targets.contains(entity)) {
-				return suffocate.started;
+			if (!suffocate.isRemoved() && suffocate.started && suffocate.targets.contains(entity)) {
+				breathbent = true;
+				break;
 			}
 		}
-		return false;
+		StatusFlags.set(entity, StatusFlags.BREATHBENT, breathbent);
 	}
 
 	/** Determines if a player is Suffocating entities **/
@@ -306,6 +315,9 @@ public class Suffocate extends AirAbility {
 	public void breakSuffocateLocal(final Entity entity) {
 		if (this.targets.contains(entity)) {
 			this.targets.remove(entity);
+			if (this.started) {
+				updateBreathbent(entity);
+			}
 		}
 	}
 
@@ -319,6 +331,11 @@ public class Suffocate extends AirAbility {
 			this.tasks.remove(i);
 			i--;
 		}
+		if (this.started) {
+			for (final LivingEntity target : this.targets) {
+				updateBreathbent(target);
+			}
+		}
 	}
 
 	/**
@@ -512,6 +529,9 @@ public class Suffocate extends AirAbility {
 
 	public void setStarted(final boolean started) {
 		this.started = started;
+		for (final LivingEntity target : this.targets) {
+			updateBreathbent(target);
+		}
 	}
 
 	public boolean isRequireConstantAim() {
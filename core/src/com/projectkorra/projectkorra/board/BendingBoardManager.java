@@ -212,12 +212,10 @@ public final class BendingBoardManager {
 	public static void loadDisabledPlayers() {
 		ThreadUtil.runAsync(() -> {
 			Set<UUID> disabled = new HashSet<>();
-			try {
-				final ResultSet rs = DBConnection.sql.readQuery("SELECT uuid FROM pk_board WHERE enabled = 0");
+			DBConnection.sql.readQuery("SELECT uuid FROM pk_board WHERE enabled = 0", rs -> {
 				while (rs.next()) disabled.add(UUID.fromString(rs.getString("uuid")));
-			} catch (SQLException e) {
-				e.printStackTrace();
-			}
+				return null;
+			});
 			disabledPlayers.clear();
 			disabledPlayers.addAll(disabled);
 		});
@@ -234,16 +232,23 @@ public final class BendingBoardManager {
 		final String updateQuery = "UPDATE pk_board SET enabled = " + (disabledPlayers.contains(uuid) ? 0 : 1) + " WHERE uuid = ?";
 		ThreadUtil.runAsync(() -> {
 			try {
-				PreparedStatement ps = DBConnection.sql.getConnection().prepareStatement("SELECT enabled FROM pk_board WHERE uuid = ? LIMIT 1");
-				ps.setString(1, uuid.toString());
-				PreparedStatement ps2;
-				if (!ps.executeQuery().next()) { // if the entry doesn't exist in the DB, create it.
-					ps2 = DBConnection.sql.getConnection().prepareStatement("INSERT INTO pk_board (uuid, enabled) VALUES (?, 1)");
-				} else { // if the entry exists in the DB, update it
-					ps2 = DBConnection.sql.getConnection().prepareStatement(updateQuery);
-				}
-				ps2.setString(1, uuid.toString());
-				ps2.execute();
+				DBConnection.sql.withConnection(connection -> {
+					PreparedStatement ps = connection.prepareStatement("SELECT enabled FROM pk_board WHERE uuid = ? LIMIT 1");
+					ps.setString(1, uuid.toString());
+					PreparedStatement ps2;
+					boolean exists;
+					try (ResultSet rs = ps.executeQuery()) {
+						exists = rs.next();
+					}
+					if (!exists) { // if the entry doesn't exist in the DB, create it.
+						ps2 = connection.prepareStatement("INSERT INTO pk_board (uuid, enabled) VALUES (?, 1)");
+					} else { // if the entry exists in the DB, update it
+						ps2 = connection.prepareStatement(updateQuery);
+					}
+					ps2.setString(1, uuid.toString());
+					ps2.execute();
+					return null;
+				});
 			} catch (SQLException e) {
 				e.printStackTrace();
 			}
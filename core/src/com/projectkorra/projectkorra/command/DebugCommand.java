@@ -5,6 +5,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import com.projectkorra.projectkorra.ProjectKorra;
+import com.projectkorra.projectkorra.region.RegionProtection;
+import com.projectkorra.projectkorra.region.RegionProtectionStatistics;
 import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.TextComponent;
@@ -20,13 +22,16 @@ import com.projectkorra.projectkorra.configuration.ConfigManager;
 public class DebugCommand extends PKCommand {
 
 	public DebugCommand() {
-		super("debug", "/bending debug", ConfigManager.languageConfig.get().getString("Commands.Debug.Description"), new String[] { "debug", "de" });
+		super("debug", "/bending debug [regions]", ConfigManager.languageConfig.get().getString("Commands.Debug.Description"), new String[] { "debug", "de" });
 	}
 
 	@Override
 	public void execute(final CommandSender sender, final List<String> args) {
 		if (!this.hasPermission(sender)) {
 			return;
+		} else if (args.size() == 1 && args.get(0).equalsIgnoreCase("regions")) {
+			this.sendRegionStatistics(sender);
+			return;
 		} else if (args.size() != 0) {
 			this.help(sender, false);
 			return;
@@ -43,6 +48,23 @@ public class DebugCommand extends PKCommand {
 		sender.spigot().sendMessage(message);
 	}
 
+	/**
+	 * Sends the statistics of each region protection, in the order they are
+	 * currently checked.
+	 */
+	private void sendRegionStatistics(final CommandSender sender) {
+		final List<RegionProtectionStatistics> statistics = RegionProtection.getStatistics();
+		if (statistics.isEmpty()) {
+			sender.sendMessage(ChatColor.YELLOW + "No region protections are registered.");
+			return;
+		}
+		sender.sendMessage(ChatColor.GOLD + "Region protections, in the order they are checked:");
+		for (final RegionProtectionStatistics stats : statistics) {
+			sender.sendMessage(ChatColor.YELLOW + stats.getPlugin().getName() + ": " + ChatColor.WHITE + stats.getChecks() + " checks, "
+					+ String.format("%.1f%% denied, %.1fus average", stats.getDenyRate() * 100, stats.getAverageNanos() / 1000));
+		}
+	}
+
 	/**
 	 * Checks if the CommandSender has the permission 'bending.admin.debug'. If
 	 * not, it tells them they don't have permission.
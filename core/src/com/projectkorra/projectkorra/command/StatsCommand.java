@@ -1,28 +1,24 @@
 package com.projectkorra.projectkorra.command;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
 
 import com.projectkorra.projectkorra.util.ChatUtil;
 import com.projectkorra.projectkorra.util.ThreadUtil;
 import org.bukkit.ChatColor;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import com.projectkorra.projectkorra.Element;
+import com.projectkorra.projectkorra.Manager;
 import com.projectkorra.projectkorra.ProjectKorra;
 import com.projectkorra.projectkorra.ability.CoreAbility;
 import com.projectkorra.projectkorra.configuration.ConfigManager;
-import com.projectkorra.projectkorra.storage.DBConnection;
 import com.projectkorra.projectkorra.util.Statistic;
+import com.projectkorra.projectkorra.util.StatisticsLeaderboard;
+import com.projectkorra.projectkorra.util.StatisticsManager;
 import com.projectkorra.projectkorra.util.StatisticsMethods;
 
 public class StatsCommand extends PKCommand {
@@ -139,7 +135,8 @@ public class StatsCommand extends PKCommand {
 
 	public List<String> getLeaderboard(final CommandSender sender, final Object object, final Statistic statistic, final int page) {
 		final List<String> messages = new ArrayList<>();
-		final List<UUID> uuids = this.pullUUIDs(statistic, object);
+		final StatisticsLeaderboard leaderboard = Manager.getManager(StatisticsManager.class).getLeaderboard(object, statistic);
+		final List<UUID> uuids = leaderboard.getRanking();
 		final int maxPage = (uuids.size() / 10) + 1;
 		int p = page > maxPage ? maxPage : page;
 		p = p < 1 ? 1 : p;
@@ -167,14 +164,8 @@ public class StatsCommand extends PKCommand {
 				break;
 			}
 			final UUID uuid = uuids.get(index);
-			long value = 0;
-			if (object == null) {
-				value = StatisticsMethods.getStatisticTotal(uuid, statistic);
-			} else {
-				value = StatisticsMethods.getStatistic(uuid, object, statistic);
-			}
-			final OfflinePlayer oPlayer = ProjectKorra.plugin.getServer().getOfflinePlayer(uuid);
-			messages.add("&7" + (index + 1) + ") &e" + oPlayer.getName() + " &f" + value);
+			final String name = Manager.getManager(StatisticsManager.class).getName(uuid);
+			messages.add("&7" + (index + 1) + ") &e" + name + " &f" + leaderboard.getValue(uuid));
 		}
 		return messages;
 	}
@@ -184,49 +175,7 @@ public class StatsCommand extends PKCommand {
 	}
 
 	public List<UUID> pullUUIDs(final Statistic statistic, final Object object) {
-		final Set<UUID> uuids = new HashSet<>();
-		try (ResultSet rs = DBConnection.sql.readQuery("SELECT uuid FROM pk_stats")) {
-			while (rs.next()) {
-				final UUID uuid = UUID.fromString(rs.getString("uuid"));
-				if (object == null) {
-					if (StatisticsMethods.getStatisticTotal(uuid, statistic) > 0) {
-						uuids.add(uuid);
-					}
-				} else {
-					if (StatisticsMethods.getStatistic(uuid, object, statistic) > 0) {
-						uuids.add(uuid);
-					}
-				}
-			}
-		} catch (final SQLException e) {
-			e.printStackTrace();
-		}
-		for (final Player player : ProjectKorra.plugin.getServer().getOnlinePlayers()) {
-			final UUID uuid = player.getUniqueId();
-			if (object == null) {
-				if (StatisticsMethods.getStatisticTotal(uuid, statistic) > 0) {
-					uuids.add(uuid);
-				}
-			} else {
-				if (StatisticsMethods.getStatistic(uuid, object, statistic) > 0) {
-					uuids.add(uuid);
-				}
-			}
-		}
-		final List<UUID> list = new ArrayList<>(uuids);
-		Collections.sort(list, (u1, u2) -> {
-			long value1 = 0;
-			long value2 = 0;
-			if (object == null) {
-				value1 = StatisticsMethods.getStatisticTotal(u1, statistic);
-				value2 = StatisticsMethods.getStatisticTotal(u2, statistic);
-			} else {
-				value1 = StatisticsMethods.getStatistic(u1, object, statistic);
-				value2 = StatisticsMethods.getStatistic(u2, object, statistic);
-			}
-			return (int) (value2 - value1);
-		});
-		return list;
+		return Manager.getManager(StatisticsManager.class).getLeaderboard(object, statistic).getRanking();
 	}
 
 }
@@ -737,6 +737,7 @@ public class ConfigManager {
 
 			config.addDefault("Properties.UpdateChecker", true);
 			config.addDefault("Properties.Statistics", true);
+			config.addDefault("Properties.StatisticsLeaderboardSize", 100);
 			config.addDefault("Properties.DatabaseCooldowns", true);
 			config.addDefault("Properties.BendingBoard", true);
 			config.addDefault("Properties.BendingPreview", true);
@@ -745,12 +746,15 @@ public class ConfigManager {
 			config.addDefault("Properties.BendingAffectFallingSand.TNT", true);
 			config.addDefault("Properties.BendingAffectFallingSand.TNTStrengthMultiplier", 1.0);
 			config.addDefault("Properties.GlobalCooldown", 500);
+			config.addDefault("Properties.PermissionRefreshInterval", 1000);
 			config.addDefault("Properties.PlayerDataUnloadTime", 1000 * 60 * 5);
+			config.addDefault("Properties.PlayerDataCacheSize", 1000);
 			config.addDefault("Properties.TogglePassivesWithAllBending", true);
 			config.addDefault("Properties.SeaLevel", 62);
 			config.addDefault("Properties.ChooseCooldown", 0L);
 			config.addDefault("Properties.MaxPresets", 10);
 			config.addDefault("Properties.IgnoreArmorPercentage.Default", 0.5);
+			config.addDefault("Properties.BendingImmunity.RespectLegacyMetadata", false);
 
 			config.addDefault("Properties.HorizontalCollisionPhysics.Enabled", true);
 			config.addDefault("Properties.HorizontalCollisionPhysics.DamageOnBarrierBlock", false);
@@ -772,6 +776,8 @@ public class ConfigManager {
 			config.addDefault("Properties.RegionProtection.RespectPlotSquared", true);
 			config.addDefault("Properties.RegionProtection.RespectRedProtect", true);
 			config.addDefault("Properties.RegionProtection.CacheBlockTime", 5000);
+			config.addDefault("Properties.RegionProtection.CacheSize", 20000);
+			config.addDefault("Properties.RegionProtection.ReorderByCost", true);
 
 			config.addDefault("Properties.Air.CanBendWithWeapons", false);
 			config.addDefault("Properties.Air.Particles", "spell");
@@ -1716,6 +1722,20 @@ public class ConfigManager {
 			config.addDefault("Storage.MySQL.user", "root");
 			config.addDefault("Storage.MySQL.properties", "autoReconnect=true");
 
+			config.addDefault("Storage.Pool.MaxSize", 10);
+			config.addDefault("Storage.Pool.ConnectionTimeout", 30000);
+			config.addDefault("Storage.Pool.IdleTimeout", 600000);
+			config.addDefault("Storage.Pool.LeakDetectionThreshold", 0);
+			config.addDefault("Storage.Pool.StatementCacheSize", 64);
+			config.addDefault("Storage.SQLite.WAL", true);
+			config.addDefault("Storage.SQLite.Synchronous", "NORMAL");
+			config.addDefault("Storage.SQLite.CacheSizeKB", 16384);
+			config.addDefault("Storage.SQLite.MmapSizeMB", 256);
+			config.addDefault("Storage.SQLite.ReadConnections", 4);
+			config.addDefault("Storage.FlushInterval", 2000);
+			config.addDefault("Storage.Migration.BatchSize", 500);
+			config.addDefault("Storage.Migration.BatchInterval", 20);
+
 			config.addDefault("debug", false);
 
 			defaultConfig.save();
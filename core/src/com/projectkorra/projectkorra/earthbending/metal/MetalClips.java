@@ -28,6 +28,7 @@ import com.projectkorra.projectkorra.ability.CoreAbility;
 import com.projectkorra.projectkorra.ability.MetalAbility;
 import com.projectkorra.projectkorra.attribute.Attribute;
 import com.projectkorra.projectkorra.util.DamageHandler;
+import com.projectkorra.projectkorra.util.StatusFlags;
 import com.projectkorra.projectkorra.util.TempArmor;
 
 public class MetalClips extends MetalAbility {
@@ -409,7 +410,7 @@ public class MetalClips extends MetalAbility {
 					if ((e instanceof Player || e instanceof Zombie || e instanceof Skeleton)) {
 						if (this.targetEntity == null) {
 							this.targetEntity = (LivingEntity) e;
-							TARGET_TO_ABILITY.put(this.targetEntity, this);
+							this.control(this.targetEntity);
 							this.formArmor();
 						} else if (this.targetEntity == e) {
 							this.formArmor();
@@ -418,10 +419,10 @@ public class MetalClips extends MetalAbility {
 								this.resetArmor();
 								this.metalClipsCount = 0;
 								ENTITY_CLIPS_COUNT.remove(this.targetEntity);
-								TARGET_TO_ABILITY.remove(this.targetEntity);
+								release(this.targetEntity);
 
 								this.targetEntity = (LivingEntity) e;
-								TARGET_TO_ABILITY.put(this.targetEntity, this);
+								this.control(this.targetEntity);
 								this.formArmor();
 							} else {
 								TARGET_TO_ABILITY.get(this.targetEntity).remove();
@@ -461,12 +462,23 @@ public class MetalClips extends MetalAbility {
 
 		if (this.targetEntity != null) {
 			ENTITY_CLIPS_COUNT.remove(this.targetEntity);
-			TARGET_TO_ABILITY.remove(this.targetEntity);
+			release(this.targetEntity);
+		}
+	}
+
+	private void control(final LivingEntity entity) {
+		TARGET_TO_ABILITY.put(entity, this);
+		StatusFlags.set(entity, StatusFlags.CLIPPED, true);
+	}
+
+	private static void release(final LivingEntity entity) {
+		if (TARGET_TO_ABILITY.remove(entity) != null) {
+			StatusFlags.set(entity, StatusFlags.CLIPPED, false);
 		}
 	}
 
 	public static boolean isControlled(final LivingEntity player) {
-		return TARGET_TO_ABILITY.containsKey(player);
+		return StatusFlags.has(player, StatusFlags.CLIPPED);
 	}
 
 	public static boolean isControllingEntity(final Player player) {
@@ -5,7 +5,6 @@ import java.util.concurrent.ThreadLocalRandom;
 
 import com.projectkorra.projectkorra.attribute.markers.DayNightFactor;
 import org.bukkit.Location;
-import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
@@ -152,9 +151,10 @@ public class FireShield extends FireAbility {
 					entity.remove();
 				}
 			}
-			for (final Block block : GeneralMethods.getBlocksAroundPoint(this.location, this.shieldRadius)) {
+			GeneralMethods.forEachBlockAroundPoint(this.location, this.shieldRadius, block -> {
 				dryWetBlocks(block, this, ThreadLocalRandom.current().nextInt(5) == 0);
-			}
+				return true;
+			});
 		} else {
 			this.location = this.player.getEyeLocation().clone();
 			final Vector direction = this.location.getDirection();
@@ -188,9 +188,10 @@ public class FireShield extends FireAbility {
 					entity.remove();
 				}
 			}
-			for (final Block block : GeneralMethods.getBlocksAroundPoint(this.location, this.discRadius)) {
+			GeneralMethods.forEachBlockAroundPoint(this.location, this.discRadius, block -> {
 				dryWetBlocks(block, this, ThreadLocalRandom.current().nextInt(5) == 0);
-			}
+				return true;
+			});
 		}
 	}
 
@@ -82,7 +82,7 @@ public class Illumination extends FireAbility {
 		//A replacement for the canBendIgnoreBindsCooldowns. Since this is used a passive, it should not turn off when bending is toggled.
 		if (!this.bPlayer.canBind(this) || this.bPlayer.isChiBlocked() || this.bPlayer.isParalyzed()
 				|| this.bPlayer.isBloodbent() || this.bPlayer.isControlledByMetalClips()
-				|| getConfig().getStringList("Properties.DisabledWorlds").contains(player.getLocation().getWorld().getName())) {
+				|| BendingPlayer.isWorldDisabled(this.player.getWorld())) {
 			this.remove();
 			return;
 		}
@@ -186,7 +186,7 @@ public class PlanExtension implements DataExtension {
     }
 
     private OfflineBendingPlayer getPlayer(UUID playerUUID) {
-        OfflineBendingPlayer bPlayer = BendingPlayer.getOrLoadOffline(Bukkit.getOfflinePlayer(playerUUID));
+        OfflineBendingPlayer bPlayer = BendingPlayer.getOfflineIfLoaded(Bukkit.getOfflinePlayer(playerUUID));
 
         if (bPlayer == null) throw new NotReadyException();
         return bPlayer;
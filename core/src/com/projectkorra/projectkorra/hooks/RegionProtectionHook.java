@@ -2,12 +2,52 @@ package com.projectkorra.projectkorra.hooks;
 
 import com.projectkorra.projectkorra.ability.CoreAbility;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.BitSet;
+import java.util.List;
+
 @FunctionalInterface
 public interface RegionProtectionHook {
 
     boolean isRegionProtected(@NotNull Player player, @NotNull Location location, @Nullable CoreAbility ability);
+
+    /**
+     * Checks if every block in a 16x16x16 chunk section is protected the same way. Hooks whose
+     * protection only changes between chunks can override this so the decision is cached for the
+     * whole section instead of block by block.
+     * @param player The player being checked
+     * @param world The world of the section
+     * @param sectionX The chunk x coordinate of the section
+     * @param sectionY The y coordinate of the section, which is the block y shifted right by 4
+     * @param sectionZ The chunk z coordinate of the section
+     * @param ability The ability to check
+     * @return True or false if the whole section is protected or unprotected, or null if it can differ between blocks
+     */
+    @Nullable
+    default Boolean isSectionProtected(@NotNull Player player, @NotNull World world, int sectionX, int sectionY, int sectionZ, @Nullable CoreAbility ability) {
+        return null;
+    }
+
+    /**
+     * Checks many locations at once. The locations are always in the same chunk section, so hooks that
+     * look up a region or claim can do it once and reuse it for every location.
+     * @param player The player being checked
+     * @param locations The locations to check
+     * @param ability The ability to check
+     * @return A bitset with the index of every protected location set
+     */
+    @NotNull
+    default BitSet isRegionProtected(@NotNull Player player, @NotNull List<Location> locations, @Nullable CoreAbility ability) {
+        final BitSet protectedLocations = new BitSet(locations.size());
+        for (int i = 0; i < locations.size(); i++) {
+            if (isRegionProtected(player, locations.get(i), ability)) {
+                protectedLocations.set(i);
+            }
+        }
+        return protectedLocations;
+    }
 }
@@ -1,7 +1,5 @@
 package com.projectkorra.projectkorra.object;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -20,7 +18,7 @@ import com.projectkorra.projectkorra.ProjectKorra;
 import com.projectkorra.projectkorra.ability.CoreAbility;
 import com.projectkorra.projectkorra.board.BendingBoardManager;
 import com.projectkorra.projectkorra.configuration.ConfigManager;
-import com.projectkorra.projectkorra.storage.DBConnection;
+import com.projectkorra.projectkorra.storage.PlayerDAO;
 
 /**
  * A savable association of abilities and hotbar slots, stored per player.
@@ -37,10 +35,6 @@ public class Preset {
 	public static Map<UUID, List<Preset>> presets = new ConcurrentHashMap<>();
 	public static FileConfiguration config = ConfigManager.presetConfig.get();
 	public static HashMap<String, ArrayList<String>> externalPresets = new HashMap<>();
-	static String loadQuery = "SELECT * FROM pk_presets WHERE uuid = ?";
-	static String deleteQuery = "DELETE FROM pk_presets WHERE uuid = ? AND name = ?";
-	static String insertQuery = "INSERT INTO pk_presets (uuid, name, slot1, slot2, slot3, slot4, slot5, slot6, slot7, " +
-			"slot8, slot9) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
 	private final UUID uuid;
 	private final HashMap<Integer, String> abilities;
@@ -85,31 +79,29 @@ public class Preset {
 			if (uuid == null) {
 				return;
 			}
-			try {
-				final PreparedStatement ps = DBConnection.sql.getConnection().prepareStatement(loadQuery);
-				ps.setString(1, uuid.toString());
-				final ResultSet rs = ps.executeQuery();
-				if (rs.next()) { // Presets exist.
-					int i = 0;
-					do {
-						final HashMap<Integer, String> moves = new HashMap<Integer, String>();
-						for (int total = 1; total <= 9; total++) {
-							final String slot = rs.getString("slot" + total);
-							if (slot != null) {
-								moves.put(total, slot);
-							}
-						}
-						new Preset(uuid, rs.getString("name"), moves);
-						i++;
-					} while (rs.next());
-					ProjectKorra.log.info("Loaded " + i + " presets for " + player.getName());
-				}
-			} catch (final SQLException ex) {
-				ex.printStackTrace();
+			final Map<String, HashMap<Integer, String>> loaded = PlayerDAO.loadPresets(uuid);
+			if (loaded != null) {
+				loadPresets(player, loaded);
 			}
 		});
 	}
 
+	/**
+	 * Load a Player's Presets into memory from Presets that were already read
+	 * from the database.
+	 *
+	 * @param player The Player who's Presets should be loaded
+	 * @param loaded The abilities of each of the Presets by Preset name
+	 */
+	public static void loadPresets(final Player player, final Map<String, HashMap<Integer, String>> loaded) {
+		if (!loaded.isEmpty()) { // Presets exist.
+			for (final Map.Entry<String, HashMap<Integer, String>> entry : loaded.entrySet()) {
+				new Preset(player.getUniqueId(), entry.getKey(), entry.getValue());
+			}
+			ProjectKorra.log.info("Loaded " + loaded.size() + " presets for " + player.getName());
+		}
+	}
+
 	/**
 	 * Reload a Player's Presets from those stored in memory.
 	 *
@@ -268,10 +260,7 @@ public class Preset {
 		CompletableFuture<Boolean> future = new CompletableFuture<>();
 		ThreadUtil.runAsync(() -> {
 			try {
-				final PreparedStatement ps = DBConnection.sql.getConnection().prepareStatement(deleteQuery);
-				ps.setString(1, uuid.toString());
-				ps.setString(2, name);
-				ps.execute();
+				PlayerDAO.deletePreset(uuid, name);
 				presets.get(uuid).remove(instance);
 				future.complete(true);
 			} catch (final SQLException e) {
@@ -298,13 +287,7 @@ public class Preset {
 		CompletableFuture<Boolean> future = new CompletableFuture<>();
 		ThreadUtil.runAsync(() -> {
 			try {
-				PreparedStatement ps = DBConnection.sql.getConnection().prepareStatement(insertQuery);
-				ps.setString(1, uuid.toString());
-				ps.setString(2, name);
-				for (int i = 1; i <= 9; i++) {
-					ps.setString(2 + i, abilities.get(i));
-				}
-				ps.execute();
+				PlayerDAO.savePreset(uuid, name, abilities);
 				future.complete(true);
 			} catch (final SQLException e) {
 				e.printStackTrace();
@@ -8,6 +8,7 @@ import com.massivecraft.factions.data.MemoryFaction;
 import com.massivecraft.factions.perms.Relation;
 import com.projectkorra.projectkorra.ability.CoreAbility;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
 class FactionsUUID extends RegionProtectionBase {
@@ -30,4 +31,10 @@ class FactionsUUID extends RegionProtectionBase {
         }
         return false;
     }
+
+    @Override
+    public Boolean isSectionProtectedReal(Player player, World world, int sectionX, int sectionY, int sectionZ, CoreAbility ability, boolean igniteAbility, boolean explosiveAbility) {
+        //Claims are whole chunks, so any block in the section gives the answer for all of them
+        return isRegionProtectedReal(player, new Location(world, sectionX << 4, sectionY << 4, sectionZ << 4), ability, igniteAbility, explosiveAbility);
+    }
 }
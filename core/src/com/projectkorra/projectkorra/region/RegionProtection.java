@@ -3,20 +3,25 @@ package com.projectkorra.projectkorra.region;
 import com.projectkorra.projectkorra.ProjectKorra;
 import com.projectkorra.projectkorra.ability.CoreAbility;
 import com.projectkorra.projectkorra.hooks.RegionProtectionHook;
-import com.projectkorra.projectkorra.util.BlockCacheElement;
+import com.projectkorra.projectkorra.configuration.ConfigManager;
 import com.projectkorra.projectkorra.util.ThreadUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.block.Block;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class RegionProtection {
 
@@ -46,9 +51,30 @@ public class RegionProtection {
     private static Map<JavaPlugin, RegionProtectionHook> PROTECTIONS = new LinkedHashMap<>(); //LinkedHashMap keeps the hashmap order of insertion
 
     /**
-     * Cached region protection
+     * Cached region protection decisions, per block or per chunk section
      */
-    private static final Map<String, Map<Block, BlockCacheElement>> BLOCK_CACHE = new ConcurrentHashMap<>();
+    private static final RegionProtectionCache CACHE = new RegionProtectionCache(5000, 20000);
+
+    /**
+     * True if every registered protection is one of ours, which only look at the ignite, explosive
+     * and harmless flags of an ability. Decisions can then be shared between abilities with the same flags.
+     */
+    private static boolean onlyBuiltInProtections = true;
+
+    /**
+     * The registered protections in the order they are checked, along with their statistics
+     */
+    private static volatile RegionProtectionStatistics[] ORDERED = new RegionProtectionStatistics[0];
+
+    /**
+     * Whether protections are checked cheapest first, rather than in the order they were registered
+     */
+    private static boolean reorderByCost = true;
+
+    private static final int FLAG_NO_ABILITY = 1;
+    private static final int FLAG_IGNITE = 2;
+    private static final int FLAG_EXPLOSIVE = 4;
+    private static final int FLAG_HARMLESS = 8;
 
     /**
      * Register a new type of region protection to respect with bending.
@@ -57,6 +83,7 @@ public class RegionProtection {
      */
     public static void registerRegionProtection(@NotNull JavaPlugin plugin, @NotNull RegionProtectionHook hook) {
         PROTECTIONS.put(plugin, hook);
+        protectionsChanged();
     }
 
     /**
@@ -65,7 +92,68 @@ public class RegionProtection {
      * @param plugin The plugin
      */
     public static void unloadPlugin(JavaPlugin plugin) {
-        PROTECTIONS.remove(plugin);
+        if (PROTECTIONS.remove(plugin) != null) {
+            protectionsChanged();
+        }
+    }
+
+    private static void protectionsChanged() {
+        boolean builtIn = true;
+        for (RegionProtectionHook hook : PROTECTIONS.values()) {
+            if (!(hook instanceof RegionProtectionBase) || !hook.getClass().getPackageName().equals(RegionProtection.class.getPackageName())) {
+                builtIn = false;
+                break;
+            }
+        }
+        onlyBuiltInProtections = builtIn;
+
+        //Keep the statistics of protections that are still registered
+        final RegionProtectionStatistics[] ordered = new RegionProtectionStatistics[PROTECTIONS.size()];
+        int i = 0;
+        for (Map.Entry<JavaPlugin, RegionProtectionHook> entry : PROTECTIONS.entrySet()) {
+            RegionProtectionStatistics statistics = null;
+            for (RegionProtectionStatistics old : ORDERED) {
+                if (old.getHook() == entry.getValue() && old.getPlugin() == entry.getKey()) {
+                    statistics = old;
+                    break;
+                }
+            }
+            ordered[i++] = statistics != null ? statistics : new RegionProtectionStatistics(entry.getKey(), entry.getValue());
+        }
+        ORDERED = ordered;
+        reorder();
+        CACHE.clear();
+    }
+
+    /**
+     * Sorts the protections so that the ones most likely to quickly deny bending are checked first. Each
+     * check stops at the first protection that denies it, so this asks the fewest protections on average.
+     */
+    private static void reorder() {
+        if (!reorderByCost) return;
+
+        final RegionProtectionStatistics[] ordered = ORDERED.clone();
+        final double[] costs = new double[ordered.length];
+        for (int i = 0; i < ordered.length; i++) {
+            costs[i] = ordered[i].getCost();
+        }
+        final Integer[] indexes = new Integer[ordered.length];
+        for (int i = 0; i < indexes.length; i++) indexes[i] = i;
+        Arrays.sort(indexes, Comparator.comparingDouble(i -> costs[i]));
+
+        final RegionProtectionStatistics[] sorted = new RegionProtectionStatistics[ordered.length];
+        for (int i = 0; i < indexes.length; i++) {
+            sorted[i] = ordered[indexes[i]];
+        }
+        ORDERED = sorted;
+    }
+
+    /**
+     * Gets the statistics of every registered protection, in the order they are currently checked.
+     * @return The statistics of the registered protections
+     */
+    public static List<RegionProtectionStatistics> getStatistics() {
+        return List.of(ORDERED);
     }
 
     /**
@@ -85,23 +173,181 @@ public class RegionProtection {
      * @return True if the region is protected by other plugins
      */
     public static boolean isRegionProtected(@NotNull Player player, @Nullable Location location, @Nullable CoreAbility ability) {
-        final String playerName = player.getName();
-        final Block block = location != null ? location.getBlock() : player.getLocation().getBlock();
-        final Map<Block, BlockCacheElement> blockMap = BLOCK_CACHE.computeIfAbsent(playerName, name -> new ConcurrentHashMap<>());
-
-        // Both abilities must be equal to each other to use the cache
-        if (blockMap.containsKey(block)) {
-            final BlockCacheElement elem = blockMap.get(block);
-            if ((ability == null && elem.getAbility() == null) || (elem.getAbility() != null && elem.getAbility().equals(ability))) {
-                return elem.isAllowed();
+        if (PROTECTIONS.isEmpty()) return false;
+
+        final Object protectionClass = getProtectionClass(ability);
+        if (location != null && isProtectedAt(player, location, ability, protectionClass)) return true;
+
+        return isProtectedAt(player, player.getLocation(), ability, protectionClass);
+    }
+
+    /**
+     * Checks a single location against every protection, using the cached decision for its chunk section
+     * or block if there is one.
+     */
+    private static boolean isProtectedAt(Player player, Location location, CoreAbility ability, Object protectionClass) {
+        final World world = location.getWorld();
+        final int sectionX = location.getBlockX() >> 4, sectionY = location.getBlockY() >> 4, sectionZ = location.getBlockZ() >> 4;
+
+        final RegionProtectionCache.Key sectionKey = new RegionProtectionCache.Key(player.getUniqueId(), world.getUID(),
+                RegionProtectionCache.pack(sectionX, sectionY, sectionZ), true, protectionClass);
+        Boolean cached = CACHE.get(sectionKey);
+        if (cached != null) return cached;
+
+        final RegionProtectionCache.Key blockKey = getBlockKey(player, location, protectionClass);
+        cached = CACHE.get(blockKey);
+        if (cached != null) return cached;
+
+        final List<RegionProtectionStatistics> remaining = new ArrayList<>();
+        final Boolean section = checkSection(player, world, sectionX, sectionY, sectionZ, ability, sectionKey, remaining);
+        if (section != null) return section;
+
+        final boolean value = checkAll(remaining, player, location, ability);
+        CACHE.put(blockKey, value);
+        return value;
+    }
+
+    /**
+     * Checks many locations at once. Locations are grouped by chunk section so every protection is asked about
+     * each section once, and only the protections that can't answer for a whole section check the locations in it,
+     * through {@link RegionProtectionHook#isRegionProtected(Player, List, CoreAbility)}.
+     * @param player The player being checked
+     * @param locations The locations to check
+     * @param ability The ability to check
+     * @return A bitset with the index of every protected location set, in the iteration order of the collection
+     */
+    @NotNull
+    public static BitSet isRegionProtected(@NotNull Player player, @NotNull Collection<Location> locations, @Nullable CoreAbility ability) {
+        final BitSet result = new BitSet(locations.size());
+        if (PROTECTIONS.isEmpty() || locations.isEmpty()) return result;
+
+        final Object protectionClass = getProtectionClass(ability);
+        if (isProtectedAt(player, player.getLocation(), ability, protectionClass)) {
+            result.set(0, locations.size());
+            return result;
+        }
+
+        final Location[] array = locations.toArray(new Location[0]);
+        final Map<RegionProtectionCache.Key, List<Integer>> sections = new LinkedHashMap<>();
+        for (int i = 0; i < array.length; i++) {
+            final Location location = array[i];
+            final RegionProtectionCache.Key sectionKey = new RegionProtectionCache.Key(player.getUniqueId(), location.getWorld().getUID(),
+                    RegionProtectionCache.pack(location.getBlockX() >> 4, location.getBlockY() >> 4, location.getBlockZ() >> 4), true, protectionClass);
+            sections.computeIfAbsent(sectionKey, key -> new ArrayList<>()).add(i);
+        }
+
+        for (Map.Entry<RegionProtectionCache.Key, List<Integer>> entry : sections.entrySet()) {
+            final RegionProtectionCache.Key sectionKey = entry.getKey();
+            final Boolean cachedSection = CACHE.get(sectionKey);
+            if (cachedSection != null) {
+                if (cachedSection) entry.getValue().forEach(result::set);
+                continue;
+            }
+
+            final List<Integer> indexes = new ArrayList<>();
+            final List<Location> pending = new ArrayList<>();
+            for (int index : entry.getValue()) {
+                final Boolean cached = CACHE.get(getBlockKey(player, array[index], protectionClass));
+                if (cached == null) {
+                    indexes.add(index);
+                    pending.add(array[index]);
+                } else if (cached) {
+                    result.set(index);
+                }
+            }
+            if (pending.isEmpty()) continue;
+
+            final Location first = pending.get(0);
+            final List<RegionProtectionStatistics> remaining = new ArrayList<>();
+            final Boolean section = checkSection(player, first.getWorld(), first.getBlockX() >> 4, first.getBlockY() >> 4, first.getBlockZ() >> 4, ability, sectionKey, remaining);
+            if (section != null) {
+                if (section) entry.getValue().forEach(result::set);
+                continue;
+            }
+
+            for (RegionProtectionStatistics protection : remaining) {
+                if (pending.isEmpty()) break;
+
+                final BitSet denied;
+                try {
+                    final long start = System.nanoTime();
+                    denied = protection.getHook().isRegionProtected(player, pending, ability);
+                    protection.record(System.nanoTime() - start, pending.size(), denied.cardinality());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    continue;
+                }
+
+                //Locations a protection denied are decided, so later protections only check the rest
+                for (int i = denied.length() - 1; i >= 0; i = denied.previousSetBit(i - 1)) {
+                    if (i >= pending.size()) continue;
+                    final int index = indexes.remove(i);
+                    result.set(index);
+                    CACHE.put(getBlockKey(player, pending.remove(i), protectionClass), true);
+                }
+            }
+            for (Location location : pending) {
+                CACHE.put(getBlockKey(player, location, protectionClass), false);
             }
         }
+        return result;
+    }
 
-        final boolean value = isRegionProtectedCached(player, location, ability);
-        blockMap.put(block, new BlockCacheElement(player, block, ability, value, System.currentTimeMillis()));
-        return value;
+    /**
+     * Asks every protection about a whole chunk section, caching the result if they all could answer.
+     * @param remaining The list the protections that couldn't answer for the section are added to
+     * @return True or false if the section is protected or unprotected, or null if the remaining protections
+     * have to check block by block
+     */
+    private static Boolean checkSection(Player player, World world, int sectionX, int sectionY, int sectionZ, CoreAbility ability, RegionProtectionCache.Key sectionKey, List<RegionProtectionStatistics> remaining) {
+        for (RegionProtectionStatistics protection : ORDERED) {
+            Boolean section = null;
+            try {
+                final long start = System.nanoTime();
+                section = protection.getHook().isSectionProtected(player, world, sectionX, sectionY, sectionZ, ability);
+                if (section != null) protection.record(System.nanoTime() - start, 1, section ? 1 : 0);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+
+            if (section == null) {
+                remaining.add(protection);
+            } else if (section) {
+                CACHE.put(sectionKey, true);
+                return true;
+            }
+        }
+
+        if (remaining.isEmpty()) {
+            CACHE.put(sectionKey, false);
+            return false;
+        }
+        return null;
+    }
+
+    private static RegionProtectionCache.Key getBlockKey(Player player, Location location, Object protectionClass) {
+        return new RegionProtectionCache.Key(player.getUniqueId(), location.getWorld().getUID(),
+                RegionProtectionCache.pack(location.getBlockX(), location.getBlockY(), location.getBlockZ()), false, protectionClass);
+    }
+
+    /**
+     * Gets what a decision for the ability depends on, so that abilities that are treated the same way share
+     * cache entries. Custom protections may look at anything about the ability, so then it is the ability's name,
+     * which every cast of the ability shares without the cache holding on to the ability itself.
+     */
+    private static Object getProtectionClass(CoreAbility ability) {
+        if (ability == null) {
+            return FLAG_NO_ABILITY;
+        } else if (!onlyBuiltInProtections) {
+            return ability.getName();
+        }
+        int flags = 0;
+        if (ability.isIgniteAbility()) flags |= FLAG_IGNITE;
+        if (ability.isExplosiveAbility()) flags |= FLAG_EXPLOSIVE;
+        if (ability.isHarmlessAbility()) flags |= FLAG_HARMLESS;
+        return flags;
     }
-    
+
     /**
      * Checks if a location is protected by region protection plugins. Abilities that damage terrain
      * will not damage the terrain (or progress) if this method returns true
@@ -145,7 +391,7 @@ public class RegionProtection {
      * @return True if the region is protected by other plugins
      */
     public static boolean isRegionProtected(@NotNull Player player, @Nullable CoreAbility ability) {
-        return isRegionProtected(player, null, ability);
+        return isRegionProtected(player, (Location) null, ability);
     }
 
     protected static boolean isRegionProtectedCached(Player player, Location location, CoreAbility ability) {
@@ -155,9 +401,16 @@ public class RegionProtection {
     }
 
     private static boolean checkAll(Player player, Location location, CoreAbility ability) {
-        for (RegionProtectionHook protection : RegionProtection.getActiveProtections().values()) {
+        return checkAll(Arrays.asList(ORDERED), player, location, ability);
+    }
+
+    private static boolean checkAll(Iterable<RegionProtectionStatistics> protections, Player player, Location location, CoreAbility ability) {
+        for (RegionProtectionStatistics protection : protections) {
             try {
-                if (protection.isRegionProtected(player, location, ability)) {
+                final long start = System.nanoTime();
+                final boolean denied = protection.getHook().isRegionProtected(player, location, ability);
+                protection.record(System.nanoTime() - start, 1, denied ? 1 : 0);
+                if (denied) {
                     return true;
                 }
             } catch (Exception e) {
@@ -172,23 +425,27 @@ public class RegionProtection {
      * @param period The time, in milliseconds, to clean the cache
      */
     public static void startCleanCacheTask(double period) {
+        loadConfig();
         ThreadUtil.runSyncTimer(() -> {
-            final long currentTime = System.currentTimeMillis();
-            for (final String playerName : BLOCK_CACHE.keySet()) {
-                final Map<Block, BlockCacheElement> map = BLOCK_CACHE.get(playerName);
-                for (final Block key : map.keySet()) {
-                    final BlockCacheElement value = map.get(key);
-
-                    if (currentTime - value.getTime() > period) {
-                        map.remove(key);
-                    }
-                }
-                if (map.size() == 0) {
-                    BLOCK_CACHE.remove(playerName);
-                }
+            CACHE.sweep();
+            reorder();
+        }, 0, (long) (period / 50));
+    }
+
+    /**
+     * Reads the region protection settings from the config. Called on startup and reload.
+     */
+    public static void loadConfig() {
+        CACHE.configure(ConfigManager.getConfig().getLong("Properties.RegionProtection.CacheBlockTime"),
+                Math.max(1, ConfigManager.getConfig().getInt("Properties.RegionProtection.CacheSize")));
+        reorderByCost = ConfigManager.getConfig().getBoolean("Properties.RegionProtection.ReorderByCost");
 
+        for (RegionProtectionHook protection : PROTECTIONS.values()) {
+            if (protection instanceof RegionProtectionBase base) {
+                base.loadConfig();
             }
-        }, 0, (long) (period / 50));
+        }
+        protectionsChanged();
     }
 
     private static boolean enabled(String plugin) {
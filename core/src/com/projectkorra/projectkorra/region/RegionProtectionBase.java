@@ -5,16 +5,22 @@ import com.projectkorra.projectkorra.configuration.ConfigManager;
 import com.projectkorra.projectkorra.hooks.RegionProtectionHook;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.BitSet;
+import java.util.List;
+
 public abstract class RegionProtectionBase implements RegionProtectionHook {
 
     private String plugin;
     private String path;
     private JavaPlugin cachedPlugin;
+    private boolean enabled;
+    private boolean allowHarmless;
 
     public RegionProtectionBase(String plugin) {
         this(plugin, "Respect" + plugin);
@@ -23,8 +29,9 @@ public abstract class RegionProtectionBase implements RegionProtectionHook {
     public RegionProtectionBase(String plugin, String path) {
         this.plugin = plugin;
         this.path = path;
+        this.loadConfig();
 
-        if (Bukkit.getPluginManager().isPluginEnabled(plugin) && ConfigManager.defaultConfig.get().getBoolean("Properties.RegionProtection." + path)) {
+        if (Bukkit.getPluginManager().isPluginEnabled(plugin) && this.enabled) {
             this.cachedPlugin = (JavaPlugin) Bukkit.getPluginManager().getPlugin(plugin);
             RegionProtection.registerRegionProtection(cachedPlugin, this);
         }
@@ -32,27 +39,66 @@ public abstract class RegionProtectionBase implements RegionProtectionHook {
 
     @Override
     public final boolean isRegionProtected(@NotNull Player player, @NotNull Location location, @Nullable CoreAbility ability) {
-        if (ConfigManager.defaultConfig.get().getBoolean("Properties.RegionProtection." + path)) {
-
-            final boolean allowHarmless = ConfigManager.defaultConfig.get().getBoolean("Properties.RegionProtection.AllowHarmlessAbilities");
-
-            boolean isIgnite = false;
-            boolean isExplosive = false;
-            boolean isHarmless = false;
+        if (this.isIgnored(ability)) {
+            return false;
+        }
+        final boolean isIgnite = ability != null && ability.isIgniteAbility();
+        final boolean isExplosive = ability != null && ability.isExplosiveAbility();
+        return isRegionProtectedReal(player, location, ability, isIgnite, isExplosive);
+    }
 
-            if (ability != null) {
-                isIgnite = ability.isIgniteAbility();
-                isExplosive = ability.isExplosiveAbility();
-                isHarmless = ability.isHarmlessAbility();
+    @Override
+    @NotNull
+    public BitSet isRegionProtected(@NotNull Player player, @NotNull List<Location> locations, @Nullable CoreAbility ability) {
+        final BitSet protectedLocations = new BitSet(locations.size());
+        if (this.isIgnored(ability)) {
+            return protectedLocations;
+        }
+        final boolean isIgnite = ability != null && ability.isIgniteAbility();
+        final boolean isExplosive = ability != null && ability.isExplosiveAbility();
+        for (int i = 0; i < locations.size(); i++) {
+            if (isRegionProtectedReal(player, locations.get(i), ability, isIgnite, isExplosive)) {
+                protectedLocations.set(i);
             }
+        }
+        return protectedLocations;
+    }
 
-            if ((ability == null || isHarmless) && allowHarmless) {
-                return false;
-            }
-            return isRegionProtectedReal(player, location, ability, isIgnite, isExplosive);
+    @Override
+    @Nullable
+    public final Boolean isSectionProtected(@NotNull Player player, @NotNull World world, int sectionX, int sectionY, int sectionZ, @Nullable CoreAbility ability) {
+        if (this.isIgnored(ability)) {
+            return false;
         }
-        return false;
+        final boolean isIgnite = ability != null && ability.isIgniteAbility();
+        final boolean isExplosive = ability != null && ability.isExplosiveAbility();
+        return isSectionProtectedReal(player, world, sectionX, sectionY, sectionZ, ability, isIgnite, isExplosive);
+    }
+
+    /**
+     * @return True if this protection is turned off, or doesn't apply to the ability
+     */
+    private boolean isIgnored(@Nullable CoreAbility ability) {
+        return !this.enabled || (this.allowHarmless && (ability == null || ability.isHarmlessAbility()));
+    }
+
+    /**
+     * Reads the settings of this protection from the config. Called when it is created and on reload.
+     */
+    public void loadConfig() {
+        this.enabled = ConfigManager.defaultConfig.get().getBoolean("Properties.RegionProtection." + this.path);
+        this.allowHarmless = ConfigManager.defaultConfig.get().getBoolean("Properties.RegionProtection.AllowHarmlessAbilities");
     }
 
     public abstract boolean isRegionProtectedReal(Player player, Location location, CoreAbility ability, boolean igniteAbility, boolean explosiveAbility);
+
+    /**
+     * Override for protections that never change inside a chunk section.
+     * @return True or false if the whole section is protected or unprotected, or null if it can differ between blocks
+     * @see RegionProtectionHook#isSectionProtected(Player, World, int, int, int, CoreAbility)
+     */
+    @Nullable
+    public Boolean isSectionProtectedReal(Player player, World world, int sectionX, int sectionY, int sectionZ, CoreAbility ability, boolean igniteAbility, boolean explosiveAbility) {
+        return null;
+    }
 }
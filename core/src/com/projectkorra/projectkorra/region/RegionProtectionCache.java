@@ -0,0 +1,142 @@
+package com.projectkorra.projectkorra.region;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A bounded, least recently used cache of region protection decisions. Entries
+ * are either for a single block, or for a whole 16x16x16 chunk section when
+ * every hook reported the section as uniformly allowed or denied. Expired
+ * entries are dropped when they are read, and the sweep only ever has to look
+ * at the least recently used end of the cache.
+ */
+class RegionProtectionCache {
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long timeToLive;
+    private int maxSize;
+
+    RegionProtectionCache(long timeToLive, int maxSize) {
+        this.timeToLive = timeToLive;
+        this.maxSize = maxSize;
+    }
+
+    synchronized void configure(long timeToLive, int maxSize) {
+        this.timeToLive = timeToLive;
+        this.maxSize = maxSize;
+        this.trim();
+    }
+
+    /**
+     * @return The cached decision, or null if there is no live entry
+     */
+    synchronized Boolean get(Key key) {
+        final Entry entry = this.entries.get(key);
+        if (entry == null) {
+            return null;
+        } else if (System.currentTimeMillis() - entry.time > this.timeToLive) {
+            this.entries.remove(key);
+            return null;
+        }
+        return entry.isProtected;
+    }
+
+    synchronized void put(Key key, boolean isProtected) {
+        this.entries.put(key, new Entry(isProtected, System.currentTimeMillis()));
+        this.trim();
+    }
+
+    /**
+     * Removes expired entries from the least recently used end of the cache.
+     */
+    synchronized void sweep() {
+        final long now = System.currentTimeMillis();
+        final Iterator<Entry> iterator = this.entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().time <= this.timeToLive) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    synchronized void clear() {
+        this.entries.clear();
+    }
+
+    synchronized int size() {
+        return this.entries.size();
+    }
+
+    private void trim() {
+        final Iterator<Map.Entry<Key, Entry>> iterator = this.entries.entrySet().iterator();
+        while (this.entries.size() > this.maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Packs block or chunk section coordinates into a single long.
+     */
+    static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    private static class Entry {
+
+        private final boolean isProtected;
+        private final long time;
+
+        private Entry(boolean isProtected, long time) {
+            this.isProtected = isProtected;
+            this.time = time;
+        }
+    }
+
+    static final class Key {
+
+        private final UUID player;
+        private final UUID world;
+        private final long position;
+        private final boolean section;
+        private final Object protectionClass;
+        private final int hash;
+
+        /**
+         * @param player The player being checked
+         * @param world The world being checked
+         * @param position The packed block or chunk section coordinates
+         * @param section True if the position is a chunk section
+         * @param protectionClass What about the ability the decision depends on
+         */
+        Key(UUID player, UUID world, long position, boolean section, Object protectionClass) {
+            this.player = player;
+            this.world = world;
+            this.position = position;
+            this.section = section;
+            this.protectionClass = protectionClass;
+            int hash = 31 * player.hashCode() + world.hashCode();
+            hash = 31 * hash + Long.hashCode(position);
+            hash = 31 * hash + (section ? 1 : 0);
+            this.hash = 31 * hash + Objects.hashCode(protectionClass);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key key = (Key) o;
+            return this.position == key.position && this.section == key.section && this.player.equals(key.player)
+                    && this.world.equals(key.world) && Objects.equals(this.protectionClass, key.protectionClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.projectkorra.projectkorra.region;
+
+import com.projectkorra.projectkorra.hooks.RegionProtectionHook;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How often a registered region protection is checked, how often it denies bending, and how long it takes.
+ * Checks answered from the cache are not counted.
+ */
+public class RegionProtectionStatistics {
+
+    private final JavaPlugin plugin;
+    private final RegionProtectionHook hook;
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder denials = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    RegionProtectionStatistics(JavaPlugin plugin, RegionProtectionHook hook) {
+        this.plugin = plugin;
+        this.hook = hook;
+    }
+
+    void record(long nanos, int checks, int denials) {
+        this.nanos.add(nanos);
+        this.checks.add(checks);
+        if (denials > 0) this.denials.add(denials);
+    }
+
+    /**
+     * Gets the expected cost of asking this protection for a decision that stops the chain. Checking
+     * protections from lowest to highest cost asks the fewest of them on average.
+     * @return The average time of a check divided by how often it denies
+     */
+    double getCost() {
+        final long checks = this.checks.sum();
+        if (checks == 0) return 0; //Unmeasured protections go first so they get measured
+        return this.getAverageNanos() / (this.getDenyRate() + 0.01);
+    }
+
+    public JavaPlugin getPlugin() {
+        return this.plugin;
+    }
+
+    public RegionProtectionHook getHook() {
+        return this.hook;
+    }
+
+    public long getChecks() {
+        return this.checks.sum();
+    }
+
+    public long getDenials() {
+        return this.denials.sum();
+    }
+
+    public long getTotalNanos() {
+        return this.nanos.sum();
+    }
+
+    /**
+     * @return The average time of a check in nanoseconds
+     */
+    public double getAverageNanos() {
+        final long checks = this.checks.sum();
+        return checks == 0 ? 0 : (double) this.nanos.sum() / checks;
+    }
+
+    /**
+     * @return The fraction of checks that denied bending
+     */
+    public double getDenyRate() {
+        final long checks = this.checks.sum();
+        return checks == 0 ? 0 : (double) this.denials.sum() / checks;
+    }
+}
@@ -7,6 +7,7 @@ import com.massivecraft.factions.Faction;
 import com.massivecraft.factions.struct.Relation;
 import com.projectkorra.projectkorra.ability.CoreAbility;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
 class SaberFactions extends RegionProtectionBase {
@@ -27,4 +28,10 @@ class SaberFactions extends RegionProtectionBase {
         }
         return false;
     }
+
+    @Override
+    public Boolean isSectionProtectedReal(Player player, World world, int sectionX, int sectionY, int sectionZ, CoreAbility ability, boolean igniteAbility, boolean explosiveAbility) {
+        //Claims are whole chunks, so any block in the section gives the answer for all of them
+        return isRegionProtectedReal(player, new Location(world, sectionX << 4, sectionY << 4, sectionZ << 4), ability, igniteAbility, explosiveAbility);
+    }
 }
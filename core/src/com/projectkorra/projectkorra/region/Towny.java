@@ -1,10 +1,12 @@
 package com.projectkorra.projectkorra.region;
 
+import com.palmergames.bukkit.towny.TownySettings;
 import com.palmergames.bukkit.towny.object.TownyPermission;
 import com.palmergames.bukkit.towny.utils.PlayerCacheUtil;
 import com.projectkorra.projectkorra.ability.CoreAbility;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
 class Towny extends RegionProtectionBase {
@@ -21,4 +23,13 @@ class Towny extends RegionProtectionBase {
 
         return false;
     }
+
+    @Override
+    public Boolean isSectionProtectedReal(Player player, World world, int sectionX, int sectionY, int sectionZ, CoreAbility ability, boolean igniteAbility, boolean explosiveAbility) {
+        //Town blocks line up with chunks when their size is a multiple of 16, so a section can never span two of them
+        if (TownySettings.getTownBlockSize() % 16 != 0) {
+            return null;
+        }
+        return isRegionProtectedReal(player, new Location(world, sectionX << 4, sectionY << 4, sectionZ << 4), ability, igniteAbility, explosiveAbility);
+    }
 }
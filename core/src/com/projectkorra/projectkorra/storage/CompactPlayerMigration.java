@@ -0,0 +1,133 @@
+package com.projectkorra.projectkorra.storage;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds compact columns to pk_players and pk_presets: element_mask and
+ * subelement_mask hold a player's elements as bitmasks, and binds holds all
+ * nine bound abilities as ids, in place of nine name columns. See
+ * {@link PlayerCodec} for the formats.<br><br>
+ *
+ * The old columns are kept and still written, so rows that can't be stored
+ * compactly aren't lost. Once the backfill is done only the compact columns
+ * are read, so from then on every write has to set them too. Downgrading to
+ * a version that only writes the old columns isn't supported after that, as
+ * its changes would be hidden behind the compact columns.<br><br>
+ *
+ * The backfill fills in the compact columns of existing rows in uuid order.
+ * It never overwrites a compact column that is already set, as that was
+ * written by a player saving after the batch was read.
+ */
+class CompactPlayerMigration extends Migration {
+
+	static final int VERSION = 2;
+
+	private static final String SELECT_PLAYERS = "SELECT uuid, element, subelement, slot1, slot2, slot3, slot4, slot5, slot6, slot7, slot8, slot9 FROM pk_players WHERE uuid > ? ORDER BY uuid LIMIT ?";
+	private static final String SELECT_PRESETS = "SELECT uuid, name, slot1, slot2, slot3, slot4, slot5, slot6, slot7, slot8, slot9 FROM pk_presets WHERE uuid IN (";
+	private static final String UPDATE_PLAYER = "UPDATE pk_players SET element_mask = COALESCE(element_mask, ?), subelement_mask = COALESCE(subelement_mask, ?), binds = COALESCE(binds, ?) WHERE uuid = ?";
+	private static final String UPDATE_PRESET = "UPDATE pk_presets SET binds = COALESCE(binds, ?) WHERE uuid = ? AND name = ?";
+
+	CompactPlayerMigration() {
+		super(VERSION, "Store elements as bitmasks and binds as ability ids");
+	}
+
+	@Override
+	public void apply(final Database database) throws SQLException {
+		final String binds = database instanceof MySQL ? "VARBINARY(18)" : "BLOB";
+		PlayerCodec.ABILITIES.create(database);
+		PlayerCodec.ELEMENTS.create(database);
+		addColumn(database, "pk_players", "element_mask", "BIGINT");
+		addColumn(database, "pk_players", "subelement_mask", "BIGINT");
+		addColumn(database, "pk_players", "binds", binds);
+		addColumn(database, "pk_presets", "binds", binds);
+	}
+
+	@Override
+	public boolean hasBackfill() {
+		return true;
+	}
+
+	@Override
+	public String backfill(final Database database, final String after, final int limit) throws SQLException {
+		// Rows are encoded after they are read, as new names are saved with a connection of their own
+		final List<Object[]> players = database.readQuery(SELECT_PLAYERS, rs -> {
+			final List<Object[]> rows = new ArrayList<>();
+			while (rs.next()) {
+				rows.add(new Object[] { rs.getString("element"), rs.getString("subelement"), slots(rs), rs.getString("uuid") });
+			}
+			return rows;
+		}, after == null ? "" : after, limit);
+		if (players == null) {
+			throw new SQLException("Failed to read the next batch of pk_players");
+		} else if (players.isEmpty()) {
+			return null;
+		}
+		for (final Object[] player : players) {
+			player[0] = PlayerCodec.encodeElements((String) player[0]);
+			player[1] = PlayerCodec.encodeSubElements((String) player[1]);
+			player[2] = PlayerCodec.encodeBinds((String[]) player[2]);
+		}
+
+		// The presets of the whole batch of players are read with one query
+		final StringBuilder query = new StringBuilder(SELECT_PRESETS);
+		final Object[] uuids = new Object[players.size()];
+		for (int i = 0; i < uuids.length; i++) {
+			query.append(i == 0 ? "?" : ", ?");
+			uuids[i] = players.get(i)[3];
+		}
+		query.append(")");
+		final List<Object[]> presets = database.readQuery(query.toString(), rs -> {
+			final List<Object[]> rows = new ArrayList<>();
+			while (rs.next()) {
+				rows.add(new Object[] { slots(rs), rs.getString("uuid"), rs.getString("name") });
+			}
+			return rows;
+		}, uuids);
+		if (presets == null) {
+			throw new SQLException("Failed to read the presets of the next batch of pk_players");
+		}
+		for (final Object[] preset : presets) {
+			preset[0] = PlayerCodec.encodeBinds((String[]) preset[0]);
+		}
+
+		database.withConnection(connection -> {
+			final PreparedStatement updatePlayer = connection.prepareStatement(UPDATE_PLAYER);
+			final PreparedStatement updatePreset = connection.prepareStatement(UPDATE_PRESET);
+			try {
+				connection.getConnection().setAutoCommit(false);
+				for (final Object[] player : players) {
+					Database.bind(updatePlayer, player);
+					updatePlayer.addBatch();
+				}
+				updatePlayer.executeBatch();
+				for (final Object[] preset : presets) {
+					Database.bind(updatePreset, preset);
+					updatePreset.addBatch();
+				}
+				updatePreset.executeBatch();
+				connection.getConnection().commit();
+				return null;
+			} finally {
+				updatePlayer.clearBatch(); // The statements are cached, so don't leave a failed batch behind
+				updatePreset.clearBatch();
+			}
+		});
+		return players.size() < limit ? null : (String) players.get(players.size() - 1)[3];
+	}
+
+	/**
+	 * @return The abilities of the slot columns of the current row, indexed
+	 *         by slot
+	 */
+	static String[] slots(final ResultSet rs) throws SQLException {
+		final String[] slots = new String[10];
+		for (int slot = 1; slot <= 9; slot++) {
+			slots[slot] = rs.getString("slot" + slot);
+		}
+		return slots;
+	}
+}
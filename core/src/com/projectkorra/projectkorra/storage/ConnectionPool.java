@@ -0,0 +1,259 @@
+package com.projectkorra.projectkorra.storage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+
+import com.projectkorra.projectkorra.ProjectKorra;
+import com.projectkorra.projectkorra.util.ThreadUtil;
+
+/**
+ * A small pool of connections to a {@link Database}, so that queries from
+ * different threads don't have to wait on each other behind a single
+ * connection.<br><br>
+ *
+ * Connections are made when needed, up to the maximum size, and connections
+ * that sat unused for longer than the idle timeout are closed. A connection
+ * that was idle for a while is checked before it is handed out again, and
+ * connections that are held for longer than the leak detection threshold are
+ * reported along with where they were borrowed from.
+ */
+public class ConnectionPool {
+
+	/** How long a connection can be idle before it is checked again when borrowed */
+	private static final long VALIDATION_INTERVAL = 500;
+	/** How often idle and leaked connections are looked for, in ticks */
+	private static final long SWEEP_INTERVAL = 20 * 30;
+
+	private final Database database;
+	private final ConnectionFactory factory;
+	private final int maxSize;
+	private final long connectionTimeout;
+	private final long idleTimeout;
+	private final long leakDetectionThreshold;
+	private final int statementCacheSize;
+
+	/** Idle connections, the most recently used first */
+	private final Deque<PooledConnection> idle = new ArrayDeque<>();
+	private final Set<PooledConnection> borrowed = new HashSet<>();
+	private int size;
+	private boolean closed;
+	private final Object sweeper;
+
+	/**
+	 * @param database The database to make connections to
+	 * @param maxSize The most connections that can be open at once
+	 * @param connectionTimeout How long to wait for a free connection, in
+	 *            milliseconds
+	 * @param idleTimeout How long a connection can be unused before it is
+	 *            closed, in milliseconds
+	 * @param leakDetectionThreshold How long a connection can be borrowed
+	 *            before it is reported as leaked, in milliseconds, or 0 to
+	 *            turn leak detection off
+	 * @param statementCacheSize How many prepared statements each connection
+	 *            keeps
+	 */
+	public ConnectionPool(final Database database, final int maxSize, final long connectionTimeout, final long idleTimeout, final long leakDetectionThreshold, final int statementCacheSize) {
+		this(database, database::createConnection, maxSize, connectionTimeout, idleTimeout, leakDetectionThreshold, statementCacheSize);
+	}
+
+	/**
+	 * @param database The database the connections are to, for logging
+	 * @param factory Makes new connections for the pool
+	 * @param maxSize The most connections that can be open at once
+	 * @param connectionTimeout How long to wait for a free connection, in
+	 *            milliseconds
+	 * @param idleTimeout How long a connection can be unused before it is
+	 *            closed, in milliseconds
+	 * @param leakDetectionThreshold How long a connection can be borrowed
+	 *            before it is reported as leaked, in milliseconds, or 0 to
+	 *            turn leak detection off
+	 * @param statementCacheSize How many prepared statements each connection
+	 *            keeps
+	 */
+	public ConnectionPool(final Database database, final ConnectionFactory factory, final int maxSize, final long connectionTimeout, final long idleTimeout, final long leakDetectionThreshold, final int statementCacheSize) {
+		this.database = database;
+		this.factory = factory;
+		this.maxSize = maxSize;
+		this.connectionTimeout = connectionTimeout;
+		this.idleTimeout = idleTimeout;
+		this.leakDetectionThreshold = leakDetectionThreshold;
+		this.statementCacheSize = statementCacheSize;
+		// Tasks can't be scheduled while the plugin is disabling, but the pool is still used to save players then
+		this.sweeper = ProjectKorra.plugin.isEnabled() ? ThreadUtil.runAsyncTimer(this::sweep, SWEEP_INTERVAL, SWEEP_INTERVAL) : null;
+	}
+
+	/**
+	 * Borrows a connection from the pool, making a new one if none are idle
+	 * and the pool isn't full. If it is full, this waits for a connection to
+	 * be handed back.
+	 *
+	 * @return A connection that goes back to the pool when closed
+	 * @throws SQLException If no connection could be made, or none became
+	 *             free in time
+	 */
+	public PooledConnection borrow() throws SQLException {
+		final long deadline = System.currentTimeMillis() + this.connectionTimeout;
+		while (true) {
+			PooledConnection connection;
+			synchronized (this) {
+				if (this.closed) {
+					throw new SQLException("The connection pool is closed");
+				}
+				connection = this.idle.pollFirst();
+				if (connection == null) {
+					if (this.size >= this.maxSize) {
+						final long wait = deadline - System.currentTimeMillis();
+						if (wait <= 0) {
+							throw new SQLException("Timed out after " + this.connectionTimeout + "ms waiting for a database connection");
+						}
+						try {
+							this.wait(wait);
+						} catch (final InterruptedException e) {
+							Thread.currentThread().interrupt();
+							throw new SQLException("Interrupted while waiting for a database connection", e);
+						}
+						continue;
+					}
+					this.size++;
+				}
+			}
+
+			if (connection == null) {
+				try {
+					connection = new PooledConnection(this, this.factory.create(), this.statementCacheSize);
+				} catch (final SQLException | RuntimeException e) {
+					this.discard(null);
+					throw e;
+				}
+			} else if (System.currentTimeMillis() - connection.lastUsed > VALIDATION_INTERVAL && !connection.isValid()) {
+				this.discard(connection);
+				continue;
+			}
+
+			connection.borrowed(this.leakDetectionThreshold > 0);
+			synchronized (this) {
+				this.borrowed.add(connection);
+			}
+			return connection;
+		}
+	}
+
+	void release(final PooledConnection connection) {
+		final boolean healthy = connection.reset();
+		synchronized (this) {
+			if (!this.borrowed.remove(connection)) {
+				return; // Already handed back
+			} else if (healthy && !this.closed) {
+				connection.lastUsed = System.currentTimeMillis();
+				this.idle.addFirst(connection);
+				this.notifyAll();
+				return;
+			}
+		}
+		this.discard(connection);
+	}
+
+	/**
+	 * Closes a connection and makes room in the pool for a new one.
+	 */
+	private void discard(final PooledConnection connection) {
+		if (connection != null) {
+			connection.closeConnection();
+		}
+		synchronized (this) {
+			this.size--;
+			this.notifyAll();
+		}
+	}
+
+	/**
+	 * Closes connections that have been idle for too long and reports ones
+	 * that have been borrowed for too long.
+	 */
+	void sweep() {
+		final long now = System.currentTimeMillis();
+		final List<PooledConnection> expired = new ArrayList<>();
+		final List<PooledConnection> leaked = new ArrayList<>();
+		synchronized (this) {
+			// The least recently used connections are at the end
+			while (!this.idle.isEmpty() && now - this.idle.peekLast().lastUsed > this.idleTimeout) {
+				expired.add(this.idle.pollLast());
+			}
+			if (this.leakDetectionThreshold > 0) {
+				for (final PooledConnection connection : this.borrowed) {
+					if (!connection.leakReported && now - connection.borrowedAt > this.leakDetectionThreshold) {
+						connection.leakReported = true;
+						leaked.add(connection);
+					}
+				}
+			}
+		}
+
+		for (final PooledConnection connection : expired) {
+			this.discard(connection);
+		}
+		for (final PooledConnection connection : leaked) {
+			this.database.log.log(Level.WARNING, this.database.dbprefix + "A database connection has been in use for " + (now - connection.borrowedAt) + "ms and may have been leaked", connection.borrowedFrom);
+		}
+	}
+
+	/**
+	 * Closes every idle connection. Connections that are still borrowed are
+	 * closed when they are handed back.
+	 */
+	public void close() {
+		final List<PooledConnection> connections;
+		synchronized (this) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			connections = new ArrayList<>(this.idle);
+			this.idle.clear();
+			this.notifyAll();
+		}
+		ThreadUtil.cancelTimerTask(this.sweeper);
+
+		for (final PooledConnection connection : connections) {
+			this.discard(connection);
+		}
+	}
+
+	public synchronized boolean isClosed() {
+		return this.closed;
+	}
+
+	/**
+	 * @return How many connections are open, idle or not
+	 */
+	public synchronized int getSize() {
+		return this.size;
+	}
+
+	public synchronized int getIdleCount() {
+		return this.idle.size();
+	}
+
+	public synchronized int getActiveCount() {
+		return this.borrowed.size();
+	}
+
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * Makes new connections for a pool.
+	 */
+	@FunctionalInterface
+	public interface ConnectionFactory {
+		Connection create() throws SQLException;
+	}
+}
@@ -1,8 +1,5 @@
 package com.projectkorra.projectkorra.storage;
 
-import java.sql.DatabaseMetaData;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -32,7 +29,8 @@ public class DBConnection {
 
 		if (ProjectKorra.plugin.getConfig().getString("Storage.engine").equalsIgnoreCase("mysql")) {
 			sql = new MySQL(ProjectKorra.log, host, port, user, pass, db, properties);
-			if (((MySQL) sql).open() == null) {
+			configurePool();
+			if (!sql.open()) {
 				ProjectKorra.log.severe("Disabling due to database error");
 				GeneralMethods.stopPlugin();
 				return;
@@ -47,19 +45,11 @@ public class DBConnection {
 				final String query = "CREATE TABLE `pk_players` (" + "`uuid` varchar(36) NOT NULL," + "`player` varchar(16) NOT NULL," + "`element` varchar(255)," + "`subelement` varchar(255)," + "`permaremoved` varchar(5)," + "`slot1` varchar(255)," + "`slot2` varchar(255)," + "`slot3` varchar(255)," + "`slot4` varchar(255)," + "`slot5` varchar(255)," + "`slot6` varchar(255)," + "`slot7` varchar(255)," + "`slot8` varchar(255)," + "`slot9` varchar(255)," + " PRIMARY KEY (uuid));";
 				sql.modifyQuery(query, false);
 			} else {
-				try {
-					final DatabaseMetaData md = sql.connection.getMetaData();
-					if (!md.getColumns(null, null, "pk_players", "subelement").next()) {
-						ProjectKorra.log.info("Updating Database with subelements...");
-						sql.getConnection().setAutoCommit(false);
-						sql.modifyQuery("ALTER TABLE `pk_players` ADD subelement varchar(255);", false);
-						sql.getConnection().commit();
-						sql.modifyQuery("UPDATE pk_players SET subelement = '-';", false);
-						sql.getConnection().setAutoCommit(true);
-						ProjectKorra.log.info("Database Updated.");
-					}
-				} catch (final SQLException e) {
-					e.printStackTrace();
+				if (!sql.columnExists("pk_players", "subelement")) {
+					ProjectKorra.log.info("Updating Database with subelements...");
+					sql.modifyQuery("ALTER TABLE `pk_players` ADD subelement varchar(255);", false);
+					sql.modifyQuery("UPDATE pk_players SET subelement = '-';", false);
+					ProjectKorra.log.info("Database Updated.");
 				}
 			}
 			if (!sql.tableExists("pk_presets")) {
@@ -85,7 +75,9 @@ public class DBConnection {
 			}
 		} else {
 			sql = new SQLite(ProjectKorra.log, "projectkorra.db", ProjectKorra.plugin.getDataFolder().getAbsolutePath());
-			if (((SQLite) sql).open() == null) {
+			configurePool();
+			((SQLite) sql).configureProfile(ConfigManager.getConfig().getBoolean("Storage.SQLite.WAL"), ConfigManager.getConfig().getString("Storage.SQLite.Synchronous"), ConfigManager.getConfig().getInt("Storage.SQLite.CacheSizeKB"), ConfigManager.getConfig().getInt("Storage.SQLite.MmapSizeMB"), ConfigManager.getConfig().getInt("Storage.SQLite.ReadConnections"));
+			if (!sql.open()) {
 				ProjectKorra.log.severe("Disabling due to database error");
 				GeneralMethods.stopPlugin();
 				return;
@@ -99,20 +91,11 @@ public class DBConnection {
 				final String query = "CREATE TABLE `pk_players` (" + "`uuid` TEXT(36) PRIMARY KEY," + "`player` TEXT(16)," + "`element` TEXT(255)," + "`subelement` TEXT(255)," + "`permaremoved` TEXT(5)," + "`slot1` TEXT(255)," + "`slot2` TEXT(255)," + "`slot3` TEXT(255)," + "`slot4` TEXT(255)," + "`slot5` TEXT(255)," + "`slot6` TEXT(255)," + "`slot7` TEXT(255)," + "`slot8` TEXT(255)," + "`slot9` TEXT(255));";
 				sql.modifyQuery(query, false);
 			} else {
-				try {
-					final DatabaseMetaData md = sql.connection.getMetaData();
-					if (!md.getColumns(null, null, "pk_players", "subelement").next()) {
-						ProjectKorra.log.info("Updating Database with subelements...");
-						sql.getConnection().setAutoCommit(false);
-						sql.modifyQuery("ALTER TABLE `pk_players` ADD subelement TEXT(255);", false);
-						sql.getConnection().commit();
-						sql.modifyQuery("UPDATE pk_players SET subelement = '-';", false);
-						sql.getConnection().setAutoCommit(true);
-						ProjectKorra.log.info("Database Updated.");
-					}
-
-				} catch (final SQLException e) {
-					e.printStackTrace();
+				if (!sql.columnExists("pk_players", "subelement")) {
+					ProjectKorra.log.info("Updating Database with subelements...");
+					sql.modifyQuery("ALTER TABLE `pk_players` ADD subelement TEXT(255);", false);
+					sql.modifyQuery("UPDATE pk_players SET subelement = '-';", false);
+					ProjectKorra.log.info("Database Updated.");
 				}
 			}
 			if (!sql.tableExists("pk_presets")) {
@@ -137,6 +120,17 @@ public class DBConnection {
 				sql.modifyQuery(query, false);
 			}
 		}
+		if (!SchemaMigrator.migrate()) {
+			ProjectKorra.log.severe("Disabling due to database error");
+			GeneralMethods.stopPlugin();
+			return;
+		}
+		SchemaMigrator.start(ConfigManager.getConfig().getInt("Storage.Migration.BatchSize"), ConfigManager.getConfig().getLong("Storage.Migration.BatchInterval"));
+		PlayerDataQueue.start(ConfigManager.getConfig().getLong("Storage.FlushInterval"));
+	}
+
+	private static void configurePool() {
+		sql.configurePool(ConfigManager.getConfig().getInt("Storage.Pool.MaxSize"), ConfigManager.getConfig().getLong("Storage.Pool.ConnectionTimeout"), ConfigManager.getConfig().getLong("Storage.Pool.IdleTimeout"), ConfigManager.getConfig().getLong("Storage.Pool.LeakDetectionThreshold"), ConfigManager.getConfig().getInt("Storage.Pool.StatementCacheSize"));
 	}
 
 	/**
@@ -149,21 +143,18 @@ public class DBConnection {
 			Map<String, Map<String, Long>> oldTable = new HashMap<>();
 
 			// Get all cooldown ids from the database.
-			try {
-				ResultSet rs = DBConnection.sql.readQuery("SELECT * FROM pk_cooldown_ids");
+			final Boolean readIds = DBConnection.sql.readQuery("SELECT * FROM pk_cooldown_ids", rs -> {
 				while (rs.next()) {
 					oldCooldownIDs.put(rs.getInt("id"), rs.getString("cooldown_name"));
 				}
-				rs.close();
-			} catch (final SQLException e) {
+				return true;
+			});
+			if (readIds == null) {
 				ProjectKorra.log.warning("Failed to get cooldown ids from database.");
-				e.printStackTrace();
 			}
 
 			//Get all player cooldowns from the database
-			try {
-				ResultSet rs = sql.readQuery("SELECT * FROM pk_cooldowns");
-
+			final Boolean readCooldowns = sql.readQuery("SELECT * FROM pk_cooldowns", rs -> {
 				while (rs.next()) {
 					final String uuid = rs.getString("uuid");
 					final int cooldownID = rs.getInt("cooldown_id");
@@ -181,41 +172,34 @@ public class DBConnection {
 
 					oldTable.get(uuid).put(cooldownName, cooldown);
 				}
+				return true;
+			});
+			if (readCooldowns == null) {
+				ProjectKorra.log.warning("Failed to get cooldowns from database.");
+				return;
+			}
 
-				rs.close();
-				sql.close();
-
-				ProjectKorra.log.info("Converting old cooldowns to new cooldowns table... The DB will reconnect a few times.");
-
-				sql.open(); // Reconnect to the database.
-
-				// Delete old cooldowns table.
-				sql.modifyQuery("DROP TABLE pk_cooldowns", false);
-				sql.modifyQuery("DROP TABLE pk_cooldown_ids", false);
+			ProjectKorra.log.info("Converting old cooldowns to new cooldowns table...");
 
-				sql.close(); // Close the connection again
-				sql.open(); // Reconnect to the database.
+			// Delete old cooldowns table.
+			sql.modifyQuery("DROP TABLE pk_cooldowns", false);
+			sql.modifyQuery("DROP TABLE pk_cooldown_ids", false);
 
-				// Create new cooldowns table.
-				String query = "CREATE TABLE `pk_cooldowns` (uuid TEXT(36) NOT NULL, cooldown TEXT(255) NOT NULL, value BIGINT NOT NULL, PRIMARY KEY (uuid, cooldown));";
-				if (sql instanceof MySQL) {
-					query = "CREATE TABLE `pk_cooldowns` (uuid VARCHAR(36) NOT NULL, cooldown VARCHAR(255) NOT NULL, value BIGINT NOT NULL, PRIMARY KEY (uuid, cooldown));";
-				}
-				sql.modifyQuery(query, false);
+			// Create new cooldowns table.
+			String query = "CREATE TABLE `pk_cooldowns` (uuid TEXT(36) NOT NULL, cooldown TEXT(255) NOT NULL, value BIGINT NOT NULL, PRIMARY KEY (uuid, cooldown));";
+			if (sql instanceof MySQL) {
+				query = "CREATE TABLE `pk_cooldowns` (uuid VARCHAR(36) NOT NULL, cooldown VARCHAR(255) NOT NULL, value BIGINT NOT NULL, PRIMARY KEY (uuid, cooldown));";
+			}
+			sql.modifyQuery(query, false);
 
-				// Insert all cooldowns into the new table.
-				for (final String uuid : oldTable.keySet()) {
-					for (final String cooldown : oldTable.get(uuid).keySet()) {
-						final long cooldownTime = oldTable.get(uuid).get(cooldown);
-						DBConnection.sql.modifyQuery("INSERT INTO pk_cooldowns (uuid, cooldown, value) VALUES ('" + uuid + "', '" + cooldown + "', " + cooldownTime + ")", false);
-					}
+			// Insert all cooldowns into the new table.
+			for (final String uuid : oldTable.keySet()) {
+				for (final String cooldown : oldTable.get(uuid).keySet()) {
+					final long cooldownTime = oldTable.get(uuid).get(cooldown);
+					DBConnection.sql.modifyQuery("INSERT INTO pk_cooldowns (uuid, cooldown, value) VALUES (?, ?, ?)", false, uuid, cooldown, cooldownTime);
 				}
-				sql.getConnection().setAutoCommit(true);
-				ProjectKorra.log.info("Finished converting old cooldowns to new cooldowns table!");
-			} catch (final SQLException e) {
-				ProjectKorra.log.warning("Failed to get cooldowns from database.");
-				e.printStackTrace();
 			}
+			ProjectKorra.log.info("Finished converting old cooldowns to new cooldowns table!");
 		}
 	}
 
@@ -1,13 +1,11 @@
 package com.projectkorra.projectkorra.storage;
 
 import java.sql.Connection;
-import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.logging.Logger;
 
-import com.projectkorra.projectkorra.ProjectKorra;
 import com.projectkorra.projectkorra.util.ThreadUtil;
 
 public abstract class Database {
@@ -15,6 +13,13 @@ public abstract class Database {
 	protected final Logger log;
 	protected final String dbprefix;
 	protected Connection connection = null;
+	protected ConnectionPool pool = null;
+
+	protected int maxPoolSize = 10;
+	protected long connectionTimeout = 30000;
+	protected long idleTimeout = 600000;
+	protected long leakDetectionThreshold = 0;
+	protected int statementCacheSize = 64;
 
 	public Database(final Logger log, final String dbprefix) {
 		this.log = log;
@@ -46,35 +51,201 @@ public abstract class Database {
 	}
 
 	/**
-	 * Returns the current Connection.
+	 * Sets how the connection pool is sized. Takes effect the next time the
+	 * Database is opened. Values out of range are replaced with the closest
+	 * valid value.
 	 *
-	 * @return Connection if exists, else null
+	 * @param maxPoolSize The most connections that can be open at once
+	 * @param connectionTimeout How long to wait for a free connection, in
+	 *            milliseconds
+	 * @param idleTimeout How long a connection can be unused before it is
+	 *            closed, in milliseconds
+	 * @param leakDetectionThreshold How long a connection can be in use before
+	 *            it is reported as leaked, in milliseconds, or 0 to turn leak
+	 *            detection off
+	 * @param statementCacheSize How many prepared statements each connection
+	 *            keeps
 	 */
-	public Connection getConnection() {
-		return this.connection;
+	public void configurePool(final int maxPoolSize, final long connectionTimeout, final long idleTimeout, final long leakDetectionThreshold, final int statementCacheSize) {
+		if (maxPoolSize < 1) {
+			this.printErr("Storage.Pool.MaxSize must be at least 1, using 1 instead.", false);
+		}
+		if (connectionTimeout < 250) {
+			this.printErr("Storage.Pool.ConnectionTimeout must be at least 250ms, using 250ms instead.", false);
+		}
+		if (idleTimeout < 10000) {
+			this.printErr("Storage.Pool.IdleTimeout must be at least 10000ms, using 10000ms instead.", false);
+		}
+		if (leakDetectionThreshold < 0) {
+			this.printErr("Storage.Pool.LeakDetectionThreshold can't be negative, using 0 instead.", false);
+		}
+		if (statementCacheSize < 0) {
+			this.printErr("Storage.Pool.StatementCacheSize can't be negative, using 0 instead.", false);
+		}
+		this.maxPoolSize = Math.max(1, maxPoolSize);
+		this.connectionTimeout = Math.max(250, connectionTimeout);
+		this.idleTimeout = Math.max(10000, idleTimeout);
+		this.leakDetectionThreshold = Math.max(0, leakDetectionThreshold);
+		this.statementCacheSize = Math.max(0, statementCacheSize);
+	}
+
+	/**
+	 * Gets the most connections the pool can hold.
+	 *
+	 * @param configured The size from the config
+	 * @return The size to use
+	 */
+	protected int getMaxPoolSize(final int configured) {
+		return configured;
+	}
+
+	/**
+	 * Turns an INSERT statement into one that updates the existing row
+	 * instead when a row with the same key is already there. Uses the MySQL
+	 * syntax unless the Database overrides it.
+	 *
+	 * @param insert The INSERT statement
+	 * @param keys The columns of the key, separated by commas
+	 * @param update What to set on the existing row, using
+	 *            {@link #inserted(String)} for the values that would have been
+	 *            inserted
+	 * @return The upsert statement
+	 */
+	public String upsert(final String insert, final String keys, final String update) {
+		return insert + " ON DUPLICATE KEY UPDATE " + update;
+	}
+
+	/**
+	 * @param column A column of an upsert statement
+	 * @return The expression for the value that would have been inserted into
+	 *         the column
+	 */
+	public String inserted(final String column) {
+		return "VALUES(" + column + ")";
+	}
+
+	/**
+	 * Makes a new connection to the Database.
+	 *
+	 * @return The new connection
+	 * @throws SQLException If the connection could not be made
+	 */
+	protected abstract Connection createConnection() throws SQLException;
+
+	/**
+	 * Opens the connection pool, making the first connection to check that the
+	 * Database can be reached.
+	 *
+	 * @return true if successful
+	 */
+	public boolean open() {
+		if (this.pool != null) {
+			this.pool.close();
+		}
+		this.printInfo("Establishing connection...");
+		this.pool = new ConnectionPool(this, this.getMaxPoolSize(this.maxPoolSize), this.connectionTimeout, this.idleTimeout, this.leakDetectionThreshold, this.statementCacheSize);
+		try (PooledConnection connection = this.pool.borrow()) {
+			this.printInfo("Connection established!");
+			return true;
+		} catch (final SQLException e) {
+			e.printStackTrace();
+			this.printErr("Exception during connection.", true);
+			this.pool.close();
+			this.pool = null;
+			return false;
+		}
+	}
+
+	/**
+	 * Gets the connection pool, opening it if it isn't open.
+	 *
+	 * @return The connection pool
+	 * @throws SQLException If the pool could not be opened
+	 */
+	public ConnectionPool getPool() throws SQLException {
+		if ((this.pool == null || this.pool.isClosed()) && !this.open()) {
+			throw new SQLException(this.dbprefix + "Could not open the connection pool");
+		}
+		return this.pool;
 	}
 
 	/**
-	 * Opens connection to Database.
+	 * Gets the pool that queries which only read are run on. This is the same
+	 * pool as every other query by default.
 	 *
-	 * @return Connection if successful
+	 * @return The connection pool for reads
+	 * @throws SQLException If the pool could not be opened
 	 */
-	abstract Connection open();
+	protected ConnectionPool getReadPool() throws SQLException {
+		return this.getPool();
+	}
+
+	/**
+	 * Returns a connection outside of the pool, which stays open until the
+	 * Database is closed.
+	 *
+	 * @return Connection if exists, else null
+	 * @deprecated Use {@link #withConnection(ConnectionHandler)} or
+	 *             {@link #readQuery(String, ResultHandler, Object...)}, so
+	 *             that the connection goes back to the pool.
+	 */
+	@Deprecated
+	public Connection getConnection() {
+		try {
+			if (this.connection == null || this.connection.isClosed()) {
+				this.connection = this.createConnection();
+			}
+		} catch (final SQLException e) {
+			e.printStackTrace();
+		}
+		return this.connection;
+	}
 
 	/**
 	 * Close connection to Database.
 	 */
 	public void close() {
+		if (this.pool == null && this.connection == null) {
+			this.printErr("There was no SQL connection open.", false);
+			return;
+		}
+		if (this.pool != null) {
+			this.pool.close();
+			this.pool = null;
+		}
 		if (this.connection != null) {
 			try {
-				this.connection.setAutoCommit(false);
-				this.connection.commit(); //Force all uncommitted changes to be written before closing
-				this.connection.close();
+				if (!this.connection.isClosed()) {
+					this.connection.setAutoCommit(false);
+					this.connection.commit(); //Force all uncommitted changes to be written before closing
+					this.connection.close();
+				}
 			} catch (final SQLException e) {
 				e.printStackTrace();
 			}
-		} else {
-			this.printErr("There was no SQL connection open.", false);
+			this.connection = null;
+		}
+	}
+
+	/**
+	 * Borrows a connection from the pool for the length of the handler. The
+	 * connection is handed back when the handler returns. A handler that turns
+	 * off auto-commit has to commit its transaction itself, as anything left
+	 * uncommitted is rolled back.
+	 *
+	 * @param handler What to do with the connection
+	 * @return What the handler returned
+	 * @throws SQLException If no connection could be borrowed, or the handler
+	 *             threw
+	 */
+	public <T> T withConnection(final ConnectionHandler<T> handler) throws SQLException {
+		try (PooledConnection connection = this.getPool().borrow()) {
+			try {
+				return handler.handle(connection);
+			} catch (final SQLException | RuntimeException e) {
+				connection.rollback();
+				throw e;
+			}
 		}
 	}
 
@@ -95,28 +266,40 @@ public abstract class Database {
 	 * @param async If to run asynchronously
 	 */
 	public void modifyQuery(final String query, final boolean async) {
+		this.modifyQuery(query, async, new Object[0]);
+	}
+
+	/**
+	 * Queries the Databases, for queries which modify data.
+	 *
+	 * @param query Query to run, with a ? for each parameter
+	 * @param async If to run asynchronously
+	 * @param params The values of the query's parameters
+	 */
+	public void modifyQuery(final String query, final boolean async, final Object... params) {
 		if (async) {
-			ThreadUtil.runAsync(() -> Database.this.doQuery(query));
+			ThreadUtil.runAsync(() -> Database.this.doQuery(query, params));
 		} else {
-			this.doQuery(query);
+			this.doQuery(query, params);
 		}
 	}
 
 	/**
-	 * Queries the Database, for queries which return results.
+	 * Queries the Database, for queries which return results. The ResultSet
+	 * is only open while the handler runs.
 	 *
-	 * @param query Query to run
-	 * @return Result set of ran query
+	 * @param query Query to run, with a ? for each parameter
+	 * @param handler Reads the results of the query
+	 * @param params The values of the query's parameters
+	 * @return What the handler returned, or null if the query failed
 	 */
-	public ResultSet readQuery(final String query) {
-		try {
-			if (this.connection == null || this.connection.isClosed()) {
-				this.open();
+	public <T> T readQuery(final String query, final ResultHandler<T> handler, final Object... params) {
+		try (PooledConnection connection = this.getReadPool().borrow()) {
+			final PreparedStatement stmt = connection.prepareStatement(query);
+			bind(stmt, params);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return handler.handle(rs);
 			}
-			final PreparedStatement stmt = this.connection.prepareStatement(query);
-			final ResultSet rs = stmt.executeQuery();
-
-			return rs;
 		} catch (final SQLException e) {
 			e.printStackTrace();
 			return null;
@@ -131,13 +314,11 @@ public abstract class Database {
 	 */
 	public boolean tableExists(final String table) {
 		try {
-			if (this.connection == null || this.connection.isClosed()) {
-				this.open();
-			}
-			final DatabaseMetaData dmd = this.connection.getMetaData();
-			final ResultSet rs = dmd.getTables(null, null, table, null);
-
-			return rs.next();
+			return this.withConnection(connection -> {
+				try (ResultSet rs = connection.getConnection().getMetaData().getTables(null, null, table, null)) {
+					return rs.next();
+				}
+			});
 		} catch (final Exception e) {
 			e.printStackTrace();
 			return false;
@@ -153,29 +334,50 @@ public abstract class Database {
 	 */
 	public boolean columnExists(final String table, final String column) {
 		try {
-			if (this.connection == null || this.connection.isClosed()) {
-				this.open();
-			}
-			final DatabaseMetaData dmd = this.connection.getMetaData();
-			final ResultSet rs = dmd.getColumns(null, null, table, column);
-			return rs.next();
+			return this.withConnection(connection -> {
+				try (ResultSet rs = connection.getConnection().getMetaData().getColumns(null, null, table, column)) {
+					return rs.next();
+				}
+			});
 		} catch (final Exception e) {
 			e.printStackTrace();
 			return false;
 		}
 	}
 
-	private synchronized void doQuery(final String query) {
-		try {
-			if (this.connection == null || this.connection.isClosed()) {
-				this.open();
-			}
-			final PreparedStatement stmt = this.connection.prepareStatement(query);
+	protected void doQuery(final String query, final Object[] params) {
+		try (PooledConnection connection = this.getPool().borrow()) {
+			final PreparedStatement stmt = connection.prepareStatement(query);
+			bind(stmt, params);
 			stmt.execute();
-			stmt.close();
 		} catch (final SQLException e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * Sets the parameters of a statement in order.
+	 */
+	public static void bind(final PreparedStatement stmt, final Object... params) throws SQLException {
+		for (int i = 0; i < params.length; i++) {
+			stmt.setObject(i + 1, params[i]);
+		}
+	}
+
+	/**
+	 * Reads the results of a query.
+	 */
+	@FunctionalInterface
+	public interface ResultHandler<T> {
+		T handle(ResultSet rs) throws SQLException;
+	}
+
+	/**
+	 * Uses a connection borrowed from the pool.
+	 */
+	@FunctionalInterface
+	public interface ConnectionHandler<T> {
+		T handle(PooledConnection connection) throws SQLException;
+	}
+
 }
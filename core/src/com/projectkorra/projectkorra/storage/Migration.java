@@ -0,0 +1,108 @@
+package com.projectkorra.projectkorra.storage;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A change to the database schema. Migrations are numbered and run in order
+ * by the {@link SchemaMigrator}, and each one only ever runs once per
+ * database.<br><br>
+ *
+ * {@link #apply} runs when the plugin starts and should only make quick
+ * changes, like adding tables, columns and indexes. Migrations that have to
+ * rewrite existing rows do that in {@link #backfill}, which is called in
+ * small batches in the background while the server is running. The
+ * position of the backfill is saved after every batch, so it carries on
+ * where it left off after a restart.
+ */
+public abstract class Migration {
+
+	private final int version;
+	private final String description;
+
+	protected Migration(final int version, final String description) {
+		this.version = version;
+		this.description = description;
+	}
+
+	/**
+	 * Makes the changes to the schema. This may be run again if the server
+	 * stopped before the migration was recorded, so it should skip anything
+	 * that was already done.
+	 */
+	public abstract void apply(Database database) throws SQLException;
+
+	/**
+	 * @return Whether this migration has rows to rewrite after it is applied
+	 */
+	public boolean hasBackfill() {
+		return false;
+	}
+
+	/**
+	 * Rewrites the next batch of rows.
+	 *
+	 * @param after Where the last batch stopped, or null for the first batch
+	 * @param limit The most rows to rewrite
+	 * @return Where this batch stopped, or null if there are no rows left
+	 */
+	public String backfill(final Database database, final String after, final int limit) throws SQLException {
+		return null;
+	}
+
+	public int getVersion() {
+		return this.version;
+	}
+
+	public String getDescription() {
+		return this.description;
+	}
+
+	/**
+	 * Creates an index, unless the table doesn't exist or already has an
+	 * index with that name.
+	 *
+	 * @return false if the table doesn't exist
+	 */
+	protected static boolean createIndex(final Database database, final String table, final String name, final String columns) throws SQLException {
+		if (!database.tableExists(table)) {
+			return false;
+		}
+		final boolean exists = database.withConnection(connection -> {
+			try (ResultSet rs = connection.getConnection().getMetaData().getIndexInfo(null, null, table, false, false)) {
+				while (rs.next()) {
+					if (name.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+						return true;
+					}
+				}
+				return false;
+			}
+		});
+		if (!exists) {
+			execute(database, "CREATE INDEX " + name + " ON " + table + " (" + columns + ")");
+		}
+		return true;
+	}
+
+	/**
+	 * Adds a column to a table, unless it already has it.
+	 */
+	protected static void addColumn(final Database database, final String table, final String column, final String type) throws SQLException {
+		if (!database.columnExists(table, column)) {
+			execute(database, "ALTER TABLE " + table + " ADD " + column + " " + type);
+		}
+	}
+
+	/**
+	 * Runs a statement, throwing if it fails instead of only logging it like
+	 * {@link Database#modifyQuery} does.
+	 */
+	protected static void execute(final Database database, final String sql) throws SQLException {
+		database.withConnection(connection -> {
+			try (Statement stmt = connection.getConnection().createStatement()) {
+				return stmt.executeUpdate(sql);
+			}
+		});
+	}
+}
@@ -32,30 +32,19 @@ public class MySQL extends Database {
 	}
 
 	@Override
-	public Connection open() {
+	protected Connection createConnection() throws SQLException {
 		try {
-			this.log.info("Establishing MySQL Connection...");
-
 			Class.forName("com.mysql.jdbc.Driver");
-
-			if (this.properties != null && !this.properties.isEmpty()) {
-				this.properties = "?" + this.properties;
-			}
-
-			final String url = "jdbc:mysql://" + this.host + ":" + this.port + "/" + this.database + this.properties;
-
-			this.connection = DriverManager.getConnection(url, this.user, this.pass);
-			this.printInfo("Connection established!");
-
-			return this.connection;
 		} catch (final ClassNotFoundException e) {
-			this.printErr("JDBC driver not found!", true);
-			return null;
-		} catch (final SQLException e) {
-			e.printStackTrace();
-			this.printErr("MYSQL exception during connection.", true);
-			return null;
+			throw new SQLException("JDBC driver not found!", e);
+		}
+
+		String url = "jdbc:mysql://" + this.host + ":" + this.port + "/" + this.database;
+		if (this.properties != null && !this.properties.isEmpty()) {
+			url += "?" + this.properties;
 		}
+
+		return DriverManager.getConnection(url, this.user, this.pass);
 	}
 
 }
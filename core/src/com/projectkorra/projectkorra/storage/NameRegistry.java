@@ -0,0 +1,139 @@
+package com.projectkorra.projectkorra.storage;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.projectkorra.projectkorra.ProjectKorra;
+
+/**
+ * A table that gives names, like those of abilities or elements, a small
+ * number, so that rows can store the number instead of the name. Numbers
+ * start at 1, leaving 0 free to mean "nothing". A name keeps its number
+ * forever, and a name that hasn't been seen before is given the next free
+ * number.<br><br>
+ *
+ * Names are matched ignoring case, since MySQL compares them that way.
+ */
+class NameRegistry {
+
+	/** How long to wait before reading the table again for an id it didn't have */
+	private static final long RELOAD_INTERVAL = 10_000;
+
+	private final String table;
+	private final int maxId;
+	private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+	private final Map<Integer, String> names = new ConcurrentHashMap<>();
+	private volatile boolean loaded;
+	private volatile long loadedAt;
+	private boolean full;
+
+	/**
+	 * @param table The table the names are stored in
+	 * @param maxId The highest number that can be given out
+	 */
+	NameRegistry(final String table, final int maxId) {
+		this.table = table;
+		this.maxId = maxId;
+	}
+
+	/**
+	 * Creates the table, unless it exists already.
+	 */
+	void create(final Database database) throws SQLException {
+		if (!database.tableExists(this.table)) {
+			Migration.execute(database, "CREATE TABLE " + this.table + " (id INTEGER NOT NULL, name VARCHAR(255) NOT NULL, PRIMARY KEY (id), UNIQUE (name))");
+		}
+	}
+
+	/**
+	 * @return The number of a name, giving it one if it doesn't have one yet,
+	 *         or null if there are no numbers left or it couldn't be saved
+	 */
+	Integer getId(final String name) {
+		this.ensureLoaded();
+		final Integer id = this.ids.get(name.toLowerCase());
+		return id != null ? id : this.register(name);
+	}
+
+	/**
+	 * @return The name with a number, or null if no name has it
+	 */
+	String getName(final int id) {
+		this.ensureLoaded();
+		String name = this.names.get(id);
+		if (name == null && System.currentTimeMillis() - this.loadedAt > RELOAD_INTERVAL) {
+			// Another server sharing the database may have given it out since the names were read.
+			// Not read again every time, so an id that is never given out doesn't cost a full read on every lookup
+			this.load();
+			name = this.names.get(id);
+		}
+		return name;
+	}
+
+	/**
+	 * Forgets every name, so they are read again from the database the next
+	 * time they are needed. Called when the database is connected to, as it
+	 * may not be the one the names were read from.
+	 */
+	synchronized void clear() {
+		this.ids.clear();
+		this.names.clear();
+		this.loaded = false;
+		this.loadedAt = 0;
+		this.full = false;
+	}
+
+	private synchronized Integer register(final String name) {
+		Integer id = this.ids.get(name.toLowerCase());
+		// Another server sharing the database may have taken the number or the name, so read them again and retry once
+		for (int attempt = 0; id == null && attempt < 2 && !this.full; attempt++) {
+			final int next = this.names.keySet().stream().mapToInt(Integer::intValue).max().orElse(0) + 1;
+			if (next > this.maxId) {
+				this.full = true;
+				ProjectKorra.log.warning("There are no ids left in " + this.table + " for " + name + ", it will only be stored in the old format.");
+				break;
+			}
+			try {
+				DBConnection.sql.withConnection(connection -> {
+					final PreparedStatement ps = connection.prepareStatement("INSERT INTO " + this.table + " (id, name) VALUES (?, ?)");
+					Database.bind(ps, next, name);
+					return ps.executeUpdate();
+				});
+				this.put(next, name);
+				id = next;
+			} catch (final SQLException e) {
+				this.load();
+				id = this.ids.get(name.toLowerCase());
+			}
+		}
+		return id;
+	}
+
+	private void ensureLoaded() {
+		if (!this.loaded) {
+			synchronized (this) {
+				if (!this.loaded) {
+					this.load();
+				}
+			}
+		}
+	}
+
+	private synchronized void load() {
+		final Boolean read = DBConnection.sql.readQuery("SELECT id, name FROM " + this.table, rs -> {
+			while (rs.next()) {
+				this.put(rs.getInt("id"), rs.getString("name"));
+			}
+			return true;
+		});
+		this.loaded = read != null;
+		this.loadedAt = System.currentTimeMillis();
+	}
+
+	private void put(final int id, final String name) {
+		this.ids.put(name.toLowerCase(), id);
+		this.names.put(id, name);
+	}
+}
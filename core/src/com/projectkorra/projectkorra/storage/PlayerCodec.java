@@ -0,0 +1,184 @@
+package com.projectkorra.projectkorra.storage;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts player data between the old columns of pk_players and pk_presets
+ * and the compact ones added by {@link CompactPlayerMigration}.<br><br>
+ *
+ * The old columns store elements as strings of letters followed by the
+ * names of addon elements, like "aw;Shadow,", and each bound ability by name
+ * in its own column. The compact columns store elements and subelements as
+ * bitmasks, with one bit for each id in pk_elements, and all nine binds as
+ * the ids of the abilities in pk_abilities, two bytes per slot.<br><br>
+ *
+ * When something can't be stored compactly, like a 64th element, the
+ * compact column is left empty and the old column is read instead.
+ */
+class PlayerCodec {
+
+	static final NameRegistry ABILITIES = new NameRegistry("pk_abilities", 0xFFFF);
+	/** One bit of a mask for each, and the sign bit for {@link #UNDEFINED} */
+	static final NameRegistry ELEMENTS = new NameRegistry("pk_elements", 63);
+
+	/** The subelement string of a player whose subelements haven't been given yet */
+	private static final String UNDEFINED = "-";
+	private static final long UNDEFINED_BIT = Long.MIN_VALUE;
+
+	/** The names of the built in elements by the letter they are stored as */
+	private static final Map<Character, String> ELEMENT_LETTERS = letters("aAir", "wWater", "eEarth", "fFire", "cChi");
+	private static final Map<Character, String> SUBELEMENT_LETTERS = letters("mMetal", "vLava", "sSand", "cCombustion", "lLightning", "tSpiritual", "fFlight", "iIce", "hHealing", "bBlood", "pPlant", "rBlueFire");
+
+	/**
+	 * @return The mask of an element string, or null if it can't be stored
+	 *         as one
+	 */
+	static Long encodeElements(final String elements) {
+		return encode(elements, ELEMENT_LETTERS);
+	}
+
+	/**
+	 * @return The mask of a subelement string, or null if it can't be stored
+	 *         as one
+	 */
+	static Long encodeSubElements(final String subelements) {
+		if (UNDEFINED.equals(subelements)) {
+			return UNDEFINED_BIT;
+		}
+		return encode(subelements, SUBELEMENT_LETTERS);
+	}
+
+	/**
+	 * @return The element string of a mask, or null if it has an element
+	 *         that isn't in pk_elements
+	 */
+	static String decodeElements(final long mask) {
+		return decode(mask, ELEMENT_LETTERS);
+	}
+
+	/**
+	 * @return The subelement string of a mask, or null if it has an element
+	 *         that isn't in pk_elements
+	 */
+	static String decodeSubElements(final long mask) {
+		if (mask == UNDEFINED_BIT) {
+			return UNDEFINED;
+		}
+		return decode(mask, SUBELEMENT_LETTERS);
+	}
+
+	/**
+	 * @param slots The abilities bound to slots 1 to 9, with null or "null"
+	 *            for empty slots
+	 * @return The packed binds, or null if they can't be packed
+	 */
+	static byte[] encodeBinds(final String[] slots) {
+		final byte[] binds = new byte[18];
+		for (int slot = 1; slot <= 9; slot++) {
+			final String ability = slots[slot];
+			if (ability == null || ability.equalsIgnoreCase("null") || ability.isEmpty()) {
+				continue;
+			}
+			final Integer id = ABILITIES.getId(ability);
+			if (id == null) {
+				return null;
+			}
+			binds[slot * 2 - 2] = (byte) (id >> 8);
+			binds[slot * 2 - 1] = (byte) (int) id;
+		}
+		return binds;
+	}
+
+	/**
+	 * @return The abilities bound to slots 1 to 9, with null for empty slots,
+	 *         or null if the binds have an ability that isn't in pk_abilities
+	 */
+	static String[] decodeBinds(final byte[] binds) {
+		final String[] slots = new String[10];
+		for (int slot = 1; slot <= 9 && slot * 2 <= binds.length; slot++) {
+			final int id = (binds[slot * 2 - 2] & 0xFF) << 8 | binds[slot * 2 - 1] & 0xFF;
+			if (id != 0) {
+				slots[slot] = ABILITIES.getName(id);
+				if (slots[slot] == null) {
+					return null;
+				}
+			}
+		}
+		return slots;
+	}
+
+	private static Long encode(final String elements, final Map<Character, String> letters) {
+		if (elements == null || elements.equalsIgnoreCase("NULL")) {
+			return 0L;
+		}
+		final String[] split = elements.split(";");
+		long mask = 0;
+		if (split.length > 0) {
+			for (final char letter : split[0].toCharArray()) {
+				final String name = letters.get(letter);
+				if (name != null) {
+					final Integer id = ELEMENTS.getId(name);
+					if (id == null) {
+						return null;
+					}
+					mask |= 1L << (id - 1);
+				}
+			}
+		}
+		if (elements.contains(";")) {
+			for (final String addon : split[split.length - 1].split(",")) {
+				if (addon.isEmpty()) {
+					continue;
+				}
+				final Integer id = ELEMENTS.getId(addon);
+				if (id == null) {
+					return null;
+				}
+				mask |= 1L << (id - 1);
+			}
+		}
+		return mask;
+	}
+
+	private static String decode(final long mask, final Map<Character, String> letters) {
+		final StringBuilder builtIn = new StringBuilder();
+		final StringBuilder addons = new StringBuilder();
+		for (int bit = 0; bit < 63; bit++) {
+			if ((mask & 1L << bit) == 0) {
+				continue;
+			}
+			final String name = ELEMENTS.getName(bit + 1);
+			if (name == null) {
+				return null;
+			}
+			final Character letter = letterOf(name, letters);
+			if (letter != null) {
+				builtIn.append(letter);
+			} else {
+				addons.append(name).append(",");
+			}
+		}
+		if (addons.length() > 0) {
+			builtIn.append(";").append(addons);
+		}
+		return builtIn.length() == 0 ? "NULL" : builtIn.toString();
+	}
+
+	private static Character letterOf(final String name, final Map<Character, String> letters) {
+		for (final Map.Entry<Character, String> entry : letters.entrySet()) {
+			if (entry.getValue().equalsIgnoreCase(name)) {
+				return entry.getKey();
+			}
+		}
+		return null;
+	}
+
+	private static Map<Character, String> letters(final String... entries) {
+		final Map<Character, String> letters = new HashMap<>();
+		for (final String entry : entries) {
+			letters.put(entry.charAt(0), entry.substring(1));
+		}
+		return letters;
+	}
+}
@@ -0,0 +1,512 @@
+package com.projectkorra.projectkorra.storage;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads and writes the player data tables: pk_players, pk_cooldowns,
+ * pk_temp_elements and pk_presets.<br><br>
+ *
+ * Every query is one of a fixed set of parameterized statements, so each is
+ * only parsed once per pooled connection and values never have to be quoted
+ * into the SQL. Updates to pk_players and pk_temp_elements go through the
+ * {@link PlayerDataQueue} and are written in batches. Once the backfill of
+ * {@link CompactPlayerMigration} is done, bindings and elements are read from
+ * the compact columns instead of the old ones.
+ */
+public class PlayerDAO {
+
+	private static final String SLOTS = "slot1, slot2, slot3, slot4, slot5, slot6, slot7, slot8, slot9";
+	private static final String NO_SLOTS = "NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL";
+	/** Every row of a player from all four tables, in the columns of pk_players */
+	private static final String SELECT_ALL = "SELECT 'player' AS kind, player AS name, NULL AS value, element, subelement, permaremoved, " + SLOTS + " FROM pk_players WHERE uuid = ?"
+			+ " UNION ALL SELECT 'cooldown', cooldown, value, NULL, NULL, NULL, " + NO_SLOTS + " FROM pk_cooldowns WHERE uuid = ?"
+			+ " UNION ALL SELECT 'temp_element', element, expiry, NULL, NULL, NULL, " + NO_SLOTS + " FROM pk_temp_elements WHERE uuid = ?"
+			+ " UNION ALL SELECT 'preset', name, NULL, NULL, NULL, NULL, " + SLOTS + " FROM pk_presets WHERE uuid = ?";
+	/** The same, but with the compact columns in place of the old ones */
+	private static final String SELECT_ALL_COMPACT = "SELECT 'player' AS kind, player AS name, NULL AS value, permaremoved, element_mask, subelement_mask, binds FROM pk_players WHERE uuid = ?"
+			+ " UNION ALL SELECT 'cooldown', cooldown, value, NULL, NULL, NULL, NULL FROM pk_cooldowns WHERE uuid = ?"
+			+ " UNION ALL SELECT 'temp_element', element, expiry, NULL, NULL, NULL, NULL FROM pk_temp_elements WHERE uuid = ?"
+			+ " UNION ALL SELECT 'preset', name, NULL, NULL, NULL, NULL, binds FROM pk_presets WHERE uuid = ?";
+	private static final String SELECT_PLAYER = "SELECT element, subelement, " + SLOTS + " FROM pk_players WHERE uuid = ?";
+
+	private static final String INSERT_PLAYER = "INSERT INTO pk_players (uuid, player, slot1, slot2, slot3, slot4, slot5, slot6, slot7, slot8, slot9) VALUES (?, ?, 'null', 'null', 'null', 'null', 'null', 'null', 'null', 'null', 'null')";
+	private static final String INSERT_PLAYER_COMPACT = "INSERT INTO pk_players (uuid, player, slot1, slot2, slot3, slot4, slot5, slot6, slot7, slot8, slot9, element_mask, subelement_mask, binds) VALUES (?, ?, 'null', 'null', 'null', 'null', 'null', 'null', 'null', 'null', 'null', 0, 0, ?)";
+	private static final String UPDATE_NAME = "UPDATE pk_players SET player = ? WHERE uuid = ?";
+	private static final String UPDATE_ELEMENTS = "UPDATE pk_players SET element = ? WHERE uuid = ?";
+	private static final String UPDATE_SUBELEMENTS = "UPDATE pk_players SET subelement = ? WHERE uuid = ?";
+	private static final String UPDATE_PERMAREMOVED = "UPDATE pk_players SET permaremoved = ? WHERE uuid = ?";
+	private static final String UPDATE_SLOTS = "UPDATE pk_players SET slot1 = ?, slot2 = ?, slot3 = ?, slot4 = ?, slot5 = ?, slot6 = ?, slot7 = ?, slot8 = ?, slot9 = ? WHERE uuid = ?";
+	/** Once the compact columns exist, both they and the old columns are written */
+	private static final String UPDATE_ELEMENTS_COMPACT = "UPDATE pk_players SET element = ?, element_mask = ? WHERE uuid = ?";
+	private static final String UPDATE_SUBELEMENTS_COMPACT = "UPDATE pk_players SET subelement = ?, subelement_mask = ? WHERE uuid = ?";
+	private static final String UPDATE_SLOTS_COMPACT = "UPDATE pk_players SET slot1 = ?, slot2 = ?, slot3 = ?, slot4 = ?, slot5 = ?, slot6 = ?, slot7 = ?, slot8 = ?, slot9 = ?, binds = ? WHERE uuid = ?";
+
+	private static final String DELETE_EXPIRED_COOLDOWNS = "DELETE FROM pk_cooldowns WHERE uuid = ? AND value <= ?";
+	private static final String DELETE_COOLDOWN = "DELETE FROM pk_cooldowns WHERE uuid = ? AND cooldown = ?";
+	private static final String INSERT_COOLDOWN = "INSERT INTO pk_cooldowns (uuid, cooldown, value) VALUES (?, ?, ?)";
+
+	private static final String DELETE_TEMP_ELEMENTS = "DELETE FROM pk_temp_elements WHERE uuid = ?";
+	private static final String INSERT_TEMP_ELEMENT = "INSERT INTO pk_temp_elements (uuid, element, expiry) VALUES (?, ?, ?)";
+
+	private static final String SELECT_PRESETS = "SELECT name, " + SLOTS + " FROM pk_presets WHERE uuid = ?";
+	private static final String SELECT_PRESETS_COMPACT = "SELECT name, binds FROM pk_presets WHERE uuid = ?";
+	private static final String DELETE_PRESET = "DELETE FROM pk_presets WHERE uuid = ? AND name = ?";
+	private static final String INSERT_PRESET = "INSERT INTO pk_presets (uuid, name, slot1, slot2, slot3, slot4, slot5, slot6, slot7, slot8, slot9) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	private static final String INSERT_PRESET_COMPACT = "INSERT INTO pk_presets (uuid, name, slot1, slot2, slot3, slot4, slot5, slot6, slot7, slot8, slot9, binds) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	/**
+	 * Loads everything stored about a player with a single query, instead of
+	 * one for each table. Once every row has compact columns, only those are
+	 * read, and the old columns are only read for rows that couldn't be
+	 * stored compactly.
+	 *
+	 * @param uuid The player's uuid
+	 * @return The player's data, or null if the query failed
+	 */
+	public static PlayerData loadAll(final UUID uuid) {
+		PlayerDataQueue.flush(uuid);
+		final String id = uuid.toString();
+		if (SchemaMigrator.isComplete(CompactPlayerMigration.VERSION)) {
+			return loadCompact(id);
+		}
+		return DBConnection.sql.readQuery(SELECT_ALL, rs -> {
+			final PlayerData data = new PlayerData();
+			while (rs.next()) {
+				switch (rs.getString("kind")) {
+					case "player":
+						final Map<String, String> row = data.getRow();
+						row.put("uuid", id);
+						row.put("player", rs.getString("name"));
+						row.put("element", rs.getString("element"));
+						row.put("subelement", rs.getString("subelement"));
+						row.put("permaremoved", rs.getString("permaremoved"));
+						for (int slot = 1; slot <= 9; slot++) {
+							row.put("slot" + slot, rs.getString("slot" + slot));
+						}
+						break;
+					case "cooldown":
+						data.getCooldowns().put(rs.getString("name"), rs.getLong("value"));
+						break;
+					case "temp_element":
+						data.getTempElements().put(rs.getString("name"), rs.getLong("value"));
+						break;
+					case "preset":
+						final HashMap<Integer, String> moves = new HashMap<Integer, String>();
+						for (int slot = 1; slot <= 9; slot++) {
+							final String ability = rs.getString("slot" + slot);
+							if (ability != null) {
+								moves.put(slot, ability);
+							}
+						}
+						data.getPresets().put(rs.getString("name"), moves);
+						break;
+				}
+			}
+			return data;
+		}, id, id, id, id);
+	}
+
+	private static PlayerData loadCompact(final String id) {
+		// Decoded after the query, as ids that aren't known yet are read with a connection of their own
+		final Object[] player = new Object[3];
+		final Map<String, byte[]> presets = new LinkedHashMap<>();
+		final PlayerData data = DBConnection.sql.readQuery(SELECT_ALL_COMPACT, rs -> {
+			final PlayerData loaded = new PlayerData();
+			while (rs.next()) {
+				switch (rs.getString("kind")) {
+					case "player":
+						final Map<String, String> row = loaded.getRow();
+						row.put("uuid", id);
+						row.put("player", rs.getString("name"));
+						row.put("permaremoved", rs.getString("permaremoved"));
+						player[0] = rs.getObject("element_mask") == null ? null : rs.getLong("element_mask");
+						player[1] = rs.getObject("subelement_mask") == null ? null : rs.getLong("subelement_mask");
+						player[2] = rs.getBytes("binds");
+						break;
+					case "cooldown":
+						loaded.getCooldowns().put(rs.getString("name"), rs.getLong("value"));
+						break;
+					case "temp_element":
+						loaded.getTempElements().put(rs.getString("name"), rs.getLong("value"));
+						break;
+					case "preset":
+						presets.put(rs.getString("name"), rs.getBytes("binds"));
+						break;
+				}
+			}
+			return loaded;
+		}, id, id, id, id);
+		if (data == null) {
+			return null;
+		}
+
+		final Map<String, String> row = data.getRow();
+		if (!row.isEmpty() && !decodePlayer(row, (Long) player[0], (Long) player[1], (byte[]) player[2])) {
+			final Boolean read = DBConnection.sql.readQuery(SELECT_PLAYER, rs -> {
+				if (rs.next()) {
+					row.put("element", rs.getString("element"));
+					row.put("subelement", rs.getString("subelement"));
+					for (int slot = 1; slot <= 9; slot++) {
+						row.put("slot" + slot, rs.getString("slot" + slot));
+					}
+				}
+				return true;
+			}, id);
+			if (read == null) {
+				return null;
+			}
+		}
+		final Map<String, HashMap<Integer, String>> decoded = decodePresets(presets);
+		if (decoded == null) {
+			final Map<String, HashMap<Integer, String>> read = DBConnection.sql.readQuery(SELECT_PRESETS, PlayerDAO::readPresets, id);
+			if (read == null) {
+				return null;
+			}
+			data.getPresets().putAll(read);
+		} else {
+			data.getPresets().putAll(decoded);
+		}
+		return data;
+	}
+
+	/**
+	 * Puts the old columns of a player's row back together from the compact
+	 * ones.
+	 *
+	 * @return false if a compact column is empty or couldn't be decoded
+	 */
+	private static boolean decodePlayer(final Map<String, String> row, final Long elementMask, final Long subelementMask, final byte[] binds) {
+		if (elementMask == null || subelementMask == null || binds == null) {
+			return false;
+		}
+		final String elements = PlayerCodec.decodeElements(elementMask);
+		final String subelements = PlayerCodec.decodeSubElements(subelementMask);
+		final String[] slots = PlayerCodec.decodeBinds(binds);
+		if (elements == null || subelements == null || slots == null) {
+			return false;
+		}
+		row.put("element", elements);
+		row.put("subelement", subelements);
+		for (int slot = 1; slot <= 9; slot++) {
+			row.put("slot" + slot, String.valueOf(slots[slot]));
+		}
+		return true;
+	}
+
+	/**
+	 * @param presets The binds column of each preset by preset name
+	 * @return The abilities of each preset by preset name, or null if one of
+	 *         them couldn't be decoded
+	 */
+	private static Map<String, HashMap<Integer, String>> decodePresets(final Map<String, byte[]> presets) {
+		final Map<String, HashMap<Integer, String>> decoded = new LinkedHashMap<>();
+		for (final Map.Entry<String, byte[]> entry : presets.entrySet()) {
+			final String[] slots = entry.getValue() == null ? null : PlayerCodec.decodeBinds(entry.getValue());
+			if (slots == null) {
+				return null;
+			}
+			final HashMap<Integer, String> moves = new HashMap<Integer, String>();
+			for (int slot = 1; slot <= 9; slot++) {
+				if (slots[slot] != null) {
+					moves.put(slot, slots[slot]);
+				}
+			}
+			decoded.put(entry.getKey(), moves);
+		}
+		return decoded;
+	}
+
+	/**
+	 * Inserts a row for a new player. This is written right away, so the
+	 * player's queued updates always have a row to update.
+	 */
+	public static void createPlayer(final UUID uuid, final String name) {
+		if (SchemaMigrator.isApplied(CompactPlayerMigration.VERSION)) {
+			DBConnection.sql.modifyQuery(INSERT_PLAYER_COMPACT, false, uuid.toString(), name, new byte[18]);
+		} else {
+			DBConnection.sql.modifyQuery(INSERT_PLAYER, false, uuid.toString(), name);
+		}
+	}
+
+	public static void updateName(final UUID uuid, final String name) {
+		PlayerDataQueue.mark(uuid, changes -> changes.name = name);
+	}
+
+	public static void updateElements(final UUID uuid, final String elements) {
+		PlayerDataQueue.mark(uuid, changes -> changes.elements = elements);
+	}
+
+	public static void updateSubElements(final UUID uuid, final String subelements) {
+		PlayerDataQueue.mark(uuid, changes -> changes.subelements = subelements);
+	}
+
+	public static void updatePermaRemoved(final UUID uuid, final boolean permaRemoved) {
+		PlayerDataQueue.mark(uuid, changes -> changes.permaRemoved = permaRemoved);
+	}
+
+	/**
+	 * Saves the abilities bound to every slot. All nine are always saved
+	 * together, as the compact binds column holds them all. Empty slots are
+	 * stored as the string "null", like they always have been.
+	 */
+	public static void updateSlots(final UUID uuid, final Map<Integer, String> abilities) {
+		final String[] slots = new String[10];
+		for (int slot = 1; slot <= 9; slot++) {
+			slots[slot] = String.valueOf(abilities.get(slot));
+		}
+		PlayerDataQueue.mark(uuid, changes -> changes.slots = slots);
+	}
+
+	/**
+	 * Saves the player's cooldowns in one transaction, only writing what
+	 * changed since they were last saved. New and changed cooldowns are
+	 * written with one batched upsert, expired ones are removed with a single
+	 * DELETE, and cooldowns that were removed early are deleted by name.
+	 *
+	 * @param cooldowns The expiry times of the cooldowns to save by name
+	 * @param saved The cooldowns the database has, which is updated once they
+	 *            are saved
+	 * @return false if saving failed
+	 */
+	public static boolean saveCooldowns(final UUID uuid, final Map<String, Long> cooldowns, final Map<String, Long> saved) {
+		final long now = System.currentTimeMillis();
+		final Map<String, Long> changed = new HashMap<>();
+		for (final Map.Entry<String, Long> entry : cooldowns.entrySet()) {
+			if (entry.getValue() > now && !entry.getValue().equals(saved.get(entry.getKey()))) {
+				changed.put(entry.getKey(), entry.getValue());
+			}
+		}
+		boolean expired = false;
+		final List<String> removed = new ArrayList<>();
+		for (final Map.Entry<String, Long> entry : saved.entrySet()) {
+			final Long current = cooldowns.get(entry.getKey());
+			if (entry.getValue() <= now) {
+				expired |= current == null || current <= now;
+			} else if (current == null || current <= now) {
+				removed.add(entry.getKey());
+			}
+		}
+		if (changed.isEmpty() && removed.isEmpty() && !expired) {
+			return true;
+		}
+
+		final boolean deleteExpired = expired;
+		try {
+			DBConnection.sql.withConnection(connection -> {
+				connection.getConnection().setAutoCommit(false);
+				if (!changed.isEmpty()) {
+					final PreparedStatement upsert = connection.prepareStatement(DBConnection.sql.upsert(INSERT_COOLDOWN, "uuid, cooldown", "value = " + DBConnection.sql.inserted("value")));
+					try {
+						for (final Map.Entry<String, Long> entry : changed.entrySet()) {
+							Database.bind(upsert, uuid.toString(), entry.getKey(), entry.getValue());
+							upsert.addBatch();
+						}
+						upsert.executeBatch();
+					} finally {
+						upsert.clearBatch();
+					}
+				}
+				if (deleteExpired) {
+					final PreparedStatement delete = connection.prepareStatement(DELETE_EXPIRED_COOLDOWNS);
+					Database.bind(delete, uuid.toString(), now);
+					delete.executeUpdate();
+				}
+				if (!removed.isEmpty()) {
+					final PreparedStatement delete = connection.prepareStatement(DELETE_COOLDOWN);
+					try {
+						for (final String name : removed) {
+							Database.bind(delete, uuid.toString(), name);
+							delete.addBatch();
+						}
+						delete.executeBatch();
+					} finally {
+						delete.clearBatch();
+					}
+				}
+				connection.getConnection().commit();
+				return null;
+			});
+		} catch (final SQLException e) {
+			e.printStackTrace();
+			return false;
+		}
+
+		saved.clear();
+		for (final Map.Entry<String, Long> entry : cooldowns.entrySet()) {
+			if (entry.getValue() > now) {
+				saved.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Replaces the player's temporary elements.
+	 *
+	 * @param elements The expiry times of the elements by name
+	 */
+	public static void saveTempElements(final UUID uuid, final Map<String, Long> elements) {
+		final Map<String, Long> copy = new HashMap<>(elements);
+		PlayerDataQueue.mark(uuid, changes -> changes.tempElements = copy);
+	}
+
+	/**
+	 * @return The abilities of each of the player's presets by preset name,
+	 *         or null if the query failed
+	 */
+	public static Map<String, HashMap<Integer, String>> loadPresets(final UUID uuid) {
+		if (SchemaMigrator.isComplete(CompactPlayerMigration.VERSION)) {
+			final Map<String, byte[]> presets = DBConnection.sql.readQuery(SELECT_PRESETS_COMPACT, rs -> {
+				final Map<String, byte[]> binds = new LinkedHashMap<>();
+				while (rs.next()) {
+					binds.put(rs.getString("name"), rs.getBytes("binds"));
+				}
+				return binds;
+			}, uuid.toString());
+			final Map<String, HashMap<Integer, String>> decoded = presets == null ? null : decodePresets(presets);
+			if (decoded != null) {
+				return decoded;
+			}
+		}
+		return DBConnection.sql.readQuery(SELECT_PRESETS, PlayerDAO::readPresets, uuid.toString());
+	}
+
+	private static Map<String, HashMap<Integer, String>> readPresets(final ResultSet rs) throws SQLException {
+		final Map<String, HashMap<Integer, String>> presets = new LinkedHashMap<>();
+		while (rs.next()) {
+			final HashMap<Integer, String> moves = new HashMap<Integer, String>();
+			for (int slot = 1; slot <= 9; slot++) {
+				final String ability = rs.getString("slot" + slot);
+				if (ability != null) {
+					moves.put(slot, ability);
+				}
+			}
+			presets.put(rs.getString("name"), moves);
+		}
+		return presets;
+	}
+
+	public static void deletePreset(final UUID uuid, final String name) throws SQLException {
+		DBConnection.sql.withConnection(connection -> {
+			final PreparedStatement ps = connection.prepareStatement(DELETE_PRESET);
+			Database.bind(ps, uuid.toString(), name);
+			return ps.executeUpdate();
+		});
+	}
+
+	public static void savePreset(final UUID uuid, final String name, final Map<Integer, String> abilities) throws SQLException {
+		final boolean compact = SchemaMigrator.isApplied(CompactPlayerMigration.VERSION);
+		final String[] slots = new String[10];
+		for (int slot = 1; slot <= 9; slot++) {
+			slots[slot] = abilities.get(slot);
+		}
+		final byte[] binds = compact ? PlayerCodec.encodeBinds(slots) : null;
+		DBConnection.sql.withConnection(connection -> {
+			final PreparedStatement ps = connection.prepareStatement(compact ? INSERT_PRESET_COMPACT : INSERT_PRESET);
+			ps.setString(1, uuid.toString());
+			ps.setString(2, name);
+			for (int slot = 1; slot <= 9; slot++) {
+				ps.setString(2 + slot, slots[slot]);
+			}
+			if (compact) {
+				ps.setBytes(12, binds);
+			}
+			return ps.executeUpdate();
+		});
+	}
+
+	/**
+	 * Writes the queued changes of many players as batches, in one
+	 * transaction. Each statement is only added to the batch for the players
+	 * that changed it. Once the compact columns exist, they are written along
+	 * with the old ones.
+	 */
+	static void writeChanges(final Map<UUID, PlayerDataQueue.Changes> batch) throws SQLException {
+		// Encoded before the transaction, as new names are saved with a connection of their own
+		final boolean compact = SchemaMigrator.isApplied(CompactPlayerMigration.VERSION);
+		final Map<UUID, Object[]> encoded = new HashMap<>();
+		if (compact) {
+			for (final Map.Entry<UUID, PlayerDataQueue.Changes> entry : batch.entrySet()) {
+				final PlayerDataQueue.Changes changes = entry.getValue();
+				encoded.put(entry.getKey(), new Object[] {
+						changes.elements == null ? null : PlayerCodec.encodeElements(changes.elements),
+						changes.subelements == null ? null : PlayerCodec.encodeSubElements(changes.subelements),
+						changes.slots == null ? null : PlayerCodec.encodeBinds(changes.slots) });
+			}
+		}
+		DBConnection.sql.withConnection(connection -> {
+			// Statements run in the order they were first used, so deletes run before inserts
+			final Map<String, PreparedStatement> statements = new LinkedHashMap<>();
+			try {
+				connection.getConnection().setAutoCommit(false);
+				for (final Map.Entry<UUID, PlayerDataQueue.Changes> entry : batch.entrySet()) {
+					final String uuid = entry.getKey().toString();
+					final PlayerDataQueue.Changes changes = entry.getValue();
+					if (changes.name != null) {
+						addBatch(connection, statements, UPDATE_NAME, changes.name, uuid);
+					}
+					final Object[] masks = encoded.get(entry.getKey());
+					if (changes.elements != null) {
+						if (compact) {
+							addBatch(connection, statements, UPDATE_ELEMENTS_COMPACT, changes.elements, masks[0], uuid);
+						} else {
+							addBatch(connection, statements, UPDATE_ELEMENTS, changes.elements, uuid);
+						}
+					}
+					if (changes.subelements != null) {
+						if (compact) {
+							addBatch(connection, statements, UPDATE_SUBELEMENTS_COMPACT, changes.subelements, masks[1], uuid);
+						} else {
+							addBatch(connection, statements, UPDATE_SUBELEMENTS, changes.subelements, uuid);
+						}
+					}
+					if (changes.permaRemoved != null) {
+						addBatch(connection, statements, UPDATE_PERMAREMOVED, changes.permaRemoved ? "true" : "false", uuid);
+					}
+					if (changes.slots != null) {
+						final String[] slots = changes.slots;
+						if (compact) {
+							addBatch(connection, statements, UPDATE_SLOTS_COMPACT, slots[1], slots[2], slots[3], slots[4], slots[5], slots[6], slots[7], slots[8], slots[9], masks[2], uuid);
+						} else {
+							addBatch(connection, statements, UPDATE_SLOTS, slots[1], slots[2], slots[3], slots[4], slots[5], slots[6], slots[7], slots[8], slots[9], uuid);
+						}
+					}
+					if (changes.tempElements != null) {
+						addBatch(connection, statements, DELETE_TEMP_ELEMENTS, uuid);
+						for (final Map.Entry<String, Long> element : changes.tempElements.entrySet()) {
+							addBatch(connection, statements, INSERT_TEMP_ELEMENT, uuid, element.getKey(), element.getValue());
+						}
+					}
+				}
+
+				for (final PreparedStatement statement : statements.values()) {
+					statement.executeBatch();
+				}
+				connection.getConnection().commit();
+				return null;
+			} finally {
+				for (final PreparedStatement statement : statements.values()) {
+					statement.clearBatch(); // The statements are cached, so don't leave a failed batch behind
+				}
+			}
+		});
+	}
+
+	private static void addBatch(final PooledConnection connection, final Map<String, PreparedStatement> statements, final String sql, final Object... params) throws SQLException {
+		PreparedStatement statement = statements.get(sql);
+		if (statement == null) {
+			statement = connection.prepareStatement(sql);
+			statements.put(sql, statement);
+		}
+		Database.bind(statement, params);
+		statement.addBatch();
+	}
+}
@@ -0,0 +1,56 @@
+package com.projectkorra.projectkorra.storage;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Everything stored about a player, as read by {@link PlayerDAO#loadAll}:
+ * their row in pk_players, their cooldowns, their temporary elements and
+ * their presets.
+ */
+public class PlayerData {
+
+	private final Map<String, String> row = new HashMap<>();
+	private final Map<String, Long> cooldowns = new HashMap<>();
+	private final Map<String, Long> tempElements = new HashMap<>();
+	private final Map<String, HashMap<Integer, String>> presets = new LinkedHashMap<>();
+	private final long loadedAt = System.currentTimeMillis();
+
+	/**
+	 * @return The columns of the player's row by their lower case names, or
+	 *         an empty map if the player has no row
+	 */
+	public Map<String, String> getRow() {
+		return this.row;
+	}
+
+	/**
+	 * @return The expiry times of the player's saved cooldowns by name
+	 */
+	public Map<String, Long> getCooldowns() {
+		return this.cooldowns;
+	}
+
+	/**
+	 * @return The expiry times of the player's temporary elements and
+	 *         subelements by element name
+	 */
+	public Map<String, Long> getTempElements() {
+		return this.tempElements;
+	}
+
+	/**
+	 * @return The abilities of each of the player's presets by preset name
+	 */
+	public Map<String, HashMap<Integer, String>> getPresets() {
+		return this.presets;
+	}
+
+	/**
+	 * @return When the data was read from the database
+	 */
+	public long getLoadedAt() {
+		return this.loadedAt;
+	}
+}
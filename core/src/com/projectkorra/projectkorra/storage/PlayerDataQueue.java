@@ -0,0 +1,189 @@
+package com.projectkorra.projectkorra.storage;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import com.projectkorra.projectkorra.ProjectKorra;
+import com.projectkorra.projectkorra.util.ThreadUtil;
+
+/**
+ * Holds changes to player data until they are written to the database.
+ * Changes are kept per player and per field, so rebinding slots or
+ * changing elements several times in a row only writes the latest values.
+ * Every flush writes all pending changes as batches in one transaction.<br><br>
+ *
+ * Changes are flushed every flush interval, when a player quits, before a
+ * player is loaded again, and when the database is closed. A flush interval
+ * of 0 writes each change right away.
+ */
+public class PlayerDataQueue {
+
+	/** How many flushes in a row a player's changes can fail before they are dropped */
+	private static final int MAX_FAILURES = 5;
+
+	private static final Map<UUID, Changes> PENDING = new ConcurrentHashMap<>();
+	private static long flushInterval;
+	private static Object task;
+
+	/**
+	 * Starts flushing changes on a timer.
+	 *
+	 * @param interval How often to flush, in milliseconds, or 0 to write
+	 *            changes right away
+	 */
+	public static void start(final long interval) {
+		stop();
+		flushInterval = Math.max(0, interval);
+		if (flushInterval > 0) {
+			final long ticks = Math.max(1, flushInterval / 50);
+			task = ThreadUtil.runAsyncTimer(PlayerDataQueue::flushAll, ticks, ticks);
+		}
+	}
+
+	/**
+	 * Stops the timer and writes everything that is pending.
+	 */
+	public static void stop() {
+		ThreadUtil.cancelTimerTask(task);
+		task = null;
+		flushAll();
+	}
+
+	/**
+	 * Records a change to a player's data.
+	 *
+	 * @param uuid The player the change is for
+	 * @param change Sets the new values on the player's pending changes
+	 */
+	static void mark(final UUID uuid, final Consumer<Changes> change) {
+		// compute() keeps a flush from taking the changes while they are edited
+		PENDING.compute(uuid, (key, changes) -> {
+			if (changes == null) {
+				changes = new Changes();
+			}
+			change.accept(changes);
+			return changes;
+		});
+		if (flushInterval == 0) {
+			ThreadUtil.runAsync(() -> flush(uuid));
+		}
+	}
+
+	/**
+	 * Writes the pending changes of one player.
+	 */
+	public static synchronized void flush(final UUID uuid) {
+		final Changes changes = PENDING.remove(uuid);
+		if (changes != null) {
+			final Map<UUID, Changes> batch = new HashMap<>();
+			batch.put(uuid, changes);
+			write(batch);
+		}
+	}
+
+	/**
+	 * Writes the pending changes of every player. Flushes never overlap, so
+	 * older changes can't be written after newer ones.
+	 */
+	public static synchronized void flushAll() {
+		if (PENDING.isEmpty() || DBConnection.sql == null) {
+			return;
+		}
+		final Map<UUID, Changes> batch = new HashMap<>();
+		for (final UUID uuid : PENDING.keySet()) {
+			final Changes changes = PENDING.remove(uuid);
+			if (changes != null) {
+				batch.put(uuid, changes);
+			}
+		}
+		write(batch);
+	}
+
+	/**
+	 * @return How many players have changes waiting to be written
+	 */
+	public static int getPendingCount() {
+		return PENDING.size();
+	}
+
+	/**
+	 * Writes a batch, and if that fails, writes each player on their own so
+	 * one player's bad data can't keep everyone else from being saved.
+	 */
+	private static void write(final Map<UUID, Changes> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			PlayerDAO.writeChanges(batch);
+			return;
+		} catch (final SQLException e) {
+			if (batch.size() == 1) {
+				failed(batch.keySet().iterator().next(), batch.values().iterator().next(), e);
+				return;
+			}
+			ProjectKorra.log.warning("Failed to save the data of " + batch.size() + " players together, saving them one at a time.");
+			e.printStackTrace();
+		}
+		for (final Map.Entry<UUID, Changes> entry : batch.entrySet()) {
+			final Map<UUID, Changes> single = new HashMap<>();
+			single.put(entry.getKey(), entry.getValue());
+			try {
+				PlayerDAO.writeChanges(single);
+			} catch (final SQLException e) {
+				failed(entry.getKey(), entry.getValue(), e);
+			}
+		}
+	}
+
+	/**
+	 * Puts the changes of a player that couldn't be saved back, under
+	 * anything newer that came in since, unless they have failed too often.
+	 */
+	private static void failed(final UUID uuid, final Changes changes, final SQLException e) {
+		changes.failures++;
+		if (changes.failures >= MAX_FAILURES) {
+			ProjectKorra.log.severe("Failed to save the data of " + uuid + " " + changes.failures + " times in a row, giving up on their unsaved changes.");
+			e.printStackTrace();
+			return;
+		}
+		ProjectKorra.log.warning("Failed to save the data of " + uuid + ", trying again on the next flush.");
+		e.printStackTrace();
+		PENDING.merge(uuid, changes, (newer, older) -> {
+			older.putAll(newer);
+			return older;
+		});
+	}
+
+	/**
+	 * The changed fields of one player. Fields that are null haven't changed.
+	 */
+	static class Changes {
+
+		String name;
+		String elements;
+		String subelements;
+		Boolean permaRemoved;
+		/** The abilities of every slot, indexed by slot from 1 to 9 */
+		String[] slots;
+		Map<String, Long> tempElements;
+		/** How many flushes in a row these changes have failed to be written in */
+		int failures;
+
+		/**
+		 * Copies every changed field of newer changes over these.
+		 */
+		void putAll(final Changes newer) {
+			if (newer.name != null) this.name = newer.name;
+			if (newer.elements != null) this.elements = newer.elements;
+			if (newer.subelements != null) this.subelements = newer.subelements;
+			if (newer.permaRemoved != null) this.permaRemoved = newer.permaRemoved;
+			if (newer.tempElements != null) this.tempElements = newer.tempElements;
+			if (newer.slots != null) this.slots = newer.slots;
+		}
+	}
+}
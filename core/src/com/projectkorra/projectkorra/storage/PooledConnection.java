@@ -0,0 +1,180 @@
+package com.projectkorra.projectkorra.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A connection borrowed from a {@link ConnectionPool}. Closing it hands it back
+ * to the pool instead of closing the connection to the database, so it should
+ * always be used in a try-with-resources block, on the thread that borrowed
+ * it. Closing it again after that does nothing.<br><br>
+ *
+ * Statements made with {@link #prepareStatement(String)} are kept for as long
+ * as the connection lives, so the database only has to parse each query once
+ * per connection. Statements pushed out of the cache stay open until the
+ * connection is handed back, as the borrower may still be using them.
+ */
+public class PooledConnection implements AutoCloseable {
+
+	private final ConnectionPool pool;
+	private final Connection connection;
+	private final Map<String, PreparedStatement> statements;
+	/** Statements pushed out of the cache while the connection was borrowed */
+	private final List<PreparedStatement> evicted = new ArrayList<>();
+	/** Whether the current borrower has handed the connection back */
+	private boolean released = true;
+	private Thread borrower;
+
+	long lastUsed = System.currentTimeMillis();
+	long borrowedAt;
+	/** Where the connection was borrowed from, if leak detection is on */
+	Exception borrowedFrom;
+	boolean leakReported;
+
+	PooledConnection(final ConnectionPool pool, final Connection connection, final int statementCacheSize) {
+		this.pool = pool;
+		this.connection = connection;
+		this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, PreparedStatement> eldest) {
+				if (this.size() > statementCacheSize) {
+					PooledConnection.this.evicted.add(eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Gets the underlying connection, for transactions and metadata. It must not
+	 * be closed.
+	 *
+	 * @return The connection to the database
+	 */
+	public Connection getConnection() {
+		return this.connection;
+	}
+
+	/**
+	 * Gets a prepared statement for a query, reusing the one made the last time
+	 * the query was run on this connection. The statement must not be closed,
+	 * but ResultSets from it should be.
+	 *
+	 * @param sql The query to prepare
+	 * @return The prepared statement with its parameters cleared
+	 * @throws SQLException If the statement could not be prepared
+	 */
+	public PreparedStatement prepareStatement(final String sql) throws SQLException {
+		PreparedStatement statement = this.statements.get(sql);
+		if (statement == null || statement.isClosed()) {
+			statement = this.connection.prepareStatement(sql);
+			this.statements.put(sql, statement);
+		} else {
+			statement.clearParameters();
+		}
+		return statement;
+	}
+
+	void borrowed(final boolean trackLeaks) {
+		synchronized (this) {
+			this.released = false;
+			this.borrower = Thread.currentThread();
+		}
+		this.borrowedAt = System.currentTimeMillis();
+		this.borrowedFrom = trackLeaks ? new Exception("Connection borrowed here") : null;
+		this.leakReported = false;
+	}
+
+	/**
+	 * Checks that the connection still works after sitting in the pool.
+	 */
+	boolean isValid() {
+		try {
+			return this.connection.isValid(5);
+		} catch (final SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Puts the connection back into auto-commit mode. A transaction that was
+	 * left uncommitted is rolled back, as the handler that started it never
+	 * finished it.
+	 *
+	 * @return false if the connection is broken and should be thrown away
+	 */
+	boolean reset() {
+		for (final PreparedStatement statement : this.evicted) {
+			closeQuietly(statement);
+		}
+		this.evicted.clear();
+		try {
+			if (!this.connection.getAutoCommit()) {
+				this.connection.rollback();
+				this.connection.setAutoCommit(true);
+			}
+			return !this.connection.isClosed();
+		} catch (final SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Undoes an unfinished transaction.
+	 */
+	void rollback() {
+		try {
+			if (!this.connection.getAutoCommit()) {
+				this.connection.rollback();
+			}
+		} catch (final SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+	void closeConnection() {
+		for (final PreparedStatement statement : this.statements.values()) {
+			closeQuietly(statement);
+		}
+		this.statements.clear();
+		for (final PreparedStatement statement : this.evicted) {
+			closeQuietly(statement);
+		}
+		this.evicted.clear();
+		try {
+			this.connection.close();
+		} catch (final SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void closeQuietly(final PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (final SQLException ignored) {}
+	}
+
+	/**
+	 * Hands the connection back to the pool, unless it was already handed back.
+	 * A close from another thread is ignored too, as it can only be a late
+	 * close of an earlier borrow, and the connection may be someone else's by
+	 * now.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (this.released || this.borrower != Thread.currentThread()) {
+				return;
+			}
+			this.released = true;
+			this.borrower = null;
+		}
+		this.pool.release(this);
+	}
+}
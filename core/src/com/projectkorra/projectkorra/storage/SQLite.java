@@ -3,7 +3,10 @@ package com.projectkorra.projectkorra.storage;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 public class SQLite extends Database {
@@ -11,6 +14,16 @@ public class SQLite extends Database {
 	private final String database;
 	private final File SQLfile;
 
+	private boolean wal = false;
+	private String synchronous = "FULL";
+	private int cacheSize = 2000;
+	private int mmapSize = 0;
+	private int readConnections = 4;
+
+	/** Read-only connections, used alongside the write connection when WAL is on */
+	private ConnectionPool readPool = null;
+	private SQLiteWriter writer = null;
+
 	public SQLite(final Logger log, final String database, final String location) {
 		super(log, "[SQLite] ");
 		this.database = database;
@@ -25,23 +38,194 @@ public class SQLite extends Database {
 		this.SQLfile = new File(folder.getAbsolutePath() + File.separator + this.database);
 	}
 
+	/**
+	 * Sets how SQLite is tuned. Takes effect the next time the Database is
+	 * opened.<br><br>
+	 *
+	 * With WAL on, readers no longer block the writer or each other, so reads
+	 * get their own pool of read-only connections, and every write goes
+	 * through one writer thread that groups queued statements into
+	 * transactions. With it off, SQLite's defaults are used, the database is
+	 * switched back to a rollback journal, and everything shares the one
+	 * connection.
+	 *
+	 * @param wal Whether to use write-ahead logging
+	 * @param synchronous How often SQLite syncs to disk: OFF, NORMAL, FULL or
+	 *            EXTRA. NORMAL is safe with WAL.
+	 * @param cacheSize How much each connection caches, in kilobytes
+	 * @param mmapSize How much of the database file is memory-mapped, in
+	 *            megabytes
+	 * @param readConnections The most read-only connections open at once
+	 */
+	public void configureProfile(final boolean wal, final String synchronous, final int cacheSize, final int mmapSize, final int readConnections) {
+		this.wal = wal;
+		if (!wal) {
+			return;
+		}
+		switch (synchronous.toUpperCase()) {
+			case "OFF":
+			case "NORMAL":
+			case "FULL":
+			case "EXTRA":
+				this.synchronous = synchronous.toUpperCase();
+				break;
+			default:
+				this.printErr("Storage.SQLite.Synchronous must be OFF, NORMAL, FULL or EXTRA, using NORMAL instead.", false);
+				this.synchronous = "NORMAL";
+		}
+		this.cacheSize = Math.max(0, cacheSize);
+		this.mmapSize = Math.max(0, mmapSize);
+		this.readConnections = Math.max(1, readConnections);
+	}
+
+	/**
+	 * SQLite only allows one connection to write at a time, so more than one
+	 * connection would only fail with the database being locked.
+	 */
 	@Override
-	public Connection open() {
-		try {
-			this.log.info("Establishing SQLite Connection...");
+	protected int getMaxPoolSize(final int configured) {
+		return 1;
+	}
 
-			Class.forName("org.sqlite.JDBC");
-			this.connection = DriverManager.getConnection("jdbc:sqlite:" + this.SQLfile.getAbsolutePath());
+	@Override
+	public String upsert(final String insert, final String keys, final String update) {
+		return insert + " ON CONFLICT (" + keys + ") DO UPDATE SET " + update;
+	}
 
-			this.printInfo("Connection established!");
+	@Override
+	public String inserted(final String column) {
+		return "excluded." + column;
+	}
 
-			return this.connection;
+	@Override
+	protected Connection createConnection() throws SQLException {
+		final Connection connection = this.connect();
+		if (this.wal) {
+			try (Statement statement = connection.createStatement()) {
+				try (ResultSet rs = statement.executeQuery("PRAGMA journal_mode = WAL")) {
+					if (rs.next() && !rs.getString(1).equalsIgnoreCase("wal")) {
+						this.printErr("Could not turn on WAL, the journal mode is " + rs.getString(1) + ".", false);
+					}
+				}
+			}
+			this.tune(connection);
+		} else {
+			// The journal mode is stored in the database file, so WAL stays on until it is turned off
+			try (Statement statement = connection.createStatement()) {
+				statement.executeQuery("PRAGMA journal_mode = DELETE").close();
+			}
+		}
+		return connection;
+	}
+
+	private Connection createReadConnection() throws SQLException {
+		final Connection connection = this.connect();
+		this.tune(connection);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("PRAGMA query_only = ON");
+		}
+		return connection;
+	}
+
+	private Connection connect() throws SQLException {
+		try {
+			Class.forName("org.sqlite.JDBC");
 		} catch (final ClassNotFoundException e) {
-			this.printErr("JDBC driver not found!", true);
-			return null;
-		} catch (final SQLException e) {
-			this.printErr("SQLite exception during connection.", true);
-			return null;
+			throw new SQLException("JDBC driver not found!", e);
+		}
+		return DriverManager.getConnection("jdbc:sqlite:" + this.SQLfile.getAbsolutePath());
+	}
+
+	private void tune(final Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("PRAGMA synchronous = " + this.synchronous);
+			statement.execute("PRAGMA cache_size = -" + this.cacheSize);
+			statement.execute("PRAGMA mmap_size = " + (this.mmapSize * 1024L * 1024L));
+			// Wait for a checkpoint instead of failing with the database being locked
+			statement.execute("PRAGMA busy_timeout = " + this.connectionTimeout);
+		}
+	}
+
+	@Override
+	public boolean open() {
+		this.closeProfile();
+		if (!super.open()) {
+			return false;
+		}
+		if (this.wal) {
+			this.readPool = new ConnectionPool(this, this::createReadConnection, this.readConnections, this.connectionTimeout, this.idleTimeout, this.leakDetectionThreshold, this.statementCacheSize);
+			this.writer = new SQLiteWriter(this);
+		}
+		return true;
+	}
+
+	@Override
+	public void close() {
+		this.closeProfile();
+		super.close();
+	}
+
+	/**
+	 * Finishes the queued writes and closes the read-only connections.
+	 */
+	private void closeProfile() {
+		if (this.writer != null) {
+			this.writer.close();
+			this.writer = null;
+		}
+		if (this.readPool != null) {
+			this.readPool.close();
+			this.readPool = null;
+		}
+	}
+
+	@Override
+	protected ConnectionPool getReadPool() throws SQLException {
+		final ConnectionPool readPool = this.readPool;
+		return readPool != null && !readPool.isClosed() ? readPool : super.getReadPool();
+	}
+
+	/**
+	 * Runs on the writer thread when WAL is on.
+	 */
+	@Override
+	public <T> T withConnection(final ConnectionHandler<T> handler) throws SQLException {
+		final SQLiteWriter writer = this.writer;
+		return writer != null ? writer.call(handler) : super.withConnection(handler);
+	}
+
+	/**
+	 * Borrows the write connection on the current thread.
+	 */
+	<T> T withWriteConnection(final ConnectionHandler<T> handler) throws SQLException {
+		return super.withConnection(handler);
+	}
+
+	/**
+	 * Queues the query on the writer thread when WAL is on, where it is
+	 * committed along with the other queries queued around it. On the writer
+	 * thread itself, a query that has to be waited for is run right away.
+	 */
+	@Override
+	public void modifyQuery(final String query, final boolean async, final Object... params) {
+		final SQLiteWriter writer = this.writer;
+		if (writer != null && !async && writer.isWriterThread()) {
+			try {
+				writer.executeNow(query, params);
+			} catch (final SQLException e) {
+				e.printStackTrace();
+			}
+			return;
+		}
+		final CompletableFuture<Object> future = writer != null ? writer.execute(query, params) : null;
+		if (future == null) {
+			super.modifyQuery(query, async, params);
+		} else if (!async) {
+			try {
+				SQLiteWriter.await(future);
+			} catch (final SQLException e) {
+				// Already printed by the writer
+			}
 		}
 	}
 
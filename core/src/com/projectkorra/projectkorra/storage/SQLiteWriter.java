@@ -0,0 +1,280 @@
+package com.projectkorra.projectkorra.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.projectkorra.projectkorra.storage.Database.ConnectionHandler;
+
+/**
+ * The one thread that writes to a {@link SQLite} database. SQLite only lets
+ * one connection write at a time, so instead of every thread waiting on the
+ * write connection, writes are queued and run here in order.<br><br>
+ *
+ * Statements that are queued one after another are run together in one
+ * transaction, so a burst of writes only has to be synced to disk once.
+ * Handlers that manage their own transaction run on their own.
+ */
+class SQLiteWriter implements Runnable {
+
+	/** The most statements that are run in one transaction */
+	private static final int MAX_GROUP_SIZE = 256;
+	/** How long closing waits for queued writes to finish, in milliseconds */
+	private static final long CLOSE_TIMEOUT = 30_000;
+	/** How long a caller waits for its write to finish, in milliseconds */
+	private static final long WRITE_TIMEOUT = 60_000;
+
+	private final SQLite database;
+	private final BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+	private final Thread thread;
+	/** Only changed while holding the queue, so nothing can be queued after the writer closes */
+	private volatile boolean closed;
+	/** The write connection while the writer thread is using it, so nested writes can share it */
+	private PooledConnection current;
+
+	SQLiteWriter(final SQLite database) {
+		this.database = database;
+		this.thread = new Thread(this, "ProjectKorra SQLite Writer");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Queues a statement to be run.
+	 *
+	 * @return A future that completes once the statement is committed, or
+	 *         null if the writer is closed
+	 */
+	CompletableFuture<Object> execute(final String query, final Object[] params) {
+		return this.submit(new Write(query, params, null));
+	}
+
+	/**
+	 * Runs a handler with the write connection and waits for it to finish.
+	 */
+	<T> T call(final ConnectionHandler<T> handler) throws SQLException {
+		if (this.isWriterThread()) {
+			return this.withWriteConnection(handler);
+		}
+		final CompletableFuture<Object> future = this.submit(new Write(null, null, handler));
+		if (future == null) {
+			return this.database.withWriteConnection(handler);
+		}
+		@SuppressWarnings("unchecked")
+		final T result = (T) await(future);
+		return result;
+	}
+
+	/**
+	 * Runs a statement right away. Only for the writer thread, which would
+	 * otherwise queue the statement and then wait for itself to run it.
+	 */
+	void executeNow(final String query, final Object[] params) throws SQLException {
+		this.withWriteConnection(connection -> {
+			final PreparedStatement stmt = connection.prepareStatement(query);
+			Database.bind(stmt, params);
+			return stmt.execute();
+		});
+	}
+
+	/**
+	 * @return Whether the current thread is the writer thread
+	 */
+	boolean isWriterThread() {
+		return Thread.currentThread() == this.thread;
+	}
+
+	/**
+	 * Runs a handler on the writer thread with the write connection, reusing
+	 * it if a handler further up the stack already has it, as borrowing it
+	 * again would wait forever for it to be handed back.
+	 */
+	private <T> T withWriteConnection(final ConnectionHandler<T> handler) throws SQLException {
+		if (this.current != null) {
+			return handler.handle(this.current);
+		}
+		return this.database.withWriteConnection(connection -> {
+			this.current = connection;
+			try {
+				return handler.handle(connection);
+			} finally {
+				this.current = null;
+			}
+		});
+	}
+
+	/**
+	 * Waits for a queued write to finish.
+	 *
+	 * @return What the write returned
+	 * @throws SQLException If the write failed or took too long
+	 */
+	static Object await(final CompletableFuture<Object> future) throws SQLException {
+		try {
+			return future.get(WRITE_TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (final TimeoutException e) {
+			throw new SQLException("Timed out waiting for a write", e);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a write", e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new SQLException(e.getCause());
+		}
+	}
+
+	private CompletableFuture<Object> submit(final Write write) {
+		synchronized (this.queue) {
+			if (this.closed) {
+				return null;
+			}
+			this.queue.add(write);
+		}
+		return write.future;
+	}
+
+	@Override
+	public void run() {
+		final List<Write> group = new ArrayList<>();
+		while (!this.closed || !this.queue.isEmpty()) {
+			try {
+				final Write first = this.queue.poll(1, TimeUnit.SECONDS);
+				if (first == null) {
+					continue;
+				}
+				group.add(first);
+			} catch (final InterruptedException e) {
+				break;
+			}
+			this.queue.drainTo(group, MAX_GROUP_SIZE - 1);
+			this.process(group);
+			group.clear();
+		}
+		// Anything queued while closing
+		this.queue.drainTo(group);
+		this.process(group);
+	}
+
+	private void process(final List<Write> group) {
+		final List<Write> statements = new ArrayList<>();
+		for (final Write write : group) {
+			if (write.handler == null) {
+				statements.add(write);
+				continue;
+			}
+			this.runStatements(statements);
+			statements.clear();
+			try {
+				write.future.complete(this.withWriteConnection(write.handler));
+			} catch (final SQLException | RuntimeException e) {
+				write.future.completeExceptionally(e);
+			}
+		}
+		this.runStatements(statements);
+	}
+
+	/**
+	 * Runs statements in one transaction. A statement that fails is undone
+	 * back to its savepoint and skipped, without undoing the others. If SQLite
+	 * already rolled back the whole transaction, like when the disk is full,
+	 * every statement of the group fails, as none of them were written.
+	 */
+	private void runStatements(final List<Write> statements) {
+		if (statements.isEmpty()) {
+			return;
+		}
+		final List<Write> done = new ArrayList<>();
+		try {
+			this.withWriteConnection(connection -> {
+				final Connection conn = connection.getConnection();
+				conn.setAutoCommit(false);
+				for (final Write write : statements) {
+					final Savepoint savepoint = conn.setSavepoint();
+					try {
+						final PreparedStatement stmt = connection.prepareStatement(write.query);
+						Database.bind(stmt, write.params);
+						stmt.execute();
+						conn.releaseSavepoint(savepoint);
+						done.add(write);
+					} catch (final SQLException e) {
+						try {
+							conn.rollback(savepoint);
+							conn.releaseSavepoint(savepoint);
+						} catch (final SQLException rollback) {
+							throw e; // The transaction is gone
+						}
+						e.printStackTrace();
+						write.future.completeExceptionally(e);
+					}
+				}
+				conn.commit();
+				return null;
+			});
+			for (final Write write : done) {
+				write.future.complete(null);
+			}
+		} catch (final SQLException e) {
+			e.printStackTrace();
+			for (final Write write : statements) {
+				write.future.completeExceptionally(e);
+			}
+		}
+	}
+
+	/**
+	 * Stops taking new writes and waits for the queued ones to finish.
+	 */
+	void close() {
+		synchronized (this.queue) {
+			this.closed = true;
+		}
+		if (this.isWriterThread()) {
+			return;
+		}
+		try {
+			this.thread.join(CLOSE_TIMEOUT);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (this.thread.isAlive()) {
+			this.database.printErr("Timed out waiting for " + this.queue.size() + " queued writes to finish.", true);
+			this.thread.interrupt();
+		}
+		// Anything the thread didn't get to will never be written, so don't leave its callers waiting
+		final List<Write> left = new ArrayList<>();
+		this.queue.drainTo(left);
+		for (final Write write : left) {
+			write.future.completeExceptionally(new SQLException("The database was closed before the write could run"));
+		}
+	}
+
+	/**
+	 * A statement to run, or a handler to run with the write connection.
+	 */
+	private static class Write {
+
+		private final String query;
+		private final Object[] params;
+		private final ConnectionHandler<?> handler;
+		private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+		private Write(final String query, final Object[] params, final ConnectionHandler<?> handler) {
+			this.query = query;
+			this.params = params;
+			this.handler = handler;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package com.projectkorra.projectkorra.storage;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.projectkorra.projectkorra.ProjectKorra;
+import com.projectkorra.projectkorra.util.ThreadUtil;
+
+/**
+ * Keeps the database schema up to date. The pk_schema table records each
+ * {@link Migration} that has been applied, whether its backfill is done,
+ * and where the backfill got to.<br><br>
+ *
+ * Version 0 is the schema {@link DBConnection} creates. Migrations are
+ * applied in order when the plugin starts, and their backfills then run in
+ * the background, one batch at a time, until every row is rewritten.
+ */
+public class SchemaMigrator {
+
+	private static final List<Migration> MIGRATIONS = Arrays.asList(new Migration(1, "Index the player lookups of pk_cooldowns, pk_temp_elements and pk_stats") {
+		@Override
+		public void apply(final Database database) throws SQLException {
+			createIndex(database, "pk_cooldowns", "pk_cooldowns_expiry", "uuid, value");
+			createIndex(database, "pk_temp_elements", "pk_temp_elements_uuid", "uuid");
+			createIndex(database, "pk_stats", "pk_stats_uuid", "uuid"); // Created with the table by StatisticsManager if it doesn't exist yet
+		}
+	}, new CompactPlayerMigration());
+
+	private static final String CREATE_TABLE = "CREATE TABLE pk_schema (version INTEGER NOT NULL, description VARCHAR(255), applied BIGINT, complete INTEGER NOT NULL, progress VARCHAR(64), PRIMARY KEY (version))";
+	private static final String INSERT_VERSION = "INSERT INTO pk_schema (version, description, applied, complete, progress) VALUES (?, ?, ?, ?, NULL)";
+	private static final String UPDATE_PROGRESS = "UPDATE pk_schema SET complete = ?, progress = ? WHERE version = ?";
+
+	/**
+	 * Whether the backfill of each applied migration is done, by version.
+	 * Replaced as a whole when the database is migrated, so a reload never
+	 * shows an empty map to players saving in the meantime.
+	 */
+	private static volatile Map<Integer, Boolean> applied = new ConcurrentHashMap<>();
+	private static volatile Map<Integer, String> progress = new ConcurrentHashMap<>();
+	private static int batchSize;
+	private static Object task;
+
+	/**
+	 * Applies every migration the database doesn't have yet, in order. If one
+	 * fails, the ones after it are not applied, and the data they would have
+	 * changed keeps being stored the way it was.
+	 *
+	 * @return false if the schema version couldn't be read, in which case it
+	 *         isn't safe to write player data, as it may be stored in a
+	 *         format this doesn't know the database uses
+	 */
+	public static boolean migrate() {
+		final Map<Integer, Boolean> applied = new ConcurrentHashMap<>();
+		final Map<Integer, String> progress = new ConcurrentHashMap<>();
+		// The database may have changed on reload, and its ids may not match the ones read before
+		PlayerCodec.ABILITIES.clear();
+		PlayerCodec.ELEMENTS.clear();
+		try {
+			if (!DBConnection.sql.tableExists("pk_schema")) {
+				Migration.execute(DBConnection.sql, CREATE_TABLE);
+			}
+		} catch (final SQLException e) {
+			ProjectKorra.log.severe("Failed to create the pk_schema table.");
+			e.printStackTrace();
+			return false;
+		}
+		final Boolean read = DBConnection.sql.readQuery("SELECT version, complete, progress FROM pk_schema", rs -> {
+			while (rs.next()) {
+				applied.put(rs.getInt("version"), rs.getInt("complete") != 0);
+				if (rs.getString("progress") != null) {
+					progress.put(rs.getInt("version"), rs.getString("progress"));
+				}
+			}
+			return true;
+		});
+		if (read == null) {
+			ProjectKorra.log.severe("Failed to read the schema version.");
+			return false;
+		}
+
+		for (final Migration migration : MIGRATIONS) {
+			if (applied.containsKey(migration.getVersion())) {
+				continue;
+			}
+			ProjectKorra.log.info("Updating the database to version " + migration.getVersion() + ": " + migration.getDescription());
+			try {
+				migration.apply(DBConnection.sql);
+				DBConnection.sql.withConnection(connection -> {
+					final PreparedStatement ps = connection.prepareStatement(INSERT_VERSION);
+					Database.bind(ps, migration.getVersion(), migration.getDescription(), System.currentTimeMillis(), migration.hasBackfill() ? 0 : 1);
+					return ps.executeUpdate();
+				});
+			} catch (final SQLException e) {
+				ProjectKorra.log.severe("Failed to update the database to version " + migration.getVersion() + ", it will stay at version " + applied.keySet().stream().mapToInt(Integer::intValue).max().orElse(0) + ".");
+				e.printStackTrace();
+				break;
+			}
+			applied.put(migration.getVersion(), !migration.hasBackfill());
+		}
+		SchemaMigrator.applied = applied;
+		SchemaMigrator.progress = progress;
+		return true;
+	}
+
+	/**
+	 * Starts running the backfills that aren't done yet.
+	 *
+	 * @param batchSize How many rows each batch rewrites
+	 * @param interval How long to wait between batches, in ticks
+	 */
+	public static void start(final int batchSize, final long interval) {
+		stop();
+		SchemaMigrator.batchSize = Math.max(1, batchSize);
+		if (applied.containsValue(false)) {
+			task = ThreadUtil.runAsyncTimer(SchemaMigrator::backfill, interval, Math.max(1, interval));
+		}
+	}
+
+	/**
+	 * Stops running backfills, waiting for a batch that is running to finish
+	 * so the database can be closed. They carry on from where they stopped
+	 * the next time they are started.
+	 */
+	public static synchronized void stop() {
+		ThreadUtil.cancelTimerTask(task);
+		task = null;
+	}
+
+	/**
+	 * @return Whether a migration has been applied to the database
+	 */
+	public static boolean isApplied(final int version) {
+		return applied.containsKey(version);
+	}
+
+	/**
+	 * @return Whether a migration has been applied and every row has been
+	 *         rewritten by its backfill
+	 */
+	public static boolean isComplete(final int version) {
+		return applied.getOrDefault(version, false);
+	}
+
+	/**
+	 * @return The version of the newest migration that has been applied
+	 */
+	public static int getVersion() {
+		return applied.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+	}
+
+	/**
+	 * Runs one batch of the oldest backfill that isn't done. Batches never
+	 * overlap, even if one takes longer than the interval.
+	 */
+	private static synchronized void backfill() {
+		for (final Migration migration : MIGRATIONS) {
+			if (!applied.containsKey(migration.getVersion()) || applied.get(migration.getVersion())) {
+				continue;
+			}
+			final int version = migration.getVersion();
+			try {
+				final String next = migration.backfill(DBConnection.sql, progress.get(version), batchSize);
+				DBConnection.sql.withConnection(connection -> {
+					final PreparedStatement ps = connection.prepareStatement(UPDATE_PROGRESS);
+					Database.bind(ps, next == null ? 1 : 0, next, version);
+					return ps.executeUpdate();
+				});
+				if (next == null) {
+					progress.remove(version);
+					applied.put(version, true);
+					ProjectKorra.log.info("Finished rewriting the database for version " + version + ".");
+				} else {
+					progress.put(version, next);
+				}
+			} catch (final SQLException e) {
+				ProjectKorra.log.warning("Failed to rewrite a batch of the database for version " + version + ", trying again on the next batch.");
+				e.printStackTrace();
+			}
+			return;
+		}
+		stop();
+	}
+}
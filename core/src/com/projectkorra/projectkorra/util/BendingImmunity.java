@@ -0,0 +1,146 @@
+package com.projectkorra.projectkorra.util;
+
+import com.projectkorra.projectkorra.ProjectKorra;
+import com.projectkorra.projectkorra.configuration.ConfigManager;
+import org.bukkit.entity.Entity;
+import org.bukkit.metadata.FixedMetadataValue;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of entities that cannot be affected by bending. Immunity is
+ * stored in a map keyed by the entity's UUID so that checking a candidate is a
+ * single lookup rather than a Bukkit metadata query.<br><br>
+ *
+ * For compatibility, every immunity is also mirrored to the legacy
+ * {@value #METADATA_KEY} metadata so that other plugins reading it still see
+ * it. Immunity that other plugins set directly through the metadata is only
+ * respected if {@code Properties.BendingImmunity.RespectLegacyMetadata} is
+ * enabled, as that costs a metadata lookup for every entity that isn't
+ * immune. Entities are forgotten when they die, unload or log out.
+ */
+public class BendingImmunity {
+
+	public static final String METADATA_KEY = "BendingImmunity";
+
+	private static final Map<UUID, Immunity> IMMUNE = new ConcurrentHashMap<>();
+	private static boolean respectLegacyMetadata;
+
+	/**
+	 * Reads the immunity settings from the config. Called on startup and reload.
+	 */
+	public static void loadConfig() {
+		respectLegacyMetadata = ConfigManager.defaultConfig.get().getBoolean("Properties.BendingImmunity.RespectLegacyMetadata");
+	}
+
+	/**
+	 * @param entity The entity to check
+	 * @return True if the entity cannot be affected by bending
+	 */
+	public static boolean isImmune(@NotNull final Entity entity) {
+		if (!IMMUNE.isEmpty()) {
+			final Immunity immunity = IMMUNE.get(entity.getUniqueId());
+			if (immunity != null) {
+				if (!immunity.isExpired()) {
+					return true;
+				}
+				revoke(entity);
+			}
+		}
+		return respectLegacyMetadata && entity.hasMetadata(METADATA_KEY);
+	}
+
+	/**
+	 * Makes an entity immune to bending until the immunity is revoked.
+	 *
+	 * @param entity The entity
+	 * @param source The plugin granting the immunity
+	 */
+	public static void grant(@NotNull final Entity entity, @NotNull final Plugin source) {
+		grant(entity, source, 0);
+	}
+
+	/**
+	 * Makes an entity immune to bending.
+	 *
+	 * @param entity The entity
+	 * @param source The plugin granting the immunity
+	 * @param duration How long the immunity lasts in milliseconds, or 0 or less
+	 *            to last until revoked
+	 */
+	public static void grant(@NotNull final Entity entity, @NotNull final Plugin source, final long duration) {
+		final long expiry = duration > 0 ? System.currentTimeMillis() + duration : 0;
+		IMMUNE.put(entity.getUniqueId(), new Immunity(source, expiry));
+		entity.setMetadata(METADATA_KEY, new FixedMetadataValue(source, true));
+	}
+
+	/**
+	 * Removes the immunity of an entity, including any legacy metadata set
+	 * by ProjectKorra.
+	 *
+	 * @param entity The entity
+	 */
+	public static void revoke(@NotNull final Entity entity) {
+		final Immunity immunity = IMMUNE.remove(entity.getUniqueId());
+		if (immunity != null && immunity.getSource() != ProjectKorra.plugin) {
+			entity.removeMetadata(METADATA_KEY, immunity.getSource());
+		}
+		entity.removeMetadata(METADATA_KEY, ProjectKorra.plugin);
+	}
+
+	/**
+	 * Forgets the immunity of an entity that died, was unloaded or logged
+	 * out. The mirrored metadata is removed with it, as Bukkit keeps an
+	 * entity's metadata until the server stops, and it would otherwise still
+	 * say the entity is immune when it comes back.
+	 *
+	 * @param entity The entity
+	 */
+	public static void forget(@NotNull final Entity entity) {
+		revoke(entity);
+	}
+
+	/**
+	 * @param entity The entity
+	 * @return The immunity of the entity, or null if it has none
+	 */
+	@Nullable
+	public static Immunity getImmunity(@NotNull final Entity entity) {
+		final Immunity immunity = IMMUNE.get(entity.getUniqueId());
+		return immunity == null || immunity.isExpired() ? null : immunity;
+	}
+
+	public static class Immunity {
+
+		private final Plugin source;
+		private final long expiry;
+
+		public Immunity(final Plugin source, final long expiry) {
+			this.source = source;
+			this.expiry = expiry;
+		}
+
+		/**
+		 * @return The plugin that granted the immunity
+		 */
+		public Plugin getSource() {
+			return this.source;
+		}
+
+		/**
+		 * @return The time in milliseconds the immunity ends, or 0 if it does not
+		 */
+		public long getExpiry() {
+			return this.expiry;
+		}
+
+		public boolean isExpired() {
+			return this.expiry > 0 && System.currentTimeMillis() > this.expiry;
+		}
+	}
+}
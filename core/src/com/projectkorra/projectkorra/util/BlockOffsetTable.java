@@ -0,0 +1,236 @@
+package com.projectkorra.projectkorra.util;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable table of integer block offsets that make up a sphere or a
+ * spherical shell, sorted by distance from the center block. The most
+ * recently used tables are cached per quantized radius so that abilities
+ * that scan the same area every tick do not rebuild them, and the visitor
+ * methods walk a table against a base block without cloning any
+ * {@link Location Locations}.
+ */
+public class BlockOffsetTable {
+
+	/** Radii are quantized up to the nearest 1 / RADIUS_STEPS of a block. */
+	private static final int RADIUS_STEPS = 4;
+	/** Tables larger than this radius are built on demand and never cached. */
+	private static final double MAX_CACHED_RADIUS = 16;
+	/** How many sphere and shell tables are kept, dropping the least recently used. */
+	private static final int MAX_CACHED_TABLES = 32;
+	private static final double CORNER_DISTANCE = Math.sqrt(3);
+
+	/** Keyed by the quantized radius plus one, negated for shells so a zero radius doesn't collide. */
+	private static final Map<Integer, BlockOffsetTable> TABLES = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Integer, BlockOffsetTable> eldest) {
+			return this.size() > MAX_CACHED_TABLES;
+		}
+	};
+
+	private final double radius;
+	private final int[] x;
+	private final int[] y;
+	private final int[] z;
+	private final int[] distanceSquared;
+
+	private BlockOffsetTable(final double radius, final double innerRadius) {
+		this.radius = radius;
+
+		final int r = (int) Math.ceil(radius);
+		final double outer = radius * radius;
+		final double inner = innerRadius < 0 ? -1 : innerRadius * innerRadius;
+		final List<int[]> offsets = new ArrayList<>();
+		for (int dx = -r; dx <= r; dx++) {
+			for (int dy = -r; dy <= r; dy++) {
+				for (int dz = -r; dz <= r; dz++) {
+					final int d = dx * dx + dy * dy + dz * dz;
+					if (d <= outer && d > inner) {
+						offsets.add(new int[] { dx, dy, dz, d });
+					}
+				}
+			}
+		}
+		offsets.sort((a, b) -> Integer.compare(a[3], b[3]));
+
+		final int size = offsets.size();
+		this.x = new int[size];
+		this.y = new int[size];
+		this.z = new int[size];
+		this.distanceSquared = new int[size];
+		for (int i = 0; i < size; i++) {
+			final int[] offset = offsets.get(i);
+			this.x[i] = offset[0];
+			this.y[i] = offset[1];
+			this.z[i] = offset[2];
+			this.distanceSquared[i] = offset[3];
+		}
+	}
+
+	/**
+	 * Gets the table of every block offset within the radius of a center
+	 * block. The radius is rounded up to the nearest quarter block.
+	 *
+	 * @param radius The radius of the sphere
+	 * @return The cached sphere table
+	 */
+	public static BlockOffsetTable getSphere(final double radius) {
+		final int key = quantize(radius);
+		return getTable(key + 1, (double) key / RADIUS_STEPS, -1);
+	}
+
+	/**
+	 * Gets the table of block offsets that are within the radius of a center
+	 * block, excluding those within one block less than the radius. The
+	 * radius is rounded up to the nearest quarter block.
+	 *
+	 * @param radius The outer radius of the shell
+	 * @return The cached shell table
+	 */
+	public static BlockOffsetTable getShell(final double radius) {
+		final int key = quantize(radius);
+		return getTable(-key - 1, (double) key / RADIUS_STEPS, (double) key / RADIUS_STEPS - 1);
+	}
+
+	private static BlockOffsetTable getTable(final int key, final double radius, final double innerRadius) {
+		if (radius > MAX_CACHED_RADIUS) {
+			return new BlockOffsetTable(radius, innerRadius);
+		}
+		BlockOffsetTable table;
+		synchronized (TABLES) {
+			table = TABLES.get(key);
+		}
+		if (table == null) {
+			// Built outside the lock, so other threads don't wait on a table they don't need
+			table = new BlockOffsetTable(radius, innerRadius);
+			synchronized (TABLES) {
+				final BlockOffsetTable existing = TABLES.putIfAbsent(key, table);
+				if (existing != null) {
+					table = existing;
+				}
+			}
+		}
+		return table;
+	}
+
+	private static int quantize(final double radius) {
+		return Math.max(0, (int) Math.ceil(radius * RADIUS_STEPS));
+	}
+
+	/**
+	 * Visits every block of this table around a base block, nearest first.
+	 *
+	 * @param base The center block
+	 * @param visitor The visitor, which may stop the walk by returning false
+	 */
+	public void forEach(final Block base, final BlockVisitor visitor) {
+		this.forEach(base.getWorld(), base.getX(), base.getY(), base.getZ(), visitor);
+	}
+
+	/**
+	 * Visits every block of this table around a block position, nearest
+	 * first.
+	 *
+	 * @param world The world of the blocks
+	 * @param bx The x coordinate of the center block
+	 * @param by The y coordinate of the center block
+	 * @param bz The z coordinate of the center block
+	 * @param visitor The visitor, which may stop the walk by returning false
+	 */
+	public void forEach(final World world, final int bx, final int by, final int bz, final BlockVisitor visitor) {
+		for (int i = 0; i < this.x.length; i++) {
+			if (!visitor.visit(world.getBlockAt(bx + this.x[i], by + this.y[i], bz + this.z[i]))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Visits every block whose corner lies within the radius of an exact
+	 * location, in order of distance from the block containing the location. This matches the area returned by
+	 * {@link com.projectkorra.projectkorra.GeneralMethods#getBlocksAroundPoint(Location, double)}.
+	 *
+	 * @param location The center location
+	 * @param radius The radius around the location
+	 * @param visitor The visitor, which may stop the walk by returning false
+	 */
+	public static void forEachAround(final Location location, final double radius, final BlockVisitor visitor) {
+		if (radius < 0) {
+			return;
+		}
+		final World world = location.getWorld();
+		final double lx = location.getX();
+		final double ly = location.getY();
+		final double lz = location.getZ();
+		final int bx = location.getBlockX();
+		final int by = location.getBlockY();
+		final int bz = location.getBlockZ();
+		final double radiusSquared = radius * radius;
+
+		// Every block corner within the radius of a point inside the base block is
+		// at most the length of the block diagonal further from the base block
+		final BlockOffsetTable table = getSphere(radius + CORNER_DISTANCE);
+		for (int i = 0; i < table.x.length; i++) {
+			final int x = bx + table.x[i];
+			final int y = by + table.y[i];
+			final int z = bz + table.z[i];
+			final double dx = x - lx;
+			final double dy = y - ly;
+			final double dz = z - lz;
+			if (dx * dx + dy * dy + dz * dz <= radiusSquared && !visitor.visit(world.getBlockAt(x, y, z))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return The quantized radius this table was built for
+	 */
+	public double getRadius() {
+		return this.radius;
+	}
+
+	/**
+	 * @return The number of offsets in this table
+	 */
+	public int size() {
+		return this.x.length;
+	}
+
+	public int getX(final int index) {
+		return this.x[index];
+	}
+
+	public int getY(final int index) {
+		return this.y[index];
+	}
+
+	public int getZ(final int index) {
+		return this.z[index];
+	}
+
+	/**
+	 * @param index The index of the offset
+	 * @return The squared distance of the offset from the center block
+	 */
+	public int getDistanceSquared(final int index) {
+		return this.distanceSquared[index];
+	}
+
+	@FunctionalInterface
+	public interface BlockVisitor {
+
+		/**
+		 * @param block The block being visited
+		 * @return false to stop visiting any further blocks
+		 */
+		boolean visit(Block block);
+	}
+}
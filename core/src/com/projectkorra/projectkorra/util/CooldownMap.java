@@ -0,0 +1,204 @@
+package com.projectkorra.projectkorra.util;
+
+import com.projectkorra.projectkorra.BendingPlayer;
+import com.projectkorra.projectkorra.OfflineBendingPlayer;
+import com.projectkorra.projectkorra.ability.CoreAbility;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The cooldowns of a player. Cooldowns of registered abilities are stored as
+ * expiry times in an array indexed by {@link CoreAbility#getAbilityId()}, and
+ * any other cooldowns, such as ones added by addons under their own names, are
+ * kept in a small overflow map. It can still be used as a map from cooldown
+ * names to {@link Cooldown Cooldowns} like before.<br><br>
+ *
+ * Cooldowns of online players are also added to the {@link CooldownWheel}, so
+ * they are removed when they expire without checking every player every tick.
+ */
+public class CooldownMap extends AbstractMap<String, Cooldown> {
+
+	private final OfflineBendingPlayer owner;
+	private long[] expiries = new long[0];
+	private final BitSet database = new BitSet();
+	private final Map<String, Cooldown> overflow = new HashMap<>();
+	private int size;
+
+	public CooldownMap(final OfflineBendingPlayer owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * Gets the id a cooldown name is stored under. Only the exact name an
+	 * ability was registered with uses its id, as cooldown names are case
+	 * sensitive.
+	 *
+	 * @return the ability id, or -1 if the cooldown goes in the overflow map
+	 */
+	private static int getId(final Object name) {
+		if (!(name instanceof String)) {
+			return -1;
+		}
+		final int id = CoreAbility.getAbilityId((String) name);
+		return id >= 0 && name.equals(CoreAbility.getAbilityName(id)) ? id : -1;
+	}
+
+	/**
+	 * @param abilityId the id of an ability
+	 * @return the time the cooldown ends, or 0 if there is no cooldown
+	 */
+	public long getExpiry(final int abilityId) {
+		return abilityId >= 0 && abilityId < this.expiries.length ? this.expiries[abilityId] : 0;
+	}
+
+	/**
+	 * @param name the name of the cooldown
+	 * @return the time the cooldown ends, or 0 if there is no cooldown
+	 */
+	public long getExpiry(final String name) {
+		final int id = getId(name);
+		if (id >= 0) {
+			return this.getExpiry(id);
+		}
+		final Cooldown cooldown = this.overflow.get(name);
+		return cooldown != null ? cooldown.getCooldown() : 0;
+	}
+
+	/**
+	 * @param ability the ability
+	 * @return the time the cooldown of the ability ends, or 0 if there is no
+	 *         cooldown
+	 */
+	public long getExpiry(final CoreAbility ability) {
+		final int id = ability.getAbilityId();
+		return id >= 0 ? this.getExpiry(id) : this.getExpiry(ability.getName());
+	}
+
+	@Override
+	public Cooldown get(final Object name) {
+		final int id = getId(name);
+		if (id < 0) {
+			return this.overflow.get(name);
+		}
+		final long expiry = this.getExpiry(id);
+		return expiry != 0 ? new Cooldown(expiry, this.database.get(id)) : null;
+	}
+
+	@Override
+	public boolean containsKey(final Object name) {
+		final int id = getId(name);
+		return id >= 0 ? this.getExpiry(id) != 0 : this.overflow.containsKey(name);
+	}
+
+	@Override
+	public Cooldown put(final String name, final Cooldown cooldown) {
+		final int id = getId(name);
+		final Cooldown previous;
+		if (id < 0) {
+			previous = this.overflow.put(name, cooldown);
+		} else {
+			previous = this.get(name);
+			if (id >= this.expiries.length) {
+				this.expiries = Arrays.copyOf(this.expiries, Math.max(id + 1, CoreAbility.getAbilityIdCount()));
+			}
+			if (this.expiries[id] == 0) {
+				this.size++;
+			}
+			this.expiries[id] = cooldown.getCooldown();
+			this.database.set(id, cooldown.isDatabase());
+		}
+
+		if (this.owner instanceof BendingPlayer) {
+			CooldownWheel.schedule((BendingPlayer) this.owner, name, cooldown.getCooldown());
+		}
+		return previous;
+	}
+
+	@Override
+	public Cooldown remove(final Object name) {
+		final int id = getId(name);
+		if (id < 0) {
+			return this.overflow.remove(name);
+		}
+		final Cooldown previous = this.get(name);
+		if (previous != null) {
+			this.expiries[id] = 0;
+			this.database.clear(id);
+			this.size--;
+		}
+		return previous;
+	}
+
+	@Override
+	public int size() {
+		return this.size + this.overflow.size();
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.expiries, 0);
+		this.database.clear();
+		this.overflow.clear();
+		this.size = 0;
+	}
+
+	/**
+	 * Iterates over a copy of the cooldowns, so cooldowns can be added or
+	 * removed while iterating.
+	 */
+	@Override
+	public Set<Entry<String, Cooldown>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Entry<String, Cooldown>> iterator() {
+				final List<Entry<String, Cooldown>> entries = new ArrayList<>(CooldownMap.this.size());
+				for (int id = 0; id < CooldownMap.this.expiries.length; id++) {
+					if (CooldownMap.this.expiries[id] != 0) {
+						entries.add(new SimpleImmutableEntry<>(CoreAbility.getAbilityName(id), new Cooldown(CooldownMap.this.expiries[id], CooldownMap.this.database.get(id))));
+					}
+				}
+				for (final Entry<String, Cooldown> entry : CooldownMap.this.overflow.entrySet()) {
+					entries.add(new SimpleImmutableEntry<>(entry));
+				}
+
+				final Iterator<Entry<String, Cooldown>> iterator = entries.iterator();
+				return new Iterator<>() {
+					private Entry<String, Cooldown> current;
+
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Entry<String, Cooldown> next() {
+						return this.current = iterator.next();
+					}
+
+					@Override
+					public void remove() {
+						if (this.current == null) {
+							throw new IllegalStateException();
+						}
+						CooldownMap.this.remove(this.current.getKey());
+						this.current = null;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return CooldownMap.this.size();
+			}
+		};
+	}
+}
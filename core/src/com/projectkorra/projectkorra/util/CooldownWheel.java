@@ -0,0 +1,118 @@
+package com.projectkorra.projectkorra.util;
+
+import com.projectkorra.projectkorra.BendingPlayer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A hashed timing wheel holding the cooldowns of every online player. Each
+ * slot of the wheel covers one tick, so removing expired cooldowns only looks
+ * at the cooldowns that end during the ticks that passed since the last call
+ * to {@link #advance()}, instead of every cooldown of every player.<br><br>
+ *
+ * Entries are never removed from the wheel when a cooldown is changed or
+ * removed early. Instead, each entry remembers the expiry it was scheduled
+ * for and is ignored if the player's cooldown no longer matches it. Entries
+ * keep the player's uuid rather than their {@link BendingPlayer}, so a player
+ * who logged out isn't kept in memory, and a cooldown that ends after they
+ * logged back in is only ended once, on their current instance.
+ */
+public class CooldownWheel {
+
+	private static final int SLOTS = 512;
+	private static final long TICK_MILLIS = 50;
+
+	@SuppressWarnings("unchecked")
+	private static final List<Entry>[] WHEEL = new List[SLOTS];
+	/** The last tick that was processed, or -1 if the wheel hasn't advanced yet */
+	private static long cursor = -1;
+
+	static {
+		for (int i = 0; i < SLOTS; i++) {
+			WHEEL[i] = new ArrayList<>();
+		}
+	}
+
+	/**
+	 * Adds a cooldown to the wheel.
+	 *
+	 * @param player The player the cooldown belongs to
+	 * @param name The name of the cooldown
+	 * @param expiry The time the cooldown ends
+	 */
+	public static synchronized void schedule(final BendingPlayer player, final String name, final long expiry) {
+		long tick = expiry / TICK_MILLIS;
+		if (cursor >= 0 && tick <= cursor) {
+			tick = cursor + 1;
+		}
+		WHEEL[(int) (tick % SLOTS)].add(new Entry(player.getUUID(), name, expiry));
+	}
+
+	/**
+	 * Removes every cooldown that ended since the last time this was called.
+	 * The cooldowns are removed on the thread that owns each player, so that
+	 * {@link com.projectkorra.projectkorra.event.PlayerCooldownChangeEvent} is
+	 * called there like before.
+	 */
+	public static void advance() {
+		final long now = System.currentTimeMillis();
+		final long tick = now / TICK_MILLIS;
+		final List<Entry> due = new ArrayList<>();
+
+		synchronized (CooldownWheel.class) {
+			if (cursor < 0) {
+				cursor = tick - 1;
+			}
+			// If more than a full turn passed, every slot only has to be looked at once
+			final long from = Math.max(cursor + 1, tick - SLOTS + 1);
+			for (long t = from; t <= tick; t++) {
+				final Iterator<Entry> iterator = WHEEL[(int) (t % SLOTS)].iterator();
+				while (iterator.hasNext()) {
+					final Entry entry = iterator.next();
+					if (entry.expiry <= now) {
+						due.add(entry);
+						iterator.remove();
+					} else if (entry.expiry / TICK_MILLIS <= tick) {
+						// Ends later during this tick, so look at it again next time
+						iterator.remove();
+						WHEEL[(int) ((tick + 1) % SLOTS)].add(entry);
+					}
+				}
+			}
+			cursor = tick;
+		}
+
+		for (final Entry entry : due) {
+			final BendingPlayer player = BendingPlayer.getPlayers().get(entry.uuid);
+			if (player != null && player.getPlayer() != null) {
+				ThreadUtil.ensureEntity(player.getPlayer(), () -> player.expireCooldown(entry.name, entry.expiry));
+			}
+		}
+	}
+
+	/**
+	 * Removes every cooldown from the wheel.
+	 */
+	public static synchronized void clear() {
+		for (final List<Entry> slot : WHEEL) {
+			slot.clear();
+		}
+		cursor = -1;
+	}
+
+	private static class Entry {
+
+		private final UUID uuid;
+		private final String name;
+		private final long expiry;
+
+		private Entry(final UUID uuid, final String name, final long expiry) {
+			this.uuid = uuid;
+			this.name = name;
+			this.expiry = expiry;
+		}
+	}
+}
@@ -23,7 +23,6 @@ import com.projectkorra.projectkorra.command.Commands;
 import com.projectkorra.projectkorra.event.AbilityDamageEntityEvent;
 import com.projectkorra.projectkorra.event.EntityBendingDeathEvent;
 
-import org.bukkit.metadata.FixedMetadataValue;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.HashMap;
@@ -158,7 +157,7 @@ public class DamageHandler {
 			return;
 		}
 
-		if (entity.hasMetadata("BendingImmunity")) return;
+		if (BendingImmunity.isImmune(entity)) return;
 		
 		if (entity instanceof LivingEntity) {
 			if (checkTicks((LivingEntity) entity, damage)) {
@@ -250,9 +249,10 @@ public class DamageHandler {
 	 * Sets the immunity of an entity towards bending. If immune, it won't be affected by abilities
 	 * @param entity The entity to set the immunity of
 	 * @param immunity If the entity should be immune
+	 * @see BendingImmunity
 	 */
 	public static void setImmunity(final Entity entity, boolean immunity) {
-		if (immunity) entity.setMetadata("BendingImmunity", new FixedMetadataValue(ProjectKorra.plugin, true));
-		else entity.removeMetadata("BendingImmunity", ProjectKorra.plugin);
+		if (immunity) BendingImmunity.grant(entity, ProjectKorra.plugin);
+		else BendingImmunity.revoke(entity);
 	}
 }
@@ -0,0 +1,251 @@
+package com.projectkorra.projectkorra.util;
+
+import com.projectkorra.projectkorra.GeneralMethods;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.util.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * A per world snapshot of the entities in each loaded chunk, kept while an
+ * ability progresses. Chunks are only read the first time a query touches
+ * them, so repeated radius queries over the same area during one progress
+ * call are answered from the snapshot instead of going back to the world's
+ * entity sections.<br><br>
+ *
+ * Snapshots only exist between {@link #begin()} and {@link #end()}, on the
+ * thread that began them. On Folia that thread only runs the region of the
+ * ability while it progresses, so a snapshot never holds another region's
+ * chunks. Spawning or teleporting an entity in the meantime drops the
+ * snapshot, so the entity is seen by the next query.
+ */
+public class EntitySnapshot {
+
+	/** How far an entity's bounding box may reach outside of the chunk it is stored in */
+	private static final double MAX_ENTITY_REACH = 2.0;
+	/** Whether chunks can have their entities unloaded while the chunk is loaded, added in 1.17 */
+	private static final boolean SEPARATE_ENTITY_LOADING = GeneralMethods.getMCVersion() >= 1170;
+
+	private static final ThreadLocal<Scope> SCOPES = new ThreadLocal<>();
+
+	private final World world;
+	private final Map<Long, Cell> cells = new HashMap<>();
+
+	private EntitySnapshot(final World world) {
+		this.world = world;
+	}
+
+	/**
+	 * Starts keeping snapshots on the current thread, until the matching call
+	 * to {@link #end()}. Calls may be nested.
+	 */
+	public static void begin() {
+		Scope scope = SCOPES.get();
+		if (scope == null) {
+			scope = new Scope();
+			SCOPES.set(scope);
+		}
+		scope.depth++;
+	}
+
+	/**
+	 * Stops keeping snapshots on the current thread once every call to
+	 * {@link #begin()} has been ended, dropping them.
+	 */
+	public static void end() {
+		final Scope scope = SCOPES.get();
+		if (scope != null && --scope.depth <= 0) {
+			SCOPES.remove();
+		}
+	}
+
+	/**
+	 * Drops the snapshots of the current thread, so the next query reads the
+	 * world again. Called when entities are added or moved.
+	 */
+	public static void invalidate() {
+		final Scope scope = SCOPES.get();
+		if (scope != null) {
+			scope.snapshots.clear();
+		}
+	}
+
+	/**
+	 * Gets the snapshot of a world kept by the current thread.
+	 *
+	 * @param world The world
+	 * @return The snapshot, or null if the current thread isn't keeping
+	 *         snapshots
+	 */
+	public static EntitySnapshot get(final World world) {
+		final Scope scope = SCOPES.get();
+		if (scope == null) {
+			return null;
+		}
+
+		EntitySnapshot snapshot = scope.snapshots.get(world.getUID());
+		if (snapshot == null || snapshot.world != world) {
+			snapshot = new EntitySnapshot(world);
+			scope.snapshots.put(world.getUID(), snapshot);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Collects every entity whose bounding box overlaps the cube around a
+	 * location. This matches
+	 * {@link World#getNearbyEntities(Location, double, double, double, Predicate)}.
+	 *
+	 * @param location The center of the cube
+	 * @param radius Half the side length of the cube
+	 * @param filter The filter entities must pass, or null to accept all
+	 * @param out The list the entities are added to
+	 * @return The list passed in
+	 */
+	public List<Entity> getEntities(final Location location, final double radius, final Predicate<Entity> filter, final List<Entity> out) {
+		return this.collect(location, radius, filter, out, CellType.ALL);
+	}
+
+	/**
+	 * Collects every living entity whose bounding box overlaps the cube around
+	 * a location.
+	 *
+	 * @param location The center of the cube
+	 * @param radius Half the side length of the cube
+	 * @param filter The filter entities must pass, or null to accept all
+	 * @param out The list the entities are added to
+	 * @return The list passed in
+	 */
+	public List<Entity> getLivingEntities(final Location location, final double radius, final Predicate<Entity> filter, final List<Entity> out) {
+		return this.collect(location, radius, filter, out, CellType.LIVING);
+	}
+
+	/**
+	 * Collects every player whose bounding box overlaps the cube around a
+	 * location.
+	 *
+	 * @param location The center of the cube
+	 * @param radius Half the side length of the cube
+	 * @param filter The filter players must pass, or null to accept all
+	 * @param out The list the players are added to
+	 * @return The list passed in
+	 */
+	public List<Entity> getPlayers(final Location location, final double radius, final Predicate<Entity> filter, final List<Entity> out) {
+		return this.collect(location, radius, filter, out, CellType.PLAYERS);
+	}
+
+	private List<Entity> collect(final Location location, final double radius, final Predicate<Entity> filter, final List<Entity> out, final CellType type) {
+		final double minX = location.getX() - radius;
+		final double minY = location.getY() - radius;
+		final double minZ = location.getZ() - radius;
+		final double maxX = location.getX() + radius;
+		final double maxY = location.getY() + radius;
+		final double maxZ = location.getZ() + radius;
+
+		final int minChunkX = (int) Math.floor(minX - MAX_ENTITY_REACH) >> 4;
+		final int minChunkZ = (int) Math.floor(minZ - MAX_ENTITY_REACH) >> 4;
+		final int maxChunkX = (int) Math.floor(maxX + MAX_ENTITY_REACH) >> 4;
+		final int maxChunkZ = (int) Math.floor(maxZ + MAX_ENTITY_REACH) >> 4;
+
+		for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+			for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+				final Cell cell = this.getCell(cx, cz);
+				if (cell == null) {
+					continue;
+				}
+
+				for (final Entity entity : cell.get(type)) {
+					if (!entity.isValid()) { // Died or was removed since the chunk was read
+						continue;
+					}
+					final BoundingBox box = entity.getBoundingBox();
+					if (box.getMaxX() < minX || box.getMinX() > maxX || box.getMaxY() < minY || box.getMinY() > maxY || box.getMaxZ() < minZ || box.getMinZ() > maxZ) {
+						continue;
+					}
+					if (filter == null || filter.test(entity)) {
+						out.add(entity);
+					}
+				}
+			}
+		}
+		return out;
+	}
+
+	private Cell getCell(final int chunkX, final int chunkZ) {
+		final long key = ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+		Cell cell = this.cells.get(key);
+		if (cell == null && !this.cells.containsKey(key)) {
+			if (this.world.isChunkLoaded(chunkX, chunkZ)) {
+				final Chunk chunk = this.world.getChunkAt(chunkX, chunkZ);
+				// Reading the entities of a chunk whose entities aren't loaded yet would wait for them to load
+				if (!SEPARATE_ENTITY_LOADING || chunk.isEntitiesLoaded()) {
+					cell = new Cell(chunk);
+				}
+			}
+			this.cells.put(key, cell);
+		}
+		return cell;
+	}
+
+	public World getWorld() {
+		return this.world;
+	}
+
+	private enum CellType {
+		ALL, LIVING, PLAYERS
+	}
+
+	private static class Scope {
+
+		private final Map<UUID, EntitySnapshot> snapshots = new HashMap<>();
+		private int depth;
+	}
+
+	/**
+	 * The entities of a single chunk, bucketed by type.
+	 */
+	private static class Cell {
+
+		private final Entity[] entities;
+		private final Entity[] living;
+		private final Entity[] players;
+
+		private Cell(final Chunk chunk) {
+			this.entities = chunk.getEntities();
+
+			final List<Entity> living = new ArrayList<>();
+			final List<Entity> players = new ArrayList<>();
+			for (final Entity entity : this.entities) {
+				if (entity instanceof LivingEntity) {
+					living.add(entity);
+					if (entity instanceof Player) {
+						players.add(entity);
+					}
+				}
+			}
+			this.living = living.toArray(new Entity[0]);
+			this.players = players.toArray(new Entity[0]);
+		}
+
+		private Entity[] get(final CellType type) {
+			switch (type) {
+				case LIVING:
+					return this.living;
+				case PLAYERS:
+					return this.players;
+				default:
+					return this.entities;
+			}
+		}
+	}
+}
@@ -45,6 +45,7 @@ public class MovementHandler {
 	 */
 	public void stopWithDuration(final long duration, final String message) {
 		this.entity.setMetadata("movement:stop", new FixedMetadataValue(ProjectKorra.plugin, this.ability));
+		StatusFlags.set(this.entity, StatusFlags.PARALYZED, true);
 		if (this.entity instanceof Player) {
 			final long start = System.currentTimeMillis();
 			final Player player = (Player) this.entity;
@@ -77,6 +78,7 @@ public class MovementHandler {
 	 */
 	public void stop(final String message) {
 		this.entity.setMetadata("movement:stop", new FixedMetadataValue(ProjectKorra.plugin, this.ability));
+		StatusFlags.set(this.entity, StatusFlags.PARALYZED, true);
 		if (this.entity instanceof Player) {
 			final Player player = (Player) this.entity;
 			this.task = ThreadUtil.ensureEntityTimer(this.entity,
@@ -111,6 +113,7 @@ public class MovementHandler {
 		if (this.entity.hasMetadata("movement:stop")) {
 			this.entity.removeMetadata("movement:stop", ProjectKorra.plugin);
 		}
+		StatusFlags.set(this.entity, StatusFlags.PARALYZED, false);
 	}
 
 	public CoreAbility getAbility() {
@@ -132,7 +135,7 @@ public class MovementHandler {
 	 * @return false if not stopped by an instance of MovementHandler
 	 */
 	public static boolean isStopped(final Entity entity) {
-		return entity.hasMetadata("movement:stop");
+		return StatusFlags.has(entity, StatusFlags.PARALYZED);
 	}
 
 	/**
@@ -44,7 +44,7 @@ public class PassiveHandler {
 		double air = AirSaturation.getExhaustionFactor();
 		double chi = ChiSaturation.getExhaustionFactor();
 
-		if (ConfigManager.defaultConfig.get().getStringList("Properties.DisabledWorlds").contains(player.getWorld().getName())) {
+		if (BendingPlayer.isWorldDisabled(player.getWorld())) {
 			return;
 		}
 
@@ -0,0 +1,130 @@
+package com.projectkorra.projectkorra.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import com.projectkorra.projectkorra.storage.DBConnection;
+
+/**
+ * The players with the highest total of one or more statistics, kept in
+ * memory so that leaderboards don't have to be read from the database. A
+ * leaderboard is seeded with a single query and then kept up to date by the
+ * {@link StatisticsManager} as statistics are saved.
+ */
+public class StatisticsLeaderboard {
+
+	private final Set<Integer> statIds;
+	private final int size;
+	/** The value of every player on the leaderboard */
+	private final Map<UUID, Long> values = new HashMap<>();
+	/** The players on the leaderboard, the highest value first */
+	private final List<UUID> ranking = new ArrayList<>();
+	private volatile boolean seeded;
+
+	/**
+	 * @param statIds The statistics whose values are added together
+	 * @param size How many players are kept on the leaderboard
+	 */
+	public StatisticsLeaderboard(final Set<Integer> statIds, final int size) {
+		this.statIds = statIds;
+		this.size = size;
+	}
+
+	/**
+	 * Reads the top players from the database, unless that has been done
+	 * already. If reading fails, the leaderboard is seeded again the next time
+	 * it is asked for.
+	 *
+	 * @return The uuids of the players on the leaderboard
+	 */
+	synchronized List<UUID> seed() {
+		if (this.seeded) {
+			return Collections.emptyList();
+		}
+		if (this.statIds.isEmpty()) {
+			this.seeded = true;
+			return Collections.emptyList();
+		}
+		final StringBuilder query = new StringBuilder("SELECT uuid, SUM(statValue) AS total FROM pk_stats WHERE statId IN (");
+		final Object[] params = new Object[this.statIds.size() + 1];
+		int i = 0;
+		for (final int statId : this.statIds) {
+			query.append(i == 0 ? "?" : ", ?");
+			params[i++] = statId;
+		}
+		query.append(") GROUP BY uuid HAVING SUM(statValue) > 0 ORDER BY total DESC LIMIT ?");
+		params[i] = this.size;
+		final Map<UUID, Long> top = new LinkedHashMap<>();
+		final Boolean read = DBConnection.sql.readQuery(query.toString(), rs -> {
+			while (rs.next()) {
+				top.put(UUID.fromString(rs.getString("uuid")), rs.getLong("total"));
+			}
+			return true;
+		}, params);
+		if (read == null) {
+			return Collections.emptyList();
+		}
+		this.seeded = true;
+		for (final Map.Entry<UUID, Long> entry : top.entrySet()) {
+			this.update(entry.getKey(), entry.getValue());
+		}
+		return new ArrayList<>(top.keySet());
+	}
+
+	/**
+	 * Sets the value of a player, moving them up or down the leaderboard, or
+	 * onto or off of it.
+	 *
+	 * @param uuid The player
+	 * @param value The player's total of the leaderboard's statistics
+	 */
+	synchronized void update(final UUID uuid, final long value) {
+		if (this.values.containsKey(uuid)) {
+			this.ranking.remove(uuid);
+			this.values.remove(uuid);
+		} else if (value <= 0 || (this.ranking.size() >= this.size && value <= this.values.get(this.ranking.get(this.ranking.size() - 1)))) {
+			return;
+		}
+		if (value <= 0) {
+			return;
+		}
+		int index = this.ranking.size();
+		while (index > 0 && this.values.get(this.ranking.get(index - 1)) < value) {
+			index--;
+		}
+		this.ranking.add(index, uuid);
+		this.values.put(uuid, value);
+		while (this.ranking.size() > this.size) {
+			this.values.remove(this.ranking.remove(this.ranking.size() - 1));
+		}
+	}
+
+	public boolean isSeeded() {
+		return this.seeded;
+	}
+
+	public Set<Integer> getStatIds() {
+		return this.statIds;
+	}
+
+	/**
+	 * @return The players on the leaderboard, the highest value first
+	 */
+	public synchronized List<UUID> getRanking() {
+		return new ArrayList<>(this.ranking);
+	}
+
+	/**
+	 * @param uuid A player on the leaderboard
+	 * @return The player's value, or 0 if they aren't on the leaderboard
+	 */
+	public synchronized long getValue(final UUID uuid) {
+		return this.values.getOrDefault(uuid, 0L);
+	}
+}
@@ -1,58 +1,94 @@
 package com.projectkorra.projectkorra.util;
 
-import java.sql.ResultSet;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.bukkit.entity.Player;
 
+import com.projectkorra.projectkorra.Element;
 import com.projectkorra.projectkorra.Manager;
 import com.projectkorra.projectkorra.ProjectKorra;
 import com.projectkorra.projectkorra.ability.CoreAbility;
+import com.projectkorra.projectkorra.configuration.ConfigManager;
 import com.projectkorra.projectkorra.storage.DBConnection;
+import com.projectkorra.projectkorra.storage.Database;
 import com.projectkorra.projectkorra.storage.MySQL;
 import com.projectkorra.projectkorra.storage.SQLite;
 
 public class StatisticsManager extends Manager implements Runnable {
 
+	private static final String INSERT_KEY = "INSERT INTO pk_statKeys (statName) VALUES (?)";
+	private static final String INSERT_STATISTIC = "INSERT INTO pk_stats (statId, uuid, statValue) VALUES (?, ?, ?)";
+
+	/**
+	 * Map which contains all saved statistic values of online players
+	 * (Map<player, Map<statId, statValue>>). The current value of a statistic
+	 * is its saved value plus its delta.
+	 */
+	private final Map<UUID, Map<Integer, Long>> STATISTICS = new ConcurrentHashMap<>();
+	/**
+	 * Map which contains all statistic deltas that haven't been saved yet
+	 * (Map<player, Map<statId, statDelta>>). Counters can be added to from any
+	 * thread.
+	 */
+	private final Map<UUID, Map<Integer, LongAdder>> DELTA = new ConcurrentHashMap<>();
+	/**
+	 * Map which contains all statistic IDs by name.
+	 */
+	private final Map<String, Integer> KEYS_BY_NAME = new ConcurrentHashMap<>();
 	/**
-	 * HashMap which contains all current statistic values (Map<player,
-	 * Map<statId, statValue>>)
+	 * Map which contains all statistic names by ID.
 	 */
-	private final Map<UUID, Map<Integer, Long>> STATISTICS = new HashMap<>();
+	private final Map<Integer, String> KEYS_BY_ID = new ConcurrentHashMap<>();
 	/**
-	 * HashMap which contains all statistic delta values (Map<player,
-	 * Map<statId, statValue>>)
+	 * Set which contains all UUIDs of players who have recently logged out to
+	 * be unloaded once their stats are saved.
 	 */
-	private final Map<UUID, Map<Integer, Long>> DELTA = new HashMap<>();
+	private final Set<UUID> STORAGE = ConcurrentHashMap.newKeySet();
 	/**
-	 * HashMap which contains all statistic names by ID.
+	 * Map which contains all leaderboards by ability or element and
+	 * statistic.
 	 */
-	private final Map<String, Integer> KEYS_BY_NAME = new HashMap<>();
+	private final Map<String, StatisticsLeaderboard> LEADERBOARDS = new ConcurrentHashMap<>();
 	/**
-	 * HashMap which contains all statistic IDs by name.
+	 * Map which contains all leaderboards that include a statistic by ID.
 	 */
-	private final Map<Integer, String> KEYS_BY_ID = new HashMap<>();
+	private final Map<Integer, List<StatisticsLeaderboard>> LEADERBOARDS_BY_ID = new ConcurrentHashMap<>();
 	/**
-	 * HashMap which contains all UUIDs of players who have recently logged out
-	 * to have their stats saved.
+	 * Map which contains the names of players by UUID, for leaderboards.
 	 */
-	private final Set<UUID> STORAGE = new HashSet<>();
+	private final Map<UUID, String> NAMES = new ConcurrentHashMap<>();
 	private final int INTERVAL = 5;
+	private Object task;
 
 	private StatisticsManager() {}
 
 	@Override
 	public void onActivate() {
-		if (!ProjectKorra.isStatisticsEnabled()) {
-			ProjectKorra.plugin.getServer().getScheduler().scheduleSyncRepeatingTask(ProjectKorra.plugin, this, 20 * this.INTERVAL, 20 * this.INTERVAL);
-		}
 		this.setupStatistics();
+		if (ProjectKorra.isStatisticsEnabled()) {
+			this.task = ThreadUtil.runAsyncTimer(this, 20 * this.INTERVAL, 20 * this.INTERVAL);
+			ThreadUtil.runAsync(this::setupLeaderboards);
+		}
+	}
+
+	@Override
+	public void onDeactivate() {
+		ThreadUtil.cancelTimerTask(this.task);
+		this.task = null;
+		this.flush(this.DELTA.keySet());
 	}
 
 	public void setupStatistics() {
@@ -77,121 +113,358 @@ public class StatisticsManager extends Manager implements Runnable {
 				query = "CREATE TABLE `pk_stats` (`statId` INTEGER, `uuid` TEXT(36), `statValue` BIGINT, PRIMARY KEY (statId, uuid));";
 			}
 			DBConnection.sql.modifyQuery(query, false);
+			// Players' statistics are loaded by uuid, which isn't the start of the primary key
+			DBConnection.sql.modifyQuery("CREATE INDEX pk_stats_uuid ON pk_stats (uuid);", false);
 		}
-		// Insert all abilities into pk_statKeys for all statistics.
+		// Populate Keys Map with all loaded statName(s) in pk_statKeys.
+		this.loadKeys();
+		// Insert the statName(s) of all abilities that aren't in pk_statKeys yet.
+		final Set<String> missing = new LinkedHashSet<>();
 		for (final CoreAbility ability : CoreAbility.getAbilitiesByName()) {
 			if (ability.isHarmlessAbility()) {
 				continue;
 			}
 			for (final Statistic statistic : Statistic.values()) {
 				final String statName = statistic.getStatisticName(ability);
-				final ResultSet rs = DBConnection.sql.readQuery("SELECT * FROM pk_statKeys WHERE statName = '" + statName + "'");
-				try {
-					if (!rs.next()) {
-						DBConnection.sql.modifyQuery("INSERT INTO pk_statKeys (statName) VALUES ('" + statName + "')", false);
-					}
-				} catch (final SQLException e) {
-					e.printStackTrace();
+				if (!this.KEYS_BY_NAME.containsKey(statName)) {
+					missing.add(statName);
 				}
 			}
 		}
-		// Populate Keys Map with all loaded statName(s) in pk_statKeys.
-		final ResultSet rs = DBConnection.sql.readQuery("SELECT * FROM pk_statKeys");
+		if (missing.isEmpty()) {
+			return;
+		}
 		try {
+			DBConnection.sql.withConnection(connection -> {
+				connection.getConnection().setAutoCommit(false);
+				final PreparedStatement insert = connection.prepareStatement(INSERT_KEY);
+				try {
+					for (final String statName : missing) {
+						insert.setString(1, statName);
+						insert.addBatch();
+					}
+					insert.executeBatch();
+				} finally {
+					insert.clearBatch();
+				}
+				connection.getConnection().commit();
+				return null;
+			});
+		} catch (final SQLException e) {
+			e.printStackTrace();
+		}
+		this.loadKeys();
+	}
+
+	private void loadKeys() {
+		DBConnection.sql.readQuery("SELECT id, statName FROM pk_statKeys", rs -> {
 			while (rs.next()) {
 				this.KEYS_BY_NAME.put(rs.getString("statName"), rs.getInt("id"));
 				this.KEYS_BY_ID.put(rs.getInt("id"), rs.getString("statName"));
 			}
-		} catch (final SQLException e) {
-			e.printStackTrace();
+			return null;
+		});
+	}
+
+	/**
+	 * Adds a statName to pk_statKeys if it isn't there yet.
+	 *
+	 * @param statName The statName to add
+	 * @return The ID of the statName, or -1 if it couldn't be added
+	 */
+	public synchronized int createKey(final String statName) {
+		if (!this.KEYS_BY_NAME.containsKey(statName)) {
+			DBConnection.sql.modifyQuery(INSERT_KEY, false, statName);
+			DBConnection.sql.readQuery("SELECT id, statName FROM pk_statKeys WHERE statName = ?", rs -> {
+				if (rs.next()) {
+					this.KEYS_BY_NAME.put(rs.getString("statName"), rs.getInt("id"));
+					this.KEYS_BY_ID.put(rs.getInt("id"), rs.getString("statName"));
+				}
+				return null;
+			}, statName);
 		}
+		return this.KEYS_BY_NAME.getOrDefault(statName, -1);
 	}
 
 	public void load(final UUID uuid) {
-		this.STATISTICS.put(uuid, new HashMap<>());
-		this.DELTA.put(uuid, new HashMap<>());
-		try (ResultSet rs = DBConnection.sql.readQuery("SELECT * FROM pk_stats WHERE uuid = '" + uuid.toString() + "'")) {
+		// Write anything left over from the last time the player was online first
+		this.flush(Set.of(uuid));
+		final Player player = ProjectKorra.plugin.getServer().getPlayer(uuid);
+		if (player != null) {
+			this.NAMES.put(uuid, player.getName());
+		}
+		final Map<Integer, Long> statistics = new ConcurrentHashMap<>();
+		DBConnection.sql.readQuery("SELECT statId, statValue FROM pk_stats WHERE uuid = ?", rs -> {
 			while (rs.next()) {
-				this.STATISTICS.get(uuid).put(rs.getInt("statId"), rs.getLong("statValue"));
-				this.DELTA.get(uuid).put(rs.getInt("statId"), 0L);
+				statistics.put(rs.getInt("statId"), rs.getLong("statValue"));
 			}
-		} catch (final SQLException e) {
-			e.printStackTrace();
+			return null;
+		}, uuid.toString());
+		synchronized (this) {
+			this.STORAGE.remove(uuid);
+			this.STATISTICS.put(uuid, statistics);
+			this.DELTA.putIfAbsent(uuid, new ConcurrentHashMap<>());
 		}
 	}
 
 	public void save(final UUID uuid, final boolean async) {
-		if (!this.DELTA.containsKey(uuid)) {
+		if (async) {
+			ThreadUtil.runAsync(() -> this.flush(Set.of(uuid)));
+		} else {
+			this.flush(Set.of(uuid));
+		}
+	}
+
+	/**
+	 * Writes the statistic deltas of the given players with a single batched
+	 * upsert. Deltas that fail to be written are added back to be written on
+	 * the next flush.
+	 */
+	private synchronized void flush(final Set<UUID> uuids) {
+		final Map<UUID, Map<Integer, Long>> batch = new HashMap<>();
+		for (final UUID uuid : uuids) {
+			final Map<Integer, LongAdder> deltas = this.DELTA.get(uuid);
+			if (deltas == null) {
+				continue;
+			}
+			final Map<Integer, Long> statistics = this.STATISTICS.get(uuid);
+			final Map<Integer, Long> changed = new HashMap<>();
+			for (final Entry<Integer, LongAdder> entry : deltas.entrySet()) {
+				// Anything added while resetting is kept for the next flush
+				final long statDelta = entry.getValue().sumThenReset();
+				if (statDelta != 0) {
+					changed.put(entry.getKey(), statDelta);
+					if (statistics != null) {
+						statistics.merge(entry.getKey(), statDelta, Long::sum);
+					}
+				}
+			}
+			if (!changed.isEmpty()) {
+				batch.put(uuid, changed);
+			}
+		}
+		if (batch.isEmpty() || DBConnection.sql == null) {
 			return;
 		}
-		final Map<Integer, Long> stats = this.DELTA.get(uuid);
-		for (final Entry<Integer, Long> entry : stats.entrySet()) {
-			final int statId = entry.getKey();
-			final long statValue = entry.getValue();
-			try (ResultSet rs = DBConnection.sql.readQuery("SELECT * FROM pk_stats WHERE uuid = '" + uuid.toString() + "' AND statId = " + statId)) {
-				if (!rs.next()) {
-					DBConnection.sql.modifyQuery("INSERT INTO pk_stats (statId, uuid, statValue) VALUES (" + statId + ", '" + uuid.toString() + "', " + statValue + ")", async);
-				} else {
-					DBConnection.sql.modifyQuery("UPDATE pk_stats SET statValue = statValue + " + statValue + " WHERE uuid = '" + uuid.toString() + "' AND statId = " + statId + ";", async);
+
+		try {
+			DBConnection.sql.withConnection(connection -> {
+				connection.getConnection().setAutoCommit(false);
+				final PreparedStatement upsert = connection.prepareStatement(DBConnection.sql.upsert(INSERT_STATISTIC, "statId, uuid", "statValue = statValue + " + DBConnection.sql.inserted("statValue")));
+				try {
+					for (final Entry<UUID, Map<Integer, Long>> player : batch.entrySet()) {
+						for (final Entry<Integer, Long> entry : player.getValue().entrySet()) {
+							Database.bind(upsert, entry.getKey(), player.getKey().toString(), entry.getValue());
+							upsert.addBatch();
+						}
+					}
+					upsert.executeBatch();
+				} finally {
+					upsert.clearBatch();
+				}
+				connection.getConnection().commit();
+				return null;
+			});
+			this.updateLeaderboards(batch);
+		} catch (final SQLException e) {
+			ProjectKorra.log.warning("Failed to save the statistics of " + batch.size() + " players, trying again on the next flush.");
+			e.printStackTrace();
+			for (final Entry<UUID, Map<Integer, Long>> player : batch.entrySet()) {
+				final Map<Integer, LongAdder> deltas = this.DELTA.computeIfAbsent(player.getKey(), uuid -> new ConcurrentHashMap<>());
+				final Map<Integer, Long> statistics = this.STATISTICS.get(player.getKey());
+				for (final Entry<Integer, Long> entry : player.getValue().entrySet()) {
+					deltas.computeIfAbsent(entry.getKey(), statId -> new LongAdder()).add(entry.getValue());
+					if (statistics != null) {
+						statistics.merge(entry.getKey(), -entry.getValue(), Long::sum);
+					}
 				}
-			} catch (final SQLException e) {
-				e.printStackTrace();
 			}
 		}
 	}
 
+	/**
+	 * Seeds the leaderboard of every ability and element for every statistic,
+	 * so the first lookups don't have to wait on the database.
+	 */
+	private void setupLeaderboards() {
+		final Set<Element> elements = new LinkedHashSet<>();
+		for (final CoreAbility ability : CoreAbility.getAbilitiesByName()) {
+			if (ability.isHarmlessAbility()) {
+				continue;
+			}
+			elements.add(ability.getElement());
+			for (final Statistic statistic : Statistic.values()) {
+				this.getLeaderboard(ability, statistic);
+			}
+		}
+		for (final Statistic statistic : Statistic.values()) {
+			for (final Element element : elements) {
+				this.getLeaderboard(element, statistic);
+			}
+			this.getLeaderboard(null, statistic);
+		}
+	}
+
+	/**
+	 * Gets the leaderboard of a statistic, reading it from the database the
+	 * first time it is looked up.
+	 *
+	 * @param object The {@link CoreAbility} or {@link Element} the statistic
+	 *            is for, or null for the total of all abilities
+	 * @param statistic The {@link Statistic} being ranked
+	 * @return The leaderboard
+	 */
+	public StatisticsLeaderboard getLeaderboard(final Object object, final Statistic statistic) {
+		final String key;
+		if (object instanceof CoreAbility) {
+			key = "ability:" + ((CoreAbility) object).getName() + ":" + statistic.name();
+		} else if (object instanceof Element) {
+			key = "element:" + ((Element) object).getName() + ":" + statistic.name();
+		} else {
+			key = "all:" + statistic.name();
+		}
+		final StatisticsLeaderboard leaderboard = this.LEADERBOARDS.computeIfAbsent(key, k -> {
+			final Set<Integer> statIds = new HashSet<>();
+			for (final CoreAbility ability : CoreAbility.getAbilitiesByName()) {
+				if (ability.isHarmlessAbility()) {
+					continue;
+				} else if (object instanceof CoreAbility && ability != object) {
+					continue;
+				} else if (object instanceof Element && !ability.getElement().equals(object)) {
+					continue;
+				}
+				final Integer statId = this.KEYS_BY_NAME.get(statistic.getStatisticName(ability));
+				if (statId != null) {
+					statIds.add(statId);
+				}
+			}
+			final StatisticsLeaderboard created = new StatisticsLeaderboard(statIds, ConfigManager.getConfig().getInt("Properties.StatisticsLeaderboardSize"));
+			for (final int statId : statIds) {
+				this.LEADERBOARDS_BY_ID.computeIfAbsent(statId, id -> new CopyOnWriteArrayList<>()).add(created);
+			}
+			return created;
+		});
+		if (!leaderboard.isSeeded()) {
+			this.loadNames(leaderboard.seed());
+		}
+		return leaderboard;
+	}
+
+	/**
+	 * Moves the players whose statistics were just saved on every leaderboard
+	 * that includes those statistics.
+	 */
+	private void updateLeaderboards(final Map<UUID, Map<Integer, Long>> batch) {
+		for (final Entry<UUID, Map<Integer, Long>> player : batch.entrySet()) {
+			final Map<Integer, Long> statistics = this.STATISTICS.get(player.getKey());
+			if (statistics == null) {
+				continue;
+			}
+			final Set<StatisticsLeaderboard> changed = new HashSet<>();
+			for (final int statId : player.getValue().keySet()) {
+				changed.addAll(this.LEADERBOARDS_BY_ID.getOrDefault(statId, List.of()));
+			}
+			for (final StatisticsLeaderboard leaderboard : changed) {
+				if (!leaderboard.isSeeded()) {
+					continue;
+				}
+				long total = 0;
+				for (final int statId : leaderboard.getStatIds()) {
+					total += statistics.getOrDefault(statId, 0L);
+				}
+				leaderboard.update(player.getKey(), total);
+			}
+		}
+	}
+
+	/**
+	 * Reads the names of players who aren't in the name cache yet from
+	 * pk_players.
+	 */
+	private void loadNames(final List<UUID> uuids) {
+		final List<UUID> missing = new ArrayList<>();
+		for (final UUID uuid : uuids) {
+			if (!this.NAMES.containsKey(uuid)) {
+				missing.add(uuid);
+			}
+		}
+		if (missing.isEmpty()) {
+			return;
+		}
+		final StringBuilder query = new StringBuilder("SELECT uuid, player FROM pk_players WHERE uuid IN (");
+		final Object[] params = new Object[missing.size()];
+		for (int i = 0; i < missing.size(); i++) {
+			query.append(i == 0 ? "?" : ", ?");
+			params[i] = missing.get(i).toString();
+		}
+		query.append(")");
+		DBConnection.sql.readQuery(query.toString(), rs -> {
+			while (rs.next()) {
+				this.NAMES.put(UUID.fromString(rs.getString("uuid")), rs.getString("player"));
+			}
+			return null;
+		}, params);
+	}
+
+	/**
+	 * @param uuid A player
+	 * @return The name the player last joined with, or their UUID if it isn't
+	 *         known
+	 */
+	public String getName(final UUID uuid) {
+		return this.NAMES.getOrDefault(uuid, uuid.toString());
+	}
+
 	public long getStatisticDelta(final UUID uuid, final int statId) {
-		// If the player is offline, pull value from database.
-		if (!this.DELTA.containsKey(uuid)) {
-			return 0;
-		} else if (!this.DELTA.get(uuid).containsKey(statId)) {
+		final Map<Integer, LongAdder> deltas = this.DELTA.get(uuid);
+		if (deltas == null) {
 			return 0;
 		}
-		return this.DELTA.get(uuid).get(statId);
+		final LongAdder statDelta = deltas.get(statId);
+		return statDelta == null ? 0 : statDelta.sum();
 	}
 
 	public long getStatisticCurrent(final UUID uuid, final int statId) {
+		final Map<Integer, Long> statistics = this.STATISTICS.get(uuid);
 		// If the player is offline, pull value from database.
-		if (!this.STATISTICS.containsKey(uuid)) {
-			try (ResultSet rs = DBConnection.sql.readQuery("SELECT statValue FROM pk_stats WHERE uuid = '" + uuid.toString() + "' AND statId = " + statId + ";")) {
-				if (rs.next()) {
-					return rs.getLong("statValue");
-				}
-			} catch (final SQLException e) {
-				e.printStackTrace();
-			}
-			return 0;
-		} else if (!this.STATISTICS.get(uuid).containsKey(statId)) {
-			return 0;
+		if (statistics == null) {
+			final Long value = DBConnection.sql.readQuery("SELECT statValue FROM pk_stats WHERE uuid = ? AND statId = ?;", rs -> rs.next() ? rs.getLong("statValue") : 0L, uuid.toString(), statId);
+			return value != null ? value : 0;
 		}
-		return this.STATISTICS.get(uuid).get(statId);
+		return statistics.getOrDefault(statId, 0L) + this.getStatisticDelta(uuid, statId);
 	}
 
 	public void addStatistic(final UUID uuid, final int statId, final long statDelta) {
-		if (!this.STATISTICS.containsKey(uuid) || !this.DELTA.containsKey(uuid)) {
+		final Map<Integer, LongAdder> deltas = this.DELTA.get(uuid);
+		if (deltas == null || !this.STATISTICS.containsKey(uuid)) {
 			return;
 		}
-		this.STATISTICS.get(uuid).put(statId, this.getStatisticCurrent(uuid, statId) + statDelta);
-		this.DELTA.get(uuid).put(statId, this.getStatisticDelta(uuid, statId) + statDelta);
-
+		deltas.computeIfAbsent(statId, id -> new LongAdder()).add(statDelta);
 	}
 
 	public Map<Integer, Long> getStatisticsMap(final UUID uuid) {
 		final Map<Integer, Long> map = new HashMap<>();
+		final Map<Integer, Long> statistics = this.STATISTICS.get(uuid);
 		// If the player is offline, create a new temporary Map from the database.
-		if (!this.STATISTICS.containsKey(uuid)) {
-			try (ResultSet rs = DBConnection.sql.readQuery("SELECT * FROM pk_stats WHERE uuid = '" + uuid.toString() + "'")) {
+		if (statistics == null) {
+			DBConnection.sql.readQuery("SELECT statId, statValue FROM pk_stats WHERE uuid = ?", rs -> {
 				while (rs.next()) {
 					final int statId = rs.getInt("statId");
 					final long statValue = rs.getLong("statValue");
 					map.put(statId, statValue);
 				}
-			} catch (final SQLException e) {
-				e.printStackTrace();
-			}
+				return null;
+			}, uuid.toString());
 			return map;
 		}
-		return this.STATISTICS.get(uuid);
+		map.putAll(statistics);
+		final Map<Integer, LongAdder> deltas = this.DELTA.get(uuid);
+		if (deltas != null) {
+			for (final Entry<Integer, LongAdder> entry : deltas.entrySet()) {
+				map.merge(entry.getKey(), entry.getValue().sum(), Long::sum);
+			}
+		}
+		return map;
 	}
 
 	public void store(final UUID uuid) {
@@ -200,14 +473,32 @@ public class StatisticsManager extends Manager implements Runnable {
 
 	@Override
 	public void run() {
-		for (final UUID uuid : this.STORAGE) {
-			// Confirm that the player is offline.
-			final Player player = ProjectKorra.plugin.getServer().getPlayer(uuid);
-			if (player == null) {
-				this.save(uuid, true);
+		this.flush(this.DELTA.keySet());
+		synchronized (this) {
+			for (final UUID uuid : this.STORAGE) {
+				// Confirm that the player is offline.
+				final Player player = ProjectKorra.plugin.getServer().getPlayer(uuid);
+				if (player != null) {
+					this.STORAGE.remove(uuid);
+				} else if (!this.hasPendingDelta(uuid)) {
+					this.STORAGE.remove(uuid);
+					this.STATISTICS.remove(uuid);
+					this.DELTA.remove(uuid);
+				}
+			}
+		}
+	}
+
+	private boolean hasPendingDelta(final UUID uuid) {
+		final Map<Integer, LongAdder> deltas = this.DELTA.get(uuid);
+		if (deltas != null) {
+			for (final LongAdder statDelta : deltas.values()) {
+				if (statDelta.sum() != 0) {
+					return true;
+				}
 			}
 		}
-		this.STORAGE.clear();
+		return false;
 	}
 
 	public Map<String, Integer> getKeysByName() {
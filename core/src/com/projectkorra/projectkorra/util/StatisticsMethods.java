@@ -1,7 +1,5 @@
 package com.projectkorra.projectkorra.util;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.UUID;
 
 import org.bukkit.entity.Player;
@@ -10,7 +8,6 @@ import com.projectkorra.projectkorra.Element;
 import com.projectkorra.projectkorra.Manager;
 import com.projectkorra.projectkorra.ProjectKorra;
 import com.projectkorra.projectkorra.ability.CoreAbility;
-import com.projectkorra.projectkorra.storage.DBConnection;
 
 public class StatisticsMethods {
 
@@ -170,18 +167,8 @@ public class StatisticsMethods {
 		if (!ProjectKorra.isStatisticsEnabled()) {
 			return 0;
 		}
-		if (!Manager.getManager(StatisticsManager.class).getKeysByName().containsKey(statName)) {
-			DBConnection.sql.modifyQuery("INSERT INTO pk_statKeys (statName) VALUES ('" + statName + "')", false);
-			try (ResultSet rs = DBConnection.sql.readQuery("SELECT * FROM pk_statKeys WHERE statName = '" + statName + "'")) {
-				if (rs.next()) {
-					Manager.getManager(StatisticsManager.class).getKeysByName().put(rs.getString("statName"), rs.getInt("id"));
-					Manager.getManager(StatisticsManager.class).getKeysById().put(rs.getInt("id"), rs.getString("statName"));
-				}
-			} catch (final SQLException e) {
-				e.printStackTrace();
-			}
-		}
-		return Manager.getManager(StatisticsManager.class).getKeysByName().containsKey(statName) ? Manager.getManager(StatisticsManager.class).getKeysByName().get(statName) : -1;
+		final Integer id = Manager.getManager(StatisticsManager.class).getKeysByName().get(statName);
+		return id != null ? id : Manager.getManager(StatisticsManager.class).createKey(statName);
 	}
 
 	/**
@@ -0,0 +1,74 @@
+package com.projectkorra.projectkorra.util;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.entity.Entity;
+
+import com.projectkorra.projectkorra.BendingPlayer;
+
+/**
+ * Flags for the states abilities put other entities in, such as being
+ * bloodbent or paralyzed. The abilities set a flag when they capture an entity
+ * and clear it when they let go, so checking for a state doesn't have to look
+ * through every instance of the ability.<br><br>
+ *
+ * Flags are kept by uuid, so they don't depend on a player's
+ * {@link BendingPlayer} existing yet or being rebuilt on reload, and an
+ * entity only has an entry while it has a flag set. Entries are forgotten
+ * when the entity dies, is unloaded or logs out, as whatever held it can't
+ * hold the entity it comes back as.
+ */
+public class StatusFlags {
+
+	/** Held by {@link com.projectkorra.projectkorra.waterbending.blood.Bloodbending Bloodbending} */
+	public static final int BLOODBENT = 1;
+	/** Held by {@link com.projectkorra.projectkorra.airbending.Suffocate Suffocate} once it has started */
+	public static final int BREATHBENT = 1 << 1;
+	/** Held by {@link com.projectkorra.projectkorra.earthbending.metal.MetalClips MetalClips} */
+	public static final int CLIPPED = 1 << 2;
+	/** Held by {@link MovementHandler} */
+	public static final int PARALYZED = 1 << 3;
+
+	private static final Map<UUID, Integer> ENTITY_FLAGS = new ConcurrentHashMap<>();
+
+	/**
+	 * @param entity The entity to check
+	 * @param flag The flag, or flags, to check for
+	 * @return true if the entity has any of the flags
+	 */
+	public static boolean has(final Entity entity, final int flag) {
+		if (entity == null || ENTITY_FLAGS.isEmpty()) {
+			return false;
+		}
+		final Integer flags = ENTITY_FLAGS.get(entity.getUniqueId());
+		return flags != null && (flags & flag) != 0;
+	}
+
+	/**
+	 * Sets or clears flags of an entity.
+	 *
+	 * @param entity The entity
+	 * @param flag The flag, or flags, to change
+	 * @param value true to set the flags, false to clear them
+	 */
+	public static void set(final Entity entity, final int flag, final boolean value) {
+		if (entity == null) {
+			return;
+		}
+		ENTITY_FLAGS.compute(entity.getUniqueId(), (e, flags) -> {
+			final int updated = value ? (flags == null ? 0 : flags) | flag : (flags == null ? 0 : flags) & ~flag;
+			return updated == 0 ? null : updated;
+		});
+	}
+
+	/**
+	 * Forgets the flags of an entity that died, was unloaded or logged out.
+	 *
+	 * @param uuid The entity's uuid
+	 */
+	public static void forget(final UUID uuid) {
+		ENTITY_FLAGS.remove(uuid);
+	}
+}
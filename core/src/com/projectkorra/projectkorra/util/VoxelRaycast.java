@@ -0,0 +1,279 @@
+package com.projectkorra.projectkorra.util;
+
+import com.projectkorra.projectkorra.GeneralMethods;
+import com.projectkorra.projectkorra.ability.ElementalAbility;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Entity;
+import org.bukkit.util.BoundingBox;
+import org.bukkit.util.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Casts rays through the block grid using the Amanatides-Woo voxel traversal,
+ * which visits every block the ray passes through exactly once and in order.
+ * Unlike stepping along the ray in fixed increments, it cannot skip the corner
+ * of a block and only works on primitive coordinates, so no Locations or
+ * Vectors are cloned while walking the ray.
+ */
+public class VoxelRaycast {
+
+	/**
+	 * Decides whether a ray may pass through a block.
+	 */
+	@FunctionalInterface
+	public interface BlockFilter {
+
+		/**
+		 * @param block The block the ray is entering
+		 * @return true if the ray continues through the block
+		 */
+		boolean isPassable(Block block);
+	}
+
+	/**
+	 * The result of a raycast.
+	 */
+	public static class RayHit {
+
+		private final Block block;
+		private final BlockFace face;
+		private final Entity entity;
+		private final double distance;
+
+		private RayHit(final Block block, final BlockFace face, final Entity entity, final double distance) {
+			this.block = block;
+			this.face = face;
+			this.entity = entity;
+			this.distance = distance;
+		}
+
+		/**
+		 * @return The block that stopped the ray, or null if an entity was hit
+		 */
+		public Block getBlock() {
+			return this.block;
+		}
+
+		/**
+		 * @return The face of the block the ray entered through, or
+		 *         {@link BlockFace#SELF} if the ray started inside it
+		 */
+		public BlockFace getFace() {
+			return this.face;
+		}
+
+		/**
+		 * @return The entity that stopped the ray, or null if a block was hit
+		 */
+		public Entity getEntity() {
+			return this.entity;
+		}
+
+		/**
+		 * @return The distance from the origin to where the ray hit
+		 */
+		public double getDistance() {
+			return this.distance;
+		}
+	}
+
+	/**
+	 * Casts a ray from a location in the direction it is facing.
+	 *
+	 * @param origin The start of the ray
+	 * @param maxDistance How far the ray travels
+	 * @param filter Decides which blocks the ray passes through
+	 * @return The first block the ray could not pass through, or null if
+	 *         there was none within the distance
+	 */
+	public static RayHit cast(final Location origin, final double maxDistance, final BlockFilter filter) {
+		final Vector direction = origin.getDirection();
+		return cast(origin.getWorld(), origin.getX(), origin.getY(), origin.getZ(), direction.getX(), direction.getY(), direction.getZ(), maxDistance, filter);
+	}
+
+	/**
+	 * Casts a ray through the block grid.
+	 *
+	 * @param world The world
+	 * @param ox The x coordinate of the start of the ray
+	 * @param oy The y coordinate of the start of the ray
+	 * @param oz The z coordinate of the start of the ray
+	 * @param dx The x component of the ray direction
+	 * @param dy The y component of the ray direction
+	 * @param dz The z component of the ray direction
+	 * @param maxDistance How far the ray travels
+	 * @param filter Decides which blocks the ray passes through
+	 * @return The first block the ray could not pass through, or null if
+	 *         there was none within the distance
+	 */
+	public static RayHit cast(final World world, final double ox, final double oy, final double oz, double dx, double dy, double dz, final double maxDistance, final BlockFilter filter) {
+		final double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		if (length == 0) {
+			final Block block = world.getBlockAt((int) Math.floor(ox), (int) Math.floor(oy), (int) Math.floor(oz));
+			return filter.isPassable(block) ? null : new RayHit(block, BlockFace.SELF, null, 0);
+		}
+		dx /= length;
+		dy /= length;
+		dz /= length;
+
+		int x = (int) Math.floor(ox);
+		int y = (int) Math.floor(oy);
+		int z = (int) Math.floor(oz);
+
+		final int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+		final int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+		final int stepZ = dz > 0 ? 1 : dz < 0 ? -1 : 0;
+
+		final double deltaX = stepX == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dx);
+		final double deltaY = stepY == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dy);
+		final double deltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dz);
+
+		// The distance along the ray to the next block boundary on each axis
+		double maxX = stepX > 0 ? (x + 1 - ox) * deltaX : stepX < 0 ? (ox - x) * deltaX : Double.POSITIVE_INFINITY;
+		double maxY = stepY > 0 ? (y + 1 - oy) * deltaY : stepY < 0 ? (oy - y) * deltaY : Double.POSITIVE_INFINITY;
+		double maxZ = stepZ > 0 ? (z + 1 - oz) * deltaZ : stepZ < 0 ? (oz - z) * deltaZ : Double.POSITIVE_INFINITY;
+
+		BlockFace face = BlockFace.SELF;
+		double distance = 0;
+		while (distance <= maxDistance) {
+			final Block block = world.getBlockAt(x, y, z);
+			if (!filter.isPassable(block)) {
+				return new RayHit(block, face, null, distance);
+			}
+
+			if (maxX < maxY && maxX < maxZ) {
+				x += stepX;
+				distance = maxX;
+				maxX += deltaX;
+				face = stepX > 0 ? BlockFace.WEST : BlockFace.EAST;
+			} else if (maxY < maxZ) {
+				y += stepY;
+				distance = maxY;
+				maxY += deltaY;
+				face = stepY > 0 ? BlockFace.DOWN : BlockFace.UP;
+			} else {
+				z += stepZ;
+				distance = maxZ;
+				maxZ += deltaZ;
+				face = stepZ > 0 ? BlockFace.NORTH : BlockFace.SOUTH;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Casts a ray that can be stopped by both blocks and entities. Entities are
+	 * tested by intersecting the ray with their bounding box, grown by the
+	 * margin on every side.
+	 *
+	 * @param origin The start of the ray
+	 * @param maxDistance How far the ray travels
+	 * @param margin How much to grow every entity's bounding box by
+	 * @param blockFilter Decides which blocks the ray passes through
+	 * @param entityFilter Decides which entities can stop the ray
+	 * @return The closest block or entity hit, or null if there was none
+	 *         within the distance
+	 */
+	public static RayHit castEntities(final Location origin, final double maxDistance, final double margin, final BlockFilter blockFilter, final Predicate<Entity> entityFilter) {
+		final Vector direction = origin.getDirection().normalize();
+		final double ox = origin.getX();
+		final double oy = origin.getY();
+		final double oz = origin.getZ();
+		final double dx = direction.getX();
+		final double dy = direction.getY();
+		final double dz = direction.getZ();
+
+		final RayHit blockHit = cast(origin.getWorld(), ox, oy, oz, dx, dy, dz, maxDistance, blockFilter);
+		double closest = blockHit == null ? maxDistance : blockHit.getDistance();
+		Entity target = null;
+
+		final Location center = new Location(origin.getWorld(), ox + dx * closest / 2, oy + dy * closest / 2, oz + dz * closest / 2);
+		final List<Entity> candidates = GeneralMethods.getEntitiesAroundPoint(center, closest / 2 + margin, entityFilter, new ArrayList<>());
+		for (final Entity entity : candidates) {
+			final BoundingBox box = entity.getBoundingBox();
+			final double distance = intersect(ox, oy, oz, dx, dy, dz, box.getMinX() - margin, box.getMinY() - margin, box.getMinZ() - margin, box.getMaxX() + margin, box.getMaxY() + margin, box.getMaxZ() + margin);
+			if (distance >= 0 && distance < closest) {
+				closest = distance;
+				target = entity;
+			}
+		}
+
+		if (target != null) {
+			return new RayHit(null, null, target, closest);
+		}
+		return blockHit;
+	}
+
+	/**
+	 * Intersects a ray with an axis aligned box using the slab method.
+	 *
+	 * @return The distance along the ray to the box, 0 if the ray starts
+	 *         inside it, or -1 if the ray misses it
+	 */
+	private static double intersect(final double ox, final double oy, final double oz, final double dx, final double dy, final double dz, final double minX, final double minY, final double minZ, final double maxX, final double maxY, final double maxZ) {
+		double near = 0;
+		double far = Double.POSITIVE_INFINITY;
+
+		if (dx == 0) {
+			if (ox < minX || ox > maxX) {
+				return -1;
+			}
+		} else {
+			final double t1 = (minX - ox) / dx;
+			final double t2 = (maxX - ox) / dx;
+			near = Math.max(near, Math.min(t1, t2));
+			far = Math.min(far, Math.max(t1, t2));
+		}
+
+		if (dy == 0) {
+			if (oy < minY || oy > maxY) {
+				return -1;
+			}
+		} else {
+			final double t1 = (minY - oy) / dy;
+			final double t2 = (maxY - oy) / dy;
+			near = Math.max(near, Math.min(t1, t2));
+			far = Math.min(far, Math.max(t1, t2));
+		}
+
+		if (dz == 0) {
+			if (oz < minZ || oz > maxZ) {
+				return -1;
+			}
+		} else {
+			final double t1 = (minZ - oz) / dz;
+			final double t2 = (maxZ - oz) / dz;
+			near = Math.max(near, Math.min(t1, t2));
+			far = Math.min(far, Math.max(t1, t2));
+		}
+
+		return near <= far ? near : -1;
+	}
+
+	/**
+	 * Checks if the blocks next to a block in the direction a ray is travelling
+	 * form a diagonal wall the ray would have to squeeze through. This is the
+	 * check done by {@link GeneralMethods#checkDiagonalWall(Location, Vector)}.
+	 */
+	public static boolean isDiagonalWall(final Block block, final double dx, final double dy, final double dz) {
+		final boolean x = dx != 0 && block.getRelative(dx > 0 ? BlockFace.EAST : BlockFace.WEST).getType().isSolid();
+		final boolean y = dy != 0 && block.getRelative(dy > 0 ? BlockFace.UP : BlockFace.DOWN).getType().isSolid();
+		final boolean z = dz != 0 && block.getRelative(dz > 0 ? BlockFace.SOUTH : BlockFace.NORTH).getType().isSolid();
+		return (x && z) || (x && y) || (y && z);
+	}
+
+	/**
+	 * @param material The material
+	 * @return true if the material is in {@link ElementalAbility#getTransparentMaterials()}
+	 */
+	public static boolean isTransparent(final Material material) {
+		return ElementalAbility.getSharedTransparentMaterialSet().contains(material);
+	}
+}
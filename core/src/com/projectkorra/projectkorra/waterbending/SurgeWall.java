@@ -195,7 +195,7 @@ public class SurgeWall extends WaterAbility {
 
 	public void moveWater() {
 		if (this.sourceBlock != null) {
-			this.targetDestination = this.player.getTargetBlock(getTransparentMaterialSet(), (int) this.range).getLocation();
+			this.targetDestination = this.player.getTargetBlock(getSharedTransparentMaterialSet(), (int) this.range).getLocation();
 
 			if (this.targetDestination.distanceSquared(this.location) <= 1) {
 				this.progressing = false;
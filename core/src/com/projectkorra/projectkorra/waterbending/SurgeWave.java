@@ -224,7 +224,7 @@ public class SurgeWave extends WaterAbility {
 
 			final Entity target = GeneralMethods.getTargetedEntity(this.player, this.range);
 			if (target == null) {
-				this.targetDestination = this.player.getTargetBlock(getTransparentMaterialSet(), (int) this.range).getLocation();
+				this.targetDestination = this.player.getTargetBlock(getSharedTransparentMaterialSet(), (int) this.range).getLocation();
 			} else {
 				this.targetDestination = ((LivingEntity) target).getEyeLocation();
 			}
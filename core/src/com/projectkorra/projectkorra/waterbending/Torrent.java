@@ -380,7 +380,7 @@ public class Torrent extends WaterAbility {
 		}
 
 		final Entity target = GeneralMethods.getTargetedEntity(this.player, this.range, this.hurtEntities);
-		Location targetLoc = this.player.getTargetBlock(getTransparentMaterialSet(), (int) this.range).getLocation();
+		Location targetLoc = this.player.getTargetBlock(getSharedTransparentMaterialSet(), (int) this.range).getLocation();
 		if (target != null) {
 			targetLoc = target.getLocation();
 		}
@@ -31,6 +31,7 @@ import com.projectkorra.projectkorra.ability.BloodAbility;
 import com.projectkorra.projectkorra.attribute.Attribute;
 import com.projectkorra.projectkorra.object.HorizontalVelocityTracker;
 import com.projectkorra.projectkorra.util.DamageHandler;
+import com.projectkorra.projectkorra.util.StatusFlags;
 import com.projectkorra.projectkorra.util.TempPotionEffect;
 
 public class Bloodbending extends BloodAbility {
@@ -101,7 +102,7 @@ public class Bloodbending extends BloodAbility {
 					}
 					DamageHandler.damageEntity(entity, 0, this);
 					AirAbility.breakBreathbendingHold(entity);
-					TARGETED_ENTITIES.put(entity, player);
+					bloodbend(entity, player);
 				}
 			}
 		} else {
@@ -142,7 +143,7 @@ public class Bloodbending extends BloodAbility {
 			DamageHandler.damageEntity(this.target, 0, this);
 			HorizontalVelocityTracker.remove(this.target);
 			AirAbility.breakBreathbendingHold(this.target);
-			TARGETED_ENTITIES.put(this.target, player);
+			bloodbend(this.target, player);
 		}
 		this.start();
 	}
@@ -197,7 +198,7 @@ public class Bloodbending extends BloodAbility {
 		if (!this.canBeUsedOnUndeadMobs) {
 			for (final Entity entity : TARGETED_ENTITIES.keySet()) {
 				if (GeneralMethods.isUndead(entity)) {
-					TARGETED_ENTITIES.remove(entity);
+					release(entity);
 				}
 			}
 		}
@@ -233,11 +234,11 @@ public class Bloodbending extends BloodAbility {
 				entities.add(entity);
 				if (!TARGETED_ENTITIES.containsKey(entity) && !BLOODLESS_ENTITIES.contains(entity.getType())) {
 					DamageHandler.damageEntity(entity, 0, this);
-					TARGETED_ENTITIES.put(entity, this.player);
+					bloodbend(entity, this.player);
 				}
 
 				if (this.player.getWorld() != entity.getLocation().getWorld()) {
-					TARGETED_ENTITIES.remove(entity);
+					release(entity);
 					continue;
 				}
                 GeneralMethods.setVelocity(this, entity, this.vector);
@@ -254,7 +255,7 @@ public class Bloodbending extends BloodAbility {
 
 			for (final Entity entity : TARGETED_ENTITIES.keySet()) {
 				if (!entities.contains(entity) && TARGETED_ENTITIES.get(entity) == this.player) {
-					TARGETED_ENTITIES.remove(entity);
+					release(entity);
 				}
 			}
 		} else {
@@ -262,17 +263,17 @@ public class Bloodbending extends BloodAbility {
 				if (entity instanceof Player) {
 					final BendingPlayer targetBPlayer = BendingPlayer.getBendingPlayer((Player) entity);
 					if (targetBPlayer != null && !targetBPlayer.canBeBloodbent()) {
-						TARGETED_ENTITIES.remove(entity);
+						release(entity);
 						continue;
 					} else if (targetBPlayer.isAvatarState()) {
-						TARGETED_ENTITIES.remove(entity);
+						release(entity);
 						continue;
 					}
 				}
 
 				final Location newLocation = entity.getLocation();
 				if (this.player.getWorld() != newLocation.getWorld()) {
-					TARGETED_ENTITIES.remove(entity);
+					release(entity);
 					continue;
 				}
 			}
@@ -350,15 +351,26 @@ public class Bloodbending extends BloodAbility {
 		}
 		for (final Entity e : TARGETED_ENTITIES.keySet()) {
 			if (TARGETED_ENTITIES.get(e) == this.player) {
-				TARGETED_ENTITIES.remove(e);
+				release(e);
 			}
 		}
 
 		super.remove();
 	}
 
+	private static void bloodbend(final Entity entity, final Player bender) {
+		TARGETED_ENTITIES.put(entity, bender);
+		StatusFlags.set(entity, StatusFlags.BLOODBENT, true);
+	}
+
+	private static void release(final Entity entity) {
+		if (TARGETED_ENTITIES.remove(entity) != null) {
+			StatusFlags.set(entity, StatusFlags.BLOODBENT, false);
+		}
+	}
+
 	public static boolean isBloodbent(final Entity entity) {
-		return entity != null ? TARGETED_ENTITIES.containsKey(entity) : null;
+		return StatusFlags.has(entity, StatusFlags.BLOODBENT);
 	}
 
 	public static Location getBloodbendingLocation(final Entity entity) {